@@ -10,6 +10,16 @@ public class SystemData {
     public static int dataXPosition = 3;
     public static int dataZPosition = 4;
     public static int velocityPosition = 5;
+    public static int accelerationPosition = 6;
+
+    // Direction of the velocity and acceleration as unit vectors scaled by 10000. As with the position, the
+    // first two components in the file are stored in Y then X order
+    public static int velocityYPosition = 7;
+    public static int velocityXPosition = 8;
+    public static int velocityZPosition = 9;
+    public static int accelerationYPosition = 10;
+    public static int accelerationXPosition = 11;
+    public static int accelerationZPosition = 12;
 
     public static int numberOfFields = 13;
 
@@ -1,5 +1,7 @@
 package football.visualiser.controllers;
 
+import football.visualiser.models.MatchParameterDetector;
+import football.visualiser.models.MatchParameters;
 import football.visualiser.view.AnalyseView;
 import football.visualiser.view.MatchView;
 import football.visualiser.view.StartView;
@@ -8,6 +10,7 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.Button;
 import javafx.scene.control.TextField;
+import javafx.scene.text.Text;
 import javafx.stage.Screen;
 import javafx.stage.Stage;
 
@@ -37,12 +40,17 @@ public class  AnalyseController {
     private boolean analysisStarted;
     private Stage progressStage;
     private Thread analyseThread;
+    private Task<MatchParameters> detectTask;
 
     // Buttons for AnalyseView
     @FXML
     private Button closeButton;
     @FXML
     private Button analyseButton;
+    @FXML
+    private Button detectButton;
+    @FXML
+    private Text detectStatus;
 
     // User input Nodes
     @FXML
@@ -65,6 +73,8 @@ public class  AnalyseController {
     private TextField textFieldForStartY;
     @FXML
     private TextField textFieldForEndY;
+    @FXML
+    private TextField textFieldForTimeBudget;
 
     public AnalyseController(File selectedFile) {
         this.selectedFile = selectedFile;
@@ -78,6 +88,91 @@ public class  AnalyseController {
      */
     public void setAnalyseView(AnalyseView analyseView) {
         this.analyseView = analyseView;
+        detectMatchParameters(false);
+    }
+
+    /**
+     * Handles "Detect" Button.
+     * Detects the match properties again, replacing anything already entered.
+     */
+    @FXML
+    public void handleDetectButton() {
+        detectMatchParameters(true);
+    }
+
+    /**
+     * Estimates the football IDs, pitch coordinates, and half start and end times by sampling the selected file
+     * in a background thread, then fills in the form with them
+     *
+     * @param overwrite     Whether to replace properties the user has already entered
+     */
+    private void detectMatchParameters(boolean overwrite) {
+        cancelDetection();
+        Task<MatchParameters> detectTask = new Task<MatchParameters>(){
+            @Override
+            protected MatchParameters call() throws Exception {
+                return new MatchParameterDetector(selectedFile.toString()).detect();
+            }
+        };
+
+        detectTask.setOnRunning(e -> {
+            detectButton.setDisable(true);
+            detectStatus.setText("Detecting match properties...");
+        });
+
+        detectTask.setOnSucceeded(e -> {
+            MatchParameters parameters = detectTask.getValue();
+            int[] pitchCoordinates = parameters.getPitchCoordinates();
+            String[] matchTimeStamps = parameters.getMatchTimeStamps();
+
+            fillTextField(textFieldForStartX, String.valueOf(pitchCoordinates[0]), overwrite);
+            fillTextField(textFieldForEndX, String.valueOf(pitchCoordinates[1]), overwrite);
+            fillTextField(textFieldForStartY, String.valueOf(pitchCoordinates[2]), overwrite);
+            fillTextField(textFieldForEndY, String.valueOf(pitchCoordinates[3]), overwrite);
+            fillTextField(textFieldFor1startTime, matchTimeStamps[0], overwrite);
+            fillTextField(textFieldFor1endTime, matchTimeStamps[1], overwrite);
+            fillTextField(textFieldFor2startTime, matchTimeStamps[2], overwrite);
+            fillTextField(textFieldFor2endTime, matchTimeStamps[3], overwrite);
+
+            StringBuilder footballIDs = new StringBuilder();
+            for (int footballID : parameters.getFootballIDs()) {
+                if (footballIDs.length() > 0) footballIDs.append(",");
+                footballIDs.append(footballID);
+            }
+            fillTextField(textFieldForID, footballIDs.toString(), overwrite);
+
+            detectButton.setDisable(false);
+            detectStatus.setText(String.format("Properties detected in %.1f s, please check them",
+                    parameters.getDetectionTime() / 1000.0));
+        });
+
+        detectTask.setOnFailed(e -> {
+            detectTask.getException().printStackTrace();
+            detectButton.setDisable(false);
+            detectStatus.setText("Unable to detect the match properties");
+        });
+
+        this.detectTask = detectTask;
+        Thread detectThread = new Thread(detectTask);
+        detectThread.setDaemon(true);
+        detectThread.start();
+    }
+
+    /**
+     * Stops detecting the match properties, such as when the user leaves the form, so that the file is no longer
+     * read in the background
+     */
+    private void cancelDetection() {
+        if (detectTask != null) {
+            detectTask.cancel();
+            detectTask = null;
+        }
+    }
+
+    private void fillTextField(TextField textField, String value, boolean overwrite) {
+        if (overwrite || textField.getText().trim().isEmpty()) {
+            textField.setText(value);
+        }
     }
 
     /**
@@ -88,6 +183,7 @@ public class  AnalyseController {
      */
     @FXML
     public void handleCloseButton() throws Exception {
+        cancelDetection();
         selectedFile = null;
         stage = (Stage) closeButton.getScene().getWindow();
         StartView startView = new StartView();
@@ -107,6 +203,7 @@ public class  AnalyseController {
         if(analysisStarted) return;
 
         analysisStarted = true;
+        cancelDetection();
 
         stage = (Stage) analyseButton.getScene().getWindow();
 
@@ -117,7 +214,8 @@ public class  AnalyseController {
             @Override
             protected Void call() throws Exception {
                 pitchController.setupMatch(
-                    matchView, selectedFile.toString(), getMatchTimeStamps(), getPitchCoordinates(), getFootballIDs());
+                    matchView, selectedFile.toString(), getMatchTimeStamps(), getPitchCoordinates(), getFootballIDs(),
+                    getAnalysisTimeBudget());
                 return null;
             }
         };
@@ -219,6 +317,18 @@ public class  AnalyseController {
         return IDs;
     }
 
+    /**
+     * Gets the analysis time budget from its textField. The budget is optional
+     *
+     * @return Time budget in milliseconds, or 0 if none was entered
+     */
+    public int getAnalysisTimeBudget() {
+        String timeBudget = textFieldForTimeBudget.getText().trim();
+        if (timeBudget.isEmpty()) return 0;
+
+        return (int) (Double.parseDouble(timeBudget) * 1000);
+    }
+
     /**
      * Gets Pitch Coordinates from textFields.
      *
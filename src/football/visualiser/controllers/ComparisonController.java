@@ -0,0 +1,294 @@
+package football.visualiser.controllers;
+
+import football.visualiser.interfaces.IMatchModelListener;
+import football.visualiser.models.AnalysisSampler;
+import football.visualiser.models.DataAnalyser;
+import football.visualiser.models.DataProperty;
+import football.visualiser.models.EntityAssignment;
+import football.visualiser.models.FrameStore;
+import football.visualiser.models.MatchComparison;
+import football.visualiser.models.MatchData;
+import football.visualiser.models.MatchModel;
+import football.visualiser.models.Pitch;
+import football.visualiser.models.PlaybackTrack;
+import football.visualiser.view.ComparisonView;
+import football.visualiser.view.PitchCanvas;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.MouseEvent;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Comparison Controller</h1>
+ * Loads several matches to be played back side by side in a {@link ComparisonView}, and passes the playback
+ * controls of the view on to a {@link MatchComparison} which moves every match together.
+ *
+ * Only what is needed to play each match back is kept: the match is not analysed, and its playback track is built
+ * straight from the sampled frames of the match data, which are dropped once the track is built. Matches are
+ * loaded one after another so that only one set of frames is held at a time, and after loading each match takes
+ * up only its playback track, so memory stays bounded with {@link MatchComparison#MAX_MATCHES} matches open.
+ * Each match is then played back by the worker of its own match model
+ */
+public class ComparisonController {
+    private static final int NUDGE_LENGTH = 1000;
+
+    private ComparisonView comparisonView;
+    private final MatchComparison matchComparison = new MatchComparison();
+    // Set while the slider is moved to follow playback, so that the move is not taken as a seek
+    private boolean followingPlayback = false;
+    // Alignment last applied, which the alignment box goes back to if lining up on an event is cancelled
+    private String alignment = ComparisonView.ALIGN_BY_MINUTE;
+    private int shownSecond = -1;
+
+    /**
+     * Loads every match and adds its pitch to the view. Called off the JavaFX thread, before the view is shown
+     *
+     * @param comparisonView    Shows the matches
+     * @param matchProperties   Properties of each match to compare
+     * @throws IOException      If a match data file fails to load
+     */
+    public void setupMatches(ComparisonView comparisonView, List<DataProperty> matchProperties) throws IOException {
+        if(matchProperties.size() < 2 || matchProperties.size() > MatchComparison.MAX_MATCHES){
+            throw new IllegalArgumentException("Between 2 and " + MatchComparison.MAX_MATCHES
+                    + " matches can be compared");
+        }
+        this.comparisonView = comparisonView;
+        for(DataProperty matchProperty : matchProperties){
+            loadMatch(matchProperty);
+        }
+        setControlListeners();
+    }
+
+    /**
+     * Builds the playback track of a match and a match model to play it back
+     *
+     * @param matchProperty     Properties of the match
+     * @throws IOException      If the match data file fails to load
+     */
+    private void loadMatch(DataProperty matchProperty) throws IOException {
+        String path = matchProperty.getProperty("path");
+        String[] matchTimeStamps = matchProperty.getMatchTimeStamps();
+        int[] coordinates = matchProperty.getPitchCoordinates();
+        int[] footballIDs = matchProperty.getFootballIDs();
+
+        Pitch pitch = new Pitch(coordinates[PITCH_START_X], coordinates[PITCH_END_X],
+                coordinates[PITCH_START_Y], coordinates[PITCH_END_Y]);
+        DataAnalyser dataAnalyser = new DataAnalyser(footballIDs);
+        MatchData matchData = new MatchData(path, matchTimeStamps);
+        EntityAssignment assignment;
+        PlaybackTrack playbackTrack;
+        try{
+            assignment = dataAnalyser.assignEntities(path, matchTimeStamps);
+            FrameStore frames = FrameStore.load(matchData, footballIDs, AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+            playbackTrack = PlaybackTrack.fromFrames(frames, assignment, footballIDs, pitch,
+                    AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+        }catch (InterruptedException e){
+            throw new IOException("Interrupted while assigning players", e);
+        }finally {
+            matchData.close();
+        }
+
+        int match = comparisonView.addMatch(matchProperty.getProperty("name", path),
+                pitch.getX1(), pitch.getY1(), pitch.getWidth(), pitch.getHeight());
+        for(Map.Entry<Integer, Team> player : assignment.getTeams().entrySet()){
+            int ID = player.getKey();
+            comparisonView.addPlayer(match, ID, player.getValue(),
+                    ID == assignment.getRedGoalKeeperID() || ID == assignment.getBlueGoalKeeperID());
+        }
+        for(int footballID : footballIDs){
+            comparisonView.addFootball(match, footballID);
+        }
+
+        ComparedMatch comparedMatch = new ComparedMatch(comparisonView.getPitchCanvas(match));
+        MatchModel matchModel = new MatchModel(matchData, dataAnalyser, pitch, comparedMatch);
+        matchModel.addMatchModelObserver(comparedMatch);
+        matchModel.setPlaybackTrack(playbackTrack);
+        matchComparison.addMatch(matchModel, matchData.getStartEndTimeStamps(),
+                matchData.getTotalMatchTimeInMilliseconds());
+    }
+
+    private void setControlListeners(){
+        comparisonView.getPlayButton().setOnAction(e -> togglePlaying());
+        comparisonView.getStepButton(false).setOnAction(e -> matchComparison.stepFrame(false));
+        comparisonView.getStepButton(true).setOnAction(e -> matchComparison.stepFrame(true));
+        comparisonView.getSpeedButton(false).setOnAction(e ->
+                comparisonView.setSpeedText(matchComparison.changeSpeed(false)));
+        comparisonView.getSpeedButton(true).setOnAction(e ->
+                comparisonView.setSpeedText(matchComparison.changeSpeed(true)));
+
+        for(int match = 0; match < matchComparison.getNumberOfMatches(); match++){
+            int nudgedMatch = match;
+            comparisonView.getNudgeButton(match, false).setOnAction(e -> nudge(nudgedMatch, -NUDGE_LENGTH));
+            comparisonView.getNudgeButton(match, true).setOnAction(e -> nudge(nudgedMatch, NUDGE_LENGTH));
+        }
+
+        comparisonView.getAlignmentBox().setOnAction(e -> align(comparisonView.getAlignmentBox().getValue()));
+
+        comparisonView.getSeekSlider().valueProperty().addListener((observable, oldValue, newValue) -> {
+            if(followingPlayback) return;
+            double start = matchComparison.getStartTime();
+            matchComparison.seek(start + newValue.doubleValue() * (matchComparison.getEndTime() - start));
+        });
+
+        comparisonView.getScene().setOnKeyPressed(e -> {
+            if(e.getCode() == KeyCode.SPACE) togglePlaying();
+            else if(e.getCode() == KeyCode.LEFT) matchComparison.stepFrame(false);
+            else if(e.getCode() == KeyCode.RIGHT) matchComparison.stepFrame(true);
+            else return;
+            e.consume();
+        });
+    }
+
+    /**
+     * Starts drawing the matches, showing the first frame of each
+     */
+    public void start(){
+        matchComparison.seek(0);
+        comparisonView.start(this::updateControls);
+        comparisonView.getStage().setOnHidden(e -> comparisonView.stop());
+    }
+
+    private void togglePlaying(){
+        matchComparison.setIsPlaying(!matchComparison.getIsPlaying());
+        comparisonView.setPlayButtonText(matchComparison.getIsPlaying());
+    }
+
+    /**
+     * Lines the matches up as chosen in the view. Lining up on an event asks for the time of the event in each match,
+     * starting from the time each match is at now
+     *
+     * @param chosen    Alignment chosen in the view
+     */
+    private void align(String chosen){
+        if(chosen == null || chosen.equals(alignment)) return;
+
+        if(ComparisonView.ALIGN_BY_EVENT.equals(chosen)){
+            double time = matchComparison.getTime();
+            String[] currentTimes = new String[matchComparison.getNumberOfMatches()];
+            for(int match = 0; match < currentTimes.length; match++){
+                currentTimes[match] = formatMatchTime(Math.max(0, matchComparison.getMatchTime(match, time)));
+            }
+            Optional<double[]> eventTimes = comparisonView.showEventTimeDialog(currentTimes);
+            if(!eventTimes.isPresent()){
+                // Going back to the last alignment fires this again, which then returns straight away
+                comparisonView.getAlignmentBox().setValue(alignment);
+                return;
+            }
+            matchComparison.alignByEvent(eventTimes.get());
+        }else if(ComparisonView.ALIGN_BY_SECOND_HALF.equals(chosen)){
+            matchComparison.alignBySecondHalf();
+        }else{
+            matchComparison.alignByMatchMinute();
+        }
+        alignment = chosen;
+        matchComparison.seek(matchComparison.getTime());
+        shownSecond = -1;
+    }
+
+    /**
+     * Moves one match against the others, showing the change straight away when paused
+     *
+     * @param match     Index of the match
+     * @param time      Milliseconds to move the match forwards, or backwards if negative
+     */
+    private void nudge(int match, int time){
+        matchComparison.nudge(match, time);
+        if(!matchComparison.getIsPlaying()) matchComparison.seek(matchComparison.getTime());
+        shownSecond = -1;
+    }
+
+    /**
+     * Called on each pulse of the view, after the pitches are drawn, to stop playback at the end of the matches and
+     * move the seek bar and times along with playback
+     */
+    private void updateControls(){
+        if(matchComparison.stopAtEnd()) comparisonView.setPlayButtonText(false);
+
+        double time = matchComparison.getTime();
+        double start = matchComparison.getStartTime();
+        double length = Math.max(1, matchComparison.getEndTime() - start);
+        if(!comparisonView.getSeekSlider().isValueChanging()){
+            followingPlayback = true;
+            comparisonView.getSeekSlider().setValue((time - start) / length);
+            followingPlayback = false;
+        }
+
+        // The times are only written out again once a second, as they show no more than whole seconds
+        int second = (int) Math.floor(time / 1000);
+        if(second == shownSecond) return;
+        shownSecond = second;
+        comparisonView.setTimeText(formatMatchTime(time));
+        for(int match = 0; match < matchComparison.getNumberOfMatches(); match++){
+            double offset = matchComparison.getOffset(match);
+            String text = formatMatchTime(matchComparison.getMatchTime(match, time));
+            if(offset != 0) text += String.format(" (%+.0fs)", offset / 1000);
+            comparisonView.setMatchTimeText(match, text);
+        }
+    }
+
+    /**
+     * @param time  Milliseconds since the start of the match, which may be negative before the match starts
+     * @return      Time in the format MM:SS
+     */
+    private String formatMatchTime(double time){
+        int seconds = (int) Math.floor(Math.abs(time) / 1000);
+        return String.format("%s%02d:%02d", time < 0 ? "-" : "", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * Passes the positions played back for one match to the canvas it is drawn on. The comparison view has its
+     * own seek bar and times, so the rest of what a match model tells its listener is not needed
+     */
+    private static class ComparedMatch implements IMatchModelListener {
+        private final PitchCanvas pitchCanvas;
+
+        ComparedMatch(PitchCanvas pitchCanvas){
+            this.pitchCanvas = pitchCanvas;
+        }
+
+        @Override
+        public void updatePosition(int ID, int x, int y){
+            pitchCanvas.updatePosition(ID, x, y);
+        }
+
+        @Override
+        public void updateNextPosition(int ID, int x, int y){
+            pitchCanvas.updateNextPosition(ID, x, y);
+        }
+
+        @Override
+        public void publishPositions(int currentMillisecond, int nextMillisecond, double clockTime, long clockNanos,
+                                     double clockRate){
+            pitchCanvas.publish(currentMillisecond, nextMillisecond, clockTime, clockNanos, clockRate);
+        }
+
+        @Override
+        public void handleMouseHover(String description, MouseEvent event){
+        }
+
+        @Override
+        public void handleMousePressed(double timeRatio){
+        }
+
+        @Override
+        public void handleMouseReleased(double timeRatio){
+        }
+
+        @Override
+        public void handleMouseExited(){
+        }
+
+        @Override
+        public void updateCursorPosition(int currentTimeMilliseconds){
+        }
+
+        @Override
+        public void updateGoalCount(int currentMillisecond){
+        }
+    }
+}
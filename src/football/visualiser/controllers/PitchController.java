@@ -2,6 +2,7 @@ package football.visualiser.controllers;
 import football.visualiser.interfaces.IFootballSensor;
 import football.visualiser.interfaces.IMatchData;
 import football.visualiser.interfaces.IMatchModelListener;
+import football.visualiser.interfaces.IPlayerClickListener;
 import football.visualiser.interfaces.IPlayerSensor;
 import football.visualiser.models.*;
 import football.visualiser.models.entities.Football;
@@ -9,14 +10,17 @@ import football.visualiser.models.entities.GoalKeeper;
 import football.visualiser.models.entities.Player;
 import football.visualiser.view.*;
 import javafx.application.Platform;
+import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
-import javafx.scene.input.KeyCode;
+import javafx.scene.control.ToggleButton;
+import javafx.scene.image.Image;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
 import javafx.stage.Stage;
 
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -34,13 +38,21 @@ import static football.visualiser.view.Highlight.HighlightType.*;
  */
 
 
-public class PitchController implements IMatchModelListener {
+public class PitchController implements IMatchModelListener, IPlayerClickListener {
 
     private MatchView matchView;
     private IMatchData matchData;
     private Pitch pitch;
     private MatchModel matchModel;
     private DataAnalyser dataAnalyser;
+    private SeekThumbnails seekThumbnails;
+    private EntityAssignment entityAssignment;
+    // Shortest loop which can be played, in milliseconds
+    private static final int MIN_LOOP_LENGTH = 1000;
+    // Time of the first mark of a loop in milliseconds, or -1 if no mark has been made
+    private double loopMark = -1;
+    private boolean looping = false;
+    private final int PRE_SPRINT_MILLISECONDS = 2000;
     public PitchController(){};
 
     /**
@@ -52,43 +64,104 @@ public class PitchController implements IMatchModelListener {
      * @param matchTimeStamps       Time stamps of when the first half and second half starts and ends
      * @param pitchCoordinates      X and Y coordinate of where the pitch starts and ends
      * @param footballIDs           Which entity IDs are footballs
+     * @param analysisTimeBudget    How long, in milliseconds, the analysis should take, or 0 for no budget
      * @throws IOException          If the match data file fails to load or if the match view fails
      *                              to initialise
      */
     public void setupMatch(MatchView matchView, String matchDataFileLocation, String[] matchTimeStamps,
-                           int[] pitchCoordinates, int[] footballIDs) throws IOException {
+                           int[] pitchCoordinates, int[] footballIDs, int analysisTimeBudget) throws IOException {
         this.matchData = new MatchData(matchDataFileLocation, matchTimeStamps);
         this.matchView = matchView;
         pitch = new Pitch(pitchCoordinates[PITCH_START_X], pitchCoordinates[PITCH_END_X],
                 pitchCoordinates[PITCH_START_Y], pitchCoordinates[PITCH_END_Y]);
         matchView.setPitchRatio(pitch.getRatio());
+        matchView.setPitchBounds(pitch.getX1(), pitch.getY1(), pitch.getWidth(), pitch.getHeight());
+        matchView.setPlayerClickListener(this);
 
         dataAnalyser = new DataAnalyser(footballIDs);
 
         matchModel = new MatchModel(matchData, dataAnalyser, pitch, this);
         matchModel.addMatchModelObserver(this);
+        AnalysisMetrics analysisMetrics = matchModel.getAnalysisMetrics();
+        analysisMetrics.register(new File(matchDataFileLocation).getName());
+        analysisMetrics.start();
+        matchModel.getPlaybackMetrics().register(new File(matchDataFileLocation).getName());
+        matchView.setPlaybackMetrics(matchModel.getPlaybackMetrics());
+        long setupStart = System.nanoTime();
         setSliderListener();
 
-        setupEntities();
+        long stageStart = System.nanoTime();
+        setupEntities(matchDataFileLocation, matchTimeStamps);
+        analysisMetrics.record(AnalysisMetrics.Stage.ASSIGN_ENTITIES, System.nanoTime() - stageStart);
         setPerformanceButtonListener();
+        setTeamHeatMapButtonListener();
 
+        matchModel.setAnalysisTimeBudget(analysisTimeBudget);
+        stageStart = System.nanoTime();
         matchModel.analyseMatchData(dataAnalyser, pitch);
+        analysisMetrics.record(AnalysisMetrics.Stage.ANALYSIS, System.nanoTime() - stageStart);
 
+        stageStart = System.nanoTime();
+        matchView.setSeekbarListener(this);
         addHighlightTimes(dataAnalyser.getRedTeam1_2_1Times(), RED_121_PASS);
         addHighlightTimes(dataAnalyser.getBlueTeam1_2_1Times(), BLUE_121_PASS);
         addHighlightTimes(dataAnalyser.getTackleTimes(), TACKLE);
         addHighlightTimes(dataAnalyser.getBlueTeamGoalTimes(), BLUE_GOAL);
         addHighlightTimes(dataAnalyser.getRedTeamGoalTimes(), RED_GOAL);
+        addHighlightTimes(convertToSeekbarRatios(matchModel.getSprintDetector().getAllStartTimes(),
+                PRE_SPRINT_MILLISECONDS), SPRINT);
 
         matchView.showAllHighlights();
+        analysisMetrics.record(AnalysisMetrics.Stage.HIGHLIGHTS, System.nanoTime() - stageStart);
+
+        stageStart = System.nanoTime();
+        Map<Integer, Team> teams = new HashMap<>();
+        for(Player player : matchModel.getPlayers().values()){
+            teams.put(player.getID(), player.getTeam());
+        }
+        seekThumbnails = new SeekThumbnails(matchModel.getPlaybackTrack(), teams,
+                pitch.getX1(), pitch.getY1(), pitch.getWidth(), pitch.getHeight());
+        analysisMetrics.record(AnalysisMetrics.Stage.SEEK_THUMBNAILS, System.nanoTime() - stageStart);
 
         updateOverviewPane();
 
         matchView.setEnterHandler(EnterBarHandler);
 
+        analysisMetrics.finish();
+        analysisMetrics.record(AnalysisMetrics.Stage.SETUP, System.nanoTime() - setupStart);
+        System.out.println(analysisMetrics.getSummary());
+        if(matchModel.getAnalysisSampler().hasTimeBudget()){
+            countSamplingBaseline(matchDataFileLocation, matchTimeStamps, pitchCoordinates, footballIDs);
+        }
+
         Platform.runLater(matchView::bindComponentsToScene);
     }
 
+    /**
+     * Counts the events detected at the default sample interval on a background thread, so that the sampling
+     * report can show how the time budget changed the detections without delaying playback
+     *
+     * @param matchDataFileLocation Location of the match data file
+     * @param matchTimeStamps       Time stamps of when the first half and second half starts and ends
+     * @param pitchCoordinates      X and Y coordinate of where the pitch starts and ends
+     * @param footballIDs           Which entity IDs are footballs
+     */
+    private void countSamplingBaseline(String matchDataFileLocation, String[] matchTimeStamps,
+                                       int[] pitchCoordinates, int[] footballIDs){
+        AnalysisSampler analysisSampler = matchModel.getAnalysisSampler();
+        Thread baselineThread = new Thread(() -> {
+            try{
+                analysisSampler.setBaseline(ParameterSweep.runBaseline(matchDataFileLocation, matchTimeStamps,
+                        entityAssignment, footballIDs, pitchCoordinates, dataAnalyser.getConfiguration()));
+                System.out.println(analysisSampler.getReport());
+            }catch (IOException e){
+                e.printStackTrace();
+            }
+        }, "Sampling baseline");
+        baselineThread.setDaemon(true);
+        baselineThread.start();
+    }
+
 
     /**
      * Takes a list of highlight times and instructs to match view to add the items to the seek bar
@@ -99,10 +172,98 @@ public class PitchController implements IMatchModelListener {
      */
     private void addHighlightTimes(List<Double> listOfTimes, Highlight.HighlightType highlightType){
         for(double time : listOfTimes){
-            matchView.addHighlight(highlightType, time, this);
+            matchView.addHighlight(highlightType, time);
         }
     }
 
+    /**
+     * Converts times in the match to positions on the seek bar
+     *
+     * @param times         Times in milliseconds
+     * @param leadTime      How many milliseconds before each time the position should be
+     * @return              Positions on the seek bar as ratios between 0.0 and 1.0
+     */
+    private List<Double> convertToSeekbarRatios(List<Integer> times, int leadTime){
+        List<Double> ratios = new ArrayList<>(times.size());
+        for(int time : times){
+            ratios.add(Math.max(0.0, dataAnalyser.convertMatchTimeToSeekbarRatio(matchData, time - leadTime)));
+        }
+        return ratios;
+    }
+
+    /**
+     * Describes each of a player's sprints or high intensity runs with its start and end time in the match, the
+     * distance covered, and the peak speed reached
+     *
+     * @param sprintIndex   The player's sprints or high intensity runs
+     * @return              One line of text per run
+     */
+    private List<String> describeSprints(SprintIndex sprintIndex){
+        List<String> descriptions = new ArrayList<>();
+        if(sprintIndex == null) return descriptions;
+
+        for(int i = 0; i < sprintIndex.size(); i++){
+            descriptions.add(String.format("%s - %s    %d m    %.1f m/s",
+                    formatMatchTime(sprintIndex.getStartTime(i)), formatMatchTime(sprintIndex.getEndTime(i)),
+                    sprintIndex.getDistance(i) / 1000, sprintIndex.getPeakSpeed(i) / 1000.0));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Describes how long the player spent in their defensive, middle and attacking thirds and in the opposing
+     * penalty area, using the spatio-temporal index built during the analysis
+     *
+     * @param playerID  ID of the player
+     * @param team      Team of the player
+     * @return          Description of the time spent in each zone
+     */
+    private List<String> describeZones(int playerID, Team team){
+        List<String> descriptions = new ArrayList<>();
+        SpatioTemporalIndex index = matchModel.getSpatioTemporalIndex();
+        if(index == null) return descriptions;
+
+        int[] halves = matchData.getStartEndTimeStamps();
+        String[] names = { "Defensive third", "Middle third", "Attacking third", "Opposing penalty area" };
+        int[] times = new int[names.length];
+        int timeOnPitch = 0;
+
+        for(int half = FIRST_HALF_START_TIME; half <= SECOND_HALF_START_TIME; half += 2){
+            // As set up by the pitch, red attack the right goal in the first half and the teams then swap
+            boolean attackingRight = (team == Team.RED) == (half == FIRST_HALF_START_TIME);
+            PitchRegion[] regions = {
+                    PitchRegion.third(pitch, attackingRight ? 0 : 2),
+                    PitchRegion.third(pitch, 1),
+                    PitchRegion.third(pitch, attackingRight ? 2 : 0),
+                    PitchRegion.penaltyArea(pitch, !attackingRight)
+            };
+            for(int i = 0; i < regions.length; i++){
+                times[i] += index.getTimeInRegion(playerID, regions[i], halves[half], halves[half + 1]);
+            }
+            timeOnPitch += index.getTimeOnPitch(playerID, halves[half], halves[half + 1]);
+        }
+
+        for(int i = 0; i < names.length; i++){
+            int seconds = times[i] / 1000;
+            descriptions.add(String.format("%s    %02d:%02d    %.0f%%", names[i], seconds / 60, seconds % 60,
+                    timeOnPitch == 0 ? 0.0 : 100.0 * times[i] / timeOnPitch));
+        }
+        return descriptions;
+    }
+
+    /**
+     * Formats a time stamp as the number of minutes and seconds into the match
+     *
+     * @param time  Time stamp in milliseconds
+     * @return      Time in the format MM:SS
+     */
+    private String formatMatchTime(int time){
+        int matchTime = (int) (dataAnalyser.convertMatchTimeToSeekbarRatio(matchData, time)
+                * matchData.getTotalMatchTimeInMilliseconds());
+        int seconds = matchTime / 1000;
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
     /**
      * Attaches a performance view button listener to performance button on the player card
      */
@@ -114,7 +275,14 @@ public class PitchController implements IMatchModelListener {
                         dataAnalyser.getIndividualSuccPasses(),
                         dataAnalyser.getIndividualBlueTackles(), dataAnalyser.getIndividualRedTackles(),
                         getPossessionTimes(Team.BLUE), getPossessionTimes(Team.RED),
-                        getDistance(matchView.getPlayerCard().getPlayerID())
+                        getDistance(matchView.getPlayerCard().getPlayerID()),
+                        matchModel.getKinematicsTracker().getPlayerKinematics(matchView.getPlayerCard().getPlayerID()),
+                        describeSprints(matchModel.getSprintDetector()
+                                .getSprintIndex(matchView.getPlayerCard().getPlayerID())),
+                        describeSprints(matchModel.getHighIntensityRunDetector()
+                                .getSprintIndex(matchView.getPlayerCard().getPlayerID())),
+                        describeZones(matchView.getPlayerCard().getPlayerID(),
+                                matchView.getPlayerCard().getPlayerTeam())
                 );
             } catch(IOException exc) {
                 exc.printStackTrace();
@@ -122,6 +290,28 @@ public class PitchController implements IMatchModelListener {
         });
     }
 
+    /**
+     * Attaches a listener to the heat map button on the player card, which switches between the heat map of the
+     * player and the heat map of their whole team
+     */
+    private void setTeamHeatMapButtonListener() {
+        matchView.getPlayerCard().getTeamHeatMapButton().setOnAction(e -> {
+            PlayerCard playerCard = matchView.getPlayerCard();
+            Player player = matchModel.getPlayers().get(playerCard.getPlayerID());
+            if(player == null) return;
+
+            if(playerCard.isShowingTeamHeatMap()){
+                playerCard.drawPlayerHeatMap(player.getHeatMap());
+            }else{
+                List<HeatMap> heatMaps = new ArrayList<>();
+                for(Player teamMate : matchModel.getPlayers().values()){
+                    if(teamMate.getTeam() == player.getTeam()) heatMaps.add(teamMate.getHeatMap());
+                }
+                playerCard.drawTeamHeatMap(HeatMap.combine(pitch, heatMaps));
+            }
+        });
+    }
+
     /**
      * Provides each player with a new heat map object
      * Author: Oscar Mason
@@ -135,25 +325,31 @@ public class PitchController implements IMatchModelListener {
     /**
      * Creates all the hashmaps for the players, goal keepers, and footballs
      * Author: Oscar Mason
+     *
+     * @param matchDataFileLocation Location of the match data file, which is sampled to assign the players
+     * @param matchTimeStamps       Time stamps of when the first half and second half starts and ends
+     * @throws IOException          If the match data file fails to load
      */
-    public void setupEntities(){
-        HashMap<Integer, int[]> startPositions;
+    public void setupEntities(String matchDataFileLocation, String[] matchTimeStamps) throws IOException {
         HashMap<Integer, IPlayerSensor<Player>> playerSensors = new HashMap<>();
         HashMap<Integer, IFootballSensor<Football>> footballSensors = new HashMap<>();
         HashMap<Integer, Player> players = new HashMap<>();
         HashMap<Integer, Football> footballs  = new HashMap<>();
 
-        startPositions = dataAnalyser.calculateEntityAverageStartPosition(matchData);
+        try {
+            entityAssignment = dataAnalyser.assignEntities(matchDataFileLocation, matchTimeStamps);
+        } catch (InterruptedException e) {
+            throw new IOException("Interrupted while assigning players", e);
+        }
 
-        dataAnalyser.createEntities(startPositions, playerSensors, footballSensors, players, footballs);
-        dataAnalyser.assignPlayersToTeams(pitch.getX2(), players, playerSensors);
+        dataAnalyser.createEntities(entityAssignment, playerSensors, footballSensors, players, footballs);
         matchModel.setEntityHashMaps(playerSensors, footballSensors, players, footballs);
 
         // For each player create a new player graphic and add a heat map
         for(Player player : players.values()){
             boolean isGoalKeeper = player instanceof GoalKeeper;
 
-            matchView.addPlayer(player.getTeam(), player.getID(), isGoalKeeper, handlePlayerClick);
+            matchView.addPlayer(player.getTeam(), player.getID(), isGoalKeeper);
 
             addHeatMapToPlayers(player);
         }
@@ -166,28 +362,27 @@ public class PitchController implements IMatchModelListener {
     /**
      * Handler for when the user clicks on a player to display the player card
      * Author: Oscar Mason
+     *
+     * @param playerID  ID of the player clicked on
+     * @param sceneX    X coordinate of the click in the scene
+     * @param sceneY    Y coordinate of the click in the scene
      */
-    private EventHandler<MouseEvent> handlePlayerClick = event -> {
-        Object source = event.getSource();
-        if(source instanceof PlayerGraphic){
-            PlayerGraphic playerGraphic = (PlayerGraphic) source;
-            matchView.showPlayerInfoPane(
-                    event.getSceneX(), event.getSceneY(),
-                    matchModel.getPlayers().get(playerGraphic.getPlayerID())
-            );
+    @Override
+    public void handlePlayerClick(int playerID, double sceneX, double sceneY){
+        Player player = matchModel.getPlayers().get(playerID);
+        if(player != null){
+            matchView.showPlayerInfoPane(sceneX, sceneY, player);
         }
-    };
+    }
 
     /**
-     * Handler to remove the player card when the user clicks on another any part of the scene
+     * Handler to remove the player card when the user clicks on another any part of the scene. If the user
+     * clicked on a player, the card is shown again by {@link #handlePlayerClick(int, double, double)}
      * @param e     Object which was clicked
      */
     @FXML
     public void handleEmptyAreaClick(MouseEvent e){
-        Object source = e.getSource();
-        if(!(source instanceof PlayerGraphic)){
-            matchView.removePlayerCard();
-        }
+        matchView.removePlayerCard();
     }
 
     /**
@@ -205,7 +400,7 @@ public class PitchController implements IMatchModelListener {
     /**
      * Listens for when the user drags and releases the slider along the seek bar
      * When the user drags the slider, it converts the current position on the seek bar to milliseconds and
-     * updates the time along the top
+     * updates the time along the top, and the pitch shows the players at that time
      *
      * When the user releases their mouse, the game is progressed to the relevant position in the match and
      * the game resumes. The seek time bubble which displays the time is also removed
@@ -214,18 +409,44 @@ public class PitchController implements IMatchModelListener {
      */
     private void setSliderListener(){
         matchView.getSeekSlider().setOnMouseReleased((e) -> {
-            matchModel.seek(matchView.getSeekSlider().getValue(),
-                    matchData.getStartEndTimeStamps(), matchData.getTotalMatchTimeInMilliseconds());
+            matchModel.seek(matchView.getSeekSlider().getValue(), matchData.getTotalMatchTimeInMilliseconds());
             matchView.removeSeekTime();
             matchView.setPlayButtonImage(true);
         });
 
         matchView.getSeekSlider().setOnMouseDragged((e) -> {
+                matchModel.preview(matchView.getSeekSlider().getValue(), matchData.getTotalMatchTimeInMilliseconds());
                 int seekTimeInSeconds = matchModel.convertSeekValueToMilliseconds(matchView.getSeekSlider().getValue(),
                         matchData.getTotalMatchTimeInMilliseconds());
+                matchView.setSeekThumbnail(getSeekThumbnail(seekTimeInSeconds));
                 matchView.setSeekTimePosition(e);
                 matchView.setSeekTimeText(seekTimeInSeconds);
         });
+
+        // Hovering over the seek bar previews the pitch at the time under the mouse
+        matchView.getSeekSlider().setOnMouseMoved((e) -> {
+            double seekValue = matchView.getHighlightTimeline().getRatioAt(e.getX());
+            int seekTime = matchModel.convertSeekValueToMilliseconds(seekValue,
+                    matchData.getTotalMatchTimeInMilliseconds());
+            matchView.setSeekThumbnail(getSeekThumbnail(seekTime));
+            matchView.setSeekTimePosition(e);
+            matchView.setSeekTimeText(seekTime);
+            matchView.showSeekTime();
+        });
+
+        matchView.getSeekSlider().setOnMouseExited((e) -> {
+            if(!e.isPrimaryButtonDown()) matchView.removeSeekTime();
+        });
+    }
+
+    /**
+     * @param seekTime  Time since the start of the match in milliseconds, not counting half time
+     * @return          Preview of the pitch at the time
+     */
+    private Image getSeekThumbnail(int seekTime){
+        if(seekThumbnails == null) return null;
+        return seekThumbnails.getThumbnail(
+                MatchData.toTimeStamp(matchData.getStartEndTimeStamps(), seekTime));
     }
 
     /**
@@ -264,14 +485,13 @@ public class PitchController implements IMatchModelListener {
         }else{
             matchModel.setIsPlaying(true);
             matchView.setPlayButtonImage(false);
-            matchModel.gameLoopStart();
         }
     }
 
     /**
      * Instructs the match view to update the position of the entity on screen to its new position
-     * The offset of the pitch's x and y start coordinates has to be taken into account as the
-     * pitch view itself starts from zero, but the match data provided may not
+     * Positions are passed on in the match data's coordinates; the view scales them to the size of the
+     * pitch when it draws each frame
      *
      * Author: Oscar Mason
      *
@@ -281,27 +501,49 @@ public class PitchController implements IMatchModelListener {
      */
     @Override
     public void updatePosition(int ID, int x, int y) {
-        double pitchWidthRatio = matchView.getPitchPane().getPrefWidth() / (double) pitch.getWidth();
-        double pitchHeightRatio = matchView.getPitchPane().getPrefHeight() / (double) pitch.getHeight();
-        int xFromZero = x - pitch.getX1();
-        int yFromZero = y - pitch.getY1();
-        xFromZero *= pitchWidthRatio;
-        yFromZero *= pitchHeightRatio;
-        matchView.updatePosition(ID, xFromZero, yFromZero);
+        matchView.updatePosition(ID, x, y);
+    }
+
+    /**
+     * Passes the position of an entity in the frame after the current one to the match view
+     *
+     * @param ID    ID of the entity to update
+     * @param x     x position of the entity in the next frame
+     * @param y     y position of the entity in the next frame
+     */
+    @Override
+    public void updateNextPosition(int ID, int x, int y) {
+        matchView.updateNextPosition(ID, x, y);
     }
 
     /**
-     * Handler to display a small popup with a description of the highlight type when the user hovers
+     * Instructs the match view to draw the positions updated for the current frame
+     *
+     * @param currentMillisecond    Time in the match the positions are from
+     * @param nextMillisecond       Time in the match of the next positions
+     * @param clockTime             Time on the playback clock in milliseconds
+     * @param clockNanos            System time in nanoseconds at which the clock read that time
+     * @param clockRate             Milliseconds of the match played per millisecond
+     */
+    @Override
+    public void publishPositions(int currentMillisecond, int nextMillisecond, double clockTime, long clockNanos,
+                                 double clockRate) {
+        matchView.publishPositions(currentMillisecond, nextMillisecond, clockTime, clockNanos, clockRate);
+    }
+
+    /**
+     * Handler to display a small popup with a description of the highlights when the user hovers
      * their mouse over a highlight in the seek bar
      *
      * Author: Oscar Mason
      *
-     * @param highlight     The highlight to assign the listener to
+     * @param description   Description of the highlights under the mouse
      * @param event         The mouse event that fires
      */
     @Override
-    public void handleMouseHover(Highlight highlight, MouseEvent event) {
-        matchView.setSeekTimeText(highlight.getHighlightTypeText());
+    public void handleMouseHover(String description, MouseEvent event) {
+        matchView.setSeekTimeText(description);
+        matchView.setSeekThumbnail(null);
         matchView.setSeekTimePosition(event);
         matchView.showSeekTime();
     }
@@ -327,8 +569,7 @@ public class PitchController implements IMatchModelListener {
      */
     @Override
     public void handleMouseReleased(double timeRatio){
-        matchModel.seek(timeRatio,
-                matchData.getStartEndTimeStamps(), matchData.getTotalMatchTimeInMilliseconds());
+        matchModel.seek(timeRatio, matchData.getTotalMatchTimeInMilliseconds());
         matchView.removeSeekTime();
     }
 
@@ -372,16 +613,140 @@ public class PitchController implements IMatchModelListener {
     public void updateOverviewPane(){
         matchView.getOverviewPane().setIndividualGoals(dataAnalyser.getIndividualRedGoals(),
                 dataAnalyser.getIndividualBlueGoals());
+        matchView.getOverviewPane().setEffectivePlayingTime(
+                matchModel.getEffectivePlayingTime(FIRST_HALF_START_TIME),
+                matchModel.getEffectivePlayingTime(SECOND_HALF_START_TIME));
+        matchView.getOverviewPane().setAssignmentConfidence(entityAssignment.getConfidence(),
+                entityAssignment.isLowConfidence());
+    }
+
+    /**
+     * @return  Which sensors were assigned to which players and teams, and how confident the assignment is
+     */
+    public EntityAssignment getEntityAssignment(){
+        return entityAssignment;
+    }
+
+    /**
+     * Switches playback between showing the whole match and only the time the ball is in play
+     *
+     * @param event     Action event of the toggle button
+     */
+    @FXML
+    public void handleEffectiveTimeToggle(ActionEvent event){
+        matchModel.setSkipStoppages(((ToggleButton) event.getSource()).isSelected());
+    }
+
+    /**
+     * Pauses the match and moves back one frame
+     */
+    @FXML
+    public void handleStepBackClick(){
+        matchModel.stepFrame(false);
+        matchView.setPlayButtonImage(true);
+    }
+
+    /**
+     * Pauses the match and moves forward one frame
+     */
+    @FXML
+    public void handleStepForwardClick(){
+        matchModel.stepFrame(true);
+        matchView.setPlayButtonImage(true);
+    }
+
+    @FXML
+    public void handleSlowerClick(){
+        matchView.setSpeedText(matchModel.changeSpeed(false));
+    }
+
+    @FXML
+    public void handleFasterClick(){
+        matchView.setSpeedText(matchModel.changeSpeed(true));
+    }
+
+    /**
+     * Cycles the movement trails drawn behind each player and the football through the available lengths
+     */
+    @FXML
+    public void handleTrailsClick(){
+        matchView.changeTrailLength();
+    }
+
+    /**
+     * Sets up a loop between two marks in the match. The first click marks A at the time being played, the second
+     * marks B and starts playing the match between the two marks over and over, and the third ends the loop
+     */
+    @FXML
+    public void handleLoopClick(){
+        double time = matchModel.getPlaybackClock().getTime(System.nanoTime());
+        int matchTotalTime = matchData.getTotalMatchTimeInMilliseconds();
+        if(looping){
+            matchModel.endLoop();
+            looping = false;
+            loopMark = -1;
+            matchView.setLoopMarks(-1, -1);
+        }else if(loopMark < 0){
+            loopMark = time;
+            matchView.setLoopMarks(loopMark / matchTotalTime, -1);
+        }else{
+            double start = Math.min(loopMark, time);
+            double end = Math.max(loopMark, time);
+            if(end - start < MIN_LOOP_LENGTH) return;
+            matchModel.setLoop(start, end);
+            looping = true;
+            matchView.setLoopMarks(start / matchTotalTime, end / matchTotalTime);
+        }
+    }
+
+    /**
+     * Switches playback between playing forwards and backwards
+     *
+     * @param event     Action event of the toggle button
+     */
+    @FXML
+    public void handleReverseToggle(ActionEvent event){
+        matchModel.setReverse(((ToggleButton) event.getSource()).isSelected());
     }
 
     /**
-     * Plays and pause the match when the user clicks the enter key on the keyboard
+     * Handles the keyboard controls for playback:
+     *      Enter plays and pauses the match
+     *      Comma and full stop step back and forward a frame
+     *      Minus and equals slow down and speed up playback
+     *      R switches between playing forwards and backwards
+     *      L marks the start and end of a loop, and ends the loop
      * Author: Irene Zeng
      */
     EventHandler EnterBarHandler = new EventHandler<KeyEvent>() {
         public void handle(KeyEvent event) {
-            if(event.getCode() == KeyCode.ENTER){
-                handlePlayButtonClick();
+            switch(event.getCode()){
+                case ENTER:
+                    handlePlayButtonClick();
+                    break;
+                case COMMA:
+                    handleStepBackClick();
+                    break;
+                case PERIOD:
+                    handleStepForwardClick();
+                    break;
+                case MINUS:
+                    handleSlowerClick();
+                    break;
+                case EQUALS:
+                    handleFasterClick();
+                    break;
+                case R:
+                    ToggleButton reverseButton = (ToggleButton) matchView.getScene().lookup("#reverseButton");
+                    reverseButton.setSelected(!reverseButton.isSelected());
+                    matchModel.setReverse(reverseButton.isSelected());
+                    break;
+                case L:
+                    handleLoopClick();
+                    break;
+                case F:
+                    matchView.toggleMetricsOverlay();
+                    break;
             }
         }
     };
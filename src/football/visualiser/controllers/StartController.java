@@ -1,11 +1,15 @@
 package football.visualiser.controllers;
 
 import football.visualiser.models.DataProperty;
+import football.visualiser.models.MatchComparison;
 import football.visualiser.view.AnalyseView;
+import football.visualiser.view.ComparisonView;
 import football.visualiser.view.DataItem;
 import football.visualiser.view.MatchView;
 import football.visualiser.view.StartView;
 import javafx.application.Platform;
+import javafx.beans.binding.Bindings;
+import javafx.collections.FXCollections;
 import javafx.concurrent.Task;
 import javafx.event.EventHandler;
 import javafx.fxml.FXML;
@@ -13,8 +17,12 @@ import javafx.geometry.Pos;
 import javafx.scene.Cursor;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.SelectionMode;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.BorderPane;
@@ -26,6 +34,8 @@ import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 /**<h1>Start Controller</h1>
  * Created by Dovydas Ciomenas on 21/02/2017.
@@ -99,7 +109,7 @@ public class StartController {
         Task<Void> analyseMatchTask = new Task<Void>(){
             @Override
             protected Void call() throws Exception {
-                pitchController.setupMatch(matchView, path, matchTimeStamps, coordinates, IDs);
+                pitchController.setupMatch(matchView, path, matchTimeStamps, coordinates, IDs, 0);
                 return null;
             }
         };
@@ -140,6 +150,62 @@ public class StartController {
         analyseThread.start();
     }
 
+    /**
+     * Loads several matches in a background thread and then plays them side by side in the same window
+     *
+     * @param matchNames    Names of the match properties
+     */
+    private void loadComparison(List<String> matchNames) throws Exception {
+        if(analysisStarted) return;
+
+        analysisStarted = true;
+
+        stage = (Stage) dataItemBox.getScene().getWindow();
+
+        List<DataProperty> matchProps = new ArrayList<>();
+        for(String matchName : matchNames){
+            matchProps.add(new DataProperty(matchName));
+        }
+
+        ComparisonView comparisonView = new ComparisonView(stage);
+        ComparisonController comparisonController = new ComparisonController();
+
+        Task<Void> loadMatchesTask = new Task<Void>(){
+            @Override
+            protected Void call() throws Exception {
+                comparisonController.setupMatches(comparisonView, matchProps);
+                return null;
+            }
+        };
+
+        loadMatchesTask.setOnSucceeded(e-> {
+            stage.setScene(comparisonView.getScene());
+            stage.centerOnScreen();
+            stage.setResizable(true);
+            stage.sizeToScene();
+            progressStage.close();
+            stage.show();
+            comparisonController.start();
+            analysisStarted = false;
+        });
+
+        loadMatchesTask.setOnRunning(e-> {
+            progressStage = new Stage();
+            progressStage.setOnCloseRequest(event-> System.exit(1));
+            startView.showProgress(progressStage);
+        });
+
+        loadMatchesTask.setOnFailed(e->{
+            progressStage.close();
+            startView.showLoadingError();
+            analysisStarted = false;
+        });
+
+        analyseThread = new Thread(loadMatchesTask);
+        analyseThread.setDaemon(true);
+        analyseThread.start();
+    }
+
     private void loadDataItems() {
         dataItemBox.getChildren().clear();
         try {
@@ -242,6 +308,46 @@ public class StartController {
         }
     }
 
+    /**
+     * Handles "Compare" Button in StartView.
+     * User picks between two and four saved matches, which are then played side by side.
+     */
+    @FXML
+    public void handleCompareButton() {
+        List<String> matchNames = new ArrayList<>();
+        File[] listOfFiles = new File("resources/properties/").listFiles();
+        if(listOfFiles != null) {
+            for (File file : listOfFiles) {
+                if (file.isFile()) matchNames.add(file.getName().replace(".properties", ""));
+            }
+        }
+
+        ListView<String> matchList = new ListView<>(FXCollections.observableArrayList(matchNames));
+        matchList.getSelectionModel().setSelectionMode(SelectionMode.MULTIPLE);
+
+        Dialog<List<String>> dialog = new Dialog<>();
+        dialog.setTitle("Compare Matches");
+        dialog.setHeaderText("Choose 2 to " + MatchComparison.MAX_MATCHES + " matches to play side by side");
+        dialog.getDialogPane().setContent(matchList);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.getDialogPane().getStylesheets().add(
+                StartView.class.getResource("DialogStyle.css").toExternalForm());
+        dialog.getDialogPane().lookupButton(ButtonType.OK).disableProperty().bind(
+                Bindings.size(matchList.getSelectionModel().getSelectedItems()).lessThan(2)
+                        .or(Bindings.size(matchList.getSelectionModel().getSelectedItems())
+                                .greaterThan(MatchComparison.MAX_MATCHES)));
+        dialog.setResultConverter(buttonType -> buttonType == ButtonType.OK ?
+                new ArrayList<>(matchList.getSelectionModel().getSelectedItems()) : null);
+
+        dialog.showAndWait().ifPresent(names -> {
+            try {
+                loadComparison(names);
+            } catch(Exception e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
     /**
      * Handles "About" Button.
      *
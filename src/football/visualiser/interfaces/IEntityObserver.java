@@ -4,10 +4,15 @@ package football.visualiser.interfaces;
  * <h1>Entity Observer Interface</h1>
  * Classes which implement the IEntityObserver should listen for changes to the position
  * of entities (players and footballs) as the game is played back. They should then instruct
- * the relevant view class to make changes to the position of the GUI elements
+ * the relevant view class to make changes to the position of the GUI elements. Once the positions of
+ * every entity for a frame, and for the frame after it, have been updated, the frame is published so that it is
+ * drawn as a whole, moving between the two frames as the playback clock does
  *
  * @author Oscar Mason
  */
 public interface IEntityObserver {
     void updatePosition(int ID, int x, int y);
+    void updateNextPosition(int ID, int x, int y);
+    void publishPositions(int currentMillisecond, int nextMillisecond, double clockTime, long clockNanos,
+                          double clockRate);
 }
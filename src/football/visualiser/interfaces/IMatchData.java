@@ -36,6 +36,17 @@ public interface IMatchData {
      */
     int[] getNextLineAsInt();
 
+    /**
+     * Reads the next line from the data file into an array supplied by the caller, which allows the whole
+     * file to be iterated without allocating an array per line. All fields of the line are stored, including
+     * the acceleration and the velocity and acceleration direction components, at the positions given in
+     * {@link football.visualiser.SystemData}. The time stamp is converted to milliseconds
+     *
+     * @param row   Array of at least {@link football.visualiser.SystemData#numberOfFields} values to fill
+     * @return      True if a line was read, false if the end of the match has been reached
+     */
+    boolean getNextLine(int[] row);
+
     /**
      * Get the timestamps for when the first half of the match starts and ends
      * and when the second half of the match starts and ends
@@ -59,4 +70,18 @@ public interface IMatchData {
      */
     void setAnalyticalStrength(int analyticalStrength);
 
-}
\ No newline at end of file
+    /**
+     * @return Number of lines read from the data file, including those read while seeking
+     */
+    long getLinesRead();
+
+    /**
+     * @return Number of bytes read from the data file
+     */
+    long getBytesRead();
+
+    /**
+     * @return Number of times {@link #goToTimeStamp(String)} has been called
+     */
+    long getSeekCount();
+}
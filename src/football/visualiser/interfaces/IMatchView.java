@@ -1,8 +1,6 @@
 package football.visualiser.interfaces;
 
 import football.visualiser.SystemData.Team;
-import javafx.event.EventHandler;
-import javafx.scene.input.MouseEvent;
 
 /**
  * <h1>Match view interface</h1>
@@ -12,7 +10,7 @@ import javafx.scene.input.MouseEvent;
  * @author Oscar Mason
  */
 public interface IMatchView extends IViewable{
-    void addPlayer(Team team, int ID, boolean isGoalKeeper, EventHandler<MouseEvent> mouseEventHandler);
+    void addPlayer(Team team, int ID, boolean isGoalKeeper);
     void addFootball(int ID);
     void updateGoalCount(int redNumberOfGoals, int blueNumberOfGoals);
 }
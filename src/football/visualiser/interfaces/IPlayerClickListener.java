@@ -0,0 +1,10 @@
+package football.visualiser.interfaces;
+
+/**
+ * <h1>Player Click Listener Interface</h1>
+ * Classes which implement the IPlayerClickListener should handle the user clicking on a player drawn
+ * on the pitch, for example by displaying the player card
+ */
+public interface IPlayerClickListener {
+    void handlePlayerClick(int playerID, double sceneX, double sceneY);
+}
@@ -1,6 +1,5 @@
 package football.visualiser.interfaces;
 
-import football.visualiser.view.Highlight;
 import javafx.scene.input.MouseEvent;
 
 /**
@@ -9,7 +8,7 @@ import javafx.scene.input.MouseEvent;
  * @author Oscar Mason
  */
 public interface ISeekbarListener {
-    void handleMouseHover(Highlight highlight, MouseEvent event);
+    void handleMouseHover(String description, MouseEvent event);
     void handleMousePressed(double timeRatio);
     void handleMouseReleased(double timeRatio);
     void handleMouseExited();
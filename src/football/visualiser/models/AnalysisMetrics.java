@@ -0,0 +1,303 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IMatchData;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * <h1>Analysis Metrics</h1>
+ * Times each stage of loading and analysing a match, and counts the rows, lines, bytes and seeks it takes, so
+ * that a slow load can be put down to reading the file, seeking in it, or a particular detector.
+ *
+ * Stages run once per load, such as assigning the players, are timed on every call. Stages run for every row are
+ * timed on one call in {@link #TIMING_INTERVAL} and their total is estimated from the average of the timed calls,
+ * which keeps the cost of reading the system clock away from the analysis loop. Each stage keeps a
+ * {@link LatencyHistogram} of its timed calls.
+ *
+ * The metrics are published through JMX by {@link #register(String)} and summarised by {@link #getSummary()},
+ * along with the report of the {@link AnalysisSampler} which chose the rows analysed.
+ * Only the analysis thread records metrics, and values read from other threads while the match is being analysed
+ * may lag slightly behind
+ */
+public class AnalysisMetrics implements AnalysisMetricsMBean {
+    public enum Stage {
+        // Stages of loading a match, timed on every call
+        SETUP, ASSIGN_ENTITIES, ANALYSIS, HIGHLIGHTS, SEEK_THUMBNAILS,
+        // Stages of analysing a row, timed on one call in TIMING_INTERVAL
+        PARSE, SAMPLER, FOOTBALL_IN_PLAY, BALL_IN_PLAY, POSSESSION, TACKLE, SENSORS, FUSION, TRACKS, KINEMATICS,
+        PASS_ACCURACY, SWITCH_SIDES, PASS_121, HEAT_MAPS, GOALS
+    }
+
+    public static final int TIMING_INTERVAL = 16;
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+    private static final Stage[] STAGES = Stage.values();
+
+    private final long[] calls = new long[STAGES.length];
+    private final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+    private final IMatchData matchData;
+    private AnalysisSampler analysisSampler;
+    private long rowsRead;
+    private long rowsSkipped;
+    // Totals at the start of the batch of rows being recorded by the flight recorder
+    private FlightEvents.BatchParse batch;
+    private long batchRowsRead;
+    private long batchRowsSkipped;
+    private long batchBytesRead;
+    private final long[] batchCalls = new long[STAGES.length];
+    private final long[] batchTimedCalls = new long[STAGES.length];
+    private final long[] batchTimedNanos = new long[STAGES.length];
+    private long startNanos;
+    private long endNanos;
+
+    /**
+     * @param matchData     Match data being analysed, which counts the lines, bytes and seeks read from the file
+     */
+    public AnalysisMetrics(IMatchData matchData){
+        this.matchData = matchData;
+        for(int stage = 0; stage < STAGES.length; stage++){
+            histograms[stage] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * @param analysisSampler   Sampler choosing the rows analysed, whose report is published with the metrics
+     */
+    public void setAnalysisSampler(AnalysisSampler analysisSampler){
+        this.analysisSampler = analysisSampler;
+    }
+
+    /**
+     * Marks the start of loading, from which the rate of rows is measured
+     */
+    public void start(){
+        startNanos = System.nanoTime();
+        endNanos = 0;
+    }
+
+    /**
+     * Marks the end of loading, after which the rate of rows no longer falls
+     */
+    public void finish(){
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Counts a call to a stage, reading the clock if the call is one of those timed
+     *
+     * @param stage     Stage being called
+     * @return          Time to pass to {@link #stop(Stage, long)}
+     */
+    public long start(Stage stage){
+        if(calls[stage.ordinal()]++ % TIMING_INTERVAL != 0) return NOT_TIMED;
+        return System.nanoTime();
+    }
+
+    /**
+     * Records the duration of a call started with {@link #start(Stage)}, if it was timed
+     *
+     * @param stage         Stage called
+     * @param startNanos    Time returned by {@link #start(Stage)}
+     */
+    public void stop(Stage stage, long startNanos){
+        if(startNanos == NOT_TIMED) return;
+        histograms[stage.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Records a call to a stage which is timed on every call
+     *
+     * @param stage     Stage called
+     * @param nanos     Duration of the call
+     */
+    public void record(Stage stage, long nanos){
+        calls[stage.ordinal()]++;
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    /**
+     * @param analysed  True if the row was analysed, false if it was skipped by the sampler
+     */
+    public void countRow(boolean analysed){
+        if(batch == null) startBatch();
+        rowsRead++;
+        if(!analysed) rowsSkipped++;
+        if(rowsRead % FlightEvents.BATCH_ROWS == 0) endBatch();
+    }
+
+    private void startBatch(){
+        batch = new FlightEvents.BatchParse();
+        batch.begin();
+        batchRowsRead = rowsRead;
+        batchRowsSkipped = rowsSkipped;
+        batchBytesRead = matchData.getBytesRead();
+    }
+
+    /**
+     * Records the batch of rows counted since the last batch ended, along with the calls made to each stage of the
+     * analysis over the batch, as flight recorder events if they are being recorded
+     */
+    public void endBatch(){
+        if(batch == null || rowsRead == batchRowsRead) return;
+        batch.end();
+        if(batch.shouldCommit()){
+            batch.rowsRead = rowsRead - batchRowsRead;
+            batch.rowsAnalysed = batch.rowsRead - (rowsSkipped - batchRowsSkipped);
+            batch.bytesRead = matchData.getBytesRead() - batchBytesRead;
+            batch.commit();
+        }
+        commitDetectorPasses();
+        startBatch();
+    }
+
+    private void commitDetectorPasses(){
+        boolean recording = new FlightEvents.DetectorPass().isEnabled();
+        for(int stage = Stage.PARSE.ordinal(); stage < STAGES.length; stage++){
+            LatencyHistogram histogram = histograms[stage];
+            long stageCalls = calls[stage] - batchCalls[stage];
+            long timedCalls = histogram.getCount() - batchTimedCalls[stage];
+            long timedNanos = histogram.getTotal() - batchTimedNanos[stage];
+            batchCalls[stage] = calls[stage];
+            batchTimedCalls[stage] = histogram.getCount();
+            batchTimedNanos[stage] = histogram.getTotal();
+            if(!recording || stageCalls == 0) continue;
+
+            FlightEvents.DetectorPass detectorPass = new FlightEvents.DetectorPass();
+            detectorPass.detector = STAGES[stage].name();
+            detectorPass.calls = stageCalls;
+            detectorPass.estimatedTime = timedCalls == 0 ? (long) (histogram.getMean() * stageCalls) :
+                    timedNanos * stageCalls / timedCalls;
+            detectorPass.commit();
+        }
+    }
+
+    public long getCalls(Stage stage){
+        return calls[stage.ordinal()];
+    }
+
+    /**
+     * @param stage     Stage of loading or analysis
+     * @return          Estimated total time spent in the stage in nanoseconds
+     */
+    public long getTotalNanos(Stage stage){
+        LatencyHistogram histogram = histograms[stage.ordinal()];
+        return (long) (histogram.getMean() * calls[stage.ordinal()]);
+    }
+
+    public LatencyHistogram getLatencyHistogram(Stage stage){
+        return histograms[stage.ordinal()];
+    }
+
+    @Override
+    public long getRowsRead(){
+        return rowsRead;
+    }
+
+    @Override
+    public long getRowsSkipped(){
+        return rowsSkipped;
+    }
+
+    @Override
+    public long getLinesRead(){
+        return matchData.getLinesRead();
+    }
+
+    @Override
+    public long getBytesRead(){
+        return matchData.getBytesRead();
+    }
+
+    @Override
+    public long getSeeks(){
+        return matchData.getSeekCount();
+    }
+
+    @Override
+    public double getParseNanosPerRow(){
+        return histograms[Stage.PARSE.ordinal()].getMean();
+    }
+
+    @Override
+    public double getRowsPerSecond(){
+        long elapsed = (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+        return elapsed <= 0 ? 0 : rowsRead * 1000000000.0 / elapsed;
+    }
+
+    @Override
+    public long getElapsedMillis(){
+        if(startNanos == 0) return 0;
+        return ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1000000;
+    }
+
+    @Override
+    public double getNanosPerCall(String stage){
+        return histograms[Stage.valueOf(stage).ordinal()].getMean();
+    }
+
+    @Override
+    public long[] getHistogram(String stage){
+        return histograms[Stage.valueOf(stage).ordinal()].getBuckets();
+    }
+
+    /**
+     * @return  One line per stage which has been called, giving its calls, estimated total time and the average,
+     *          99th percentile and longest of its timed calls
+     */
+    @Override
+    public String[] getStageSummaries(){
+        int called = 0;
+        for(long stageCalls : calls){
+            if(stageCalls > 0) called++;
+        }
+        String[] summaries = new String[called];
+        int line = 0;
+        for(Stage stage : STAGES){
+            if(calls[stage.ordinal()] == 0) continue;
+            LatencyHistogram histogram = histograms[stage.ordinal()];
+            summaries[line++] = String.format("%-16s %10d calls %10.1f ms total %10.0f ns/call  p99 %9d ns  max %d ns",
+                    stage, calls[stage.ordinal()], getTotalNanos(stage) / 1000000.0, histogram.getMean(),
+                    histogram.getPercentile(99), histogram.getMaximum());
+        }
+        return summaries;
+    }
+
+    @Override
+    public String getSummary(){
+        StringBuilder summary = new StringBuilder();
+        summary.append(String.format("Read %d rows (%d skipped) from %d lines, %.1f MB and %d seeks in %.1f s: "
+                        + "%.0f rows/s, %.0f ns/row parsing",
+                rowsRead, rowsSkipped, getLinesRead(), getBytesRead() / 1048576.0, getSeeks(),
+                getElapsedMillis() / 1000.0, getRowsPerSecond(), getParseNanosPerRow()));
+        for(String line : getStageSummaries()){
+            summary.append(String.format("%n  ")).append(line);
+        }
+        if(analysisSampler != null) summary.append(String.format("%n")).append(getSamplingReport());
+        return summary.toString();
+    }
+
+    @Override
+    public String getSamplingReport(){
+        return analysisSampler == null ? "" : analysisSampler.getReport();
+    }
+
+    /**
+     * Publishes the metrics through the platform MBean server, replacing any metrics already published under
+     * the same name, such as from an earlier load of the same match
+     *
+     * @param name  Name of the match the metrics are for
+     */
+    public void register(String name){
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("football.visualiser:type=AnalysisMetrics,name=" + ObjectName.quote(name));
+            if(server.isRegistered(objectName)) server.unregisterMBean(objectName);
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+
+}
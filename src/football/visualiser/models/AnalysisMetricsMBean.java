@@ -0,0 +1,40 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Analysis Metrics MBean</h1>
+ * Management interface through which {@link AnalysisMetrics} is published over JMX, so that the loading and
+ * analysis of a match can be watched with tools such as JConsole or Java Mission Control.
+ *
+ * Durations are in nanoseconds unless stated otherwise
+ */
+public interface AnalysisMetricsMBean {
+    long getRowsRead();
+    long getRowsSkipped();
+    long getLinesRead();
+    long getBytesRead();
+    long getSeeks();
+    double getParseNanosPerRow();
+    double getRowsPerSecond();
+    long getElapsedMillis();
+    String[] getStageSummaries();
+    String getSummary();
+
+    /**
+     * @return  Rows analysed, time taken against the budget and rate of the sensors away from the ball, or an
+     *          empty string before the analysis has started
+     */
+    String getSamplingReport();
+
+    /**
+     * @param stage     Name of a stage of loading or analysis, such as TACKLE
+     * @return          Average time of a call to the stage
+     */
+    double getNanosPerCall(String stage);
+
+    /**
+     * @param stage     Name of a stage of loading or analysis
+     * @return          Count of timed calls in each bucket of the stage's histogram, where bucket n holds
+     *                  durations below 2^n nanoseconds
+     */
+    long[] getHistogram(String stage);
+}
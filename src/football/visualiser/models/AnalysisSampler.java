@@ -0,0 +1,282 @@
+package football.visualiser.models;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Analysis Sampler</h1>
+ * Decides which rows of the match data file are analysed. Rather than skipping a fixed number of lines, which
+ * thins the ball as much as a slow sensor, each sensor is decimated on its own to a target sample interval.
+ * Rows from the football in play, and from sensors close to it, are always kept because possession, passes and
+ * tackles depend on them.
+ *
+ * If a time budget is given the sampler tunes the sample interval while the match is analysed: every tuning
+ * period it compares how long the last period took with the time left in the budget, and lengthens or shortens
+ * the interval for the rest of the match.
+ *
+ * The report compares the events detected by a budgeted analysis with a baseline detected with every sensor other
+ * than the footballs at the default interval, so the effect of the budget on the detections can be seen. The
+ * baseline is counted separately, after the analysis, and given to the sampler with {@link #setBaseline}.
+ *
+ * Times are in milliseconds
+ */
+public class AnalysisSampler {
+    // Interval used without a time budget, equivalent to the rate the analysis used to run at
+    public static final int DEFAULT_SAMPLE_INTERVAL = 40;
+    public static final int MAX_SAMPLE_INTERVAL = 1000;
+    public static final int NEAR_BALL_DISTANCE = 5000;
+
+    private static final int TUNING_PERIOD = 5000;
+    private static final int MIN_TUNING_INTERVAL = 2;
+    private static final double MAX_TUNING_STEP = 2.0;
+
+    private final long timeBudgetNanos;
+    private final int[] startEndTimeStamps;
+    private final int totalMatchTime;
+
+    private int sampleInterval;
+    private int[] lastKept = new int[128];
+
+    private long startNanos;
+    private long endNanos;
+    private long periodStartNanos;
+    private int periodStartMatchTime;
+    private long intervalSum;
+    private int tuningPeriods;
+
+    private long rowsRead;
+    private long ballRowsKept;
+    private long nearBallRowsKept;
+    private long otherRowsRead;
+    private long otherRowsKept;
+
+    // Set once the analysis and the baseline finish, either of which may be after the report is first read
+    private volatile SweepResult detections;
+    private volatile SweepResult baseline;
+
+    /**
+     * Creates a sampler without a time budget which decimates sensors away from the ball to the default interval
+     */
+    public AnalysisSampler(){
+        this(0, null, 0);
+    }
+
+    /**
+     * @param timeBudget            Time, in milliseconds, the analysis should take, or 0 for no budget
+     * @param startEndTimeStamps    Start and end of both halves in milliseconds
+     * @param totalMatchTime        Length of both halves together in milliseconds
+     */
+    public AnalysisSampler(int timeBudget, int[] startEndTimeStamps, int totalMatchTime){
+        this.timeBudgetNanos = timeBudget * 1000000L;
+        this.startEndTimeStamps = startEndTimeStamps;
+        this.totalMatchTime = totalMatchTime;
+        this.sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+        Arrays.fill(lastKept, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Must be called immediately before the first row is read so the time budget is measured from the start
+     */
+    public void start(){
+        startNanos = System.nanoTime();
+        periodStartNanos = startNanos;
+        periodStartMatchTime = 0;
+    }
+
+    /**
+     * Must be called once the last row has been analysed, with the events detected, so that the report shows how
+     * long the analysis took and what it found
+     *
+     * @param detections    Events detected by the analysis
+     */
+    public void finish(SweepResult detections){
+        endNanos = System.nanoTime();
+        this.detections = detections;
+    }
+
+    /**
+     * @param baseline  Events detected with every sensor other than the footballs at the default interval
+     */
+    public void setBaseline(SweepResult baseline){
+        this.baseline = baseline;
+    }
+
+    /**
+     * @return  True if the sample interval was tuned to a time budget, in which case a baseline is needed to see
+     *          the effect on the detections
+     */
+    public boolean hasTimeBudget(){
+        return timeBudgetNanos > 0;
+    }
+
+    /**
+     * Decides whether a row should be analysed
+     *
+     * @param id            Sensor ID of the row
+     * @param time          Time of the row in milliseconds
+     * @param x             X position of the sensor
+     * @param y             Y position of the sensor
+     * @param isBall        Whether the sensor is the football in play
+     * @param ballX         X position of the football in play
+     * @param ballY         Y position of the football in play
+     * @return              True if the row should be analysed
+     */
+    public boolean accept(int id, int time, int x, int y, boolean isBall, int ballX, int ballY){
+        rowsRead++;
+        if(timeBudgetNanos > 0 && (rowsRead & 0xFFF) == 0) tune(time);
+
+        if(isBall){
+            ballRowsKept++;
+            return true;
+        }
+
+        long distanceX = x - ballX;
+        long distanceY = y - ballY;
+        if(distanceX * distanceX + distanceY * distanceY <= (long) NEAR_BALL_DISTANCE * NEAR_BALL_DISTANCE){
+            nearBallRowsKept++;
+            keep(id, time);
+            return true;
+        }
+
+        otherRowsRead++;
+        if(id >= 0 && id < lastKept.length && time >= lastKept[id] && (long) time - lastKept[id] < sampleInterval){
+            return false;
+        }
+        otherRowsKept++;
+        keep(id, time);
+        return true;
+    }
+
+    private void keep(int id, int time){
+        if(id < 0) return;
+        if(id >= lastKept.length){
+            int oldLength = lastKept.length;
+            lastKept = Arrays.copyOf(lastKept, Math.max(id + 1, oldLength * 2));
+            Arrays.fill(lastKept, oldLength, lastKept.length, Integer.MIN_VALUE);
+        }
+        lastKept[id] = time;
+    }
+
+    /**
+     * Once per tuning period, scales the sample interval by how much faster or slower the last period ran than
+     * the rate needed to finish the rest of the match within the budget
+     */
+    private void tune(int time){
+        int matchTime = getMatchTime(time);
+        if(matchTime - periodStartMatchTime < TUNING_PERIOD) return;
+
+        long now = System.nanoTime();
+        double periodRate = (double) (now - periodStartNanos) / (matchTime - periodStartMatchTime);
+        long remainingBudget = timeBudgetNanos - (now - startNanos);
+        int remainingMatchTime = Math.max(1, totalMatchTime - matchTime);
+
+        double scale = remainingBudget <= 0 ? MAX_TUNING_STEP :
+                periodRate / ((double) remainingBudget / remainingMatchTime);
+        scale = Math.max(1 / MAX_TUNING_STEP, Math.min(MAX_TUNING_STEP, scale));
+
+        int interval = (int) Math.round(Math.max(sampleInterval, MIN_TUNING_INTERVAL) * scale);
+        sampleInterval = interval < MIN_TUNING_INTERVAL ? 0 : Math.min(MAX_SAMPLE_INTERVAL, interval);
+
+        intervalSum += sampleInterval;
+        tuningPeriods++;
+        periodStartNanos = now;
+        periodStartMatchTime = matchTime;
+    }
+
+    /**
+     * @param time  Time stamp in milliseconds
+     * @return      Milliseconds of play since the start of the match, excluding half time
+     */
+    private int getMatchTime(int time){
+        int firstHalfLength = startEndTimeStamps[1] - startEndTimeStamps[0];
+        if(time <= startEndTimeStamps[1]) return time - startEndTimeStamps[0];
+        return firstHalfLength + Math.max(0, time - startEndTimeStamps[2]);
+    }
+
+    public int getSampleInterval(){
+        return sampleInterval;
+    }
+
+    /**
+     * @return  Average sample interval used across the match in milliseconds
+     */
+    public double getAverageSampleInterval(){
+        return tuningPeriods == 0 ? sampleInterval : (double) intervalSum / tuningPeriods;
+    }
+
+    /**
+     * @return  Milliseconds from {@link #start()} to {@link #finish(SweepResult)}, or until now if not finished
+     */
+    public long getElapsedTime(){
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1000000;
+    }
+
+    public int getTimeBudget(){
+        return (int) (timeBudgetNanos / 1000000);
+    }
+
+    public long getRowsRead(){
+        return rowsRead;
+    }
+
+    public long getRowsKept(){
+        return ballRowsKept + nearBallRowsKept + otherRowsKept;
+    }
+
+    public long getBallRowsKept(){
+        return ballRowsKept;
+    }
+
+    public long getNearBallRowsKept(){
+        return nearBallRowsKept;
+    }
+
+    /**
+     * @return  Fraction of the rows from sensors away from the ball which were analysed
+     */
+    public double getOtherRowsKeptRatio(){
+        return otherRowsRead == 0 ? 1.0 : (double) otherRowsKept / otherRowsRead;
+    }
+
+    /**
+     * Summarises the sampling achieved: how many rows were analysed, how long it took against the budget, and the
+     * rate the sensors away from the ball were decimated to. Once the analysis has finished the events detected
+     * are listed, and with a time budget they are compared with the baseline once it has been counted
+     *
+     * @return  Human readable report
+     */
+    public String getReport(){
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Analysed %d of %d rows (%.1f%%) in %.1f s",
+                getRowsKept(), rowsRead, rowsRead == 0 ? 100.0 : 100.0 * getRowsKept() / rowsRead,
+                getElapsedTime() / 1000.0));
+        if(timeBudgetNanos > 0){
+            report.append(String.format(" against a budget of %.1f s", getTimeBudget() / 1000.0));
+        }
+        report.append(String.format("%nBall in play: %d rows at full rate, near the ball: %d rows at full rate",
+                ballRowsKept, nearBallRowsKept));
+        report.append(String.format("%nOther sensors: %.1f%% of rows kept, average interval %.1f ms (%s)",
+                100.0 * getOtherRowsKeptRatio(), getAverageSampleInterval(),
+                getAverageSampleInterval() == 0 ? "full rate" :
+                        String.format("at most %.1f Hz", 1000.0 / getAverageSampleInterval())));
+
+        SweepResult detections = this.detections;
+        SweepResult baseline = this.baseline;
+        if(detections == null) return report.toString();
+        report.append(String.format("%nDetected %d tackles, %d passes, %d one-two passes and %d goals",
+                detections.getTackles(), detections.getPasses(), detections.getOneTwoPasses(),
+                detections.getGoals()));
+        if(timeBudgetNanos > 0 && baseline == null){
+            report.append(String.format("%nDetections at the default interval of %d ms are still being counted",
+                    DEFAULT_SAMPLE_INTERVAL));
+        }else if(timeBudgetNanos > 0){
+            report.append(String.format("%nAt the default interval of %d ms: %d tackles (%+d), %d passes (%+d), "
+                            + "%d one-two passes (%+d) and %d goals (%+d), with the budget's difference in brackets",
+                    DEFAULT_SAMPLE_INTERVAL,
+                    baseline.getTackles(), detections.getTackles() - baseline.getTackles(),
+                    baseline.getPasses(), detections.getPasses() - baseline.getPasses(),
+                    baseline.getOneTwoPasses(), detections.getOneTwoPasses() - baseline.getOneTwoPasses(),
+                    baseline.getGoals(), detections.getGoals() - baseline.getGoals()));
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,95 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for choosing which rows of the match data are analysed
+ */
+public class AnalysisSamplerTest {
+    // Time stamps in the match data files are around ten million milliseconds
+    private static final int START = 10600000;
+    private static final int BALL_X = 0;
+    private static final int BALL_Y = 0;
+    private static final int FAR_X = AnalysisSampler.NEAR_BALL_DISTANCE * 2;
+
+    private static boolean acceptFar(AnalysisSampler sampler, int id, int time){
+        return sampler.accept(id, time, FAR_X, 0, false, BALL_X, BALL_Y);
+    }
+
+    /**
+     * Tests that the first row of every sensor is analysed, including sensors with IDs beyond the initial size of
+     * the sampler's table
+     */
+    @Test
+    public void firstRowOfSensorKept(){
+        AnalysisSampler sampler = new AnalysisSampler();
+        assertTrue(acceptFar(sampler, 5, START));
+        assertTrue(acceptFar(sampler, 6, START));
+        assertTrue(acceptFar(sampler, 500, START));
+
+        assertFalse(acceptFar(sampler, 5, START + 1));
+        assertFalse(acceptFar(sampler, 500, START + 1));
+    }
+
+    /**
+     * Tests that a sensor away from the ball reporting every 10 milliseconds is decimated to the sample interval
+     */
+    @Test
+    public void decimatedToSampleInterval(){
+        AnalysisSampler sampler = new AnalysisSampler();
+        int interval = AnalysisSampler.DEFAULT_SAMPLE_INTERVAL;
+        int kept = 0;
+        for(int time = START; time < START + 100 * interval; time += 10){
+            if(acceptFar(sampler, 5, time)){
+                assertEquals(0, (time - START) % interval);
+                kept++;
+            }
+        }
+
+        assertEquals(100, kept);
+        assertEquals(10.0 / interval, sampler.getOtherRowsKeptRatio(), 1e-9);
+        assertEquals(sampler.getRowsRead() * 10 / interval, sampler.getRowsKept());
+    }
+
+    /**
+     * Tests that rows from the ball and from sensors near it are all analysed
+     */
+    @Test
+    public void ballAndNearBallKept(){
+        AnalysisSampler sampler = new AnalysisSampler();
+        for(int time = START; time < START + 1000; time += 10){
+            assertTrue(sampler.accept(100, time, BALL_X, BALL_Y, true, BALL_X, BALL_Y));
+            assertTrue(sampler.accept(5, time, AnalysisSampler.NEAR_BALL_DISTANCE, 0, false, BALL_X, BALL_Y));
+        }
+
+        assertEquals(100, sampler.getBallRowsKept());
+        assertEquals(100, sampler.getNearBallRowsKept());
+        assertEquals(sampler.getRowsRead(), sampler.getRowsKept());
+
+        // Once the sensor moves away from the ball it is decimated from the last row kept
+        assertFalse(acceptFar(sampler, 5, START + 1000));
+    }
+
+    /**
+     * Tests that with a time budget the report waits for the baseline and then shows how the detections differ
+     * from it
+     */
+    @Test
+    public void reportComparesDetectionsWithBaseline(){
+        AnalysisSampler sampler = new AnalysisSampler(1000, new int[]{ START, START + 1000, START + 2000,
+                START + 3000 }, 2000);
+        sampler.start();
+        assertFalse(sampler.getReport().contains("Detected"));
+
+        sampler.finish(new SweepResult(DetectorConfiguration.DEFAULT, 4, 1, 200, 3, 0));
+        assertTrue(sampler.getReport().contains("Detected 4 tackles, 200 passes, 3 one-two passes and 1 goals"));
+        assertTrue(sampler.getReport().contains("still being counted"));
+
+        sampler.setBaseline(new SweepResult(DetectorConfiguration.DEFAULT, 5, 1, 190, 3, 0));
+        String report = sampler.getReport();
+        assertFalse(report.contains("still being counted"));
+        assertTrue(report.contains("5 tackles (-1), 190 passes (+10), 3 one-two passes (+0) and 1 goals (+0)"));
+    }
+}
@@ -0,0 +1,169 @@
+package football.visualiser.models;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Ball In Play Index</h1>
+ * Stores the intervals of the match during which the ball is in play as parallel arrays of start and end times
+ * sorted by time, so whether the ball is in play at any time, or when play next restarts, can be found with a
+ * binary search.
+ *
+ * The index is built while the match is analysed by passing it whether the ball is on the pitch for every row.
+ * Stoppages shorter than the minimum stoppage, such as the ball briefly crossing the line, are merged into the
+ * surrounding play.
+ *
+ * {@link #isInPlay()} gives whether the ball is on the pitch at the last update, without merging, while the
+ * other queries use the merged intervals. The two differ during short stoppages on purpose: whether a stoppage
+ * is short enough to merge is only known once play restarts, and the detectors must stop as soon as the ball
+ * leaves the pitch so that the player who fetches it is not given possession. Playback and the effective
+ * playing time use the merged intervals so that a short stoppage does not cut the match into pieces.
+ *
+ * Times are in milliseconds
+ */
+public class BallInPlayIndex {
+    public static final int DEFAULT_MINIMUM_STOPPAGE = 2000;
+
+    private static final int INITIAL_CAPACITY = 256;
+    // Gaps in the data longer than this, such as half time, end the current interval
+    private static final int MAX_UPDATE_GAP = 1000;
+
+    private final int minimumStoppage;
+
+    private int[] startTimes = new int[INITIAL_CAPACITY];
+    private int[] endTimes = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    private boolean inPlay = false;
+    private int lastTime = Integer.MIN_VALUE;
+
+    public BallInPlayIndex(){
+        this(DEFAULT_MINIMUM_STOPPAGE);
+    }
+
+    /**
+     * @param minimumStoppage   Shortest stoppage, in milliseconds, which separates two intervals of play
+     */
+    public BallInPlayIndex(int minimumStoppage){
+        this.minimumStoppage = minimumStoppage;
+    }
+
+    /**
+     * Updates the index with whether the ball is in play. Must be called in time order
+     *
+     * @param time          Current time in milliseconds
+     * @param ballInPlay    Whether the ball is on the pitch
+     */
+    public void update(int time, boolean ballInPlay){
+        if(inPlay && time - lastTime > MAX_UPDATE_GAP){
+            endTimes[size - 1] = lastTime;
+            inPlay = false;
+        }
+
+        if(ballInPlay && !inPlay){
+            // Resume the last interval if the stoppage was too short to count
+            if(size > 0 && time - endTimes[size - 1] < minimumStoppage && time - endTimes[size - 1] >= 0){
+                inPlay = true;
+            }else{
+                if(size == startTimes.length){
+                    startTimes = Arrays.copyOf(startTimes, size * 2);
+                    endTimes = Arrays.copyOf(endTimes, size * 2);
+                }
+                startTimes[size] = time;
+                size++;
+                inPlay = true;
+            }
+        }else if(!ballInPlay && inPlay){
+            inPlay = false;
+        }
+
+        if(inPlay) endTimes[size - 1] = time;
+        lastTime = time;
+    }
+
+    /**
+     * @return  Whether the ball was on the pitch at the last update. Unlike {@link #isInPlay(int)}, this is false
+     *          during a stoppage which is later merged into the surrounding play
+     */
+    public boolean isInPlay(){
+        return inPlay;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int getStartTime(int index){
+        return startTimes[index];
+    }
+
+    public int getEndTime(int index){
+        return endTimes[index];
+    }
+
+    /**
+     * Finds the last interval which starts at or before the time given
+     *
+     * @param time  Time in milliseconds
+     * @return      Index of the interval, or -1 if every interval starts after the time
+     */
+    private int lastStartingAtOrBefore(int time){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(startTimes[middle] <= time) low = middle + 1;
+            else high = middle;
+        }
+        return low - 1;
+    }
+
+    /**
+     * @param time  Time in milliseconds
+     * @return      Whether the ball was in play at the time given
+     */
+    public boolean isInPlay(int time){
+        int index = lastStartingAtOrBefore(time);
+        return index >= 0 && endTimes[index] >= time;
+    }
+
+    /**
+     * Finds when the ball is next in play
+     *
+     * @param time  Time in milliseconds
+     * @return      The time given if the ball is in play, otherwise the start of the next interval of play, or -1
+     *              if the ball is not in play again
+     */
+    public int nextInPlay(int time){
+        int index = lastStartingAtOrBefore(time);
+        if(index >= 0 && endTimes[index] >= time) return time;
+        return index + 1 < size ? startTimes[index + 1] : -1;
+    }
+
+    /**
+     * Finds when the ball was last in play, for when the match is played backwards
+     *
+     * @param time  Time in milliseconds
+     * @return      The time given if the ball is in play, otherwise the end of the previous interval of play, or
+     *              -1 if the ball was not in play before
+     */
+    public int previousInPlay(int time){
+        int index = lastStartingAtOrBefore(time);
+        if(index < 0) return -1;
+        return Math.min(time, endTimes[index]);
+    }
+
+    /**
+     * Calculates how long the ball was in play between two times
+     *
+     * @param from  Start time in milliseconds
+     * @param to    End time in milliseconds
+     * @return      Milliseconds the ball was in play
+     */
+    public int getEffectiveTime(int from, int to){
+        int effectiveTime = 0;
+        for(int i = Math.max(0, lastStartingAtOrBefore(from)); i < size && startTimes[i] <= to; i++){
+            effectiveTime += Math.max(0, Math.min(endTimes[i], to) - Math.max(startTimes[i], from));
+        }
+        return effectiveTime;
+    }
+}
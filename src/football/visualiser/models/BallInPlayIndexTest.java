@@ -0,0 +1,120 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for indexing the intervals of the match during which the ball is in play
+ */
+public class BallInPlayIndexTest {
+
+    /**
+     * Updates the index every 100 milliseconds between two times
+     *
+     * @param from          First time in milliseconds
+     * @param to            Last time in milliseconds, inclusive
+     * @param ballInPlay    Whether the ball is on the pitch
+     */
+    private static void update(BallInPlayIndex index, int from, int to, boolean ballInPlay){
+        for(int time = from; time <= to; time += 100){
+            index.update(time, ballInPlay);
+        }
+    }
+
+    /**
+     * The ball is in play from 0 to 1000 and from 5100 to 6000
+     */
+    private static BallInPlayIndex createIndex(){
+        BallInPlayIndex index = new BallInPlayIndex();
+        update(index, 0, 1000, true);
+        update(index, 1100, 5000, false);
+        update(index, 5100, 6000, true);
+        return index;
+    }
+
+    /**
+     * Tests that an interval runs from the first to the last update with the ball on the pitch
+     */
+    @Test
+    public void intervalsBuilt(){
+        BallInPlayIndex index = createIndex();
+
+        assertEquals(2, index.size());
+        assertEquals(0, index.getStartTime(0));
+        assertEquals(1000, index.getEndTime(0));
+        assertEquals(5100, index.getStartTime(1));
+        assertEquals(6000, index.getEndTime(1));
+
+        assertTrue(index.isInPlay(500));
+        assertTrue(index.isInPlay(1000));
+        assertFalse(index.isInPlay(3000));
+        assertFalse(index.isInPlay(7000));
+        assertTrue(index.isInPlay());
+    }
+
+    /**
+     * Tests that a stoppage shorter than the minimum is merged into the surrounding play, while the live state
+     * still shows the ball off the pitch during it
+     */
+    @Test
+    public void shortStoppageMerged(){
+        BallInPlayIndex index = new BallInPlayIndex(2000);
+        update(index, 0, 1000, true);
+        update(index, 1100, 1900, false);
+        assertFalse(index.isInPlay());
+        update(index, 2000, 3000, true);
+
+        assertEquals(1, index.size());
+        assertEquals(0, index.getStartTime(0));
+        assertEquals(3000, index.getEndTime(0));
+        assertTrue(index.isInPlay(1500));
+
+        // A stoppage of the minimum length is kept
+        update(index, 3100, 4900, false);
+        update(index, 5000, 6000, true);
+        assertEquals(2, index.size());
+        assertEquals(5000, index.getStartTime(1));
+    }
+
+    /**
+     * Tests finding the next restart of play when playing forwards and the last play when playing backwards
+     */
+    @Test
+    public void nextAndPreviousInPlay(){
+        BallInPlayIndex index = createIndex();
+
+        assertEquals(0, index.nextInPlay(-100));
+        assertEquals(500, index.nextInPlay(500));
+        assertEquals(5100, index.nextInPlay(3000));
+        assertEquals(-1, index.nextInPlay(7000));
+
+        assertEquals(-1, index.previousInPlay(-100));
+        assertEquals(1000, index.previousInPlay(3000));
+        assertEquals(5500, index.previousInPlay(5500));
+        assertEquals(6000, index.previousInPlay(7000));
+    }
+
+    /**
+     * Tests the effective playing time of each half, where the gap in the data at half time ends the interval of
+     * play even though the ball is on the pitch either side of it
+     */
+    @Test
+    public void effectiveTimePerHalf(){
+        BallInPlayIndex index = new BallInPlayIndex();
+        update(index, 0, 10000, true);
+        update(index, 10100, 14900, false);
+        update(index, 15000, 45000, true);
+        update(index, 60000, 105000, true);
+
+        assertEquals(3, index.size());
+        assertEquals(45000, index.getEndTime(1));
+        assertEquals(60000, index.getStartTime(2));
+
+        assertEquals(40000, index.getEffectiveTime(0, 45000));
+        assertEquals(0, index.getEffectiveTime(45000, 60000));
+        assertEquals(45000, index.getEffectiveTime(60000, 105000));
+        // Only the part of an interval inside the range is counted
+        assertEquals(5000, index.getEffectiveTime(5000, 12000));
+    }
+}
@@ -5,10 +5,10 @@ import football.visualiser.interfaces.IFootballSensor;
 import football.visualiser.interfaces.IMatchData;
 import football.visualiser.interfaces.IPlayerSensor;
 import football.visualiser.models.entities.*;
-import football.visualiser.SystemData.EntityType;
 
 import static football.visualiser.SystemData.*;
 
+import java.io.IOException;
 import java.util.*;
 
 
@@ -34,10 +34,7 @@ import java.util.*;
  */
 
 public class DataAnalyser {
-    private int dataX = 3;
-    private int dataY = 2;
     private int numberOfPlayersOnTeam = 8;
-    private int oneMetre = 1000;
     private int ballInPossessionStartTime;
     private int ballInPossessionEndTime;
     private int tackleStartTime;
@@ -49,8 +46,8 @@ public class DataAnalyser {
     private double blueTeamShotAccuracy = 0;
     private double redTeamShotAccuracy = 0 ;
 
-    private volatile static Player playerInPossession = null;
-    private volatile static Player lastNonGoalieInPossession = null;
+    private volatile Player playerInPossession = null;
+    private volatile Player lastNonGoalieInPossession = null;
     private int[] footballIDs;
     private int[] referees = { 105, 106 };
 
@@ -81,91 +78,87 @@ public class DataAnalyser {
 
     private final int PRE_HIGHLIGHT_MILLISECONDS = 5000;
     private final int PRE_121_MILLISECONDS = 10000;
-    private final int POSSESSION_TRIGGER_DISTANCE = 1000;
-    private final int POSSESSION_STILL_HELD_DISTANCE = 2000;
-    private final int AVERAGE_ARRAY_COUNTER = 0;
-    private final int AVERAGE_ARRAY_Y = 1;
-    private final int AVERAGE_ARRAY_X = 2;
+    private final int possessionTriggerDistance;
+    private final int possessionStillHeldDistance;
 
-    private final double BALL_KICK_VELOCITY_THRESHOLD = 1.2;
-    private final double BALL_STOPPED_VELOCITY_THRESHOLD = 0.4;
+    private final double ballKickVelocityThreshold;
+    private final double ballStoppedVelocityThreshold;
+
+    private final int tackleDistance;
+    // Length of time two players are in close proximity with the ball
+    private final int tackleDurationThreshold;
 
     private boolean sidesSwitched = false;
 
+    private final DetectorConfiguration configuration;
+
     public DataAnalyser(int[] footballIDs) {
+        this(footballIDs, DetectorConfiguration.DEFAULT);
+    }
+
+    /**
+     * @param footballIDs       IDs of the footballs
+     * @param configuration     Thresholds used to detect possession, ball interactions and tackles
+     */
+    public DataAnalyser(int[] footballIDs, DetectorConfiguration configuration) {
         this.footballIDs = footballIDs;
+        this.configuration = configuration;
+        possessionTriggerDistance = configuration.getPossessionTriggerDistance();
+        possessionStillHeldDistance = configuration.getPossessionStillHeldDistance();
+        ballKickVelocityThreshold = configuration.getBallKickVelocityThreshold();
+        ballStoppedVelocityThreshold = configuration.getBallStoppedVelocityThreshold();
+        tackleDistance = configuration.getTackleDistance();
+        tackleDurationThreshold = configuration.getTackleDurationThreshold();
     }
 
     /**
-     * Calculates the medium positions of all entities at the start of the match.
-     * These average positions are then used to decipher which team a player is on and whether
-     * they are goal keepers or not
+     * Works out which sensors are attached to which players and which team each player is on by sampling the
+     * first half of the match. Footballs and referees are ignored
      *
      * Author: Oscar Mason
      *
-     * @param matchData Match data which provides access to the file itself
+     * @param matchDataFileLocation Location of the match data file
+     * @param matchTimeStamps       Start and end time stamps of the first and second half
+     * @return                      The assignment of sensors to players and players to teams
+     * @throws IOException          If the match data file cannot be read
+     * @throws InterruptedException If the thread is interrupted while the file is being sampled
      */
-    public HashMap<Integer, int[]> calculateEntityAverageStartPosition(IMatchData matchData) {
-        int[] tokens;
-        int id;
-
-        HashMap<Integer, int[]> startPosition = new HashMap<>();
-        int[] entityPositions;
-
-        // Use 4000 iterations of the data to calculate their start positions
-        for (int i = 0; i < 4000; i++) {
-            tokens = matchData.getNextLineAsInt();
-            id = tokens[dataID];
+    public EntityAssignment assignEntities(String matchDataFileLocation, String[] matchTimeStamps)
+            throws IOException, InterruptedException {
+        int[] ignoredIDs = Arrays.copyOf(footballIDs, footballIDs.length + referees.length);
+        System.arraycopy(referees, 0, ignoredIDs, footballIDs.length, referees.length);
 
-            if (!startPosition.containsKey(id)) startPosition.put(id, new int[]{0, 0, 0});
-
-            entityPositions = startPosition.get(id);
-
-            entityPositions[AVERAGE_ARRAY_COUNTER]++;
-            entityPositions[AVERAGE_ARRAY_X] = entityPositions[AVERAGE_ARRAY_X] + tokens[dataX];
-            entityPositions[AVERAGE_ARRAY_Y] = entityPositions[AVERAGE_ARRAY_Y] + tokens[dataY];
-        }
-
-        // Divide totals by counter to get the average
-        for (Integer key : startPosition.keySet()) {
-            startPosition.get(key)[AVERAGE_ARRAY_X] = startPosition.get(key)[AVERAGE_ARRAY_X]
-                    /= startPosition.get(key)[AVERAGE_ARRAY_COUNTER];
-            startPosition.get(key)[AVERAGE_ARRAY_Y] = startPosition.get(key)[AVERAGE_ARRAY_Y]
-                    /= startPosition.get(key)[AVERAGE_ARRAY_COUNTER];
-        }
-
-        matchData.goToFirstHalf();
-        return startPosition;
+        return new EntityAssigner(matchDataFileLocation, matchTimeStamps, ignoredIDs, numberOfPlayersOnTeam)
+                .assign();
     }
 
     /**
-     * Cycles through the IDs in the list of start positions and uses them to decipher, partially from the users input,
-     * whether the entity is a football or a player and calls the corresponding method for each
+     * Creates the player entities and their sensors from the assignment, sets the team of each player and creates
+     * the goal keepers, then creates the footballs
      *
      * Author: Oscar Mason
      *
-     * @param startPositions    The starting positions of each entity
+     * @param assignment        Which sensors belong to which players and which team each player is on
      * @param playerSensors     Sensors attached to players
      * @param footballSensors   Sensors attached to the footballs
      * @param players           Player entities
      * @param footballs         Football entities
      */
-    public void createEntities(HashMap<Integer, int[]> startPositions,
+    public void createEntities(EntityAssignment assignment,
                                HashMap<Integer, IPlayerSensor<Player>> playerSensors,
                                HashMap<Integer, IFootballSensor<Football>> footballSensors,
                                HashMap<Integer, Player> players, HashMap<Integer, Football> footballs) {
-        EntityType entityType;
-        int xPosition;
-        int yPosition;
-
-        for (Integer entityID : startPositions.keySet()) {
-            entityType = getEntityType(entityID);
-            xPosition = startPositions.get(entityID)[AVERAGE_ARRAY_X];
-            yPosition = startPositions.get(entityID)[AVERAGE_ARRAY_Y];
+        for (Integer playerID : assignment.getPlayerSensorIDs().keySet()) {
+            createPlayer(players, playerSensors, assignment.getPlayerSensorIDs().get(playerID),
+                    assignment.getSensorPositions());
+            players.get(playerID).setTeam(assignment.getTeams().get(playerID));
+        }
 
-            if (entityType == EntityType.PLAYER) {
-                createPlayer(players, playerSensors, xPosition, yPosition, entityID);
-            }
+        if (players.containsKey(assignment.getRedGoalKeeperID())) {
+            createGoalKeepers(players.get(assignment.getRedGoalKeeperID()), players, playerSensors);
+        }
+        if (players.containsKey(assignment.getBlueGoalKeeperID())) {
+            createGoalKeepers(players.get(assignment.getBlueGoalKeeperID()), players, playerSensors);
         }
 
         for (Integer footballID : footballIDs) {
@@ -174,56 +167,28 @@ public class DataAnalyser {
     }
 
     /**
-     * Analyses the distance between sensors to decipher sensors which are attached to the same player thus preventing
-     * multiple player entities being created for a single player.
-     *
-     * Sensor belong to the same player if they are within one metre of each other at the start of the match
+     * Creates a player and attaches its sensors. The first sensor is the primary sensor, whose ID is also used as
+     * the ID of the player
      *
      * Author: Oscar Mason
      *
      * @param players           Stores the player entities
-     * @param playerSensors     List of player sensors of which
-     * @param xPosition         Starting x position
-     * @param yPosition         Starting y position
-     * @param sensorID          ID of the sensor
+     * @param playerSensors     Stores the player sensors
+     * @param sensorIDs         IDs of the sensors attached to the player
+     * @param sensorPositions   Starting x and y position of each sensor
      */
-
     private void createPlayer(HashMap<Integer, Player> players, HashMap<Integer, IPlayerSensor<Player>> playerSensors,
-                              int xPosition, int yPosition, int sensorID) {
-        boolean addPlayer = true;
-        int samePlayerID = 0;
-
-        for (Integer key : players.keySet()) {
-            // If two sensors are within one metre of each other at the start, the sensors will be attached to
-            // the same player
-            if (Math.abs(xPosition - players.get(key).getX()) < oneMetre
-                    && Math.abs(yPosition - players.get(key).getY()) < oneMetre) {
-                addPlayer = false;
-                samePlayerID = key;
-                break;
-            }
+                              List<Integer> sensorIDs, HashMap<Integer, int[]> sensorPositions) {
+        Player player = new Player(sensorIDs.get(0));
+        players.put(player.getID(), player);
+
+        for (Integer sensorID : sensorIDs) {
+            IPlayerSensor<Player> sensor = new PlayerSensor<>(sensorID, player, sensorID == player.getID());
+            player.addSensor(sensor);
+            sensor.setX(sensorPositions.get(sensorID)[0]);
+            sensor.setY(sensorPositions.get(sensorID)[1]);
+            playerSensors.put(sensorID, sensor);
         }
-
-        IPlayerSensor<Player> sensor;
-        Player player;
-
-        // If it has been calculated that there is a new player, create a new one and add it to the players hash map.
-        // The player sensor in question should be attached to the player whether the player is new or not.
-        // If the player is new, the current sensor should be set as the primary sensor for that player (true)
-        if (addPlayer) {
-            player = new Player(sensorID);
-            sensor = new PlayerSensor<>(sensorID, player, true);
-            players.put(sensorID, player);
-
-        } else {
-            player = players.get(samePlayerID);
-            sensor = new PlayerSensor<>(sensorID, player, false);
-        }
-
-        player.addSensor(sensor);
-        sensor.setX(xPosition);
-        sensor.setY(yPosition);
-        playerSensors.put(sensorID, sensor);
     }
 
 
@@ -249,54 +214,6 @@ public class DataAnalyser {
         footballSensors.put(sensorID, sensor);
     }
 
-    /**
-     * Analyse the X starting coordinates of the players to decipher which team each player is on such that the first
-     * half of the total number of players on the left will make up the red team, and the other half will make up the
-     * blue team
-     *
-     * Author: Oscar Mason
-     *
-     * @param pitchStartX       The x coordinate of where the football pitch starts.
-     * @param players           Contains all the player entities
-     * @param playerSensors     Contains all the player sensors
-     */
-    public void assignPlayersToTeams(int pitchStartX, HashMap<Integer, Player> players, HashMap<Integer,
-            IPlayerSensor<Player>> playerSensors){
-        int teamAllocationCounter = 0;
-        Player player;
-        int leftestPlayer;
-        int key = 0;
-        Player redGoalKeeper = null;
-        Player blueGoalKeeper = null;
-
-        for(int i = 0; i < numberOfPlayersOnTeam * 2; i++){
-            leftestPlayer = pitchStartX;
-            // Search for the player furthest to the left which has NOT already been assigned to a team (its team
-            // value is set to null)
-            for(Integer currentKey : players.keySet()){
-                player = players.get(currentKey);
-                if(player.getX() < leftestPlayer && player.getTeam() == null) {
-                    leftestPlayer = player.getX();
-                    key = currentKey;
-                }
-            }
-            player = players.get(key);
-
-            // If the player is the furthest player to the left or right, make them the goal keepers
-            if(teamAllocationCounter == 0) redGoalKeeper = player;
-            else if(teamAllocationCounter == numberOfPlayersOnTeam * 2 - 1) blueGoalKeeper = player;
-
-            // Assign the players a team; the furthest players to the left will be set to red, the rest to blue
-            if(player != null){
-                player.setTeam(teamAllocationCounter < numberOfPlayersOnTeam ? Team.RED : Team.BLUE);
-                teamAllocationCounter++;
-            }
-        }
-
-        createGoalKeepers(redGoalKeeper, players, playerSensors);
-        createGoalKeepers(blueGoalKeeper, players, playerSensors);
-    }
-
     /**
      * Creates the goal keepers
      *
@@ -359,7 +276,7 @@ public class DataAnalyser {
                 football.getX(), football.getY());
         // Check whether the closest player was in close proximity of the ball and a kick occurred. If so, set them
         // as having possession of the ball
-        if(sensorClosestToFootball.getOwner() != playerInPossession && distance <= POSSESSION_TRIGGER_DISTANCE){
+        if(sensorClosestToFootball.getOwner() != playerInPossession && distance <= possessionTriggerDistance){
             // Update the amount of time the previous player was in possession of the ball for
             if (currentPlayerInPossession != null && ballInPossessionEndTime != 0) {
                 updatePlayerPossessionTime(currentPlayerInPossession, ballInPossessionEndTime - ballInPossessionStartTime);
@@ -386,7 +303,7 @@ public class DataAnalyser {
                 distance = calculateDistance(playerInPossession.getX(), playerInPossession.getY(),
                         football.getX(), football.getY());
 
-                if(distance <= POSSESSION_STILL_HELD_DISTANCE){
+                if(distance <= possessionStillHeldDistance){
                     ballInPossessionEndTime = currentTime;
                     return getPlayerInPossession();
                 }
@@ -594,10 +511,10 @@ public class DataAnalyser {
         // threshold, then the ball must have interacted wit something
         double ratio = ((double) football.getCurrentBallVelocity()
                 / (double) football.getPreviousBallVelocity());
-        if(ratio >= BALL_KICK_VELOCITY_THRESHOLD){
+        if(ratio >= ballKickVelocityThreshold){
             ballKicked = true;
         }
-        if(ratio < BALL_STOPPED_VELOCITY_THRESHOLD){
+        if(ratio < ballStoppedVelocityThreshold){
             ballStopped = true;
         }
         football.setBallRecentlyKicked(ballKicked);
@@ -612,7 +529,7 @@ public class DataAnalyser {
      *
      * @param playerSensors Sensors whose distance should be checked
      * @param football      Football currently in use
-     * @return              Player closest to the football
+     * @return              Player closest to the football, or null if every sensor has been rejected
      */
     public IPlayerSensor<Player> playerClosestToFootball (HashMap<Integer, IPlayerSensor<Player>> playerSensors,
                                                           Football football){
@@ -620,8 +537,10 @@ public class DataAnalyser {
         int footballX = football.getX();
         int footballY = football.getY();
         int playerDistance;
-        IPlayerSensor<Player> closestSensor = playerSensors.values().iterator().next();
+        IPlayerSensor<Player> closestSensor = null;
         for(IPlayerSensor<Player> playerSensor : playerSensors.values()){
+            // Ignore sensors which the sensor fusion has rejected as glitching
+            if(!playerSensor.getOwner().isSensorAccepted(playerSensor.getID())) continue;
             playerDistance = calculateDistance(playerSensor.getX(), playerSensor.getY(), footballX, footballY);
             if(playerDistance < shortestDistance) {
                 shortestDistance = playerDistance;
@@ -666,11 +585,9 @@ public class DataAnalyser {
         Team teamOfClosestPlayerToBall = closestPlayerToBall.getOwner().getTeam();
         int closestPlayerToBallX = closestPlayerToBall.getX();
         int closestPlayerToBallY = closestPlayerToBall.getY();
-        int tackleDistance = 1000;
-        // Length of time two players are in close proximity with the ball
-        int tackleDurationThreshold = 1000;
         for(IPlayerSensor<Player> playerSensor : playerSensors.values()){
             if(teamOfClosestPlayerToBall != playerSensor.getOwner().getTeam()
+                    && playerSensor.getOwner().isSensorAccepted(playerSensor.getID())
                     && calculateDistance(closestPlayerToBallX, closestPlayerToBallY,
                     playerSensor.getX(), playerSensor.getY()) < tackleDistance){
                 // If a tackle was not already in progress, save the start time of the tackle
@@ -728,26 +645,6 @@ public class DataAnalyser {
         return (double) matchTime / (double) matchData.getTotalMatchTimeInMilliseconds();
     }
 
-    /**
-     * Returns the entity type based on their ID
-     *
-     * Author: Oscar Mason
-     *
-     * @param id    ID of the entity
-     * @return      The corresponding entity type
-     */
-    private EntityType getEntityType(int id){
-        for(int footballID : footballIDs){
-            if(id == footballID) return EntityType.BALL;
-        }
-
-        for(int refID : referees){
-            if (id == refID) return EntityType.REFEREE;
-        }
-
-        return EntityType.PLAYER;
-    }
-
     /**
      * Check whether an entity has gone out of bounds of the pitch
      *
@@ -853,6 +750,17 @@ public class DataAnalyser {
         return redTeamShotAccuracy;
     }
 
+    public DetectorConfiguration getConfiguration(){
+        return configuration;
+    }
+
+    /**
+     * @return  Number of passes made by both teams, successful or not
+     */
+    public int getPassCount(){
+        return (int) (totalPassCountBlue + totalPassCountRed);
+    }
+
     public Map<Integer, Integer> getIndividualSuccPasses(){
         return individualSuccPasses;
     }
@@ -937,12 +845,13 @@ public class DataAnalyser {
      *
      * @param pitch     Pitch to check whether the player is out of bounds
      * @param players   Players whose heat maps are to be updated
+     * @param time      Current time in the match in milliseconds
      */
 
-    public void updatePlayerHeatMaps(Pitch pitch, HashMap<Integer, Player> players){
+    public void updatePlayerHeatMaps(Pitch pitch, HashMap<Integer, Player> players, int time){
         for(Player player : players.values()){
             if(!outOfBounds(pitch, player.getX(), player.getY())){
-                player.getHeatMap().incrementHeatMap(player.getX(), player.getY(), sidesSwitched);
+                player.getHeatMap().incrementHeatMap(player.getX(), player.getY(), sidesSwitched, time);
             }
         }
     }
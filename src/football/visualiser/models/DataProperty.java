@@ -26,4 +26,34 @@ public class DataProperty extends Properties {
         load(input);
         input.close();
     }
+
+    /**
+     * @return  Start and end time stamps of the first and second half
+     */
+    public String[] getMatchTimeStamps() {
+        return getProperty("matchTimeStamps").trim().split(",");
+    }
+
+    /**
+     * @return  Start x, end x, start y, and end y of the pitch
+     */
+    public int[] getPitchCoordinates() {
+        return parseIntegers(getProperty("pitchCoordinates"));
+    }
+
+    /**
+     * @return  IDs of the footballs
+     */
+    public int[] getFootballIDs() {
+        return parseIntegers(getProperty("footballIDs"));
+    }
+
+    private int[] parseIntegers(String property) {
+        String[] tokens = property.trim().split(",");
+        int[] values = new int[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            values[i] = Integer.parseInt(tokens[i].trim());
+        }
+        return values;
+    }
 }
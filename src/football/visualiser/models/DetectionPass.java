@@ -0,0 +1,208 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IMatchData;
+import football.visualiser.interfaces.IPlayerSensor;
+import football.visualiser.models.AnalysisMetrics.Stage;
+import football.visualiser.models.entities.Football;
+import football.visualiser.models.entities.Player;
+
+import java.util.HashMap;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Detection Pass</h1>
+ * Runs the detectors of a {@link DataAnalyser} over the rows of a match one row at a time, keeping the positions
+ * of the entities, the football in play and the {@link BallInPlayIndex} up to date as it goes.
+ *
+ * {@link MatchModel#analyseMatchData(DataAnalyser, Pitch)} passes it the rows kept by its sampler and the
+ * {@link ParameterSweep} the rows of a {@link FrameStore}, so that events are detected in the same way by both.
+ * After each row, {@link #isNewFrame()} and {@link #isNewSecond()} tell the caller whether the players' fused
+ * positions were published or the once a second detectors were run, for the caller's own work such as recording
+ * the playback track.
+ *
+ * Times are in milliseconds
+ */
+public class DetectionPass {
+    private static final int SECOND = 1000;
+    private static final int TWO_SECONDS = 2000;
+    // Sensors are sampled at around 25Hz, so the players' sensors are fused at the same rate
+    private static final int FUSION_FRAME_LENGTH = 40;
+
+    private final DataAnalyser dataAnalyser;
+    private final IMatchData matchData;
+    private final Pitch pitch;
+    private final HashMap<Integer, IPlayerSensor<Player>> playerSensors;
+    private final HashMap<Integer, Player> players;
+    private final HashMap<Integer, Football> footballs;
+    private final AnalysisMetrics analysisMetrics;
+    private final BallInPlayIndex ballInPlayIndex = new BallInPlayIndex();
+
+    private Football footballInPlay;
+    private int prevMillisecond = 0;
+    private int twoSeconds = 0;
+    private int fusionFrame = Integer.MIN_VALUE;
+    private boolean newFrame;
+    private boolean newSecond;
+
+    private double blueTeamPassAccuracy = 0.0;
+    private double redTeamPassAccuracy = 0.0;
+
+    /**
+     * @param dataAnalyser      Data analyser which carries out the detections
+     * @param matchData         Match data the rows are read from, used for the start and end of each half
+     * @param pitch             Pitch the match is played on
+     * @param playerSensors     Sensors attached to players
+     * @param players           Player entities
+     * @param footballs         Football entities, of which the first is taken to be in play at the start
+     * @param analysisMetrics   Metrics each detector is timed through
+     */
+    public DetectionPass(DataAnalyser dataAnalyser, IMatchData matchData, Pitch pitch,
+                         HashMap<Integer, IPlayerSensor<Player>> playerSensors, HashMap<Integer, Player> players,
+                         HashMap<Integer, Football> footballs, AnalysisMetrics analysisMetrics){
+        this.dataAnalyser = dataAnalyser;
+        this.matchData = matchData;
+        this.pitch = pitch;
+        this.playerSensors = playerSensors;
+        this.players = players;
+        this.footballs = footballs;
+        this.analysisMetrics = analysisMetrics;
+        this.footballInPlay = footballs.get(footballs.keySet().iterator().next());
+    }
+
+    /**
+     * Updates the entities with a row and runs the detectors which are due. Must be called in time order
+     *
+     * @param row   Row of match data, with the time stamp in milliseconds
+     */
+    public void analyseRow(int[] row){
+        int currentID = row[dataID];
+        int currentMillisecond = row[dataTimeStamp];
+        long timer;
+
+        // Stores which football is currently in play. This can only change when a football moves
+        if(footballs.containsKey(currentID)){
+            timer = analysisMetrics.start(Stage.FOOTBALL_IN_PLAY);
+            footballInPlay = dataAnalyser.getFootBallInPlay(pitch, footballs, footballInPlay);
+            analysisMetrics.stop(Stage.FOOTBALL_IN_PLAY, timer);
+        }
+
+        timer = analysisMetrics.start(Stage.BALL_IN_PLAY);
+        ballInPlayIndex.update(currentMillisecond,
+                !dataAnalyser.outOfBounds(pitch, footballInPlay.getX(), footballInPlay.getY()));
+        analysisMetrics.stop(Stage.BALL_IN_PLAY, timer);
+
+        // Possession and tackles can only change while the ball is on the pitch. This uses the live state rather
+        // than the merged intervals, as explained in BallInPlayIndex
+        if(ballInPlayIndex.isInPlay()){
+            timer = analysisMetrics.start(Stage.POSSESSION);
+            IPlayerSensor<Player> playerSensorClosestToBall =
+                    dataAnalyser.playerClosestToFootball(playerSensors, footballInPlay);
+            // No one is given possession or a tackle while every sensor is rejected as glitching
+            if(playerSensorClosestToBall != null){
+                dataAnalyser.checkIfPlayerIsInPossession(playerSensorClosestToBall, footballInPlay,
+                        currentMillisecond);
+            }
+            analysisMetrics.stop(Stage.POSSESSION, timer);
+
+            if(playerSensorClosestToBall != null){
+                timer = analysisMetrics.start(Stage.TACKLE);
+                dataAnalyser.detectTackle(currentMillisecond, playerSensorClosestToBall, playerSensors, matchData);
+                analysisMetrics.stop(Stage.TACKLE, timer);
+            }
+        }
+
+        timer = analysisMetrics.start(Stage.SENSORS);
+        if(players.containsKey(currentID)){
+            players.get(currentID).setX(row[dataXPosition]);
+            players.get(currentID).setY(row[dataYPosition]);
+        }
+
+        if(playerSensors.containsKey(currentID)){
+            playerSensors.get(currentID).setX(row[dataXPosition]);
+            playerSensors.get(currentID).setY(row[dataYPosition]);
+            playerSensors.get(currentID).getOwner().updateSensorPosition(currentID, row[dataXPosition],
+                    row[dataYPosition], currentMillisecond);
+        }
+        analysisMetrics.stop(Stage.SENSORS, timer);
+
+        // Fuse the players' sensors once per frame
+        newFrame = (long) currentMillisecond - fusionFrame >= FUSION_FRAME_LENGTH || currentMillisecond < fusionFrame;
+        if(newFrame){
+            timer = analysisMetrics.start(Stage.FUSION);
+            for(Player player : players.values()){
+                player.publishFusedPosition(currentMillisecond);
+            }
+            fusionFrame = currentMillisecond;
+            analysisMetrics.stop(Stage.FUSION, timer);
+        }
+
+        if(footballs.containsKey(currentID)){
+            footballs.get(currentID).setX(row[dataXPosition]);
+            footballs.get(currentID).setY(row[dataYPosition]);
+            footballs.get(currentID).setZ(row[dataZPosition]);
+            footballs.get(currentID).setCurrentVelocity(row[velocityPosition]);
+        }
+
+        // Performs these operations once every two seconds
+        if(currentMillisecond - twoSeconds > TWO_SECONDS){
+            timer = analysisMetrics.start(Stage.PASS_ACCURACY);
+            dataAnalyser.interactionWithFootballOccurred(footballInPlay);
+            twoSeconds = currentMillisecond;
+            blueTeamPassAccuracy = dataAnalyser.detectSuccessfulPassBlueTeam();
+            redTeamPassAccuracy = dataAnalyser.detectSuccessfulPassRedTeam();
+            analysisMetrics.stop(Stage.PASS_ACCURACY, timer);
+        }
+
+        // Performs these operations once every second
+        newSecond = currentMillisecond - prevMillisecond > SECOND;
+        if(newSecond){
+            dataAnalyser.switchSides(currentMillisecond, matchData, pitch);
+            prevMillisecond = currentMillisecond;
+
+            timer = analysisMetrics.start(Stage.PASS_121);
+            dataAnalyser.detect1_2_1PassTeam(currentMillisecond, matchData, pitch.getLeftGoal(), pitch.getRightGoal());
+            analysisMetrics.stop(Stage.PASS_121, timer);
+        }
+
+        // Check whether the game has switched sides
+        timer = analysisMetrics.start(Stage.SWITCH_SIDES);
+        dataAnalyser.switchSides(currentMillisecond, matchData, pitch);
+        analysisMetrics.stop(Stage.SWITCH_SIDES, timer);
+
+        timer = analysisMetrics.start(Stage.GOALS);
+        dataAnalyser.detectGoal(currentMillisecond, matchData, pitch, footballInPlay, pitch.getLeftGoal(), true);
+        dataAnalyser.detectGoal(currentMillisecond, matchData, pitch, footballInPlay, pitch.getRightGoal(), false);
+        analysisMetrics.stop(Stage.GOALS, timer);
+    }
+
+    /**
+     * @return  True if the players' fused positions were published by the last row
+     */
+    public boolean isNewFrame(){
+        return newFrame;
+    }
+
+    /**
+     * @return  True if the once a second detectors were run by the last row
+     */
+    public boolean isNewSecond(){
+        return newSecond;
+    }
+
+    public Football getFootballInPlay(){
+        return footballInPlay;
+    }
+
+    public BallInPlayIndex getBallInPlayIndex(){
+        return ballInPlayIndex;
+    }
+
+    public double getBlueTeamPassAccuracy(){
+        return blueTeamPassAccuracy;
+    }
+
+    public double getRedTeamPassAccuracy(){
+        return redTeamPassAccuracy;
+    }
+}
@@ -0,0 +1,71 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Detector Configuration</h1>
+ * The thresholds used by the {@link DataAnalyser} to detect possession, ball interactions and tackles. The
+ * defaults are the values the analyser has always used; other configurations can be compared against them with
+ * a {@link ParameterSweep}.
+ *
+ * Distances are in millimetres and durations in milliseconds
+ */
+public class DetectorConfiguration {
+    public static final DetectorConfiguration DEFAULT =
+            new DetectorConfiguration("default", 1000, 2000, 1.2, 0.4, 1000, 1000);
+
+    private final String name;
+    private final int possessionTriggerDistance;
+    private final int possessionStillHeldDistance;
+    private final double ballKickVelocityThreshold;
+    private final double ballStoppedVelocityThreshold;
+    private final int tackleDistance;
+    private final int tackleDurationThreshold;
+
+    /**
+     * @param name                          Name shown when comparing configurations
+     * @param possessionTriggerDistance     Distance within which the closest player takes possession
+     * @param possessionStillHeldDistance   Distance within which the player in possession keeps it
+     * @param ballKickVelocityThreshold     Ratio of the ball's new to old velocity above which it was kicked
+     * @param ballStoppedVelocityThreshold  Ratio of the ball's new to old velocity below which it was stopped
+     * @param tackleDistance                Distance between opposing players which counts as a tackle
+     * @param tackleDurationThreshold       How long the players must stay that close for a tackle
+     */
+    public DetectorConfiguration(String name, int possessionTriggerDistance, int possessionStillHeldDistance,
+                                 double ballKickVelocityThreshold, double ballStoppedVelocityThreshold,
+                                 int tackleDistance, int tackleDurationThreshold){
+        this.name = name;
+        this.possessionTriggerDistance = possessionTriggerDistance;
+        this.possessionStillHeldDistance = possessionStillHeldDistance;
+        this.ballKickVelocityThreshold = ballKickVelocityThreshold;
+        this.ballStoppedVelocityThreshold = ballStoppedVelocityThreshold;
+        this.tackleDistance = tackleDistance;
+        this.tackleDurationThreshold = tackleDurationThreshold;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public int getPossessionTriggerDistance(){
+        return possessionTriggerDistance;
+    }
+
+    public int getPossessionStillHeldDistance(){
+        return possessionStillHeldDistance;
+    }
+
+    public double getBallKickVelocityThreshold(){
+        return ballKickVelocityThreshold;
+    }
+
+    public double getBallStoppedVelocityThreshold(){
+        return ballStoppedVelocityThreshold;
+    }
+
+    public int getTackleDistance(){
+        return tackleDistance;
+    }
+
+    public int getTackleDurationThreshold(){
+        return tackleDurationThreshold;
+    }
+}
@@ -0,0 +1,418 @@
+package football.visualiser.models;
+
+import football.visualiser.SystemData;
+import football.visualiser.SystemData.Team;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Entity Assigner</h1>
+ * Works out which sensors are attached to the same player and which team each player is on.
+ *
+ * Several short windows spread across the first half are read in parallel, each with its own {@link MatchData},
+ * and the position of every sensor is averaged into small time bins. Because only a fixed number of windows of
+ * a fixed length are read, the time taken does not depend on the size of the file.
+ *
+ * Sensors are joined into players when they stay close together in every window and move in the same direction
+ * from bin to bin, so players standing together at the start of the match, or warming up away from their
+ * positions, are not merged. Teams are then split by the average side of the pitch each player is on, with the
+ * players furthest to the left and right made the goal keepers
+ */
+public class EntityAssigner {
+    private static final int NUMBER_OF_WINDOWS = 8;
+    private static final int WINDOW_MILLISECONDS = 10000;
+    private static final int BIN_MILLISECONDS = 200;
+    private static final int BINS_PER_WINDOW = WINDOW_MILLISECONDS / BIN_MILLISECONDS;
+    // Further than a player can move between two bins
+    private static final int OUTLIER_DISTANCE = 3000;
+
+    // Sensors on the same player are usually within this distance of each other. The median is used rather than
+    // a higher percentile as a glitching sensor can be far from the other sensors on the player for a while
+    private static final int SAME_PLAYER_DISTANCE = 1500;
+    private static final double DISTANCE_PERCENTILE = 0.5;
+    // How similar the movement of two sensors must be, where 1.0 is identical
+    private static final double MINIMUM_CORRELATION = 0.5;
+    private static final int MINIMUM_SHARED_BINS = 10;
+    // Two on each leg and one on each hand for goal keepers
+    private static final int MAX_SENSORS_PER_PLAYER = 4;
+
+    private static final long TIME_STAMP_DIVISOR = (long) Math.pow(10, SystemData.timeOffset);
+
+    private final String fileLocation;
+    private final String[] matchTimeStamps;
+    private final HashSet<Integer> ignoredIDs = new HashSet<>();
+    private final int numberOfPlayersOnTeam;
+
+    // Average position of each sensor in each bin, NaN if the sensor did not report during the bin
+    private int[] sensorIDs;
+    private double[][] binXs;
+    private double[][] binYs;
+    private double[][] pairDistances;
+
+    /**
+     * @param fileLocation          Location of the match data file
+     * @param matchTimeStamps       Start and end time stamps of the first and second half
+     * @param ignoredIDs            IDs of sensors which are not attached to players, such as footballs and referees
+     * @param numberOfPlayersOnTeam Number of players expected on each team
+     */
+    public EntityAssigner(String fileLocation, String[] matchTimeStamps, int[] ignoredIDs,
+                          int numberOfPlayersOnTeam){
+        this.fileLocation = fileLocation;
+        this.matchTimeStamps = matchTimeStamps;
+        this.numberOfPlayersOnTeam = numberOfPlayersOnTeam;
+        for(int ignoredID : ignoredIDs) this.ignoredIDs.add(ignoredID);
+    }
+
+    /**
+     * Samples the first half and assigns the sensors to players and the players to teams
+     *
+     * @return                      The assignment
+     * @throws IOException          If the match data file cannot be read or no player sensors are found
+     * @throws InterruptedException If the thread is interrupted while waiting for the windows to be read
+     */
+    public EntityAssignment assign() throws IOException, InterruptedException {
+        List<HashMap<Integer, double[][]>> windows = sampleWindows();
+        collectBins(windows);
+        if(sensorIDs.length == 0) throw new IOException("No player sensors found in " + fileLocation);
+
+        calculatePairDistances();
+        int[] clusters = clusterSensors();
+
+        // Group the sensors of each cluster, the lowest sensor ID becomes the ID of the player
+        HashMap<Integer, List<Integer>> clusterSensorIDs = new HashMap<>();
+        for(int sensor = 0; sensor < sensorIDs.length; sensor++){
+            clusterSensorIDs.computeIfAbsent(clusters[sensor], cluster -> new ArrayList<>()).add(sensorIDs[sensor]);
+        }
+        HashMap<Integer, List<Integer>> playerSensorIDs = new HashMap<>();
+        HashMap<Integer, Integer> sensorPlayers = new HashMap<>();
+        for(List<Integer> sensors : clusterSensorIDs.values()){
+            sensors.sort(null);
+            playerSensorIDs.put(sensors.get(0), sensors);
+            for(Integer sensorID : sensors) sensorPlayers.put(sensorID, sensors.get(0));
+        }
+
+        HashMap<Integer, int[]> sensorPositions = new HashMap<>();
+        for(int sensor = 0; sensor < sensorIDs.length; sensor++){
+            sensorPositions.put(sensorIDs[sensor], new int[]{ (int) mean(binXs[sensor], 0, binXs[sensor].length),
+                    (int) mean(binYs[sensor], 0, binYs[sensor].length) });
+        }
+
+        // Split the teams by the average side of the pitch each player is on, left is red
+        List<Integer> playerIDs = new ArrayList<>(playerSensorIDs.keySet());
+        HashMap<Integer, Double> meanXs = new HashMap<>();
+        for(Integer playerID : playerIDs){
+            double sum = 0;
+            for(Integer sensorID : playerSensorIDs.get(playerID)) sum += sensorPositions.get(sensorID)[0];
+            meanXs.put(playerID, sum / playerSensorIDs.get(playerID).size());
+        }
+        playerIDs.sort((a, b) -> Double.compare(meanXs.get(a), meanXs.get(b)));
+
+        HashMap<Integer, Team> teams = new HashMap<>();
+        int redPlayers = playerIDs.size() / 2;
+        for(int i = 0; i < playerIDs.size(); i++){
+            teams.put(playerIDs.get(i), i < redPlayers ? Team.RED : Team.BLUE);
+        }
+        int redGoalKeeperID = redPlayers > 0 ? playerIDs.get(0) : -1;
+        int blueGoalKeeperID = playerIDs.size() > 1 ? playerIDs.get(playerIDs.size() - 1) : -1;
+
+        double confidence = calculateSensorConfidence(clusters)
+                * calculateTeamConfidence(teams, sensorPlayers)
+                * Math.min(playerIDs.size(), numberOfPlayersOnTeam * 2)
+                / Math.max(playerIDs.size(), numberOfPlayersOnTeam * 2);
+
+        return new EntityAssignment(playerSensorIDs, teams, sensorPositions, redGoalKeeperID, blueGoalKeeperID,
+                confidence);
+    }
+
+    /**
+     * Reads windows spread evenly across the first half in parallel
+     *
+     * @return  For each window, the sum of the x and y positions and the number of samples of each sensor in
+     *          each bin, keyed by sensor ID
+     */
+    private List<HashMap<Integer, double[][]>> sampleWindows() throws IOException, InterruptedException {
+        int firstHalfStart = convertTimeStampToMilliseconds(matchTimeStamps[FIRST_HALF_START_TIME]);
+        int firstHalfEnd = convertTimeStampToMilliseconds(matchTimeStamps[FIRST_HALF_END_TIME]);
+        int spacing = Math.max(0, firstHalfEnd - firstHalfStart - WINDOW_MILLISECONDS) / (NUMBER_OF_WINDOWS - 1);
+
+        List<Callable<HashMap<Integer, double[][]>>> tasks = new ArrayList<>();
+        for(int i = 0; i < NUMBER_OF_WINDOWS; i++){
+            int windowStart = firstHalfStart + i * spacing;
+            tasks.add(() -> sampleWindow(windowStart));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(NUMBER_OF_WINDOWS, Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "entity-assigner");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        List<HashMap<Integer, double[][]>> windows = new ArrayList<>();
+        try{
+            for(Future<HashMap<Integer, double[][]>> result : executor.invokeAll(tasks)){
+                windows.add(result.get());
+            }
+        }catch (ExecutionException e){
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }finally {
+            executor.shutdownNow();
+        }
+        return windows;
+    }
+
+    private HashMap<Integer, double[][]> sampleWindow(int windowStart) throws IOException {
+        HashMap<Integer, double[][]> bins = new HashMap<>();
+        MatchData matchData = new MatchData(fileLocation, matchTimeStamps);
+        try{
+            matchData.setAnalyticalStrength(0);
+            matchData.goToTimeStamp(String.valueOf(windowStart * TIME_STAMP_DIVISOR));
+
+            int[] row = new int[numberOfFields];
+            while(matchData.getNextLine(row)){
+                int bin = (row[dataTimeStamp] - windowStart) / BIN_MILLISECONDS;
+                if(bin >= BINS_PER_WINDOW) break;
+                if(bin < 0 || ignoredIDs.contains(row[dataID])) continue;
+
+                double[][] sensorBins = bins.computeIfAbsent(row[dataID], id -> new double[3][BINS_PER_WINDOW]);
+
+                // Drop samples far from where the sensor was in the previous bin, or failing that from the
+                // samples already in this bin, so that a glitch does not move the whole bin
+                int reference = bin > 0 && sensorBins[2][bin - 1] > 0 ? bin - 1 : bin;
+                if(sensorBins[2][reference] > 0){
+                    double x = sensorBins[0][reference] / sensorBins[2][reference];
+                    double y = sensorBins[1][reference] / sensorBins[2][reference];
+                    if(Math.hypot(row[dataXPosition] - x, row[dataYPosition] - y) > OUTLIER_DISTANCE) continue;
+                }
+
+                sensorBins[0][bin] += row[dataXPosition];
+                sensorBins[1][bin] += row[dataYPosition];
+                sensorBins[2][bin]++;
+            }
+        }finally {
+            matchData.close();
+        }
+        return bins;
+    }
+
+    /**
+     * Combines the windows into a single series of average positions per sensor
+     */
+    private void collectBins(List<HashMap<Integer, double[][]>> windows){
+        HashSet<Integer> ids = new HashSet<>();
+        for(HashMap<Integer, double[][]> window : windows) ids.addAll(window.keySet());
+
+        sensorIDs = new int[ids.size()];
+        int i = 0;
+        for(Integer id : ids) sensorIDs[i++] = id;
+        Arrays.sort(sensorIDs);
+
+        int totalBins = windows.size() * BINS_PER_WINDOW;
+        binXs = new double[sensorIDs.length][totalBins];
+        binYs = new double[sensorIDs.length][totalBins];
+
+        for(int sensor = 0; sensor < sensorIDs.length; sensor++){
+            Arrays.fill(binXs[sensor], Double.NaN);
+            Arrays.fill(binYs[sensor], Double.NaN);
+            for(int window = 0; window < windows.size(); window++){
+                double[][] sensorBins = windows.get(window).get(sensorIDs[sensor]);
+                if(sensorBins == null) continue;
+                for(int bin = 0; bin < BINS_PER_WINDOW; bin++){
+                    if(sensorBins[2][bin] == 0) continue;
+                    binXs[sensor][window * BINS_PER_WINDOW + bin] = sensorBins[0][bin] / sensorBins[2][bin];
+                    binYs[sensor][window * BINS_PER_WINDOW + bin] = sensorBins[1][bin] / sensorBins[2][bin];
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates how far apart each pair of sensors usually is: the distance which the sensors are within for
+     * most of the bins in which both reported. Pairs which reported together too rarely are treated as far apart
+     */
+    private void calculatePairDistances(){
+        int numberOfSensors = sensorIDs.length;
+        int totalBins = binXs.length == 0 ? 0 : binXs[0].length;
+        double[] distances = new double[totalBins];
+        pairDistances = new double[numberOfSensors][numberOfSensors];
+
+        for(int a = 0; a < numberOfSensors; a++){
+            for(int b = a + 1; b < numberOfSensors; b++){
+                int shared = 0;
+                for(int bin = 0; bin < totalBins; bin++){
+                    if(Double.isNaN(binXs[a][bin]) || Double.isNaN(binXs[b][bin])) continue;
+                    distances[shared++] = Math.hypot(binXs[a][bin] - binXs[b][bin], binYs[a][bin] - binYs[b][bin]);
+                }
+
+                double distance = Double.MAX_VALUE;
+                if(shared >= MINIMUM_SHARED_BINS){
+                    Arrays.sort(distances, 0, shared);
+                    distance = distances[(int) (DISTANCE_PERCENTILE * (shared - 1))];
+                }
+                pairDistances[a][b] = distance;
+                pairDistances[b][a] = distance;
+            }
+        }
+    }
+
+    /**
+     * How similar the movement of two sensors is from bin to bin: 1.0 if they always move in the same direction
+     * by the same amount. Returns 1.0 if the sensors barely moved, as there is nothing to compare
+     */
+    private double movementCorrelation(int a, int b){
+        double dot = 0;
+        double lengthA = 0;
+        double lengthB = 0;
+        for(int bin = 1; bin < binXs[a].length; bin++){
+            // Only compare consecutive bins from the same window
+            if(bin % BINS_PER_WINDOW == 0) continue;
+
+            double ax = binXs[a][bin] - binXs[a][bin - 1];
+            double ay = binYs[a][bin] - binYs[a][bin - 1];
+            double bx = binXs[b][bin] - binXs[b][bin - 1];
+            double by = binYs[b][bin] - binYs[b][bin - 1];
+            if(Double.isNaN(ax) || Double.isNaN(bx)) continue;
+
+            dot += ax * bx + ay * by;
+            lengthA += ax * ax + ay * ay;
+            lengthB += bx * bx + by * by;
+        }
+        if(lengthA == 0 || lengthB == 0) return 1.0;
+        return dot / Math.sqrt(lengthA * lengthB);
+    }
+
+    /**
+     * Joins sensors into players, closest pairs first, as long as the pair stays close together, moves together,
+     * and the player would not have more sensors than a player can wear
+     *
+     * @return  Cluster of each sensor
+     */
+    private int[] clusterSensors(){
+        int numberOfSensors = sensorIDs.length;
+        int[] clusters = new int[numberOfSensors];
+        int[] clusterSizes = new int[numberOfSensors];
+        for(int i = 0; i < numberOfSensors; i++){
+            clusters[i] = i;
+            clusterSizes[i] = 1;
+        }
+
+        List<int[]> candidates = new ArrayList<>();
+        for(int a = 0; a < numberOfSensors; a++){
+            for(int b = a + 1; b < numberOfSensors; b++){
+                if(pairDistances[a][b] <= SAME_PLAYER_DISTANCE && movementCorrelation(a, b) >= MINIMUM_CORRELATION){
+                    candidates.add(new int[]{ a, b });
+                }
+            }
+        }
+        candidates.sort((p, q) -> Double.compare(pairDistances[p[0]][p[1]], pairDistances[q[0]][q[1]]));
+
+        for(int[] pair : candidates){
+            int clusterA = clusters[pair[0]];
+            int clusterB = clusters[pair[1]];
+            if(clusterA == clusterB || clusterSizes[clusterA] + clusterSizes[clusterB] > MAX_SENSORS_PER_PLAYER){
+                continue;
+            }
+
+            for(int i = 0; i < numberOfSensors; i++){
+                if(clusters[i] == clusterB) clusters[i] = clusterA;
+            }
+            clusterSizes[clusterA] += clusterSizes[clusterB];
+            clusterSizes[clusterB] = 0;
+        }
+        return clusters;
+    }
+
+    /**
+     * For each sensor, compares how far it is from the sensors of its own player against how far it is from the
+     * closest sensor of any other player
+     *
+     * @return  Average over all sensors, between 0.0 and 1.0
+     */
+    private double calculateSensorConfidence(int[] clusters){
+        double total = 0;
+        for(int a = 0; a < sensorIDs.length; a++){
+            double inside = 0;
+            double outside = Double.MAX_VALUE;
+            for(int b = 0; b < sensorIDs.length; b++){
+                if(a == b) continue;
+                if(clusters[a] == clusters[b]) inside = Math.max(inside, pairDistances[a][b]);
+                else outside = Math.min(outside, pairDistances[a][b]);
+            }
+            total += Math.max(0, Math.min(1, (outside - inside) / outside));
+        }
+        return total / sensorIDs.length;
+    }
+
+    /**
+     * Checks, in each window, whether each player is closer to the average side of their own team than to that of
+     * the other team
+     *
+     * @return  Fraction of the checks which agreed with the team assignment
+     */
+    private double calculateTeamConfidence(HashMap<Integer, Team> teams, HashMap<Integer, Integer> sensorPlayers){
+        int checks = 0;
+        int agreed = 0;
+        int numberOfWindows = binXs[0].length / BINS_PER_WINDOW;
+
+        for(int window = 0; window < numberOfWindows; window++){
+            int from = window * BINS_PER_WINDOW;
+            HashMap<Integer, double[]> playerXs = new HashMap<>();
+            for(int sensor = 0; sensor < sensorIDs.length; sensor++){
+                double x = mean(binXs[sensor], from, from + BINS_PER_WINDOW);
+                if(Double.isNaN(x)) continue;
+                double[] sum = playerXs.computeIfAbsent(sensorPlayers.get(sensorIDs[sensor]), id -> new double[2]);
+                sum[0] += x;
+                sum[1]++;
+            }
+
+            double[] teamSums = new double[4];
+            for(Integer playerID : playerXs.keySet()){
+                int team = teams.get(playerID) == Team.RED ? 0 : 2;
+                teamSums[team] += playerXs.get(playerID)[0] / playerXs.get(playerID)[1];
+                teamSums[team + 1]++;
+            }
+            if(teamSums[1] == 0 || teamSums[3] == 0) continue;
+            double redX = teamSums[0] / teamSums[1];
+            double blueX = teamSums[2] / teamSums[3];
+
+            for(Integer playerID : playerXs.keySet()){
+                double x = playerXs.get(playerID)[0] / playerXs.get(playerID)[1];
+                boolean closerToRed = Math.abs(x - redX) <= Math.abs(x - blueX);
+                if(closerToRed == (teams.get(playerID) == Team.RED)) agreed++;
+                checks++;
+            }
+        }
+        return checks == 0 ? 0 : (double) agreed / checks;
+    }
+
+    /**
+     * Average of the values in a range, ignoring NaN
+     */
+    private double mean(double[] values, int from, int to){
+        double sum = 0;
+        int count = 0;
+        for(int i = from; i < to; i++){
+            if(Double.isNaN(values[i])) continue;
+            sum += values[i];
+            count++;
+        }
+        return count == 0 ? Double.NaN : sum / count;
+    }
+
+    private int convertTimeStampToMilliseconds(String timeStamp){
+        return (int) (Long.parseLong(timeStamp.trim()) / TIME_STAMP_DIVISOR);
+    }
+}
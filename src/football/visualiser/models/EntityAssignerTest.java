@@ -0,0 +1,140 @@
+package football.visualiser.models;
+
+import football.visualiser.SystemData.Team;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for assigning sensors to players and players to teams from a synthetic match data file.
+ *
+ * Four players on each team wear two sensors each, player n having sensors 10 + n and 30 + n. The red players,
+ * 10 to 13, stay on the left of the pitch and the blue players, 14 to 17, on the right, each jogging back and forth
+ * around their own position. Red player 13 marks blue player 14 on the halfway line, staying within a couple of
+ * metres of them while moving across their path. Red player 12 is still warming up at the far end of the pitch
+ * when the first half starts. A football and a referee report alongside the players
+ */
+public class EntityAssignerTest {
+    private static final int FIRST_HALF_START = 10000000;
+    private static final int FIRST_HALF_END = FIRST_HALF_START + 120000;
+    private static final int SECOND_HALF_START = FIRST_HALF_START + 180000;
+    private static final int SECOND_HALF_END = FIRST_HALF_START + 300000;
+    private static final int WARM_UP_END = FIRST_HALF_START + 10000;
+    private static final int PLAYERS_ON_TEAM = 4;
+    private static final int FOOTBALL_ID = 200;
+    private static final int REFEREE_ID = 300;
+
+    // Centre of each player's position, and whether they jog along the x axis or the y axis
+    private static final int[][] POSITIONS = {
+            { 2000, 0 }, { 12000, 12000 }, { 16000, -12000 }, { 25500, 0 },
+            { 26500, 0 }, { 38000, 12000 }, { 38000, -12000 }, { 50000, 0 } };
+    private static final boolean[] ALONG_X = { false, true, false, true, false, true, false, false };
+    private static final int[] AMPLITUDES = { 1500, 3000, 3000, 400, 600, 3000, 3000, 1500 };
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+    private static File matchFile;
+    private static String[] matchTimeStamps;
+
+    @BeforeClass
+    public static void writeMatchFile() throws IOException {
+        matchFile = folder.newFile("match.csv");
+        matchTimeStamps = new String[] { toTimeStamp(FIRST_HALF_START), toTimeStamp(FIRST_HALF_END),
+                toTimeStamp(SECOND_HALF_START), toTimeStamp(SECOND_HALF_END) };
+
+        Random random = new Random(7);
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(matchFile))){
+            for(int time = FIRST_HALF_START; time <= SECOND_HALF_END; time += 100){
+                for(int player = 0; player < POSITIONS.length; player++){
+                    // Each player jogs with a different period so that their movements are unrelated
+                    double phase = 2 * Math.PI * (time - FIRST_HALF_START) / (6000.0 + player * 700);
+                    int offset = (int) (AMPLITUDES[player] * Math.sin(phase));
+                    int x = POSITIONS[player][0] + (ALONG_X[player] ? offset : 0);
+                    int y = POSITIONS[player][1] + (ALONG_X[player] ? 0 : offset);
+                    if(player == 2 && time < WARM_UP_END){
+                        x = 45000 + offset;
+                        y = 30000;
+                    }
+
+                    writeRow(writer, 10 + player, time, x + 150 + random.nextInt(101) - 50,
+                            y + random.nextInt(101) - 50);
+                    writeRow(writer, 30 + player, time, x - 150 + random.nextInt(101) - 50,
+                            y + random.nextInt(101) - 50);
+                }
+                writeRow(writer, FOOTBALL_ID, time, random.nextInt(52000), random.nextInt(66000) - 33000);
+                writeRow(writer, REFEREE_ID, time, 26000, 5000);
+            }
+        }
+    }
+
+    private static void writeRow(BufferedWriter writer, int id, int time, int x, int y) throws IOException {
+        writer.write(id + "," + toTimeStamp(time) + "," + y + "," + x + ",0,0,0,0,0,0,0,0,0\n");
+    }
+
+    private static String toTimeStamp(int milliseconds){
+        // Time stamps are written in picoseconds
+        return milliseconds + "000000000";
+    }
+
+    private EntityAssignment assign(int numberOfPlayersOnTeam) throws Exception {
+        return new EntityAssigner(matchFile.getPath(), matchTimeStamps, new int[] { FOOTBALL_ID, REFEREE_ID },
+                numberOfPlayersOnTeam).assign();
+    }
+
+    /**
+     * Tests that the two sensors of each player are joined, including those of the players marking each other,
+     * and that the football and referee are left out
+     */
+    @Test
+    public void coMovingSensorsJoined() throws Exception {
+        EntityAssignment assignment = assign(PLAYERS_ON_TEAM);
+
+        assertEquals(POSITIONS.length, assignment.getPlayerSensorIDs().size());
+        for(int player = 0; player < POSITIONS.length; player++){
+            List<Integer> sensors = assignment.getPlayerSensorIDs().get(10 + player);
+            assertEquals(Arrays.asList(10 + player, 30 + player), sensors);
+        }
+        assertFalse(assignment.getSensorPositions().containsKey(FOOTBALL_ID));
+        assertFalse(assignment.getSensorPositions().containsKey(REFEREE_ID));
+    }
+
+    /**
+     * Tests that the player warming up at the far end is still put on their own team, and that the goal keepers
+     * are the players nearest each end rather than the player warming up
+     */
+    @Test
+    public void warmingUpPlayerKeepsTeam() throws Exception {
+        EntityAssignment assignment = assign(PLAYERS_ON_TEAM);
+
+        for(int player = 0; player < POSITIONS.length; player++){
+            Team expected = player < PLAYERS_ON_TEAM ? Team.RED : Team.BLUE;
+            assertEquals("Player " + (10 + player), expected, assignment.getTeams().get(10 + player));
+        }
+        assertEquals(10, assignment.getRedGoalKeeperID());
+        assertEquals(17, assignment.getBlueGoalKeeperID());
+    }
+
+    /**
+     * Tests that a clean assignment is confident, and that finding fewer players than expected lowers the
+     * confidence in proportion
+     */
+    @Test
+    public void confidenceReflectsPlayersFound() throws Exception {
+        EntityAssignment assignment = assign(PLAYERS_ON_TEAM);
+        assertFalse("Confidence " + assignment.getConfidence(), assignment.isLowConfidence());
+
+        EntityAssignment missingPlayers = assign(PLAYERS_ON_TEAM * 2);
+        assertEquals(assignment.getConfidence() / 2, missingPlayers.getConfidence(), 1e-9);
+    }
+}
@@ -0,0 +1,78 @@
+package football.visualiser.models;
+
+import football.visualiser.SystemData.Team;
+
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * <h1>Entity Assignment</h1>
+ * Result of the {@link EntityAssigner}: which sensors belong to which player, which team each player is on, and
+ * which players are the goal keepers.
+ *
+ * Each player is identified by the ID of its primary sensor, which is the first sensor in its list
+ */
+public class EntityAssignment {
+    // Below this the sensors or teams are likely to be wrong and should be checked by the user
+    public static final double LOW_CONFIDENCE = 0.6;
+
+    private HashMap<Integer, List<Integer>> playerSensorIDs;
+    private HashMap<Integer, Team> teams;
+    private HashMap<Integer, int[]> sensorPositions;
+    private int redGoalKeeperID;
+    private int blueGoalKeeperID;
+    private double confidence;
+
+    /**
+     * @param playerSensorIDs   Sensor IDs of each player keyed by player ID
+     * @param teams             Team of each player keyed by player ID
+     * @param sensorPositions   Average x and y position of each sensor over the sampled windows
+     * @param redGoalKeeperID   ID of the red goal keeper, or -1 if there is none
+     * @param blueGoalKeeperID  ID of the blue goal keeper, or -1 if there is none
+     * @param confidence        How confident the assignment is, between 0.0 and 1.0
+     */
+    public EntityAssignment(HashMap<Integer, List<Integer>> playerSensorIDs, HashMap<Integer, Team> teams,
+                            HashMap<Integer, int[]> sensorPositions, int redGoalKeeperID, int blueGoalKeeperID,
+                            double confidence){
+        this.playerSensorIDs = playerSensorIDs;
+        this.teams = teams;
+        this.sensorPositions = sensorPositions;
+        this.redGoalKeeperID = redGoalKeeperID;
+        this.blueGoalKeeperID = blueGoalKeeperID;
+        this.confidence = confidence;
+    }
+
+    public HashMap<Integer, List<Integer>> getPlayerSensorIDs(){
+        return playerSensorIDs;
+    }
+
+    public HashMap<Integer, Team> getTeams(){
+        return teams;
+    }
+
+    public HashMap<Integer, int[]> getSensorPositions(){
+        return sensorPositions;
+    }
+
+    public int getRedGoalKeeperID(){
+        return redGoalKeeperID;
+    }
+
+    public int getBlueGoalKeeperID(){
+        return blueGoalKeeperID;
+    }
+
+    /**
+     * The confidence combines how clearly each sensor's player stands apart from the other players, how
+     * consistently the players stay on their team's side, and whether the expected number of players was found
+     *
+     * @return  Confidence between 0.0 and 1.0
+     */
+    public double getConfidence(){
+        return confidence;
+    }
+
+    public boolean isLowConfidence(){
+        return confidence < LOW_CONFIDENCE;
+    }
+}
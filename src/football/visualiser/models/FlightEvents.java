@@ -0,0 +1,150 @@
+package football.visualiser.models;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * <h1>Flight Events</h1>
+ * Event types recorded by JDK Flight Recorder while a match is opened, analysed, played back and drawn, so that a
+ * recording of a slow session shows where the time went. Events are grouped under Football Visualiser in tools
+ * such as Java Mission Control.
+ *
+ * Events are created, begun and ended as normal, and their fields are only filled in once
+ * {@link Event#shouldCommit()} is true, so that very little is done while nothing is recording. Events on the
+ * paths run for every frame or row leave out stack traces. Analysis is recorded in batches of
+ * {@link #BATCH_ROWS} rows rather than a row at a time
+ */
+public final class FlightEvents {
+    public static final int BATCH_ROWS = 4096;
+
+    private FlightEvents(){
+    }
+
+    @Name("football.visualiser.MatchOpen")
+    @Label("Match Open")
+    @Category({ "Football Visualiser", "Ingest" })
+    @Description("Opening a match data file and finding the start of the first half")
+    public static class MatchOpen extends Event {
+        @Label("Path")
+        public String path;
+
+        @Label("File Size")
+        @DataAmount
+        public long fileSize;
+
+        @Label("Lines Read")
+        public long linesRead;
+    }
+
+    @Name("football.visualiser.FileSeek")
+    @Label("File Seek")
+    @Category({ "Football Visualiser", "Ingest" })
+    @Description("Searching the match data file for a time stamp")
+    public static class FileSeek extends Event {
+        @Label("Time Stamp")
+        public String timeStamp;
+
+        @Label("Lines Read")
+        public long linesRead;
+    }
+
+    @Name("football.visualiser.IndexBuild")
+    @Label("Index Build")
+    @Category({ "Football Visualiser", "Ingest" })
+    @Description("Building a structure which holds the match in memory")
+    public static class IndexBuild extends Event {
+        @Label("Index")
+        public String index;
+
+        @Label("Rows Read")
+        public long rowsRead;
+
+        @Label("Entries")
+        public long entries;
+    }
+
+    @Name("football.visualiser.BatchParse")
+    @Label("Batch Parse")
+    @Category({ "Football Visualiser", "Analysis" })
+    @Description("Reading and analysing a batch of rows of the match data file")
+    @StackTrace(false)
+    public static class BatchParse extends Event {
+        @Label("Rows Read")
+        public long rowsRead;
+
+        @Label("Rows Analysed")
+        public long rowsAnalysed;
+
+        @Label("Bytes Read")
+        @DataAmount
+        public long bytesRead;
+    }
+
+    @Name("football.visualiser.DetectorPass")
+    @Label("Detector Pass")
+    @Category({ "Football Visualiser", "Analysis" })
+    @Description("Calls made to one stage of the analysis over a batch of rows, with the time they are estimated "
+            + "to have taken from the calls which were timed")
+    @StackTrace(false)
+    public static class DetectorPass extends Event {
+        @Label("Detector")
+        public String detector;
+
+        @Label("Calls")
+        public long calls;
+
+        @Label("Estimated Time")
+        @Timespan
+        public long estimatedTime;
+    }
+
+    @Name("football.visualiser.PlaybackSeek")
+    @Label("Playback Seek")
+    @Category({ "Football Visualiser", "Playback" })
+    @Description("Moving playback to a new time and showing the frame there")
+    @StackTrace(false)
+    public static class PlaybackSeek extends Event {
+        @Label("Match Time")
+        public int matchTime;
+
+        @Label("Latency")
+        @Description("Time from the seek being sent to its frame being shown")
+        @Timespan
+        public long latency;
+    }
+
+    @Name("football.visualiser.FramePublish")
+    @Label("Frame Publish")
+    @Category({ "Football Visualiser", "Playback" })
+    @Description("Sending the positions of a frame of playback to the view")
+    @StackTrace(false)
+    public static class FramePublish extends Event {
+        @Label("Match Time")
+        public int matchTime;
+
+        @Label("Entities")
+        public int entities;
+    }
+
+    @Name("football.visualiser.FxRender")
+    @Label("FX Render")
+    @Category({ "Football Visualiser", "Rendering" })
+    @Description("Drawing the players and football on the pitch canvas in a pulse of the JavaFX thread")
+    @StackTrace(false)
+    public static class FxRender extends Event {
+        @Label("Entities Drawn")
+        public int entitiesDrawn;
+
+        @Label("New Frame")
+        public boolean newFrame;
+
+        @Label("Match Time")
+        public int matchTime;
+    }
+}
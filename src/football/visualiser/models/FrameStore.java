@@ -0,0 +1,145 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IMatchData;
+
+import java.util.Arrays;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Frame Store</h1>
+ * Holds the rows of a match in memory so they can be analysed many times without reading the file again.
+ * Only the columns the detectors use are kept, each in its own primitive array in time order.
+ *
+ * Once loaded the store cannot be modified, so any number of threads can read it at the same time
+ */
+public class FrameStore {
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private final int size;
+    private final int[] ids;
+    private final int[] times;
+    private final int[] xPositions;
+    private final int[] yPositions;
+    private final int[] zPositions;
+    private final int[] velocities;
+
+    private FrameStore(int size, int[] ids, int[] times, int[] xPositions, int[] yPositions, int[] zPositions,
+                       int[] velocities){
+        this.size = size;
+        this.ids = ids;
+        this.times = times;
+        this.xPositions = xPositions;
+        this.yPositions = yPositions;
+        this.zPositions = zPositions;
+        this.velocities = velocities;
+    }
+
+    /**
+     * Reads both halves of the match into memory. The footballs are kept at full rate, while other sensors can be
+     * decimated to limit the memory used
+     *
+     * @param matchData         Match data to read, which is left at the start of the first half
+     * @param footballIDs       IDs of the footballs
+     * @param sampleInterval    Shortest interval, in milliseconds, between two rows kept for the same sensor other
+     *                          than a football, or 0 to keep every row
+     * @return                  The loaded frames
+     */
+    public static FrameStore load(IMatchData matchData, int[] footballIDs, int sampleInterval){
+        FlightEvents.IndexBuild buildEvent = new FlightEvents.IndexBuild();
+        buildEvent.begin();
+        long rowsRead = 0;
+        int capacity = INITIAL_CAPACITY;
+        int size = 0;
+        int[] ids = new int[capacity];
+        int[] times = new int[capacity];
+        int[] xPositions = new int[capacity];
+        int[] yPositions = new int[capacity];
+        int[] zPositions = new int[capacity];
+        int[] velocities = new int[capacity];
+
+        int maxFootballID = 0;
+        for(int footballID : footballIDs) maxFootballID = Math.max(maxFootballID, footballID);
+        boolean[] isFootball = new boolean[maxFootballID + 1];
+        for(int footballID : footballIDs) isFootball[footballID] = true;
+        int[] lastKept = new int[128];
+        Arrays.fill(lastKept, Integer.MIN_VALUE);
+
+        int[] row = new int[numberOfFields];
+        matchData.setAnalyticalStrength(0);
+        matchData.goToFirstHalf();
+        while(matchData.getNextLine(row)){
+            rowsRead++;
+            int id = row[dataID];
+            int time = row[dataTimeStamp];
+
+            if(sampleInterval > 0 && id >= 0 && !(id < isFootball.length && isFootball[id])){
+                if(id >= lastKept.length){
+                    int oldLength = lastKept.length;
+                    lastKept = Arrays.copyOf(lastKept, Math.max(id + 1, oldLength * 2));
+                    Arrays.fill(lastKept, oldLength, lastKept.length, Integer.MIN_VALUE);
+                }
+                if(time >= lastKept[id] && (long) time - lastKept[id] < sampleInterval) continue;
+                lastKept[id] = time;
+            }
+
+            if(size == capacity){
+                capacity *= 2;
+                ids = Arrays.copyOf(ids, capacity);
+                times = Arrays.copyOf(times, capacity);
+                xPositions = Arrays.copyOf(xPositions, capacity);
+                yPositions = Arrays.copyOf(yPositions, capacity);
+                zPositions = Arrays.copyOf(zPositions, capacity);
+                velocities = Arrays.copyOf(velocities, capacity);
+            }
+
+            ids[size] = id;
+            times[size] = time;
+            xPositions[size] = row[dataXPosition];
+            yPositions[size] = row[dataYPosition];
+            zPositions[size] = row[dataZPosition];
+            velocities[size] = row[velocityPosition];
+            size++;
+        }
+        matchData.goToFirstHalf();
+
+        buildEvent.end();
+        if(buildEvent.shouldCommit()){
+            buildEvent.index = "Frame store";
+            buildEvent.rowsRead = rowsRead;
+            buildEvent.entries = size;
+            buildEvent.commit();
+        }
+        return new FrameStore(size, Arrays.copyOf(ids, size), Arrays.copyOf(times, size),
+                Arrays.copyOf(xPositions, size), Arrays.copyOf(yPositions, size), Arrays.copyOf(zPositions, size),
+                Arrays.copyOf(velocities, size));
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int getID(int index){
+        return ids[index];
+    }
+
+    public int getTime(int index){
+        return times[index];
+    }
+
+    public int getX(int index){
+        return xPositions[index];
+    }
+
+    public int getY(int index){
+        return yPositions[index];
+    }
+
+    public int getZ(int index){
+        return zPositions[index];
+    }
+
+    public int getVelocity(int index){
+        return velocities[index];
+    }
+}
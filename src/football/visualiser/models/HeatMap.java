@@ -1,5 +1,7 @@
 package football.visualiser.models;
 
+import java.util.Collection;
+
 import static football.visualiser.SystemData.HEAT_MAP_WIDTH;
 
 /**
@@ -14,6 +16,9 @@ public class HeatMap {
     private int[][] heatMap;
     private int heatMapHeight;
     private Pitch pitch;
+    // Period of the match the heat map covers, in milliseconds
+    private int startTime = Integer.MAX_VALUE;
+    private int endTime = Integer.MIN_VALUE;
 
     public HeatMap(Pitch pitch){
         this.pitch = pitch;
@@ -23,6 +28,27 @@ public class HeatMap {
         heatMap = new int[HEAT_MAP_WIDTH][heatMapHeight];
     }
 
+    /**
+     * Combines several heat maps, such as those of every player in a team, into one
+     *
+     * @param pitch     Pitch the heat maps were recorded on
+     * @param heatMaps  Heat maps to combine
+     * @return          Heat map holding the sum of the heat maps, covering every period they cover
+     */
+    public static HeatMap combine(Pitch pitch, Collection<HeatMap> heatMaps){
+        HeatMap combined = new HeatMap(pitch);
+        for(HeatMap heatMap : heatMaps){
+            for(int x = 0; x < HEAT_MAP_WIDTH; x++){
+                for(int y = 0; y < combined.heatMapHeight; y++){
+                    combined.heatMap[x][y] += heatMap.heatMap[x][y];
+                }
+            }
+            combined.startTime = Math.min(combined.startTime, heatMap.startTime);
+            combined.endTime = Math.max(combined.endTime, heatMap.endTime);
+        }
+        return combined;
+    }
+
     /**
      * Each time the function is called, it increments the players heat map by 1 for the relevant x and y
      * position in the heat map array
@@ -32,8 +58,9 @@ public class HeatMap {
      * @param x                 X Coordinate of the player
      * @param y                 Y Coordinate of the player
      * @param sidesSwitched     Check whether the sides have switched at half time
+     * @param time              Time of the position in milliseconds
      */
-    public void incrementHeatMap(int x, int y, boolean sidesSwitched){
+    public void incrementHeatMap(int x, int y, boolean sidesSwitched, int time){
         int xFromZero = x - pitch.getX1();
         int yFromZero = y - pitch.getY1();
 
@@ -50,9 +77,25 @@ public class HeatMap {
         yFromZero = Math.min(heatMapHeight - 1, yFromZero);
 
         heatMap[xFromZero][yFromZero]++;
+        startTime = Math.min(startTime, time);
+        endTime = Math.max(endTime, time);
     }
 
     public int[][] getHeatMap(){
         return heatMap;
     }
+
+    /**
+     * @return  Time of the first position in the heat map in milliseconds, or Integer.MAX_VALUE if it is empty
+     */
+    public int getStartTime(){
+        return startTime;
+    }
+
+    /**
+     * @return  Time of the last position in the heat map in milliseconds, or Integer.MIN_VALUE if it is empty
+     */
+    public int getEndTime(){
+        return endTime;
+    }
 }
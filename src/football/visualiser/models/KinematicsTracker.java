@@ -0,0 +1,344 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IPlayerSensor;
+import football.visualiser.models.entities.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Kinematics Tracker</h1>
+ * Calculates movement statistics for every player from the velocity and acceleration columns of the match
+ * data, including:
+ * <ul>
+ *     <li>Instantaneous and maximum speed</li>
+ *     <li>Total, high intensity, and sprint distance</li>
+ *     <li>Number of accelerations and decelerations</li>
+ * </ul>
+ *
+ * The tracker is designed to be fed every row of the data file. Each player may have several sensors, so the
+ * latest sample of each sensor is kept and the player's speed and acceleration are the average of the sensors
+ * which have reported recently. All state is held in arrays which are sized when the tracker is created, so
+ * updating the tracker does not allocate.
+ *
+ * Speeds are in millimetres per second, accelerations in millimetres per second squared, and distances in
+ * millimetres
+ */
+public class KinematicsTracker {
+    public static final int DEFAULT_HIGH_INTENSITY_SPEED = 5500;
+    public static final int DEFAULT_SPRINT_SPEED = 7000;
+    public static final int DEFAULT_ACCELERATION_THRESHOLD = 2000;
+    public static final int DEFAULT_ACCELERATION_DURATION = 500;
+
+    // Velocity and acceleration are stored in micrometres in the data file
+    private static final int MICROMETRES_PER_MILLIMETRE = 1000;
+    // Samples older than this are not used when fusing a player's sensors
+    private static final int STALE_SENSOR_MILLISECONDS = 250;
+    // Gaps longer than this, such as half time, are not integrated into the distance covered
+    private static final int MAX_INTEGRATION_GAP = 1000;
+    private static final int SECOND = 1000;
+
+    private int highIntensitySpeed = DEFAULT_HIGH_INTENSITY_SPEED;
+    private int sprintSpeed = DEFAULT_SPRINT_SPEED;
+    private int accelerationThreshold = DEFAULT_ACCELERATION_THRESHOLD;
+    private int accelerationDuration = DEFAULT_ACCELERATION_DURATION;
+
+    // Sensor ID to sensor slot, -1 if the sensor is not attached to a player
+    private int[] sensorSlots;
+
+    // Per sensor slot
+    private int[] sensorOwners;
+    private int[] sensorTimes;
+    private int[] sensorSpeeds;
+    private int[] sensorAccelerations;
+
+    // Per player slot
+    private int[] playerIDs;
+    private int[][] playerSensorSlots;
+    private int[] lastTimes;
+    private int[] speeds;
+    private int[] maxSpeeds;
+    private long[] distances;
+    private long[] highIntensityDistances;
+    private long[] sprintDistances;
+    private int[] accelerationCounts;
+    private int[] decelerationCounts;
+    private int[] accelerationStartTimes;
+    private int[] decelerationStartTimes;
+    private boolean[] accelerationCounted;
+    private boolean[] decelerationCounted;
+    private int[][] speedPerSecond;
+    private int[] speedPerSecondCounts;
+    private int[] lastSecondTimes;
+
+    private SprintDetector[] sprintDetectors = new SprintDetector[0];
+
+    /**
+     * Sizes all of the tracker's arrays from the player sensors found when the entities were created
+     *
+     * @param playerSensors     Sensors attached to players keyed by sensor ID
+     */
+    public KinematicsTracker(HashMap<Integer, IPlayerSensor<Player>> playerSensors){
+        int maxSensorID = 0;
+        for(Integer sensorID : playerSensors.keySet()){
+            maxSensorID = Math.max(maxSensorID, sensorID);
+        }
+
+        sensorSlots = new int[maxSensorID + 1];
+        Arrays.fill(sensorSlots, -1);
+
+        int numberOfSensors = playerSensors.size();
+        sensorOwners = new int[numberOfSensors];
+        sensorTimes = new int[numberOfSensors];
+        sensorSpeeds = new int[numberOfSensors];
+        sensorAccelerations = new int[numberOfSensors];
+        Arrays.fill(sensorTimes, Integer.MIN_VALUE);
+
+        // Give each owner a slot, in the order its first sensor is found
+        HashMap<Integer, Integer> ownerSlots = new HashMap<>();
+        int sensorSlot = 0;
+        for(IPlayerSensor<Player> sensor : playerSensors.values()){
+            int ownerID = sensor.getOwner().getID();
+            if(!ownerSlots.containsKey(ownerID)) ownerSlots.put(ownerID, ownerSlots.size());
+
+            sensorSlots[sensor.getID()] = sensorSlot;
+            sensorOwners[sensorSlot] = ownerSlots.get(ownerID);
+            sensorSlot++;
+        }
+
+        int numberOfPlayers = ownerSlots.size();
+        playerIDs = new int[numberOfPlayers];
+        for(Integer ownerID : ownerSlots.keySet()){
+            playerIDs[ownerSlots.get(ownerID)] = ownerID;
+        }
+
+        int[] sensorsPerPlayer = new int[numberOfPlayers];
+        for(int owner : sensorOwners) sensorsPerPlayer[owner]++;
+        playerSensorSlots = new int[numberOfPlayers][];
+        for(int i = 0; i < numberOfPlayers; i++) playerSensorSlots[i] = new int[sensorsPerPlayer[i]];
+        Arrays.fill(sensorsPerPlayer, 0);
+        for(int i = 0; i < numberOfSensors; i++){
+            int owner = sensorOwners[i];
+            playerSensorSlots[owner][sensorsPerPlayer[owner]++] = i;
+        }
+
+        lastTimes = new int[numberOfPlayers];
+        speeds = new int[numberOfPlayers];
+        maxSpeeds = new int[numberOfPlayers];
+        distances = new long[numberOfPlayers];
+        highIntensityDistances = new long[numberOfPlayers];
+        sprintDistances = new long[numberOfPlayers];
+        accelerationCounts = new int[numberOfPlayers];
+        decelerationCounts = new int[numberOfPlayers];
+        accelerationStartTimes = new int[numberOfPlayers];
+        decelerationStartTimes = new int[numberOfPlayers];
+        accelerationCounted = new boolean[numberOfPlayers];
+        decelerationCounted = new boolean[numberOfPlayers];
+        speedPerSecond = new int[numberOfPlayers][64 * 60];
+        speedPerSecondCounts = new int[numberOfPlayers];
+        lastSecondTimes = new int[numberOfPlayers];
+        Arrays.fill(lastTimes, Integer.MIN_VALUE);
+        Arrays.fill(accelerationStartTimes, -1);
+        Arrays.fill(decelerationStartTimes, -1);
+        Arrays.fill(lastSecondTimes, Integer.MIN_VALUE);
+    }
+
+    public void setHighIntensitySpeed(int highIntensitySpeed){
+        this.highIntensitySpeed = highIntensitySpeed;
+    }
+
+    public void setSprintSpeed(int sprintSpeed){
+        this.sprintSpeed = sprintSpeed;
+    }
+
+    public void setAccelerationThreshold(int accelerationThreshold){
+        this.accelerationThreshold = accelerationThreshold;
+    }
+
+    /**
+     * @param accelerationDuration  How long, in milliseconds, the acceleration or deceleration threshold must be
+     *                              exceeded for before it is counted
+     */
+    public void setAccelerationDuration(int accelerationDuration){
+        this.accelerationDuration = accelerationDuration;
+    }
+
+    /**
+     * Creates a detector for runs above a speed threshold which is fed with every fused speed update
+     *
+     * @param startSpeed        Speed at which a run starts
+     * @param endSpeed          Speed below which a run ends
+     * @param minimumDuration   Shortest run, in milliseconds, which is stored
+     * @return                  The detector
+     */
+    public SprintDetector addSprintDetector(int startSpeed, int endSpeed, int minimumDuration){
+        SprintDetector sprintDetector = new SprintDetector(playerIDs, startSpeed, endSpeed, minimumDuration);
+        sprintDetectors = Arrays.copyOf(sprintDetectors, sprintDetectors.length + 1);
+        sprintDetectors[sprintDetectors.length - 1] = sprintDetector;
+        return sprintDetector;
+    }
+
+    /**
+     * Ends any runs still in progress in the sprint detectors. Should be called once the whole match has been
+     * analysed
+     */
+    public void finish(){
+        for(SprintDetector sprintDetector : sprintDetectors){
+            sprintDetector.finish();
+        }
+    }
+
+    /**
+     * Updates the tracker with a single row of the match data. Rows for sensors which are not attached to a
+     * player are ignored
+     *
+     * @param row   Row of match data as read by {@link football.visualiser.interfaces.IMatchData#getNextLine(int[])}
+     */
+    public void update(int[] row){
+        int sensorID = row[dataID];
+        if(sensorID < 0 || sensorID >= sensorSlots.length || sensorSlots[sensorID] < 0) return;
+
+        int sensor = sensorSlots[sensorID];
+        int time = row[dataTimeStamp];
+
+        // The sign of the acceleration comes from whether it points the same way as the velocity
+        long direction = (long) row[velocityXPosition] * row[accelerationXPosition]
+                + (long) row[velocityYPosition] * row[accelerationYPosition]
+                + (long) row[velocityZPosition] * row[accelerationZPosition];
+        int acceleration = row[accelerationPosition] / MICROMETRES_PER_MILLIMETRE;
+
+        sensorTimes[sensor] = time;
+        sensorSpeeds[sensor] = row[velocityPosition] / MICROMETRES_PER_MILLIMETRE;
+        sensorAccelerations[sensor] = direction < 0 ? -acceleration : acceleration;
+
+        updatePlayer(sensorOwners[sensor], time);
+    }
+
+    /**
+     * Fuses the player's sensors, integrates the distance travelled since the player was last updated, and
+     * checks for accelerations and decelerations
+     *
+     * @param player    Slot of the player
+     * @param time      Current time in milliseconds
+     */
+    private void updatePlayer(int player, int time){
+        int speedSum = 0;
+        int accelerationSum = 0;
+        int fresh = 0;
+        for(int sensor : playerSensorSlots[player]){
+            if((long) time - sensorTimes[sensor] <= STALE_SENSOR_MILLISECONDS){
+                speedSum += sensorSpeeds[sensor];
+                accelerationSum += sensorAccelerations[sensor];
+                fresh++;
+            }
+        }
+        if(fresh == 0) return;
+
+        int speed = speedSum / fresh;
+        int acceleration = accelerationSum / fresh;
+
+        // Integrate using the previous speed over the time elapsed since the last update
+        int elapsed = time - lastTimes[player];
+        long travelled = 0;
+        if(lastTimes[player] != Integer.MIN_VALUE && elapsed > 0 && elapsed <= MAX_INTEGRATION_GAP){
+            travelled = (long) speeds[player] * elapsed / SECOND;
+            distances[player] += travelled;
+            if(speeds[player] >= highIntensitySpeed) highIntensityDistances[player] += travelled;
+            if(speeds[player] >= sprintSpeed) sprintDistances[player] += travelled;
+        }
+
+        lastTimes[player] = time;
+        speeds[player] = speed;
+        if(speed > maxSpeeds[player]) maxSpeeds[player] = speed;
+
+        updateAccelerationCounts(player, acceleration, time);
+
+        for(SprintDetector sprintDetector : sprintDetectors){
+            sprintDetector.update(player, time, speed, travelled);
+        }
+
+        if(lastSecondTimes[player] == Integer.MIN_VALUE || time - lastSecondTimes[player] >= SECOND){
+            lastSecondTimes[player] = time;
+            recordSpeed(player, speed);
+        }
+    }
+
+    /**
+     * Counts an acceleration or deceleration once the threshold has been exceeded for the minimum duration.
+     * The count is only re-armed once the acceleration falls below half the threshold, which prevents noise
+     * around the threshold being counted several times
+     */
+    private void updateAccelerationCounts(int player, int acceleration, int time){
+        if(acceleration >= accelerationThreshold){
+            if(accelerationStartTimes[player] < 0){
+                accelerationStartTimes[player] = time;
+            }else if(!accelerationCounted[player] && time - accelerationStartTimes[player] >= accelerationDuration){
+                accelerationCounts[player]++;
+                accelerationCounted[player] = true;
+            }
+        }else if(acceleration < accelerationThreshold / 2){
+            accelerationStartTimes[player] = -1;
+            accelerationCounted[player] = false;
+        }
+
+        if(acceleration <= -accelerationThreshold){
+            if(decelerationStartTimes[player] < 0){
+                decelerationStartTimes[player] = time;
+            }else if(!decelerationCounted[player] && time - decelerationStartTimes[player] >= accelerationDuration){
+                decelerationCounts[player]++;
+                decelerationCounted[player] = true;
+            }
+        }else if(acceleration > -accelerationThreshold / 2){
+            decelerationStartTimes[player] = -1;
+            decelerationCounted[player] = false;
+        }
+    }
+
+    private void recordSpeed(int player, int speed){
+        int count = speedPerSecondCounts[player];
+        if(count == speedPerSecond[player].length){
+            speedPerSecond[player] = Arrays.copyOf(speedPerSecond[player], count * 2);
+        }
+        speedPerSecond[player][count] = speed;
+        speedPerSecondCounts[player] = count + 1;
+    }
+
+    /**
+     * Finds the slot of a player from its ID
+     *
+     * @param playerID  ID of the player
+     * @return          Slot of the player or -1 if the player is not tracked
+     */
+    private int getPlayerSlot(int playerID){
+        for(int i = 0; i < playerIDs.length; i++){
+            if(playerIDs[i] == playerID) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param playerID  ID of the player
+     * @return          Current fused speed of the player in millimetres per second
+     */
+    public int getSpeed(int playerID){
+        int player = getPlayerSlot(playerID);
+        return player < 0 ? 0 : speeds[player];
+    }
+
+    /**
+     * Creates a summary of the player's movement up to the last row the tracker was given
+     *
+     * @param playerID  ID of the player
+     * @return          Summary of the player's movement, or null if the player is not tracked
+     */
+    public PlayerKinematics getPlayerKinematics(int playerID){
+        int player = getPlayerSlot(playerID);
+        if(player < 0) return null;
+
+        return new PlayerKinematics(playerID, maxSpeeds[player], distances[player],
+                highIntensityDistances[player], sprintDistances[player], accelerationCounts[player],
+                decelerationCounts[player], Arrays.copyOf(speedPerSecond[player], speedPerSecondCounts[player]));
+    }
+}
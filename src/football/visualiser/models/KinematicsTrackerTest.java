@@ -0,0 +1,137 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IPlayerSensor;
+import football.visualiser.models.entities.Player;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static football.visualiser.SystemData.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for calculating players' movement from the velocity and acceleration columns
+ */
+public class KinematicsTrackerTest {
+
+    private static HashMap<Integer, IPlayerSensor<Player>> createSensors(int numberOfPlayers){
+        HashMap<Integer, IPlayerSensor<Player>> sensors = new HashMap<>();
+        for(int i = 0; i < numberOfPlayers; i++){
+            Player player = new Player(100 + i);
+            sensors.put(i * 2 + 1, new PlayerSensor<>(i * 2 + 1, player, true));
+            sensors.put(i * 2 + 2, new PlayerSensor<>(i * 2 + 2, player, false));
+        }
+        return sensors;
+    }
+
+    /**
+     * Fills in a row of match data
+     *
+     * @param speed         Speed in millimetres per second, along the x axis
+     * @param acceleration  Acceleration in millimetres per second squared, along the x axis
+     */
+    private static int[] setRow(int[] row, int sensorID, int time, int speed, int acceleration){
+        row[dataID] = sensorID;
+        row[dataTimeStamp] = time;
+        row[velocityPosition] = speed * 1000;
+        row[velocityXPosition] = speed * 1000;
+        row[accelerationPosition] = Math.abs(acceleration) * 1000;
+        row[accelerationXPosition] = acceleration * 1000;
+        return row;
+    }
+
+    /**
+     * Tests that a player's speed is the average of their sensors, and that the distance is integrated from it
+     */
+    @Test
+    public void sensorsAveragedAndIntegrated(){
+        KinematicsTracker tracker = new KinematicsTracker(createSensors(1));
+        int[] row = new int[numberOfFields];
+        for(int time = 0; time <= 2000; time += 100){
+            tracker.update(setRow(row, 1, time, 6000, 0));
+            tracker.update(setRow(row, 2, time, 8000, 0));
+        }
+
+        assertEquals(7000, tracker.getSpeed(100));
+        PlayerKinematics kinematics = tracker.getPlayerKinematics(100);
+        assertEquals(7000, kinematics.getMaxSpeed());
+        // 20 intervals of 100 ms at 7 m/s
+        assertEquals(14000, kinematics.getDistance());
+        assertEquals(14000, kinematics.getHighIntensityDistance());
+        assertEquals(14000, kinematics.getSprintDistance());
+        assertNull(tracker.getPlayerKinematics(101));
+    }
+
+    /**
+     * Tests that a sensor is left out once it stops reporting, and that a sensor which has not reported yet is
+     * not counted as stopped
+     */
+    @Test
+    public void staleSensorIgnored(){
+        KinematicsTracker tracker = new KinematicsTracker(createSensors(1));
+        int[] row = new int[numberOfFields];
+        tracker.update(setRow(row, 1, 10000000, 6000, 0));
+        assertEquals(6000, tracker.getSpeed(100));
+
+        tracker.update(setRow(row, 2, 10000000, 8000, 0));
+        assertEquals(7000, tracker.getSpeed(100));
+
+        tracker.update(setRow(row, 1, 10000500, 6000, 0));
+        assertEquals(6000, tracker.getSpeed(100));
+    }
+
+    /**
+     * Tests that an acceleration or deceleration is counted once it lasts the minimum duration, and only once
+     * until it falls away
+     */
+    @Test
+    public void accelerationsCounted(){
+        KinematicsTracker tracker = new KinematicsTracker(createSensors(1));
+        int[] row = new int[numberOfFields];
+        int[] accelerations = { 3000, 3000, 3000, 3000, 3000, 3000, 3000, 500, 3000, 3000, 3000, 3000, 3000, 3000,
+                500, -3000, -3000, -3000, -3000, -3000, -3000, -3000 };
+        for(int i = 0; i < accelerations.length; i++){
+            tracker.update(setRow(row, 1, i * 100, 5000, accelerations[i]));
+        }
+
+        PlayerKinematics kinematics = tracker.getPlayerKinematics(100);
+        assertEquals(2, kinematics.getAccelerations());
+        assertEquals(1, kinematics.getDecelerations());
+    }
+
+    /**
+     * Tests that the tracker, with detectors for sprints and high intensity runs, keeps up with full rate data
+     * for 22 players, each with two sensors at 200 Hz, at over 100 times real time
+     */
+    @Test
+    public void keepsUpWithFullRateData(){
+        int players = 22;
+        int seconds = 60;
+        HashMap<Integer, IPlayerSensor<Player>> sensors = createSensors(players);
+        int[] row = new int[numberOfFields];
+
+        long elapsed = Long.MAX_VALUE;
+        // The first pass warms up the JIT compiler
+        for(int pass = 0; pass < 2; pass++){
+            KinematicsTracker tracker = new KinematicsTracker(sensors);
+            tracker.addSprintDetector(SprintDetector.SPRINT_START_SPEED, SprintDetector.SPRINT_END_SPEED,
+                    SprintDetector.DEFAULT_MINIMUM_DURATION);
+            tracker.addSprintDetector(SprintDetector.HIGH_INTENSITY_START_SPEED,
+                    SprintDetector.HIGH_INTENSITY_END_SPEED, SprintDetector.DEFAULT_MINIMUM_DURATION);
+
+            long start = System.nanoTime();
+            for(int time = 0; time < seconds * 1000; time += 5){
+                // Speeds rise and fall through the sprint thresholds every few seconds
+                int speed = 3000 + (time / 7 % 6000);
+                for(int sensor = 1; sensor <= players * 2; sensor++){
+                    tracker.update(setRow(row, sensor, time, speed + sensor * 10, 1000));
+                }
+            }
+            tracker.finish();
+            elapsed = System.nanoTime() - start;
+        }
+
+        long matchNanos = seconds * 1000000000L;
+        assertTrue("Took " + elapsed / 1000000 + " ms for " + seconds + " s of data", elapsed * 100 < matchNanos);
+    }
+}
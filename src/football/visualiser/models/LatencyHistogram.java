@@ -0,0 +1,75 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Latency Histogram</h1>
+ * Counts durations in buckets which double in width, so that durations from nanoseconds to minutes are held in a
+ * few dozen counters with no allocation as they are recorded. Percentiles are read back as the upper bound of the
+ * bucket they fall in, which is within a factor of two of the true value.
+ *
+ * Durations are in nanoseconds. Only one thread may record durations, while others may read them
+ */
+public class LatencyHistogram {
+    public static final int NUMBER_OF_BUCKETS = 40;
+
+    private final long[] buckets = new long[NUMBER_OF_BUCKETS];
+    private long count;
+    private long total;
+    private long maximum;
+
+    /**
+     * @param nanos     Duration to count, where bucket n holds durations below 2^n nanoseconds
+     */
+    public void record(long nanos){
+        if(nanos < 0) nanos = 0;
+        buckets[getBucket(nanos)]++;
+        count++;
+        total += nanos;
+        if(nanos > maximum) maximum = nanos;
+    }
+
+    /**
+     * @param nanos     Duration in nanoseconds
+     * @return          Bucket the duration is counted in
+     */
+    static int getBucket(long nanos){
+        return Math.min(NUMBER_OF_BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    public long getCount(){
+        return count;
+    }
+
+    public long getTotal(){
+        return total;
+    }
+
+    public long getMaximum(){
+        return maximum;
+    }
+
+    public double getMean(){
+        return count == 0 ? 0 : (double) total / count;
+    }
+
+    /**
+     * @param percentile    Percentile between 0 and 100
+     * @return              Upper bound of the bucket holding the percentile in nanoseconds, or 0 if nothing has
+     *                      been recorded
+     */
+    public long getPercentile(double percentile){
+        long target = (long) Math.ceil(count * Math.max(0, Math.min(100, percentile)) / 100);
+        long seen = 0;
+        for(int bucket = 0; bucket < NUMBER_OF_BUCKETS; bucket++){
+            seen += buckets[bucket];
+            if(seen >= target && seen > 0) return Math.min(maximum, (1L << bucket) - 1);
+        }
+        return 0;
+    }
+
+    /**
+     * @return  Copy of the count in each bucket
+     */
+    public long[] getBuckets(){
+        return buckets.clone();
+    }
+}
@@ -0,0 +1,41 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for counting durations in buckets which double in width
+ */
+public class LatencyHistogramTest {
+
+    /**
+     * Tests that percentiles are read back within a factor of two and never above the longest duration
+     */
+    @Test
+    public void percentilesWithinFactorOfTwo(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        for(int i = 1; i <= 1000; i++){
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000, histogram.getMaximum());
+        assertEquals(500500, histogram.getMean(), 0.001);
+
+        long median = histogram.getPercentile(50);
+        assertTrue(median >= 500000 && median < 1000000);
+        assertEquals(1000000, histogram.getPercentile(100));
+        assertTrue(histogram.getPercentile(99) <= histogram.getMaximum());
+    }
+
+    @Test
+    public void bucketsDoubleInWidth(){
+        assertEquals(0, LatencyHistogram.getBucket(0));
+        assertEquals(1, LatencyHistogram.getBucket(1));
+        assertEquals(2, LatencyHistogram.getBucket(3));
+        assertEquals(3, LatencyHistogram.getBucket(4));
+        assertEquals(LatencyHistogram.NUMBER_OF_BUCKETS - 1, LatencyHistogram.getBucket(Long.MAX_VALUE));
+        assertEquals(0, new LatencyHistogram().getPercentile(50));
+    }
+}
@@ -0,0 +1,220 @@
+package football.visualiser.models;
+
+import football.visualiser.SystemData;
+
+import java.util.ArrayList;
+
+/**
+ * <h1>Match Comparison</h1>
+ * Plays several matches back side by side from a single shared playback clock, so that the same moment of each
+ * match is on screen at once. Each match still has its own {@link MatchModel} and playback worker, which reads the
+ * shared clock and shows the frame of its own match at that time.
+ *
+ * Each match is ahead of the shared clock by an offset in milliseconds. With every offset at 0 the matches are
+ * lined up by match minute, and setting the offsets from the times of an event in each match, such as the start
+ * of the second half, lines the matches up on that event instead. Shared times are those of the first match.
+ *
+ * All methods are called from the user interface thread
+ */
+public class MatchComparison {
+    public static final int MAX_MATCHES = 4;
+    // Length of a frame of playback, which a step moves by
+    private static final int FRAME_LENGTH = AnalysisSampler.DEFAULT_SAMPLE_INTERVAL;
+
+    private final PlaybackClock playbackClock = new PlaybackClock();
+    private final ArrayList<MatchModel> matchModels = new ArrayList<>();
+    private final ArrayList<Integer> totalTimes = new ArrayList<>();
+    private final ArrayList<Integer> firstHalfLengths = new ArrayList<>();
+    private boolean playing = false;
+
+    /**
+     * Adds a match to the comparison, lined up with the first match by match minute. Matches must be added
+     * before any of them are played
+     *
+     * @param matchModel            Model of the match
+     * @param startEndTimeStamps    Start and end times of the first and second half
+     * @param totalTime             Length of the match in milliseconds, not counting half time
+     */
+    public void addMatch(MatchModel matchModel, int[] startEndTimeStamps, int totalTime){
+        if(matchModels.size() == MAX_MATCHES){
+            throw new IllegalArgumentException("No more than " + MAX_MATCHES + " matches can be compared");
+        }
+        matchModel.sharePlaybackClock(playbackClock, 0);
+        matchModels.add(matchModel);
+        totalTimes.add(totalTime);
+        firstHalfLengths.add(startEndTimeStamps[SystemData.FIRST_HALF_END_TIME]
+                - startEndTimeStamps[SystemData.FIRST_HALF_START_TIME]);
+    }
+
+    public int getNumberOfMatches(){
+        return matchModels.size();
+    }
+
+    /**
+     * Lines every match up so that the same minute of each is shown at once. As with the other ways of lining
+     * matches up, frames already on screen stay there until the next seek or frame of playback
+     */
+    public void alignByMatchMinute(){
+        for(MatchModel matchModel : matchModels){
+            matchModel.setClockOffset(0);
+        }
+    }
+
+    /**
+     * Lines every match up on the start of its second half, so that differences in the length of the first halves
+     * do not carry over
+     */
+    public void alignBySecondHalf(){
+        double[] eventTimes = new double[firstHalfLengths.size()];
+        for(int match = 0; match < eventTimes.length; match++){
+            eventTimes[match] = firstHalfLengths.get(match);
+        }
+        alignByEvent(eventTimes);
+    }
+
+    /**
+     * Lines every match up on an event, such as a goal. Seeking to the time of the event in the first match then
+     * shows the event in every match
+     *
+     * @param eventTimes    Time of the event in each match in milliseconds, in the order the matches were added
+     */
+    public void alignByEvent(double[] eventTimes){
+        if(eventTimes.length != matchModels.size()){
+            throw new IllegalArgumentException("An event time is needed for each of the "
+                    + matchModels.size() + " matches");
+        }
+        for(int match = 0; match < eventTimes.length; match++){
+            matchModels.get(match).setClockOffset(eventTimes[match] - eventTimes[0]);
+        }
+    }
+
+    /**
+     * Moves one match against the others, for lining up an event by eye
+     *
+     * @param match     Index of the match
+     * @param time      Milliseconds to move the match forwards, or backwards if negative
+     */
+    public void nudge(int match, double time){
+        MatchModel matchModel = matchModels.get(match);
+        matchModel.setClockOffset(matchModel.getClockOffset() + time);
+    }
+
+    /**
+     * @param match     Index of the match
+     * @return          Milliseconds the match is ahead of the first match
+     */
+    public double getOffset(int match){
+        return matchModels.get(match).getClockOffset();
+    }
+
+    /**
+     * @return  Earliest shared time at which any of the matches is being played
+     */
+    public double getStartTime(){
+        double start = Double.MAX_VALUE;
+        for(MatchModel matchModel : matchModels){
+            start = Math.min(start, -matchModel.getClockOffset());
+        }
+        return matchModels.isEmpty() ? 0 : start;
+    }
+
+    /**
+     * @return  Latest shared time at which any of the matches is being played
+     */
+    public double getEndTime(){
+        double end = -Double.MAX_VALUE;
+        for(int match = 0; match < matchModels.size(); match++){
+            end = Math.max(end, totalTimes.get(match) - matchModels.get(match).getClockOffset());
+        }
+        return matchModels.isEmpty() ? 0 : end;
+    }
+
+    public double getTime(){
+        return playbackClock.getTime(System.nanoTime());
+    }
+
+    /**
+     * @param match         Index of the match
+     * @param sharedTime    Time on the shared clock in milliseconds
+     * @return              Time in the match in milliseconds
+     */
+    public double getMatchTime(int match, double sharedTime){
+        return sharedTime + matchModels.get(match).getClockOffset();
+    }
+
+    public PlaybackClock getPlaybackClock(){
+        return playbackClock;
+    }
+
+    /**
+     * Plays or pauses every match
+     *
+     * @param playing   True to play the matches, false to pause them
+     */
+    public void setIsPlaying(boolean playing){
+        this.playing = playing;
+        for(MatchModel matchModel : matchModels){
+            matchModel.setIsPlaying(playing);
+        }
+    }
+
+    public boolean getIsPlaying(){
+        return playing;
+    }
+
+    /**
+     * Stops playback once every match has been played to its end, or its start when played backwards. Called on
+     * each pulse of the view, as the playback workers leave a shared clock running
+     *
+     * @return  True if playback was stopped
+     */
+    public boolean stopAtEnd(){
+        double time = getTime();
+        if(!playing || (time >= getStartTime() && time <= getEndTime())) return false;
+        setIsPlaying(false);
+        seek(Math.max(getStartTime(), Math.min(getEndTime(), time)));
+        return true;
+    }
+
+    /**
+     * Moves every match to a time on the shared clock
+     *
+     * @param sharedTime    Time in milliseconds
+     */
+    public void seek(double sharedTime){
+        for(int match = 0; match < matchModels.size(); match++){
+            matchModels.get(match).seekTo(getMatchTime(match, sharedTime));
+        }
+    }
+
+    /**
+     * Pauses every match and moves them all one frame forwards or backwards together
+     *
+     * @param forwards  True to move forwards, false to move backwards
+     */
+    public void stepFrame(boolean forwards){
+        setIsPlaying(false);
+        seek(getTime() + (forwards ? FRAME_LENGTH : -FRAME_LENGTH));
+    }
+
+    /**
+     * @param faster    True to play faster, false to play slower
+     * @return          The new speed, where 1.0 is real time
+     */
+    public double changeSpeed(boolean faster){
+        double speed = playbackClock.getSpeed();
+        for(MatchModel matchModel : matchModels){
+            speed = matchModel.changeSpeed(faster);
+        }
+        return speed;
+    }
+
+    /**
+     * @param reverse   True to play every match backwards
+     */
+    public void setReverse(boolean reverse){
+        for(MatchModel matchModel : matchModels){
+            matchModel.setReverse(reverse);
+        }
+    }
+}
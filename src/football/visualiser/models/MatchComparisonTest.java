@@ -0,0 +1,52 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for lining matches up against a shared playback clock
+ */
+public class MatchComparisonTest {
+
+    /**
+     * Tests that lining matches up on an event moves each match against the first by the difference in the times
+     * of the event, and that the shared time covers every match from the earliest start to the latest end
+     */
+    @Test
+    public void alignByEvent(){
+        MatchComparison comparison = new MatchComparison();
+        comparison.addMatch(new MatchModel(null, null, null, null), new int[]{ 0, 2700000, 3600000, 6300000 },
+                5400000);
+        comparison.addMatch(new MatchModel(null, null, null, null), new int[]{ 0, 2820000, 3600000, 6360000 },
+                5580000);
+
+        assertEquals(0, comparison.getOffset(1), 0);
+        assertEquals(0, comparison.getStartTime(), 0);
+        assertEquals(5580000, comparison.getEndTime(), 0);
+
+        // The second half of the second match starts two minutes later
+        comparison.alignBySecondHalf();
+        assertEquals(120000, comparison.getOffset(1), 0);
+        assertEquals(2820000, comparison.getMatchTime(1, 2700000), 0);
+        assertEquals(-120000, comparison.getStartTime(), 0);
+        assertEquals(5460000, comparison.getEndTime(), 0);
+
+        comparison.nudge(1, -1000);
+        assertEquals(119000, comparison.getOffset(1), 0);
+
+        comparison.alignByEvent(new double[]{ 60000, 30000 });
+        assertEquals(-30000, comparison.getOffset(1), 0);
+        assertEquals(0, comparison.getOffset(0), 0);
+
+        comparison.alignByMatchMinute();
+        assertEquals(0, comparison.getOffset(1), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void eventNeededForEachMatch(){
+        MatchComparison comparison = new MatchComparison();
+        comparison.addMatch(new MatchModel(null, null, null, null), new int[]{ 0, 1, 2, 3 }, 2);
+        comparison.alignByEvent(new double[]{ 0, 0 });
+    }
+}
@@ -23,6 +23,12 @@ public class MatchData implements IMatchData{
     private int[] startEndTimeStampsMilliseconds = new int[4];
     private int totalMatchTime;
     private int analyticalStrength = 3;
+    private long linesRead = 0;
+    private long bytesRead = 0;
+    private long seeks = 0;
+
+    // Time stamps are stored in picoseconds, the last timeOffset digits are dropped to get milliseconds
+    private static final long TIME_STAMP_DIVISOR = (long) Math.pow(10, SystemData.timeOffset);
 
     /**
      * Opens the match data file and creates a buffered reader which points to the start of the file.
@@ -34,6 +40,8 @@ public class MatchData implements IMatchData{
      * @throws IOException  If the file fails to open, an IO exception will be thrown
      */
     public MatchData(String fileLocation, String[] matchTimeStamps) throws IOException{
+        FlightEvents.MatchOpen openEvent = new FlightEvents.MatchOpen();
+        openEvent.begin();
         this.matchTimeStamps = matchTimeStamps;
 
         for(int i = 0; i < matchTimeStamps.length; i++){
@@ -47,6 +55,14 @@ public class MatchData implements IMatchData{
         goToFirstHalf();
 
         setTotalMatchLength();
+
+        openEvent.end();
+        if(openEvent.shouldCommit()){
+            openEvent.path = fileLocation;
+            openEvent.fileSize = FILE_SIZE;
+            openEvent.linesRead = linesRead;
+            openEvent.commit();
+        }
     }
 
     /**
@@ -78,6 +94,10 @@ public class MatchData implements IMatchData{
      */
     @Override
     public void goToTimeStamp(String timeStamp){
+        FlightEvents.FileSeek seekEvent = new FlightEvents.FileSeek();
+        seekEvent.begin();
+        long startLinesRead = linesRead;
+        seeks++;
         long first = 0;
         long last = FILE_SIZE - 1;
         long middle = (first + last) / 2;
@@ -118,6 +138,13 @@ public class MatchData implements IMatchData{
             }
 
         } while(currentTime != null && currentTime.compareTo(timeStamp) < 0);
+
+        seekEvent.end();
+        if(seekEvent.shouldCommit()){
+            seekEvent.timeStamp = timeStamp;
+            seekEvent.linesRead = linesRead - startLinesRead;
+            seekEvent.commit();
+        }
     }
 
     @Override
@@ -142,7 +169,13 @@ public class MatchData implements IMatchData{
      */
     private String readLine(){
         try {
-            return currentLine.readLine();
+            String line = currentLine.readLine();
+            if(line != null){
+                linesRead++;
+                // The data files are ASCII, so each character is a byte, plus one for the end of the line
+                bytesRead += line.length() + 1;
+            }
+            return line;
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -248,23 +281,80 @@ public class MatchData implements IMatchData{
      */
     @Override
     public int[] getNextLineAsInt(){
-        String[] stringTokens = getNextLineAsString();
-        if(stringTokens == null) return null;
-
-        int[] tokens = new int[stringTokens.length];
-
-        for (int i = 0; i < stringTokens.length; i++) {
-            try{
-                if(i == dataTimeStamp){
-                    tokens[i] = convertTimeStampToMilliseconds(stringTokens[i]);
-                }else{
-                    tokens[i] = Integer.parseInt(stringTokens[i]);
-                }
-            }catch (NumberFormatException e){
-                System.out.println("Failed to parse input token");
+        int[] tokens = new int[numberOfFields];
+        if(!getNextLine(tokens)) return null;
+        return tokens;
+    }
+
+    /**
+     * Reads the next line in the data file into the row supplied. Lines which do not contain all the
+     * required fields are skipped, and the same first half, half time, and end of match checks are made as
+     * in {@link #getNextLineAsString()}. The line is parsed in place rather than being split into tokens
+     *
+     * @param row   Array the fields of the line are written into
+     * @return      True if a line was read, false if the end of the match has been reached
+     */
+    @Override
+    public boolean getNextLine(int[] row){
+        String line;
+        while(true){
+            for(int i = 0; i < analyticalStrength; i++){
+                readLine();
+            }
+
+            line = readLine();
+            if(line == null) return false;
+            if(parseLine(line, row) != numberOfFields) continue;
+
+            int time = row[dataTimeStamp];
+            if(time < startEndTimeStampsMilliseconds[FIRST_HALF_START_TIME]){
+                goToTimeStamp(matchTimeStamps[FIRST_HALF_START_TIME]);
+            }else if(time > startEndTimeStampsMilliseconds[FIRST_HALF_END_TIME] &&
+                    time < startEndTimeStampsMilliseconds[SECOND_HALF_START_TIME]){
+                goToTimeStamp(matchTimeStamps[SECOND_HALF_START_TIME]);
+            }else if(time > startEndTimeStampsMilliseconds[SECOND_HALF_END_TIME]){
+                return false;
+            }else{
+                return true;
             }
         }
-        return tokens;
+    }
+
+    /**
+     * Parses a comma separated line of integers into the row supplied without creating any intermediate
+     * strings. The time stamp field is converted from picoseconds to milliseconds
+     *
+     * @param line  Line to parse
+     * @param row   Array the values are written into
+     * @return      Number of fields parsed, or -1 if the line contains anything other than integers
+     */
+    static int parseLine(String line, int[] row){
+        int field = 0;
+        long value = 0;
+        boolean negative = false;
+        boolean hasDigits = false;
+        int length = line.length();
+
+        for(int i = 0; i <= length; i++){
+            char c = i < length ? line.charAt(i) : ',';
+            if(c >= '0' && c <= '9'){
+                value = value * 10 + (c - '0');
+                hasDigits = true;
+            }else if(c == '-' && !hasDigits && !negative){
+                negative = true;
+            }else if(c == ','){
+                if(!hasDigits || field >= row.length) return -1;
+                if(negative) value = -value;
+                row[field] = field == dataTimeStamp ? (int) (value / TIME_STAMP_DIVISOR) : (int) value;
+                field++;
+                value = 0;
+                negative = false;
+                hasDigits = false;
+            }else if(c != ' ' && c != '\r'){
+                return -1;
+            }
+        }
+        return field;
     }
 
     /**
@@ -289,6 +379,25 @@ public class MatchData implements IMatchData{
         return startEndTimeStampsMilliseconds;
     }
 
+    /**
+     * If by adding the requested matchTime to the first half start time, it does not go past the first half end
+     * time, it will return that value, otherwise it will return the appropriate time in the second half
+     *
+     * Author: Oscar Mason
+     *
+     * @param startEndTimeStamps    List of start and end times for the first and second half
+     * @param matchTime             Milliseconds since the start of the match, not counting half time
+     * @return                      Time stamp in milliseconds
+     */
+    public static int toTimeStamp(int[] startEndTimeStamps, int matchTime){
+        int timeStamp = startEndTimeStamps[FIRST_HALF_START_TIME] + matchTime;
+        if(timeStamp < startEndTimeStamps[FIRST_HALF_END_TIME]){
+            return timeStamp;
+        }else{
+            return startEndTimeStamps[SECOND_HALF_START_TIME] + (timeStamp - startEndTimeStamps[FIRST_HALF_END_TIME]);
+        }
+    }
+
 
     /**
      * Sets the length of the whole match in milliseconds
@@ -306,8 +415,34 @@ public class MatchData implements IMatchData{
     }
 
 
+    @Override
+    public long getLinesRead(){
+        return linesRead;
+    }
+
+    @Override
+    public long getBytesRead(){
+        return bytesRead;
+    }
+
+    @Override
+    public long getSeekCount(){
+        return seeks;
+    }
+
     public void setAnalyticalStrength(int analyticalStrength){
         this.analyticalStrength = analyticalStrength;
     }
 
+    /**
+     * Closes the match data file
+     */
+    public void close(){
+        try {
+            randomAccessFile.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
 }
@@ -4,11 +4,14 @@ import football.visualiser.interfaces.IMatchModelListener;
 
 import java.lang.reflect.Array;
 import java.util.ArrayList;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 import java.util.HashMap;
 import java.lang.Thread;
 
 import football.visualiser.SystemData;
+import football.visualiser.models.AnalysisMetrics.Stage;
 import football.visualiser.interfaces.*;
 import football.visualiser.models.entities.Football;
 import football.visualiser.models.entities.Player;
@@ -31,13 +34,43 @@ public class MatchModel {
     private HashMap<Integer, Football> footballs;
     private HashMap<Integer, ArrayList<Integer>> playerDistances;
     private final int SECOND = 1000;
-    private final int TWO_SECONDS = 2000;
+    // Playback shows a frame about as often as the view is sent new positions, and the view interpolates between
+    private final long PLAYBACK_TICK_LENGTH = 40000000L;
+    private final long CURSOR_UPDATE_INTERVAL = 250000000L;
+    // Frames further apart than this, beyond the time played in a tick, are not interpolated between
+    private final int MAX_INTERPOLATION_GAP = 1000;
 
     private IMatchData matchData;
     private IEntityObserver matchController;
     private DataAnalyser dataAnalyser;
     private Pitch pitch;
     private IMatchModelListener matchModelListener;
+    private KinematicsTracker kinematicsTracker;
+    private SprintDetector sprintDetector;
+    private SprintDetector highIntensityRunDetector;
+    private BallInPlayIndex ballInPlayIndex;
+    private SpatioTemporalIndex spatioTemporalIndex;
+    private PlaybackTrack playbackTrack;
+    private PlaybackClock playbackClock = new PlaybackClock();
+    // Milliseconds this match is ahead of a playback clock shared with other matches
+    private volatile double clockOffset = 0;
+    private boolean clockShared = false;
+    private final ConcurrentLinkedQueue<PlaybackCommand> playbackCommands = new ConcurrentLinkedQueue<>();
+    private volatile Thread playbackWorker;
+    // Only used by the playback worker
+    private int shownTime = 0;
+    private PlaybackTrack loopSegment;
+    private double loopStart;
+    private double loopEnd;
+    // Only used by the user interface
+    private double speed = 1;
+
+    private volatile long loopWraps = 0;
+    private volatile boolean skipStoppages = false;
+    private AnalysisSampler analysisSampler;
+    private final AnalysisMetrics analysisMetrics;
+    private final PlaybackMetrics playbackMetrics = new PlaybackMetrics();
+    private int analysisTimeBudget = 0;
 
     private double blueTeamPassAccuracy = 0.0;
     private double redTeamPassAccuracy = 0.0;
@@ -50,6 +83,7 @@ public class MatchModel {
         this.dataAnalyser = dataAnalyser;
         this.pitch = pitch;
         this.matchModelListener = matchModelListener;
+        analysisMetrics = new AnalysisMetrics(matchData);
 
         playerDistances = new HashMap<>();
     }
@@ -63,25 +97,6 @@ public class MatchModel {
         this.footballs = footballs;
     }
 
-    /**
-     * In order to keep the user interface responsive whilst the game is being played back,
-     * the game loop is put in a background thread
-     * Author: Oscar Mason
-     */
-    public void gameLoopStart() {
-        // To prevent multiple threads, and in turn game loops, from running at the same time,
-        // such as when seeking to a new position in the game, a new thread should only be started
-        // when the match is playing (when seeking the match is paused)
-        // The status of the whether the match is playing is store in an AtomicBoolean to ensure
-        // only one thread can modify the boolean at a time
-
-        if (getIsPlaying()) {
-            Thread thread = new Thread(this::gameLoop);
-            thread.setDaemon(true);
-            thread.start();
-        }
-    }
-
     /**
      * Iterate through all players in the HashMap and assign a new PerformanceTracker to each object
      * The PerformanceTracker constructor takes the SECOND constant as the interval variable (i.e. 1000 units is a second)
@@ -117,11 +132,7 @@ public class MatchModel {
      */
     public void analyseMatchData(DataAnalyser dataAnalyser, Pitch pitch){
         matchData.goToFirstHalf();
-        Football footballInPlay = footballs.get(footballs.keySet().iterator().next());
-        IPlayerSensor<Player> playerSensorClosestToBall;
         int currentMillisecond;
-        int prevMillisecond = 0;
-        int twoSeconds = 0;
         int currentID;
         boolean performanceTrackersInitialised = false;
         int currentX;
@@ -132,65 +143,89 @@ public class MatchModel {
         int prevY;
         int hypotenuse;
 
-        matchData.setAnalyticalStrength(3);
+        // Every row is read and the sampler decides which are analysed
+        matchData.setAnalyticalStrength(0);
+        analysisSampler = analysisTimeBudget > 0 ?
+                new AnalysisSampler(analysisTimeBudget, matchData.getStartEndTimeStamps(),
+                        matchData.getTotalMatchTimeInMilliseconds()) :
+                new AnalysisSampler();
+        analysisMetrics.setAnalysisSampler(analysisSampler);
 
         for(Player player : players.values()){
             playerDistances.put(player.getID(), new ArrayList<Integer>());
         }
 
-
-        for(int[] data = matchData.getNextLineAsInt(); data != null; data = matchData.getNextLineAsInt()){
+        DetectionPass detectionPass = new DetectionPass(dataAnalyser, matchData, pitch, playerSensors, players,
+                footballs, analysisMetrics);
+        ballInPlayIndex = detectionPass.getBallInPlayIndex();
+        int[] playerIDs = new int[players.size()];
+        int playerIndex = 0;
+        for(Integer playerID : players.keySet()){
+            playerIDs[playerIndex++] = playerID;
+        }
+        spatioTemporalIndex = new SpatioTemporalIndex(pitch, playerIDs,
+                matchData.getStartEndTimeStamps()[FIRST_HALF_START_TIME],
+                matchData.getStartEndTimeStamps()[SECOND_HALF_END_TIME]);
+        playbackTrack = new PlaybackTrack(playerIDs);
+        kinematicsTracker = new KinematicsTracker(playerSensors);
+        sprintDetector = kinematicsTracker.addSprintDetector(SprintDetector.SPRINT_START_SPEED,
+                SprintDetector.SPRINT_END_SPEED, SprintDetector.DEFAULT_MINIMUM_DURATION);
+        highIntensityRunDetector = kinematicsTracker.addSprintDetector(SprintDetector.HIGH_INTENSITY_START_SPEED,
+                SprintDetector.HIGH_INTENSITY_END_SPEED, SprintDetector.DEFAULT_MINIMUM_DURATION);
+
+        // A single row buffer is reused for the whole file rather than allocating an array per line
+        int[] data = new int[numberOfFields];
+
+        // Each stage is timed through the analysis metrics, which only read the clock on a few of the calls
+        long timer;
+        analysisSampler.start();
+        while(true){
+            timer = analysisMetrics.start(Stage.PARSE);
+            if(!matchData.getNextLine(data)) break;
+            analysisMetrics.stop(Stage.PARSE, timer);
 
             currentID = data[dataID];
             currentMillisecond = data[dataTimeStamp];
 
+            // Speeds and distances are integrated from every row, before the sampler thins the rows analysed
+            timer = analysisMetrics.start(Stage.KINEMATICS);
+            kinematicsTracker.update(data);
+            analysisMetrics.stop(Stage.KINEMATICS, timer);
+
+            Football footballInPlay = detectionPass.getFootballInPlay();
+            timer = analysisMetrics.start(Stage.SAMPLER);
+            boolean analysed = analysisSampler.accept(currentID, currentMillisecond, data[dataXPosition],
+                    data[dataYPosition], currentID == footballInPlay.getID(), footballInPlay.getX(),
+                    footballInPlay.getY());
+            analysisMetrics.stop(Stage.SAMPLER, timer);
+            analysisMetrics.countRow(analysed);
+            if(!analysed) continue;
+
             // If the performance trackers for all players are not created yet, do that now
             if (!performanceTrackersInitialised) {
                 initialisePerformanceTrackers(currentMillisecond);
                 performanceTrackersInitialised = true;
             }
 
-            // Stores which football is currently in player
-            footballInPlay = dataAnalyser.getFootBallInPlay(pitch, footballs, footballInPlay);
-
-            playerSensorClosestToBall = dataAnalyser.playerClosestToFootball(playerSensors, footballInPlay);
-
-            dataAnalyser.checkIfPlayerIsInPossession(playerSensorClosestToBall, footballInPlay,
-                    data[dataTimeStamp]);
-
-            dataAnalyser.detectTackle(currentMillisecond, playerSensorClosestToBall, playerSensors, matchData);
-
-            if (players.containsKey(data[dataID])) {
-                players.get(currentID).setX(data[dataXPosition]);
-                players.get(currentID).setY(data[dataYPosition]);
-            }
-
-            if(playerSensors.containsKey(currentID)){
-                playerSensors.get(currentID).setX(data[dataXPosition]);
-                playerSensors.get(currentID).setY(data[dataYPosition]);
-            }
+            detectionPass.analyseRow(data);
 
-            if(footballs.containsKey(currentID)){
-                footballs.get(currentID).setX(data[dataXPosition]);
-                footballs.get(currentID).setY(data[dataYPosition]);
-                footballs.get(currentID).setZ(data[dataZPosition]);
-                footballs.get(currentID).setCurrentVelocity(data[velocityPosition]);
-            }
+            if(detectionPass.isNewFrame()){
+                timer = analysisMetrics.start(Stage.TRACKS);
+                footballInPlay = detectionPass.getFootballInPlay();
+                for(Player player : players.values()){
+                    spatioTemporalIndex.record(player.getID(), currentMillisecond, player.getX(), player.getY());
+                }
 
-            // Performs these operations once every two seconds
-            if(currentMillisecond - twoSeconds > TWO_SECONDS){
-                dataAnalyser.interactionWithFootballOccurred(footballInPlay);
-                twoSeconds = currentMillisecond;
-                blueTeamPassAccuracy = dataAnalyser.detectSuccessfulPassBlueTeam();
-                redTeamPassAccuracy = dataAnalyser.detectSuccessfulPassRedTeam();
+                playbackTrack.addFrame(currentMillisecond, footballInPlay.getID(), footballInPlay.getX(),
+                        footballInPlay.getY());
+                for(int player = 0; player < playerIDs.length; player++){
+                    Player trackedPlayer = players.get(playerIDs[player]);
+                    playbackTrack.setPlayerPosition(player, trackedPlayer.getX(), trackedPlayer.getY());
+                }
+                analysisMetrics.stop(Stage.TRACKS, timer);
             }
 
-            // Performs these operations once every second
-            if(currentMillisecond - prevMillisecond > SECOND){
-                dataAnalyser.switchSides(currentMillisecond, matchData, pitch);
-
-                prevMillisecond = currentMillisecond;
-                dataAnalyser.detect1_2_1PassTeam(currentMillisecond, matchData, pitch.getLeftGoal(), pitch.getRightGoal());
+            if(detectionPass.isNewSecond()){
                 for(Player player : players.values()){
 
                     currentX = player.getX();
@@ -208,15 +243,21 @@ public class MatchModel {
                 }
             }
 
-            dataAnalyser.updatePlayerHeatMaps(pitch, players);
-
-            // Check whether the game has switched sides
-            dataAnalyser.switchSides(currentMillisecond, matchData, pitch);
-
-            dataAnalyser.detectGoal(currentMillisecond, matchData, pitch, footballInPlay, pitch.getLeftGoal(), true);
-            dataAnalyser.detectGoal(currentMillisecond, matchData, pitch, footballInPlay, pitch.getRightGoal(), false);
+            timer = analysisMetrics.start(Stage.HEAT_MAPS);
+            dataAnalyser.updatePlayerHeatMaps(pitch, players, currentMillisecond);
+            analysisMetrics.stop(Stage.HEAT_MAPS, timer);
         }
 
+        analysisMetrics.endBatch();
+        analysisSampler.finish(new SweepResult(dataAnalyser.getConfiguration(), dataAnalyser.getTackleTimes().size(),
+                dataAnalyser.getRedTeamGoalTimes().size() + dataAnalyser.getBlueTeamGoalTimes().size(),
+                dataAnalyser.getPassCount(),
+                dataAnalyser.getRedTeam1_2_1Times().size() + dataAnalyser.getBlueTeam1_2_1Times().size(),
+                analysisSampler.getElapsedTime()));
+        kinematicsTracker.finish();
+        blueTeamPassAccuracy = detectionPass.getBlueTeamPassAccuracy();
+        redTeamPassAccuracy = detectionPass.getRedTeamPassAccuracy();
+
         // Go back to the start of the match so that the match can be played straight away
         matchData.goToFirstHalf();
 
@@ -242,94 +283,495 @@ public class MatchModel {
     }
 
     /**
-     * Tracks the passage of time to control the rate gameplay in the match
-     * updates the position of entities in a loop depending on how many entities
-     * Authors: Simrandeep Kaur
+     * Sends a command to the playback worker, starting the worker if it is not already running. The user
+     * interface never waits for the worker
+     *
+     * @param command   Command to send
      */
-    public void gameLoop() {
-        int data[];
-        int currentMillisecond;
-
-        int prevMillisecond = 0;
-        int prevSecond = 0;
-        long currentTime;
-        long lastUpdate = 0;
-        Football footballInPlay = footballs.get(footballs.keySet().iterator().next());
-        IPlayerSensor<Player> playerSensorClosestToBall;
-        int twoSeconds = 0;
-        int frameRate = 20;
-
-        for (data = matchData.getNextLineAsInt(); data != null; data = matchData.getNextLineAsInt()) {
-            if(!getIsPlaying()){
-                break;
+    private void sendPlaybackCommand(PlaybackCommand command){
+        if(playbackWorker == null){
+            synchronized(this){
+                if(playbackWorker == null){
+                    Thread worker = new Thread(this::playbackLoop, "Playback");
+                    worker.setDaemon(true);
+                    worker.start();
+                    playbackWorker = worker;
+                }
             }
+        }
+        playbackCommands.offer(command);
+        LockSupport.unpark(playbackWorker);
+    }
 
-            int currentID = data[dataID];
-            currentMillisecond = data[dataTimeStamp];
+    /**
+     * Runs for as long as the application does, carrying out commands from the user interface and playing the
+     * match back from the playback track. Only this thread moves the playback clock or sends positions to the view.
+     *
+     * Each tick, the time in the match is read from the playback clock and the frame at that time is shown, so
+     * playback keeps up at any speed and in either direction. Ticks are scheduled against fixed deadlines so that
+     * time spent drawing does not add up into drift. While paused the worker sleeps until a command arrives
+     * Authors: Simrandeep Kaur, Oscar Mason
+     */
+    private void playbackLoop() {
+        int[] startEndTimeStamps = matchData.getStartEndTimeStamps();
+        int matchTotalTime = matchData.getTotalMatchTimeInMilliseconds();
+        long nextTick = System.nanoTime();
+        long lastCursorUpdate = 0;
+        boolean playing = false;
+        // Frame shown by the previous tick, from which the rows of the track played through are counted
+        PlaybackTrack lastTrack = null;
+        int lastFrame = 0;
+        long lastLoopWraps = 0;
+
+        while(true){
+            PlaybackCommand seek = null;
+            for(PlaybackCommand command = playbackCommands.poll(); command != null;
+                command = playbackCommands.poll()){
+                long now = System.nanoTime();
+                switch(command.getType()){
+                    case PLAY:
+                        playing = true;
+                        playbackClock.start(now);
+                        nextTick = now;
+                        break;
+                    case PAUSE:
+                        playing = false;
+                        playbackClock.pause(now);
+                        break;
+                    case SEEK:
+                        // Only the latest of several seeks, such as while the slider is dragged, is carried out
+                        if(seek != null) playbackMetrics.recordCoalescedSeek();
+                        seek = command;
+                        break;
+                    case SPEED:
+                        playbackClock.setSpeed(command.getValue());
+                        break;
+                    case REVERSE:
+                        playbackClock.setReverse(command.getValue() == 0);
+                        break;
+                    case STEP:
+                        if(seek != null){
+                            showSeek(seek, startEndTimeStamps);
+                            seek = null;
+                        }
+                        playing = false;
+                        playbackClock.pause(now);
+                        stepFrame(command.getValue() != 0, startEndTimeStamps);
+                        break;
+                    case LOOP:
+                        // The frames of the loop are copied out once, and played from memory on every pass
+                        if(playbackTrack == null) break;
+                        loopStart = command.getValue();
+                        loopEnd = command.getEndValue();
+                        loopSegment = playbackTrack.getSegment(
+                                MatchData.toTimeStamp(startEndTimeStamps, (int) loopStart),
+                                MatchData.toTimeStamp(startEndTimeStamps, (int) loopEnd));
+                        double loopTime = getClockTime(now);
+                        if(loopTime < loopStart || loopTime > loopEnd) setClockTime(loopStart, now);
+                        break;
+                    case END_LOOP:
+                        loopSegment = null;
+                        break;
+                }
+            }
+            if(seek != null){
+                showSeek(seek, startEndTimeStamps);
+                lastTrack = null;
+            }
 
+            if(!playing){
+                // Wait for the next command
+                LockSupport.park(this);
+                continue;
+            }
 
-            footballInPlay = dataAnalyser.getFootBallInPlay(pitch, footballs, footballInPlay);
+            long now = System.nanoTime();
+            double time = getClockTime(now);
+            if(loopSegment != null) time = wrapLoop(time, now);
+
+            // Stop at either end of the match. A shared clock is left running for the other matches, which may
+            // not have reached their ends, and is stopped by whatever shares it
+            boolean held = false;
+            if(clockShared && (time < 0 || time > matchTotalTime)){
+                time = Math.max(0, Math.min(matchTotalTime, time));
+                held = true;
+            }else if(time < 0 || time > matchTotalTime){
+                playing = false;
+                setIsPlaying(false);
+                playbackClock.pause(now);
+                time = Math.max(0, Math.min(matchTotalTime, time));
+                setClockTime(time, now);
+            }
 
-            playerSensorClosestToBall = dataAnalyser.playerClosestToFootball(playerSensors, footballInPlay);
-            dataAnalyser.checkIfPlayerIsInPossession(playerSensorClosestToBall, footballInPlay, data[dataTimeStamp]);
+            int timeStamp = MatchData.toTimeStamp(startEndTimeStamps, (int) time);
+
+            // Jump straight to the next restart of play when only the effective playing time is being shown
+            if(skipStoppages && !ballInPlayIndex.isInPlay(timeStamp)){
+                int inPlay = playbackClock.isReverse() ? ballInPlayIndex.previousInPlay(timeStamp) :
+                        ballInPlayIndex.nextInPlay(timeStamp);
+                if(loopSegment != null && (inPlay < 0 || !isInLoop(convertToMatchTime(startEndTimeStamps, inPlay)))){
+                    // The rest of the loop is a stoppage, so go round to the start of the loop again
+                    time = playbackClock.isReverse() ? loopEnd : loopStart;
+                    setClockTime(time, now);
+                    timeStamp = MatchData.toTimeStamp(startEndTimeStamps, (int) time);
+                    loopWraps++;
+                }else if(inPlay < 0){
+                    playing = false;
+                    setIsPlaying(false);
+                    playbackClock.pause(now);
+                }else{
+                    timeStamp = inPlay;
+                    setClockTime(convertToMatchTime(startEndTimeStamps, timeStamp), now);
+                }
+            }
 
-            dataAnalyser.detectTackle(currentMillisecond, playerSensorClosestToBall, playerSensors, matchData);
+            PlaybackTrack track = loopSegment != null && isInLoop(time) ? loopSegment : playbackTrack;
+            int frame = track.getFrameAt(timeStamp);
+            // The view moves the entities on from this frame for as long as the clock runs
+            double clockRate = playing && !held ?
+                    playbackClock.getSpeed() * (playbackClock.isReverse() ? -1 : 1) : 0;
+            showFrame(track, frame, timeStamp, now, clockRate);
+
+            if(now - lastCursorUpdate > CURSOR_UPDATE_INTERVAL){
+                matchModelListener.updateCursorPosition(timeStamp);
+                matchModelListener.updateGoalCount(timeStamp);
+                lastCursorUpdate = now;
+            }
 
-            if (players.containsKey(data[dataID])) {
-                players.get(currentID).setX(data[dataXPosition]);
-                players.get(currentID).setY(data[dataYPosition]);
+            // Jumps, such as going round a loop, are not counted as rows played through
+            int rowsConsumed = track == lastTrack && loopWraps == lastLoopWraps ? Math.abs(frame - lastFrame) : 0;
+            lastTrack = track;
+            lastFrame = frame;
+            lastLoopWraps = loopWraps;
+
+            nextTick += PLAYBACK_TICK_LENGTH;
+            long tickEnd = System.nanoTime();
+            playbackMetrics.recordTick(now, tickEnd - now, timeStamp - shownTime, rowsConsumed);
+            long sleepLength = nextTick - tickEnd;
+            if(sleepLength > 0){
+                // A new command wakes the worker early
+                LockSupport.parkNanos(this, sleepLength);
+            }else if(sleepLength < -PLAYBACK_TICK_LENGTH){
+                // Too far behind to catch up, so skip the missed ticks rather than running them back to back
+                playbackMetrics.recordSkippedTick();
+                nextTick = System.nanoTime();
             }
+        }
+    }
 
-            if(playerSensors.containsKey(currentID)){
-                playerSensors.get(currentID).setX(data[dataXPosition]);
-                playerSensors.get(currentID).setY(data[dataYPosition]);
+    /**
+     * Takes playback round to the other end of the loop once it passes the end it is heading for. Playback carries
+     * on as far past the start of the loop as it went past the end, so going round does not lose or repeat time.
+     * Playback outside the loop, such as after a seek, carries on until it reaches the loop
+     *
+     * @param time  Time on the playback clock in milliseconds since the start of the match
+     * @param now   System time in nanoseconds
+     * @return      Time to play in milliseconds since the start of the match
+     */
+    private double wrapLoop(double time, long now){
+        double length = loopEnd - loopStart;
+        if(!playbackClock.isReverse() && time > loopEnd){
+            time = time - loopEnd < length ? loopStart + (time - loopEnd) : loopStart;
+        }else if(playbackClock.isReverse() && time < loopStart){
+            time = loopStart - time < length ? loopEnd - (loopStart - time) : loopEnd;
+        }else{
+            return time;
+        }
+        setClockTime(time, now);
+        loopWraps++;
+        return time;
+    }
 
-            }
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Time in this match in milliseconds, which is ahead of a shared clock by the offset of the match
+     */
+    private double getClockTime(long now){
+        return playbackClock.getTime(now) + clockOffset;
+    }
 
-            if(footballs.containsKey(currentID)){
-                footballs.get(currentID).setX(data[dataXPosition]);
-                footballs.get(currentID).setY(data[dataYPosition]);
-                footballs.get(currentID).setCurrentVelocity(data[velocityPosition]);
-            }
+    /**
+     * @param time  Time in this match in milliseconds
+     * @param now   System time in nanoseconds
+     */
+    private void setClockTime(double time, long now){
+        playbackClock.setTime(time - clockOffset, now);
+    }
 
-            if(currentMillisecond - twoSeconds > TWO_SECONDS){
+    private boolean isInLoop(double time){
+        return time >= loopStart && time <= loopEnd;
+    }
 
-                dataAnalyser.interactionWithFootballOccurred(footballInPlay);
-                twoSeconds = currentMillisecond;
+    /**
+     * Moves the playback clock to the time of a seek and shows the frame at that time straight away
+     *
+     * @param seek                  The seek command
+     * @param startEndTimeStamps    List of start and end times for the first and second half
+     */
+    private void showSeek(PlaybackCommand seek, int[] startEndTimeStamps){
+        FlightEvents.PlaybackSeek seekEvent = new FlightEvents.PlaybackSeek();
+        seekEvent.begin();
+        setClockTime(seek.getValue(), System.nanoTime());
+        int timeStamp = MatchData.toTimeStamp(startEndTimeStamps, (int) seek.getValue());
+        showFrame(playbackTrack, playbackTrack.getFrameAt(timeStamp), timeStamp, System.nanoTime(), 0);
+        matchModelListener.updateGoalCount(timeStamp);
+
+        long latency = System.nanoTime() - seek.getSentTime();
+        playbackMetrics.recordSeek(latency);
+
+        seekEvent.end();
+        if(seekEvent.shouldCommit()){
+            seekEvent.matchTime = (int) seek.getValue();
+            seekEvent.latency = latency;
+            seekEvent.commit();
+        }
+    }
 
-                if (getIsPlaying()) {
-                    matchModelListener.updateCursorPosition(currentMillisecond);
-                }
-                matchModelListener.updateGoalCount(currentMillisecond);
-            }
+    /**
+     * Sends the positions of every player and the football in play to the view in two frames, the first at or
+     * before the time on the playback clock and the second at or after where the clock will be by the next tick,
+     * along with the clock itself. The view then draws the entities between the two frames at the time on the clock
+     * on every pulse, until the next tick sends two new frames. Frames either side of half time are not moved
+     * between
+     *
+     * @param track         The playback track, or the segment of it being looped
+     * @param frame         Index of the frame in the track at the time on the clock
+     * @param clockTime     Time stamp on the playback clock in milliseconds
+     * @param now           System time in nanoseconds at which the clock read that time
+     * @param clockRate     Milliseconds of the match played per millisecond, negative when playing backwards
+     *                      and 0 while paused
+     */
+    private void showFrame(PlaybackTrack track, int frame, double clockTime, long now, double clockRate){
+        if(track == null || track.size() == 0) return;
+        FlightEvents.FramePublish publishEvent = new FlightEvents.FramePublish();
+        publishEvent.begin();
+        shownTime = track.getTime(frame);
+
+        double tickTime = Math.abs(clockRate) * PLAYBACK_TICK_LENGTH / 1000000.0;
+        int from = frame;
+        int to = Math.min(track.size() - 1, frame + 1);
+        if(clockRate > 0) to = Math.max(to, track.getFrameAt((int) Math.ceil(clockTime + tickTime)));
+        if(clockRate < 0) from = Math.min(from, track.getFrameAt((int) Math.floor(clockTime - tickTime)));
+        if(track.getTime(to) - track.getTime(from) > tickTime + MAX_INTERPOLATION_GAP){
+            from = frame;
+            to = frame;
+        }
 
-            currentMillisecond = data[dataTimeStamp];
+        for(int player = 0; player < track.getNumberOfPlayers(); player++){
+            matchController.updatePosition(track.getPlayerID(player),
+                    track.getPlayerX(from, player), track.getPlayerY(from, player));
+            matchController.updateNextPosition(track.getPlayerID(player),
+                    track.getPlayerX(to, player), track.getPlayerY(to, player));
+        }
+        matchController.updatePosition(track.getFootballID(from),
+                track.getFootballX(from), track.getFootballY(from));
+        // The football in play may change between the frames, in which case it is not moved
+        if(track.getFootballID(to) == track.getFootballID(from)){
+            matchController.updateNextPosition(track.getFootballID(to),
+                    track.getFootballX(to), track.getFootballY(to));
+        }
+        matchController.publishPositions(track.getTime(from), track.getTime(to), clockTime, now, clockRate);
 
-            if(currentMillisecond - prevMillisecond > frameRate || currentMillisecond - prevMillisecond < 0){
-                currentTime = System.nanoTime();
-                long diff = (long) Math.ceil((currentTime - lastUpdate) / 1000000);
-                // Update the position of the player graphics
-                for(Player player : players.values()){
-                    matchController.updatePosition(player.getID(), player.getX(), player.getY());
-                }
-                // Update the position of the football graphic
-                matchController.updatePosition(footballInPlay.getID(), footballInPlay.getX(), footballInPlay.getY());
-                long sleepLength = frameRate - diff;
-                lastUpdate = currentTime;
-                if(sleepLength > 0){
-                    try {
-                        Thread.sleep(sleepLength);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
-                prevMillisecond = currentMillisecond;
-            }
+        publishEvent.end();
+        if(publishEvent.shouldCommit()){
+            publishEvent.matchTime = shownTime;
+            publishEvent.entities = track.getNumberOfPlayers() + 1;
+            publishEvent.commit();
         }
     }
 
+    /**
+     * Moves one frame forwards or backwards from the frame on screen
+     *
+     * @param forwards              True to move to the next frame, false to move to the previous frame
+     * @param startEndTimeStamps    List of start and end times for the first and second half
+     */
+    private void stepFrame(boolean forwards, int[] startEndTimeStamps){
+        if(playbackTrack == null || playbackTrack.size() == 0) return;
+
+        // Step from the frame on screen rather than the clock, which may have moved on since it was shown
+        int frame = Math.max(0, Math.min(playbackTrack.size() - 1,
+                playbackTrack.getFrameAt(shownTime) + (forwards ? 1 : -1)));
+        int timeStamp = playbackTrack.getTime(frame);
+        setClockTime(convertToMatchTime(startEndTimeStamps, timeStamp), System.nanoTime());
+        showFrame(playbackTrack, frame, timeStamp, System.nanoTime(), 0);
+        matchModelListener.updateCursorPosition(timeStamp);
+        matchModelListener.updateGoalCount(timeStamp);
+    }
+
+    /**
+     * Pauses the match and moves one frame forwards or backwards
+     *
+     * @param forwards  True to move to the next frame, false to move to the previous frame
+     */
+    public void stepFrame(boolean forwards){
+        isPlaying.set(false);
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.STEP, forwards ? 1 : 0));
+    }
+
+    /**
+     * Changes the speed of playback to the next speed up or down
+     *
+     * @param faster    True to play faster, false to play slower
+     * @return          The new speed, where 1.0 is real time
+     */
+    public double changeSpeed(boolean faster){
+        speed = PlaybackClock.getNextSpeed(speed, faster);
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.SPEED, speed));
+        return speed;
+    }
+
+    /**
+     * @param reverse   True to play the match backwards
+     */
+    public void setReverse(boolean reverse){
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.REVERSE, reverse ? 0 : 1));
+    }
+
+    /**
+     * Plays a period of the match over and over until the loop is ended. Playback jumps to the start of the loop
+     * if it is outside it, and speed, direction and pausing all work as normal within the loop
+     *
+     * @param start     Start of the loop in milliseconds since the start of the match, not counting half time
+     * @param end       End of the loop in milliseconds since the start of the match, not counting half time
+     */
+    public void setLoop(double start, double end){
+        if(end <= start) throw new IllegalArgumentException("The end of the loop must be after its start");
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.LOOP, start, end));
+    }
+
+    public void endLoop(){
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.END_LOOP, 0));
+    }
+
+    /**
+     * @return  Number of times playback has gone round a loop
+     */
+    public long getLoopWrapCount(){
+        return loopWraps;
+    }
+
+    /**
+     * Plays this match from a clock shared with other matches, so that they are all played back together. Every
+     * match sharing the clock is sent the same commands, which move the clock the same way whichever worker
+     * carries them out first. Must be called before playback starts
+     *
+     * @param playbackClock     The shared clock
+     * @param clockOffset       Milliseconds this match is ahead of the clock
+     */
+    public void sharePlaybackClock(PlaybackClock playbackClock, double clockOffset){
+        if(playbackWorker != null) throw new IllegalStateException("Playback has already started");
+        this.playbackClock = playbackClock;
+        this.clockOffset = clockOffset;
+        clockShared = true;
+    }
+
+    /**
+     * Moves this match against a shared clock, such as to line up the same event in two matches. The frame on
+     * screen is not changed until the next seek or frame of playback
+     *
+     * @param clockOffset   Milliseconds this match is ahead of the clock
+     */
+    public void setClockOffset(double clockOffset){
+        this.clockOffset = clockOffset;
+    }
+
+    public double getClockOffset(){
+        return clockOffset;
+    }
+
+    public PlaybackClock getPlaybackClock(){
+        return playbackClock;
+    }
+
+    public PlaybackTrack getPlaybackTrack(){
+        return playbackTrack;
+    }
+
+    /**
+     * Plays the match back from a track built elsewhere, such as by {@link PlaybackTrack#fromFrames}, rather than
+     * by analysing the match
+     *
+     * @param playbackTrack     The track to play
+     */
+    public void setPlaybackTrack(PlaybackTrack playbackTrack){
+        this.playbackTrack = playbackTrack;
+    }
+
+    /**
+     * Sets whether playback should jump over stoppages so that only the time the ball is in play is shown
+     *
+     * @param skipStoppages     True to only show the effective playing time
+     */
+    public void setSkipStoppages(boolean skipStoppages){
+        this.skipStoppages = skipStoppages;
+    }
+
+    public boolean getSkipStoppages(){
+        return skipStoppages;
+    }
+
+    /**
+     * Sets how long the analysis should take. Sensors away from the ball are sampled less often until the
+     * analysis fits within the budget
+     *
+     * @param analysisTimeBudget    Time budget in milliseconds, or 0 to sample at the default rate
+     */
+    public void setAnalysisTimeBudget(int analysisTimeBudget){
+        this.analysisTimeBudget = analysisTimeBudget;
+    }
+
+    /**
+     * @return  Sampler used by the last analysis, which reports the sampling achieved
+     */
+    public AnalysisSampler getAnalysisSampler(){
+        return analysisSampler;
+    }
+
+    /**
+     * @return  Timings and counts of the stages of loading and analysing the match
+     */
+    public AnalysisMetrics getAnalysisMetrics(){
+        return analysisMetrics;
+    }
+
+    /**
+     * @return  Rates and delays of recent playback, from the model being updated to the pitch being drawn
+     */
+    public PlaybackMetrics getPlaybackMetrics(){
+        return playbackMetrics;
+    }
+
+    /**
+     * @return  Index of where every player was during the match, built by the last analysis
+     */
+    public SpatioTemporalIndex getSpatioTemporalIndex(){
+        return spatioTemporalIndex;
+    }
+
+    public BallInPlayIndex getBallInPlayIndex(){
+        return ballInPlayIndex;
+    }
+
+    /**
+     * @param half  {@link SystemData#FIRST_HALF_START_TIME} for the first half or
+     *              {@link SystemData#SECOND_HALF_START_TIME} for the second half
+     * @return      Milliseconds the ball was in play during the half
+     */
+    public int getEffectivePlayingTime(int half){
+        int[] startEndTimeStamps = matchData.getStartEndTimeStamps();
+        return ballInPlayIndex.getEffectiveTime(startEndTimeStamps[half], startEndTimeStamps[half + 1]);
+    }
+
+    /**
+     * Plays or pauses the match
+     *
+     * @param playing   True to play the match, false to pause it
+     */
     public void setIsPlaying(boolean playing){
-        isPlaying.set(playing);
+        if(isPlaying.getAndSet(playing) != playing && Thread.currentThread() != playbackWorker){
+            sendPlaybackCommand(new PlaybackCommand(playing ? PlaybackCommand.Type.PLAY : PlaybackCommand.Type.PAUSE, 0));
+        }
     }
 
     public boolean getIsPlaying(){
@@ -341,36 +783,48 @@ public class MatchModel {
      *
      * Author: Oscar Mason
      *
-     * @param sliderValue           The current value (position) of the seekbar's slider
-     * @param startEndTimeStamps    List of start and end times for the first and second half
-     * @param matchTotalTime        Total time in milliseconds of the match
+     * @param sliderValue       The current value (position) of the seekbar's slider
+     * @param matchTotalTime    Total time in milliseconds of the match
      */
-    public void seek(Number sliderValue, int[] startEndTimeStamps, int matchTotalTime){
-        int seekInMilliseconds = convertSeekValueToMilliseconds((double) sliderValue, matchTotalTime);
-        int seekTo = convertToMatchTimeStamp(startEndTimeStamps, seekInMilliseconds);
-        long timeStamp = (long) (seekTo * Math.pow(10, timeOffset));
-        matchData.goToTimeStamp(String.valueOf(timeStamp));
+    public void seek(Number sliderValue, int matchTotalTime){
+        preview(sliderValue, matchTotalTime);
         setIsPlaying(true);
-        gameLoopStart();
     }
 
     /**
-     * If by adding the requested seekInMilliseconds time to the first half start time, it does not go past the first
-     * half end time, it will return that value, otherwise it will return the appropriate time in the second half
+     * Seeks to a new position in the match without resuming playback, such as while the user drags the slider.
+     * Seeks sent faster than they can be shown are merged into the latest
      *
-     * Author: Oscar Mason
+     * @param sliderValue       The current value (position) of the seekbar's slider
+     * @param matchTotalTime    Total time in milliseconds of the match
+     */
+    public void preview(Number sliderValue, int matchTotalTime){
+        int seekInMilliseconds = convertSeekValueToMilliseconds(sliderValue.doubleValue(), matchTotalTime);
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.SEEK, seekInMilliseconds));
+    }
+
+    /**
+     * Seeks to a time in the match without resuming playback
+     *
+     * @param matchTime     Milliseconds since the start of the match, not counting half time
+     */
+    public void seekTo(double matchTime){
+        sendPlaybackCommand(new PlaybackCommand(PlaybackCommand.Type.SEEK, matchTime));
+    }
+
+    /**
+     * Converts a time stamp into the time since the start of the match, not counting half time
      *
      * @param startEndTimeStamps    List of start and end times for the first and second half
-     * @param seekInMilliseconds    Place in the match in milliseconds to seek to
-     * @return                      Seek time in milliseconds
+     * @param timeStamp             Time stamp in milliseconds
+     * @return                      Milliseconds since the start of the match
      */
-    public int convertToMatchTimeStamp(int[] startEndTimeStamps, int seekInMilliseconds){
-        int seekTo = startEndTimeStamps[FIRST_HALF_START_TIME] + seekInMilliseconds;
-        if(seekTo < startEndTimeStamps[FIRST_HALF_END_TIME]){
-            return seekTo;
-        }else{
-            return startEndTimeStamps[SECOND_HALF_START_TIME] + (seekTo - startEndTimeStamps[FIRST_HALF_END_TIME]);
+    public int convertToMatchTime(int[] startEndTimeStamps, int timeStamp){
+        if(timeStamp < startEndTimeStamps[FIRST_HALF_END_TIME]){
+            return timeStamp - startEndTimeStamps[FIRST_HALF_START_TIME];
         }
+        return startEndTimeStamps[FIRST_HALF_END_TIME] - startEndTimeStamps[FIRST_HALF_START_TIME]
+                + Math.max(0, timeStamp - startEndTimeStamps[SECOND_HALF_START_TIME]);
     }
 
     /**
@@ -391,4 +845,16 @@ public class MatchModel {
     public HashMap<Integer, ArrayList<Integer>> getPlayerDistances(){
         return playerDistances;
     }
+
+    public KinematicsTracker getKinematicsTracker(){
+        return kinematicsTracker;
+    }
+
+    public SprintDetector getSprintDetector(){
+        return sprintDetector;
+    }
+
+    public SprintDetector getHighIntensityRunDetector(){
+        return highIntensityRunDetector;
+    }
 }
@@ -0,0 +1,519 @@
+package football.visualiser.models;
+
+import football.visualiser.SystemData;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Match Parameter Detector</h1>
+ * Estimates the parameters of a match data file, so that the user does not have to type them in, by reading
+ * small blocks spread evenly across the file rather than the whole file. Blocks are read in parallel, each
+ * with its own RandomAccessFile seeking to a byte offset in the same way as {@link MatchData}, so the time taken
+ * depends on the number of blocks rather than the size of the file.
+ *
+ * From the sampled rows:
+ * <ul>
+ *     <li>Footballs are the sensors which report far more often than the rest, or which move faster or higher
+ *     than a player could</li>
+ *     <li>The pitch is the range of the middle 98% of the positions of the footballs while they are moving</li>
+ *     <li>Half time is the longest break in play, where play is when the ball or the players are moving and
+ *     there is no gap in the recording. The boundaries found by the first pass are then refined by sampling
+ *     more densely around them</li>
+ * </ul>
+ *
+ * The results are estimates intended to pre-fill the analyse form, and should be checked by the user
+ */
+public class MatchParameterDetector {
+    private static final int NUMBER_OF_BLOCKS = 512;
+    private static final int BLOCK_BYTES = 64 * 1024;
+    private static final int NUMBER_OF_REFINEMENT_BLOCKS = 32;
+    private static final int REFINEMENT_BLOCK_BYTES = 16 * 1024;
+
+    // A jump in time larger than this between two rows is treated as a break in the recording
+    private static final int GAP_MILLISECONDS = 10000;
+
+    // Balls are sampled far more often than the sensors worn by players
+    private static final double BALL_RATE_RATIO = 1.5;
+    // Speeds and heights which players do not reach, in micrometres per second and millimetres
+    private static final int BALL_SPEED = 14000000;
+    private static final int BALL_HEIGHT = 1500;
+    private static final double BALL_SAMPLE_FRACTION = 0.01;
+
+    private static final int MOVING_BALL_SPEED = 1000000;
+    private static final double ACTIVE_BALL_FRACTION = 0.2;
+    private static final int ACTIVE_PLAYER_SPEED = 1500000;
+
+    private static final double PITCH_LOWER_PERCENTILE = 0.01;
+    private static final double PITCH_UPPER_PERCENTILE = 0.99;
+    private static final int MINIMUM_PITCH_SAMPLES = 100;
+
+    private static final long TIME_STAMP_DIVISOR = (long) Math.pow(10, SystemData.timeOffset);
+
+    private final String fileLocation;
+    private final long fileSize;
+    private final int numberOfBlocks;
+    private final int blockBytes;
+    private ExecutorService executor;
+
+    private HashSet<Integer> footballIDs = new HashSet<>();
+    private double millisecondsPerByte;
+
+    /**
+     * A run of consecutive rows read from the file with no gap in time between them
+     */
+    private static class Segment {
+        long offset;
+        long endOffset;
+        int size;
+        int[] ids;
+        int[] times;
+        int[] xs;
+        int[] ys;
+        int[] zs;
+        int[] speeds;
+        boolean active;
+
+        Segment(long offset, int capacity){
+            this.offset = offset;
+            ids = new int[capacity];
+            times = new int[capacity];
+            xs = new int[capacity];
+            ys = new int[capacity];
+            zs = new int[capacity];
+            speeds = new int[capacity];
+        }
+
+        void add(int[] row){
+            if(size == ids.length){
+                int capacity = size * 2 + 1;
+                ids = Arrays.copyOf(ids, capacity);
+                times = Arrays.copyOf(times, capacity);
+                xs = Arrays.copyOf(xs, capacity);
+                ys = Arrays.copyOf(ys, capacity);
+                zs = Arrays.copyOf(zs, capacity);
+                speeds = Arrays.copyOf(speeds, capacity);
+            }
+            ids[size] = row[dataID];
+            times[size] = row[dataTimeStamp];
+            xs[size] = row[dataXPosition];
+            ys[size] = row[dataYPosition];
+            zs[size] = row[dataZPosition];
+            speeds[size] = row[velocityPosition];
+            size++;
+        }
+
+        int getStartTime(){
+            return times[0];
+        }
+
+        int getEndTime(){
+            return times[size - 1];
+        }
+    }
+
+    /**
+     * @param fileLocation  Location of the match data file
+     * @throws IOException  If the file cannot be opened
+     */
+    public MatchParameterDetector(String fileLocation) throws IOException {
+        this(fileLocation, NUMBER_OF_BLOCKS, BLOCK_BYTES);
+    }
+
+    /**
+     * @param fileLocation      Location of the match data file
+     * @param numberOfBlocks    Number of blocks sampled across the file in the first pass
+     * @param blockBytes        Size of each block in bytes
+     * @throws IOException      If the file cannot be opened
+     */
+    MatchParameterDetector(String fileLocation, int numberOfBlocks, int blockBytes) throws IOException {
+        this.fileLocation = fileLocation;
+        this.numberOfBlocks = numberOfBlocks;
+        this.blockBytes = blockBytes;
+        try(RandomAccessFile file = new RandomAccessFile(fileLocation, "r")){
+            fileSize = file.length();
+        }
+    }
+
+    /**
+     * Samples the file and estimates the match parameters
+     *
+     * @return                      The estimated parameters
+     * @throws IOException          If the file cannot be read or does not contain any match data
+     * @throws InterruptedException If the thread is interrupted while waiting for the blocks to be read
+     */
+    public MatchParameters detect() throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+
+        executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "match-parameter-detector");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try{
+            List<Segment> segments = sampleBlocks(0, fileSize, numberOfBlocks, blockBytes);
+            if(segments.isEmpty()) throw new IOException("No match data found in " + fileLocation);
+
+            int[] footballs = detectFootballs(segments);
+            int[] pitchCoordinates = detectPitchCoordinates(segments);
+            String[] matchTimeStamps = detectHalves(segments);
+
+            return new MatchParameters(footballs, pitchCoordinates, matchTimeStamps,
+                    System.currentTimeMillis() - startTime);
+        }finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads blocks spread evenly between two byte offsets in parallel. If the blocks would overlap, the whole
+     * range is read instead
+     *
+     * @param from          Byte offset of the start of the range
+     * @param to            Byte offset of the end of the range
+     * @param count         Number of blocks to read
+     * @param blockBytes    Size of each block
+     * @return              Segments read from all of the blocks in the order they appear in the file
+     */
+    private List<Segment> sampleBlocks(long from, long to, int count, int blockBytes)
+            throws IOException, InterruptedException {
+        to = Math.min(to, fileSize);
+        List<Callable<List<Segment>>> tasks = new ArrayList<>();
+
+        if(to - from <= (long) count * blockBytes){
+            for(long offset = from; offset < to; offset += blockBytes){
+                long blockOffset = offset;
+                tasks.add(() -> readBlock(blockOffset, blockBytes));
+            }
+        }else{
+            long spacing = (to - from - blockBytes) / (count - 1);
+            for(int i = 0; i < count; i++){
+                long blockOffset = from + i * spacing;
+                tasks.add(() -> readBlock(blockOffset, blockBytes));
+            }
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        try{
+            for(Future<List<Segment>> result : executor.invokeAll(tasks)){
+                segments.addAll(result.get());
+            }
+        }catch (ExecutionException e){
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+        return segments;
+    }
+
+    /**
+     * Reads the complete lines within a block of the file. The rows are split into segments wherever there is a
+     * gap in time between two rows
+     *
+     * @param offset    Byte offset of the block
+     * @param length    Size of the block in bytes
+     * @return          Segments found in the block
+     */
+    private List<Segment> readBlock(long offset, int length) throws IOException {
+        byte[] buffer = new byte[(int) Math.min(length, fileSize - offset)];
+        try(RandomAccessFile file = new RandomAccessFile(fileLocation, "r")){
+            file.seek(offset);
+            file.readFully(buffer);
+        }
+        boolean endOfFile = offset + buffer.length >= fileSize;
+
+        // Unless the block is at the start of the file, the first line is likely to be incomplete
+        int position = 0;
+        if(offset > 0){
+            while(position < buffer.length && buffer[position] != '\n') position++;
+            position++;
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        Segment segment = new Segment(offset + position, buffer.length / 40);
+        int[] row = new int[numberOfFields];
+
+        while(position < buffer.length){
+            int end = position;
+            while(end < buffer.length && buffer[end] != '\n') end++;
+            if(end == buffer.length && !endOfFile) break;
+
+            String line = new String(buffer, position, end - position, StandardCharsets.US_ASCII);
+            if(MatchData.parseLine(line, row) == numberOfFields){
+                if(segment.size > 0 && Math.abs(row[dataTimeStamp] - segment.getEndTime()) > GAP_MILLISECONDS){
+                    segment.endOffset = offset + position;
+                    segments.add(segment);
+                    segment = new Segment(offset + position, buffer.length / 40);
+                }
+                segment.add(row);
+            }
+            position = end + 1;
+        }
+
+        segment.endOffset = offset + Math.min(position, buffer.length);
+        if(segment.size > 0) segments.add(segment);
+        return segments;
+    }
+
+    /**
+     * Finds the sensors which belong to footballs from how often they report, how fast they move, and how high
+     * they go
+     *
+     * @param segments  Sampled rows
+     * @return          IDs of the footballs in ascending order
+     */
+    private int[] detectFootballs(List<Segment> segments){
+        // Number of samples, samples faster than a player can run, and samples higher than a player's sensor
+        HashMap<Integer, int[]> sensorStatistics = new HashMap<>();
+        for(Segment segment : segments){
+            for(int i = 0; i < segment.size; i++){
+                int[] statistics = sensorStatistics.computeIfAbsent(segment.ids[i], id -> new int[3]);
+                statistics[0]++;
+                if(segment.speeds[i] > BALL_SPEED) statistics[1]++;
+                if(segment.zs[i] > BALL_HEIGHT) statistics[2]++;
+            }
+        }
+
+        int[] counts = new int[sensorStatistics.size()];
+        int i = 0;
+        for(int[] statistics : sensorStatistics.values()) counts[i++] = statistics[0];
+        Arrays.sort(counts);
+        int medianCount = counts[counts.length / 2];
+
+        footballIDs.clear();
+        for(Integer sensorID : sensorStatistics.keySet()){
+            int[] statistics = sensorStatistics.get(sensorID);
+            if(statistics[0] >= medianCount * BALL_RATE_RATIO
+                    || statistics[1] >= statistics[0] * BALL_SAMPLE_FRACTION
+                    || statistics[2] >= statistics[0] * BALL_SAMPLE_FRACTION){
+                footballIDs.add(sensorID);
+            }
+        }
+
+        int[] footballs = new int[footballIDs.size()];
+        i = 0;
+        for(Integer footballID : footballIDs) footballs[i++] = footballID;
+        Arrays.sort(footballs);
+        return footballs;
+    }
+
+    /**
+     * Estimates the pitch from the positions of the footballs while they are moving, as a ball in play covers the
+     * whole pitch while spare balls lie still beside it. If there are not enough samples the positions of the
+     * players are used instead
+     *
+     * @param segments  Sampled rows
+     * @return          Start x, end x, start y, and end y of the pitch
+     */
+    private int[] detectPitchCoordinates(List<Segment> segments){
+        int[][] positions = collectPositions(segments, true);
+        if(positions[0].length < MINIMUM_PITCH_SAMPLES) positions = collectPositions(segments, false);
+
+        int[] xs = positions[0];
+        int[] ys = positions[1];
+        Arrays.sort(xs);
+        Arrays.sort(ys);
+
+        return new int[]{ percentile(xs, PITCH_LOWER_PERCENTILE), percentile(xs, PITCH_UPPER_PERCENTILE),
+                percentile(ys, PITCH_LOWER_PERCENTILE), percentile(ys, PITCH_UPPER_PERCENTILE) };
+    }
+
+    private int[][] collectPositions(List<Segment> segments, boolean movingFootballs){
+        int count = 0;
+        for(Segment segment : segments) count += segment.size;
+
+        int[] xs = new int[count];
+        int[] ys = new int[count];
+        count = 0;
+        for(Segment segment : segments){
+            for(int i = 0; i < segment.size; i++){
+                boolean isFootball = footballIDs.contains(segment.ids[i]);
+                if(movingFootballs ? isFootball && segment.speeds[i] > MOVING_BALL_SPEED : !isFootball){
+                    xs[count] = segment.xs[i];
+                    ys[count] = segment.ys[i];
+                    count++;
+                }
+            }
+        }
+        return new int[][]{ Arrays.copyOf(xs, count), Arrays.copyOf(ys, count) };
+    }
+
+    private int percentile(int[] sortedValues, double percentile){
+        if(sortedValues.length == 0) return 0;
+        return sortedValues[(int) (percentile * (sortedValues.length - 1))];
+    }
+
+    /**
+     * Finds the start and end of both halves. Consecutive segments where play is taking place are grouped into
+     * runs, and the longest break between two runs is taken as half time
+     *
+     * @param segments  Sampled rows
+     * @return          Start and end time stamps of the first and second half in picoseconds
+     */
+    private String[] detectHalves(List<Segment> segments) throws IOException, InterruptedException {
+        for(Segment segment : segments) markActivity(segment);
+        millisecondsPerByte = estimateMillisecondsPerByte(segments);
+
+        // Indexes of the first and last segment of each run of play
+        List<int[]> runs = new ArrayList<>();
+        for(int i = 0; i < segments.size(); i++){
+            if(!segments.get(i).active) continue;
+
+            if(!runs.isEmpty()){
+                int[] run = runs.get(runs.size() - 1);
+                if(run[1] == i - 1 && !isGap(segments.get(i - 1), segments.get(i))){
+                    run[1] = i;
+                    continue;
+                }
+            }
+            runs.add(new int[]{ i, i });
+        }
+        if(runs.isEmpty()) throw new IOException("No play found in " + fileLocation);
+
+        int[] halfTimeTimes = new int[4];
+        int[] firstRun = runs.get(0);
+        int[] lastRun = runs.get(runs.size() - 1);
+        halfTimeTimes[FIRST_HALF_START_TIME] = refineStart(segments, firstRun[0]);
+        halfTimeTimes[SECOND_HALF_END_TIME] = refineEnd(segments, lastRun[1]);
+
+        if(runs.size() == 1){
+            // No break in play was found, so the best estimate is that half time is in the middle
+            int middle = (halfTimeTimes[FIRST_HALF_START_TIME] + halfTimeTimes[SECOND_HALF_END_TIME]) / 2;
+            halfTimeTimes[FIRST_HALF_END_TIME] = middle;
+            halfTimeTimes[SECOND_HALF_START_TIME] = middle + 1;
+        }else{
+            int halfTime = 0;
+            int longestBreak = -1;
+            for(int i = 0; i < runs.size() - 1; i++){
+                int breakLength = segments.get(runs.get(i + 1)[0]).getStartTime()
+                        - segments.get(runs.get(i)[1]).getEndTime();
+                if(breakLength > longestBreak){
+                    longestBreak = breakLength;
+                    halfTime = i;
+                }
+            }
+            halfTimeTimes[FIRST_HALF_END_TIME] = refineEnd(segments, runs.get(halfTime)[1]);
+            halfTimeTimes[SECOND_HALF_START_TIME] = refineStart(segments, runs.get(halfTime + 1)[0]);
+        }
+
+        String[] matchTimeStamps = new String[4];
+        for(int i = 0; i < matchTimeStamps.length; i++){
+            matchTimeStamps[i] = String.valueOf(halfTimeTimes[i] * TIME_STAMP_DIVISOR);
+        }
+        return matchTimeStamps;
+    }
+
+    /**
+     * Play is taking place in a segment if a football is moving for a large part of it, or if the players are
+     * moving faster than walking pace on average
+     */
+    private void markActivity(Segment segment){
+        int footballSamples = 0;
+        int movingFootballSamples = 0;
+        int playerSamples = 0;
+        long playerSpeedSum = 0;
+
+        for(int i = 0; i < segment.size; i++){
+            if(footballIDs.contains(segment.ids[i])){
+                footballSamples++;
+                if(segment.speeds[i] > MOVING_BALL_SPEED) movingFootballSamples++;
+            }else{
+                playerSamples++;
+                playerSpeedSum += segment.speeds[i];
+            }
+        }
+
+        segment.active = (footballSamples > 0 && movingFootballSamples >= footballSamples * ACTIVE_BALL_FRACTION)
+                || (playerSamples > 0 && playerSpeedSum / playerSamples >= ACTIVE_PLAYER_SPEED);
+    }
+
+    /**
+     * The median rate at which time passes through the file, which is used to tell whether the time between
+     * two segments is more than would be expected from the number of bytes between them
+     */
+    private double estimateMillisecondsPerByte(List<Segment> segments){
+        double[] rates = new double[segments.size()];
+        int count = 0;
+        for(int i = 1; i < segments.size(); i++){
+            long bytes = segments.get(i).offset - segments.get(i - 1).offset;
+            if(bytes > 0){
+                rates[count++] = (double) (segments.get(i).getStartTime() - segments.get(i - 1).getStartTime()) / bytes;
+            }
+        }
+        if(count == 0) return 0;
+
+        Arrays.sort(rates, 0, count);
+        return rates[count / 2];
+    }
+
+    private boolean isGap(Segment previous, Segment next){
+        double expected = (next.offset - previous.endOffset) * millisecondsPerByte;
+        return next.getStartTime() - previous.getEndTime() > expected * 2 + GAP_MILLISECONDS;
+    }
+
+    /**
+     * Finds the end of a run of play more precisely by sampling densely between the last segment of the run and
+     * the segment after it
+     *
+     * @param segments  Sampled segments
+     * @param last      Index of the last segment in the run
+     * @return          Time in milliseconds at which play ends
+     */
+    private int refineEnd(List<Segment> segments, int last) throws IOException, InterruptedException {
+        Segment active = segments.get(last);
+        if(last + 1 >= segments.size()) return active.getEndTime();
+
+        List<Segment> refined = sampleBlocks(active.offset, segments.get(last + 1).endOffset,
+                NUMBER_OF_REFINEMENT_BLOCKS, REFINEMENT_BLOCK_BYTES);
+
+        int end = active.getEndTime();
+        Segment previous = null;
+        for(Segment segment : refined){
+            markActivity(segment);
+            if(!segment.active || (previous != null && isGap(previous, segment))) break;
+            end = Math.max(end, segment.getEndTime());
+            previous = segment;
+        }
+        return end;
+    }
+
+    /**
+     * Finds the start of a run of play more precisely by sampling densely between the segment before the run
+     * and the first segment of the run
+     *
+     * @param segments  Sampled segments
+     * @param first     Index of the first segment in the run
+     * @return          Time in milliseconds at which play starts
+     */
+    private int refineStart(List<Segment> segments, int first) throws IOException, InterruptedException {
+        Segment active = segments.get(first);
+        if(first == 0) return active.getStartTime();
+
+        List<Segment> refined = sampleBlocks(segments.get(first - 1).offset, active.endOffset,
+                NUMBER_OF_REFINEMENT_BLOCKS, REFINEMENT_BLOCK_BYTES);
+
+        int start = active.getStartTime();
+        Segment next = null;
+        for(int i = refined.size() - 1; i >= 0; i--){
+            Segment segment = refined.get(i);
+            markActivity(segment);
+            if(!segment.active || (next != null && isGap(segment, next))) break;
+            start = Math.min(start, segment.getStartTime());
+            next = segment;
+        }
+        return start;
+    }
+}
@@ -0,0 +1,113 @@
+package football.visualiser.models;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+import static football.visualiser.SystemData.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for estimating the parameters of a match from a synthetic match data file.
+ *
+ * The file holds 14 minutes of data: a minute of warming up, a first half of five minutes, two minutes of half
+ * time, a second half of five minutes and a minute after the match. Eight players report at 5 Hz. The ball in
+ * play and a spare ball lying beside the pitch report at 20 Hz, and a third ball reports at the players' rate but
+ * is sometimes in the air
+ */
+public class MatchParameterDetectorTest {
+    private static final int START = 10000000;
+    private static final int FIRST_HALF_START = START + 60000;
+    private static final int FIRST_HALF_END = START + 360000;
+    private static final int SECOND_HALF_START = START + 480000;
+    private static final int SECOND_HALF_END = START + 780000;
+    private static final int END = START + 840000;
+    private static final int PITCH_LENGTH = 52000;
+    private static final int PITCH_HALF_WIDTH = 33000;
+    // Half boundaries are refined to within a few blocks of the file
+    private static final int HALF_TOLERANCE = 5000;
+    private static final int PITCH_TOLERANCE = 1500;
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+    private static File matchFile;
+
+    @BeforeClass
+    public static void writeMatchFile() throws IOException {
+        matchFile = folder.newFile("match.csv");
+        Random random = new Random(42);
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(matchFile))){
+            for(int time = START; time < END; time += 50){
+                boolean playing = (time >= FIRST_HALF_START && time < FIRST_HALF_END)
+                        || (time >= SECOND_HALF_START && time < SECOND_HALF_END);
+
+                // The ball in play covers the whole pitch while moving, with the odd position far off the pitch
+                int x = random.nextInt(200) == 0 ? 150000 : random.nextInt(PITCH_LENGTH + 1);
+                int y = random.nextInt(PITCH_HALF_WIDTH * 2 + 1) - PITCH_HALF_WIDTH;
+                writeRow(writer, 100, time, x, y, 0, playing ? 5000000 : 0);
+                writeRow(writer, 101, time, -5000, 0, 0, 0);
+
+                if((time - START) % 200 != 0) continue;
+                for(int player = 1; player <= 8; player++){
+                    writeRow(writer, player, time, random.nextInt(PITCH_LENGTH), random.nextInt(PITCH_HALF_WIDTH),
+                            0, playing ? 3000000 : 500000);
+                }
+                boolean inTheAir = (time - START) % 2000 == 0;
+                writeRow(writer, 102, time, 26000, 0, inTheAir ? 3000 : 0, 0);
+            }
+        }
+    }
+
+    private static void writeRow(BufferedWriter writer, int id, int time, int x, int y, int z, int speed)
+            throws IOException {
+        // Time stamps are written in picoseconds
+        writer.write(id + "," + time + "000000000," + y + "," + x + "," + z + "," + speed + ",0," + speed
+                + ",0,0,0,0,0\n");
+    }
+
+    private static int toMilliseconds(String timeStamp){
+        return (int) (Long.parseLong(timeStamp) / (long) Math.pow(10, timeOffset));
+    }
+
+    /**
+     * Tests the estimates when the file is sampled sparsely, so that the half boundaries have to be refined
+     */
+    @Test
+    public void detectedFromSparseSample() throws Exception {
+        MatchParameters parameters = new MatchParameterDetector(matchFile.getPath(), 64, 8 * 1024).detect();
+        assertParameters(parameters);
+    }
+
+    /**
+     * Tests the estimates with the default sampling, which reads the whole of a file this small
+     */
+    @Test
+    public void detectedFromWholeFile() throws Exception {
+        assertParameters(new MatchParameterDetector(matchFile.getPath()).detect());
+    }
+
+    private void assertParameters(MatchParameters parameters){
+        // The spare ball is found by its rate and the third ball by its height
+        assertArrayEquals(new int[] { 100, 101, 102 }, parameters.getFootballIDs());
+
+        // The outliers are outside the percentiles and the still balls are left out
+        int[] pitch = parameters.getPitchCoordinates();
+        assertEquals(0, pitch[PITCH_START_X], PITCH_TOLERANCE);
+        assertEquals(PITCH_LENGTH, pitch[PITCH_END_X], PITCH_TOLERANCE);
+        assertEquals(-PITCH_HALF_WIDTH, pitch[PITCH_START_Y], PITCH_TOLERANCE);
+        assertEquals(PITCH_HALF_WIDTH, pitch[PITCH_END_Y], PITCH_TOLERANCE);
+
+        String[] halves = parameters.getMatchTimeStamps();
+        assertEquals(FIRST_HALF_START, toMilliseconds(halves[FIRST_HALF_START_TIME]), HALF_TOLERANCE);
+        assertEquals(FIRST_HALF_END, toMilliseconds(halves[FIRST_HALF_END_TIME]), HALF_TOLERANCE);
+        assertEquals(SECOND_HALF_START, toMilliseconds(halves[SECOND_HALF_START_TIME]), HALF_TOLERANCE);
+        assertEquals(SECOND_HALF_END, toMilliseconds(halves[SECOND_HALF_END_TIME]), HALF_TOLERANCE);
+    }
+}
@@ -0,0 +1,45 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Match Parameters</h1>
+ * Properties of a match data file which are required before the match can be analysed: the IDs of the footballs,
+ * the coordinates of the pitch, and the start and end time stamps of both halves.
+ *
+ * The arrays are in the same order as those returned by the analyse controller, so they can be passed straight
+ * to the pitch controller
+ */
+public class MatchParameters {
+    private int[] footballIDs;
+    private int[] pitchCoordinates;
+    private String[] matchTimeStamps;
+    private long detectionTime;
+
+    /**
+     * @param footballIDs       IDs of the sensors in the footballs
+     * @param pitchCoordinates  Start x, end x, start y, and end y of the pitch
+     * @param matchTimeStamps   Start and end time stamps of the first and second half in picoseconds
+     * @param detectionTime     How long, in milliseconds, it took to detect the parameters
+     */
+    public MatchParameters(int[] footballIDs, int[] pitchCoordinates, String[] matchTimeStamps, long detectionTime){
+        this.footballIDs = footballIDs;
+        this.pitchCoordinates = pitchCoordinates;
+        this.matchTimeStamps = matchTimeStamps;
+        this.detectionTime = detectionTime;
+    }
+
+    public int[] getFootballIDs(){
+        return footballIDs;
+    }
+
+    public int[] getPitchCoordinates(){
+        return pitchCoordinates;
+    }
+
+    public String[] getMatchTimeStamps(){
+        return matchTimeStamps;
+    }
+
+    public long getDetectionTime(){
+        return detectionTime;
+    }
+}
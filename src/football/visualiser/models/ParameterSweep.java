@@ -0,0 +1,263 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IFootballSensor;
+import football.visualiser.interfaces.IMatchData;
+import football.visualiser.interfaces.IPlayerSensor;
+import football.visualiser.models.entities.Football;
+import football.visualiser.models.entities.Player;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Parameter Sweep</h1>
+ * Runs the detectors of the {@link DataAnalyser} with many {@link DetectorConfiguration}s against the same
+ * {@link FrameStore}, so thresholds can be tuned without reading the match data file once per attempt.
+ *
+ * Each configuration is run on its own thread with its own analyser, entities and pitch, created from the same
+ * entity assignment, while the frames themselves are shared. Each row is run through the same
+ * {@link DetectionPass} as {@link MatchModel#analyseMatchData(DataAnalyser, Pitch)} uses; performance tracking
+ * and heat maps are left out as they do not depend on the thresholds.
+ *
+ * Can be run on its own with the name of a saved match, and optionally the sample interval of the frame store:
+ * <pre>java football.visualiser.models.ParameterSweep matchName [sampleInterval]</pre>
+ */
+public class ParameterSweep {
+    // Each threshold is tried at these multiples of its value in the base configuration
+    private static final double[] SWEEP_SCALES = { 0.5, 1.5 };
+
+    private FrameStore frames;
+    private IMatchData matchData;
+    private EntityAssignment assignment;
+    private int[] footballIDs;
+    private int[] pitchCoordinates;
+
+    /**
+     * @param frames            Frames to run the detectors over
+     * @param matchData         Match data the frames were read from, used for the start and end of each half
+     * @param assignment        Which sensors belong to which players and which team each player is on
+     * @param footballIDs       IDs of the footballs
+     * @param pitchCoordinates  Start x, end x, start y, and end y of the pitch
+     */
+    public ParameterSweep(FrameStore frames, IMatchData matchData, EntityAssignment assignment, int[] footballIDs,
+                          int[] pitchCoordinates){
+        this.frames = frames;
+        this.matchData = matchData;
+        this.assignment = assignment;
+        this.footballIDs = footballIDs;
+        this.pitchCoordinates = pitchCoordinates;
+    }
+
+    /**
+     * Runs every configuration in parallel, using one thread per core
+     *
+     * @param configurations        Configurations to run
+     * @return                      Results in the same order as the configurations
+     * @throws InterruptedException If the thread is interrupted while waiting for the results
+     */
+    public List<SweepResult> run(List<DetectorConfiguration> configurations) throws InterruptedException {
+        List<Callable<SweepResult>> tasks = new ArrayList<>();
+        for(DetectorConfiguration configuration : configurations){
+            tasks.add(() -> run(configuration));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(configurations.size(), Runtime.getRuntime().availableProcessors()), runnable -> {
+                    Thread thread = new Thread(runnable, "parameter-sweep");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        List<SweepResult> results = new ArrayList<>();
+        try{
+            for(Future<SweepResult> result : executor.invokeAll(tasks)){
+                results.add(result.get());
+            }
+        }catch (ExecutionException e){
+            throw new IllegalStateException(e.getCause());
+        }finally {
+            executor.shutdownNow();
+        }
+        return results;
+    }
+
+    /**
+     * Runs the detectors over every frame with one configuration
+     *
+     * @param configuration     Thresholds to use
+     * @return                  Events detected with the configuration
+     */
+    public SweepResult run(DetectorConfiguration configuration){
+        long startTime = System.currentTimeMillis();
+
+        DataAnalyser dataAnalyser = new DataAnalyser(footballIDs, configuration);
+        HashMap<Integer, IPlayerSensor<Player>> playerSensors = new HashMap<>();
+        HashMap<Integer, IFootballSensor<Football>> footballSensors = new HashMap<>();
+        HashMap<Integer, Player> players = new HashMap<>();
+        HashMap<Integer, Football> footballs = new HashMap<>();
+        dataAnalyser.createEntities(assignment, playerSensors, footballSensors, players, footballs);
+
+        Pitch pitch = new Pitch(pitchCoordinates[PITCH_START_X], pitchCoordinates[PITCH_END_X],
+                pitchCoordinates[PITCH_START_Y], pitchCoordinates[PITCH_END_Y]);
+        DetectionPass detectionPass = new DetectionPass(dataAnalyser, matchData, pitch, playerSensors, players,
+                footballs, new AnalysisMetrics(matchData));
+
+        int[] row = new int[numberOfFields];
+        for(int i = 0; i < frames.size(); i++){
+            row[dataID] = frames.getID(i);
+            row[dataTimeStamp] = frames.getTime(i);
+            row[dataXPosition] = frames.getX(i);
+            row[dataYPosition] = frames.getY(i);
+            row[dataZPosition] = frames.getZ(i);
+            row[velocityPosition] = frames.getVelocity(i);
+            detectionPass.analyseRow(row);
+        }
+
+        return new SweepResult(configuration, dataAnalyser.getTackleTimes().size(),
+                dataAnalyser.getRedTeamGoalTimes().size() + dataAnalyser.getBlueTeamGoalTimes().size(),
+                dataAnalyser.getPassCount(),
+                dataAnalyser.getRedTeam1_2_1Times().size() + dataAnalyser.getBlueTeam1_2_1Times().size(),
+                System.currentTimeMillis() - startTime);
+    }
+
+    /**
+     * Runs the detectors once over a match with every sensor other than the footballs at the default sample
+     * interval, giving the baseline which a budgeted analysis is compared against. The match data file is opened
+     * again so that match data being played back is left where it is
+     *
+     * @param path              Location of the match data file
+     * @param matchTimeStamps   Start and end of both halves
+     * @param assignment        Which sensors belong to which players and which team each player is on
+     * @param footballIDs       IDs of the footballs
+     * @param pitchCoordinates  Start x, end x, start y, and end y of the pitch
+     * @param configuration     Thresholds the analysis was run with
+     * @return                  Events detected at the default sample interval
+     * @throws IOException      If the match data file fails to load
+     */
+    public static SweepResult runBaseline(String path, String[] matchTimeStamps, EntityAssignment assignment,
+                                          int[] footballIDs, int[] pitchCoordinates,
+                                          DetectorConfiguration configuration) throws IOException {
+        MatchData matchData = new MatchData(path, matchTimeStamps);
+        try{
+            FrameStore frames = FrameStore.load(matchData, footballIDs, AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+            return new ParameterSweep(frames, matchData, assignment, footballIDs, pitchCoordinates)
+                    .run(configuration);
+        }finally {
+            matchData.close();
+        }
+    }
+
+    /**
+     * Creates the base configuration along with, for each threshold, configurations where only that threshold
+     * is lowered or raised
+     *
+     * @param base  Configuration to vary
+     * @return      The base configuration followed by its variations
+     */
+    public static List<DetectorConfiguration> createConfigurations(DetectorConfiguration base){
+        List<DetectorConfiguration> configurations = new ArrayList<>();
+        configurations.add(base);
+        for(double scale : SWEEP_SCALES){
+            String suffix = " x" + scale;
+            configurations.add(new DetectorConfiguration("trigger" + suffix,
+                    (int) (base.getPossessionTriggerDistance() * scale), base.getPossessionStillHeldDistance(),
+                    base.getBallKickVelocityThreshold(), base.getBallStoppedVelocityThreshold(),
+                    base.getTackleDistance(), base.getTackleDurationThreshold()));
+            configurations.add(new DetectorConfiguration("held" + suffix,
+                    base.getPossessionTriggerDistance(), (int) (base.getPossessionStillHeldDistance() * scale),
+                    base.getBallKickVelocityThreshold(), base.getBallStoppedVelocityThreshold(),
+                    base.getTackleDistance(), base.getTackleDurationThreshold()));
+            configurations.add(new DetectorConfiguration("kick" + suffix,
+                    base.getPossessionTriggerDistance(), base.getPossessionStillHeldDistance(),
+                    base.getBallKickVelocityThreshold() * scale, base.getBallStoppedVelocityThreshold(),
+                    base.getTackleDistance(), base.getTackleDurationThreshold()));
+            configurations.add(new DetectorConfiguration("stop" + suffix,
+                    base.getPossessionTriggerDistance(), base.getPossessionStillHeldDistance(),
+                    base.getBallKickVelocityThreshold(), base.getBallStoppedVelocityThreshold() * scale,
+                    base.getTackleDistance(), base.getTackleDurationThreshold()));
+            configurations.add(new DetectorConfiguration("tackle distance" + suffix,
+                    base.getPossessionTriggerDistance(), base.getPossessionStillHeldDistance(),
+                    base.getBallKickVelocityThreshold(), base.getBallStoppedVelocityThreshold(),
+                    (int) (base.getTackleDistance() * scale), base.getTackleDurationThreshold()));
+            configurations.add(new DetectorConfiguration("tackle duration" + suffix,
+                    base.getPossessionTriggerDistance(), base.getPossessionStillHeldDistance(),
+                    base.getBallKickVelocityThreshold(), base.getBallStoppedVelocityThreshold(),
+                    base.getTackleDistance(), (int) (base.getTackleDurationThreshold() * scale)));
+        }
+        return configurations;
+    }
+
+    /**
+     * Formats the results as a table with one row per configuration
+     *
+     * @param results   Results to format
+     * @return          The table as text
+     */
+    public static String formatTable(List<SweepResult> results){
+        StringBuilder table = new StringBuilder();
+        String header = "%-22s %8s %8s %6s %6s %8s %8s %8s %6s %7s %6s %8s%n";
+        String format = "%-22s %8d %8d %6.2f %6.2f %8d %8d %8d %6d %7d %6d %8d%n";
+        table.append(String.format(header, "Configuration", "Trigger", "Held", "Kick", "Stop", "TackleD", "TackleT",
+                "Tackles", "Goals", "Passes", "1-2-1", "Time ms"));
+        for(SweepResult result : results){
+            DetectorConfiguration configuration = result.getConfiguration();
+            table.append(String.format(format, configuration.getName(),
+                    configuration.getPossessionTriggerDistance(), configuration.getPossessionStillHeldDistance(),
+                    configuration.getBallKickVelocityThreshold(), configuration.getBallStoppedVelocityThreshold(),
+                    configuration.getTackleDistance(), configuration.getTackleDurationThreshold(),
+                    result.getTackles(), result.getGoals(), result.getPasses(), result.getOneTwoPasses(),
+                    result.getElapsedTime()));
+        }
+        return table.toString();
+    }
+
+    /**
+     * Loads a saved match into memory once, then sweeps the thresholds around their defaults and prints the
+     * comparison table
+     *
+     * @param args  Name of the saved match, and optionally the sample interval of the frame store in milliseconds
+     */
+    public static void main(String[] args) throws Exception {
+        if(args.length < 1){
+            System.out.println("Usage: ParameterSweep matchName [sampleInterval]");
+            return;
+        }
+        int sampleInterval = args.length > 1 ? Integer.parseInt(args[1]) : AnalysisSampler.DEFAULT_SAMPLE_INTERVAL;
+
+        DataProperty matchProperty = new DataProperty(args[0]);
+        String path = matchProperty.getProperty("path");
+        String[] matchTimeStamps = matchProperty.getMatchTimeStamps();
+        int[] coordinates = matchProperty.getPitchCoordinates();
+        int[] IDs = matchProperty.getFootballIDs();
+
+        MatchData matchData = new MatchData(path, matchTimeStamps);
+        try{
+            long startTime = System.currentTimeMillis();
+            EntityAssignment assignment = new DataAnalyser(IDs).assignEntities(path, matchTimeStamps);
+            FrameStore frames = FrameStore.load(matchData, IDs, sampleInterval);
+            System.out.println(String.format("Loaded %d frames in %d ms", frames.size(),
+                    System.currentTimeMillis() - startTime));
+
+            List<DetectorConfiguration> configurations = createConfigurations(DetectorConfiguration.DEFAULT);
+            startTime = System.currentTimeMillis();
+            List<SweepResult> results = new ParameterSweep(frames, matchData, assignment, IDs, coordinates)
+                    .run(configurations);
+            System.out.print(formatTable(results));
+            System.out.println(String.format("Ran %d configurations in %d ms on %d cores", configurations.size(),
+                    System.currentTimeMillis() - startTime, Runtime.getRuntime().availableProcessors()));
+        }catch (IOException e){
+            e.printStackTrace();
+        }finally {
+            matchData.close();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Pitch Region</h1>
+ * A rectangular area of the pitch which can be queried with the {@link SpatioTemporalIndex}, such as a third of
+ * the pitch or a penalty area.
+ *
+ * Coordinates are in millimetres in the same coordinate system as the match data
+ */
+public class PitchRegion {
+    private static final int PENALTY_AREA_DEPTH = 16500;
+    private static final int PENALTY_AREA_WIDTH = 40320;
+
+    private final String name;
+    private final int x1, x2, y1, y2;
+
+    /**
+     * @param name  Name of the region
+     * @param x1    One x boundary of the region
+     * @param x2    The other x boundary of the region
+     * @param y1    One y boundary of the region
+     * @param y2    The other y boundary of the region
+     */
+    public PitchRegion(String name, int x1, int x2, int y1, int y2){
+        this.name = name;
+        this.x1 = Math.min(x1, x2);
+        this.x2 = Math.max(x1, x2);
+        this.y1 = Math.min(y1, y2);
+        this.y2 = Math.max(y1, y2);
+    }
+
+    /**
+     * @param x     X coordinate
+     * @param y     Y coordinate
+     * @return      Whether the point lies within the region, including its boundary
+     */
+    public boolean contains(double x, double y){
+        return x >= x1 && x <= x2 && y >= y1 && y <= y2;
+    }
+
+    public String getName(){
+        return name;
+    }
+
+    public int getX1(){
+        return x1;
+    }
+
+    public int getX2(){
+        return x2;
+    }
+
+    public int getY1(){
+        return y1;
+    }
+
+    public int getY2(){
+        return y2;
+    }
+
+    /**
+     * @param pitch     Pitch to divide
+     * @param third     0 for the third nearest the left goal, 1 for the middle third, 2 for the right third
+     * @return          The third of the pitch
+     */
+    public static PitchRegion third(Pitch pitch, int third){
+        int length = pitch.getX2() - pitch.getX1();
+        String[] names = { "Left third", "Middle third", "Right third" };
+        return new PitchRegion(names[third], pitch.getX1() + length * third / 3,
+                pitch.getX1() + length * (third + 1) / 3, pitch.getY1(), pitch.getY2());
+    }
+
+    /**
+     * @param pitch     Pitch the penalty area is on
+     * @param left      True for the penalty area in front of the left goal, false for the right goal
+     * @return          The penalty area
+     */
+    public static PitchRegion penaltyArea(Pitch pitch, boolean left){
+        Goal goal = left ? pitch.getLeftGoal() : pitch.getRightGoal();
+        int centreY = (goal.getY1() + goal.getY2()) / 2;
+        int depth = left ? PENALTY_AREA_DEPTH : -PENALTY_AREA_DEPTH;
+        return new PitchRegion(left ? "Left penalty area" : "Right penalty area", goal.getX(), goal.getX() + depth,
+                centreY - PENALTY_AREA_WIDTH / 2, centreY + PENALTY_AREA_WIDTH / 2);
+    }
+}
@@ -0,0 +1,108 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Playback Clock</h1>
+ * Keeps track of the point in the match being played back, independently of how often frames are drawn or how
+ * long each frame takes. The time is worked out from the system clock at the moment it is asked for, so frames
+ * which are drawn late do not make playback fall behind.
+ *
+ * Times are milliseconds since the start of the match, not counting half time, so the clock can be run at any
+ * speed in either direction
+ */
+public class PlaybackClock {
+    public static final double[] SPEEDS = { 0.1, 0.25, 0.5, 1, 2, 4, 8, 16, 32 };
+
+    // The clock is anchored to a match time at a system time, and runs from there at the current speed
+    private double anchorTime = 0;
+    private long anchorNanos = 0;
+    private double speed = 1;
+    private boolean reverse = false;
+    private boolean running = false;
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Time in the match in milliseconds
+     */
+    public synchronized double getTime(long now){
+        if(!running) return anchorTime;
+        double direction = reverse ? -1 : 1;
+        return anchorTime + (now - anchorNanos) / 1000000.0 * speed * direction;
+    }
+
+    /**
+     * Moves the clock to a new time in the match
+     *
+     * @param time  Time in the match in milliseconds
+     * @param now   System time in nanoseconds
+     */
+    public synchronized void setTime(double time, long now){
+        anchorTime = time;
+        anchorNanos = now;
+    }
+
+    public synchronized void start(long now){
+        if(running) return;
+        anchorNanos = now;
+        running = true;
+    }
+
+    public synchronized void pause(long now){
+        if(!running) return;
+        anchorTime = getTime(now);
+        running = false;
+    }
+
+    public synchronized boolean isRunning(){
+        return running;
+    }
+
+    /**
+     * Changes the speed of playback, keeping the current time
+     *
+     * @param speed     Speed of playback, where 1.0 is real time
+     */
+    public synchronized void setSpeed(double speed){
+        long now = System.nanoTime();
+        anchorTime = getTime(now);
+        anchorNanos = now;
+        this.speed = speed;
+    }
+
+    /**
+     * @param speed     Current speed of playback
+     * @param faster    True for the next speed up, false for the next speed down
+     * @return          The next speed in {@link #SPEEDS}, or the fastest or slowest speed if there are no more
+     */
+    public static double getNextSpeed(double speed, boolean faster){
+        if(faster){
+            for(double next : SPEEDS){
+                if(next > speed) return next;
+            }
+            return SPEEDS[SPEEDS.length - 1];
+        }
+        for(int i = SPEEDS.length - 1; i >= 0; i--){
+            if(SPEEDS[i] < speed) return SPEEDS[i];
+        }
+        return SPEEDS[0];
+    }
+
+    public synchronized double getSpeed(){
+        return speed;
+    }
+
+    /**
+     * Sets whether the match is played backwards, keeping the current time
+     *
+     * @param reverse   True to play backwards
+     */
+    public synchronized void setReverse(boolean reverse){
+        long now = System.nanoTime();
+        anchorTime = getTime(now);
+        anchorNanos = now;
+        this.reverse = reverse;
+    }
+
+    public synchronized boolean isReverse(){
+        return reverse;
+    }
+}
@@ -0,0 +1,56 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Playback Command</h1>
+ * An instruction sent from the user interface to the playback worker, such as to play, pause or seek. Commands
+ * record when they were sent so that the time taken to act on them can be measured
+ */
+public class PlaybackCommand {
+    public enum Type { PLAY, PAUSE, SEEK, SPEED, REVERSE, STEP, LOOP, END_LOOP }
+
+    private final Type type;
+    private final double value;
+    private final double endValue;
+    private final long sentTime;
+
+    /**
+     * @param type      Type of command
+     * @param value     Time to seek to in milliseconds since the start of the match, speed to play at, 1 to play
+     *                  or step forwards and 0 to play or step backwards, depending on the type of command
+     */
+    public PlaybackCommand(Type type, double value){
+        this(type, value, 0);
+    }
+
+    /**
+     * @param type      Type of command
+     * @param value     See {@link #PlaybackCommand(Type, double)}, or the start of a loop in milliseconds since the
+     *                  start of the match
+     * @param endValue  End of a loop in milliseconds since the start of the match
+     */
+    public PlaybackCommand(Type type, double value, double endValue){
+        this.type = type;
+        this.value = value;
+        this.endValue = endValue;
+        this.sentTime = System.nanoTime();
+    }
+
+    public Type getType(){
+        return type;
+    }
+
+    public double getValue(){
+        return value;
+    }
+
+    public double getEndValue(){
+        return endValue;
+    }
+
+    /**
+     * @return  System time in nanoseconds when the command was sent
+     */
+    public long getSentTime(){
+        return sentTime;
+    }
+}
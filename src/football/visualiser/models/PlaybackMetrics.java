@@ -0,0 +1,247 @@
+package football.visualiser.models;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+/**
+ * <h1>Playback Metrics</h1>
+ * Measures how smoothly a match is being played back, from the playback worker updating the model through to the
+ * pitch being drawn, so that stuttering can be put down to the worker falling behind, the JavaFX thread being
+ * slow to pick frames up, or drawing itself.
+ *
+ * The playback worker records each tick: how long after the previous tick it ran, which gives the rate the model
+ * is updated at, how long the tick took, how far the frame shown is from the time on the playback clock, and how
+ * many rows of the playback track it moved through. The JavaFX thread records each pulse in which the pitch is
+ * drawn: how long after the previous one it was, which gives the frame rate, how long the newest frame waited to
+ * be picked up, and how many frames were replaced before being drawn. The worker also records how long each seek
+ * took from being sent to its first frame being shown, and how many seeks were merged into a later one.
+ *
+ * Each value is kept in a {@link RollingHistogram} over the last {@link #WINDOWS} seconds, so nothing is
+ * allocated as values are recorded. Gaps longer than a second between ticks or pulses, such as while paused, are
+ * not counted as intervals. The metrics are published through JMX by {@link #register(String)}, shown on the
+ * pitch by {@link #getOverlayText(long)} and summarised by {@link #getSummary()}
+ */
+public class PlaybackMetrics implements PlaybackMetricsMBean {
+    public static final int WINDOWS = 5;
+    private static final long WINDOW_LENGTH = 1000000000L;
+    // Intervals longer than this span a pause rather than a slow tick or pulse
+    private static final long MAX_INTERVAL = WINDOW_LENGTH;
+
+    // Recorded by the playback worker
+    private final RollingHistogram tickIntervals = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private final RollingHistogram tickWork = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private final RollingHistogram dataGaps = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private final RollingHistogram rows = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private long lastTickTime = 0;
+    private volatile long skippedTicks = 0;
+    private volatile long seeks = 0;
+    private volatile long coalescedSeeks = 0;
+    private volatile long lastSeekLatency = 0;
+    private volatile long maximumSeekLatency = 0;
+
+    // Recorded by the JavaFX thread
+    private final RollingHistogram renderIntervals = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private final RollingHistogram fxQueueLags = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private final RollingHistogram droppedFrames = new RollingHistogram(WINDOWS, WINDOW_LENGTH);
+    private long lastRenderTime = 0;
+    private long lastDroppedCount = 0;
+    private volatile long framesDropped = 0;
+
+    /**
+     * Records a tick of the playback worker. Called from the playback thread
+     *
+     * @param now           Time the tick started in nanoseconds
+     * @param work          Nanoseconds the tick took
+     * @param dataGap       Milliseconds between the time on the playback clock and the time of the frame shown
+     * @param rowsConsumed  Frames of the playback track moved through since the previous tick
+     */
+    public void recordTick(long now, long work, int dataGap, int rowsConsumed){
+        if(lastTickTime != 0 && now - lastTickTime <= MAX_INTERVAL){
+            tickIntervals.record(now - lastTickTime, now);
+        }
+        lastTickTime = now;
+        tickWork.record(work, now);
+        dataGaps.record(Math.abs(dataGap), now);
+        rows.record(rowsConsumed, now);
+    }
+
+    /**
+     * Counts ticks the playback worker skipped after falling too far behind to catch up. Called from the playback
+     * thread
+     */
+    public void recordSkippedTick(){
+        skippedTicks++;
+    }
+
+    /**
+     * Records a seek being carried out. Called from the playback thread
+     *
+     * @param latency   Nanoseconds between the seek being sent and its first frame being shown
+     */
+    public void recordSeek(long latency){
+        lastSeekLatency = latency;
+        if(latency > maximumSeekLatency) maximumSeekLatency = latency;
+        seeks++;
+    }
+
+    /**
+     * Counts a seek replaced by a later seek before it was carried out. Called from the playback thread
+     */
+    public void recordCoalescedSeek(){
+        coalescedSeeks++;
+    }
+
+    /**
+     * Records a pulse in which the pitch was drawn. Called from the JavaFX thread
+     *
+     * @param now           Time of the pulse in nanoseconds
+     * @param fxQueueLag    Nanoseconds the frame drawn waited to be picked up, or -1 if no new frame was drawn
+     * @param droppedCount  Count of frames replaced before being picked up, which may go back to 0 when the
+     *                      buffer they pass through is replaced
+     */
+    public void recordRender(long now, long fxQueueLag, long droppedCount){
+        if(lastRenderTime != 0 && now - lastRenderTime <= MAX_INTERVAL){
+            renderIntervals.record(now - lastRenderTime, now);
+        }
+        lastRenderTime = now;
+        if(fxQueueLag >= 0) fxQueueLags.record(fxQueueLag, now);
+
+        long dropped = droppedCount >= lastDroppedCount ? droppedCount - lastDroppedCount : droppedCount;
+        lastDroppedCount = droppedCount;
+        if(dropped > 0){
+            droppedFrames.record(dropped, now);
+            framesDropped += dropped;
+        }
+    }
+
+    @Override
+    public double getModelUpdatesPerSecond(){
+        return tickIntervals.getRate(System.nanoTime());
+    }
+
+    @Override
+    public long getTickIntervalP99(){
+        return tickIntervals.getPercentile(99, System.nanoTime());
+    }
+
+    @Override
+    public long getTickWorkP99(){
+        return tickWork.getPercentile(99, System.nanoTime());
+    }
+
+    @Override
+    public long getSkippedTicks(){
+        return skippedTicks;
+    }
+
+    @Override
+    public double getRenderFramesPerSecond(){
+        return renderIntervals.getRate(System.nanoTime());
+    }
+
+    @Override
+    public long getRenderIntervalP99(){
+        return renderIntervals.getPercentile(99, System.nanoTime());
+    }
+
+    @Override
+    public double getFxQueueLagMean(){
+        return fxQueueLags.getMean(System.nanoTime());
+    }
+
+    @Override
+    public long getFxQueueLagP99(){
+        return fxQueueLags.getPercentile(99, System.nanoTime());
+    }
+
+    @Override
+    public long getFramesDropped(){
+        return framesDropped;
+    }
+
+    @Override
+    public double getFramesDroppedPerSecond(){
+        return droppedFrames.getTotalRate(System.nanoTime());
+    }
+
+    @Override
+    public double getDataGapMeanMillis(){
+        return dataGaps.getMean(System.nanoTime());
+    }
+
+    @Override
+    public long getDataGapMaxMillis(){
+        return dataGaps.getMaximum(System.nanoTime());
+    }
+
+    @Override
+    public double getRowsPerSecond(){
+        return rows.getTotalRate(System.nanoTime());
+    }
+
+    @Override
+    public long getSeekCount(){
+        return seeks;
+    }
+
+    @Override
+    public long getCoalescedSeekCount(){
+        return coalescedSeeks;
+    }
+
+    @Override
+    public long getLastSeekLatency(){
+        return lastSeekLatency;
+    }
+
+    @Override
+    public long getMaximumSeekLatency(){
+        return maximumSeekLatency;
+    }
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Lines describing the recent playback, short enough to be drawn over the pitch
+     */
+    public String getOverlayText(long now){
+        return String.format("Model %.0f/s  p99 %.1f ms  work p99 %.2f ms  skipped %d%n"
+                        + "Render %.0f fps  p99 %.1f ms%n"
+                        + "FX lag %.2f ms  p99 %.2f ms%n"
+                        + "Dropped %d  (%.1f/s)%n"
+                        + "Data gap %.0f ms  max %d ms%n"
+                        + "Rows %.0f/s%n"
+                        + "Seek %.1f ms  max %.1f ms  seeks %d  merged %d",
+                tickIntervals.getRate(now), tickIntervals.getPercentile(99, now) / 1e6,
+                tickWork.getPercentile(99, now) / 1e6, skippedTicks,
+                renderIntervals.getRate(now), renderIntervals.getPercentile(99, now) / 1e6,
+                fxQueueLags.getMean(now) / 1e6, fxQueueLags.getPercentile(99, now) / 1e6,
+                framesDropped, droppedFrames.getTotalRate(now),
+                dataGaps.getMean(now), dataGaps.getMaximum(now),
+                rows.getTotalRate(now),
+                lastSeekLatency / 1e6, maximumSeekLatency / 1e6, seeks, coalescedSeeks);
+    }
+
+    @Override
+    public String getSummary(){
+        return "Playback over the last " + WINDOWS + " s: " + getOverlayText(System.nanoTime())
+                .replace(System.lineSeparator(), ", ");
+    }
+
+    /**
+     * Publishes the metrics through the platform MBean server, replacing those of a match with the same name
+     *
+     * @param name  Name of the match, such as its data file name
+     */
+    public void register(String name){
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName("football.visualiser:type=PlaybackMetrics,name=" + ObjectName.quote(name));
+            if(server.isRegistered(objectName)) server.unregisterMBean(objectName);
+            server.registerMBean(this, objectName);
+        } catch (JMException e) {
+            e.printStackTrace();
+        }
+    }
+}
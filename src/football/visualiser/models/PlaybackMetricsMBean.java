@@ -0,0 +1,30 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Playback Metrics MBean</h1>
+ * Management interface through which {@link PlaybackMetrics} is published over JMX, so that stuttering playback
+ * can be watched with tools such as JConsole or Java Mission Control.
+ *
+ * Values are taken over the last few seconds of playback, apart from the seek counts and latencies which cover
+ * every seek. Durations are in nanoseconds unless stated otherwise
+ */
+public interface PlaybackMetricsMBean {
+    double getModelUpdatesPerSecond();
+    long getTickIntervalP99();
+    long getTickWorkP99();
+    long getSkippedTicks();
+    double getRenderFramesPerSecond();
+    long getRenderIntervalP99();
+    double getFxQueueLagMean();
+    long getFxQueueLagP99();
+    long getFramesDropped();
+    double getFramesDroppedPerSecond();
+    double getDataGapMeanMillis();
+    long getDataGapMaxMillis();
+    double getRowsPerSecond();
+    long getSeekCount();
+    long getCoalescedSeekCount();
+    long getLastSeekLatency();
+    long getMaximumSeekLatency();
+    String getSummary();
+}
@@ -0,0 +1,217 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IFootballSensor;
+import football.visualiser.interfaces.IPlayerSensor;
+import football.visualiser.models.entities.Football;
+import football.visualiser.models.entities.Player;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <h1>Playback Track</h1>
+ * Stores the position of every player and of the football in play for each frame of the match, recorded while
+ * the match is analysed. Playback reads frames by time with a binary search, so the match can be played at any
+ * speed, backwards, or a frame at a time without reading the match data file.
+ *
+ * Frames are stored in time order in flat arrays, with the x and y of each player followed by the x and y of the
+ * football. Times are in milliseconds
+ */
+public class PlaybackTrack {
+    private static final int INITIAL_CAPACITY = 4096;
+
+    private final int[] playerIDs;
+    // Number of values stored for each frame
+    private final int stride;
+
+    private int[] times = new int[INITIAL_CAPACITY];
+    private int[] footballIDs = new int[INITIAL_CAPACITY];
+    private int[] positions;
+    private int size = 0;
+
+    /**
+     * @param playerIDs     IDs of the players, in the order their positions are recorded
+     */
+    public PlaybackTrack(int[] playerIDs){
+        this.playerIDs = playerIDs.clone();
+        this.stride = (playerIDs.length + 1) * 2;
+        this.positions = new int[INITIAL_CAPACITY * stride];
+    }
+
+    /**
+     * Builds a track from frames held in memory, for tools which run without the match view. The entities are
+     * created and updated as they are when the match is analysed: each player's sensors are fused once per frame,
+     * and the football in play is chosen by {@link DataAnalyser#getFootBallInPlay}
+     *
+     * @param frames            Frames of the match
+     * @param assignment        Which sensors belong to which players
+     * @param footballIDs       IDs of the footballs
+     * @param pitch             Pitch the match is played on
+     * @param frameInterval     Interval between frames of the track in milliseconds
+     * @return                  The track
+     */
+    public static PlaybackTrack fromFrames(FrameStore frames, EntityAssignment assignment, int[] footballIDs,
+                                           Pitch pitch, int frameInterval){
+        FlightEvents.IndexBuild buildEvent = new FlightEvents.IndexBuild();
+        buildEvent.begin();
+        DataAnalyser dataAnalyser = new DataAnalyser(footballIDs);
+        HashMap<Integer, IPlayerSensor<Player>> playerSensors = new HashMap<>();
+        HashMap<Integer, IFootballSensor<Football>> footballSensors = new HashMap<>();
+        HashMap<Integer, Player> players = new HashMap<>();
+        HashMap<Integer, Football> footballs = new HashMap<>();
+        dataAnalyser.createEntities(assignment, playerSensors, footballSensors, players, footballs);
+
+        int[] playerIDs = new int[players.size()];
+        Player[] trackedPlayers = new Player[players.size()];
+        int playerIndex = 0;
+        for(Player player : players.values()){
+            playerIDs[playerIndex] = player.getID();
+            trackedPlayers[playerIndex++] = player;
+        }
+
+        PlaybackTrack track = new PlaybackTrack(playerIDs);
+        Football footballInPlay = footballs.isEmpty() ? null : footballs.get(footballs.keySet().iterator().next());
+        long nextFrame = Long.MIN_VALUE;
+
+        for(int i = 0; i < frames.size() && footballInPlay != null; i++){
+            int ID = frames.getID(i);
+            int time = frames.getTime(i);
+
+            IPlayerSensor<Player> playerSensor = playerSensors.get(ID);
+            if(playerSensor != null){
+                playerSensor.getOwner().updateSensorPosition(ID, frames.getX(i), frames.getY(i), time);
+            }
+
+            Football football = footballs.get(ID);
+            if(football != null){
+                footballInPlay = dataAnalyser.getFootBallInPlay(pitch, footballs, footballInPlay);
+                football.setX(frames.getX(i));
+                football.setY(frames.getY(i));
+            }
+
+            if(time < nextFrame) continue;
+            track.addFrame(time, footballInPlay.getID(), footballInPlay.getX(), footballInPlay.getY());
+            for(int player = 0; player < trackedPlayers.length; player++){
+                trackedPlayers[player].publishFusedPosition(time);
+                track.setPlayerPosition(player, trackedPlayers[player].getX(), trackedPlayers[player].getY());
+            }
+            nextFrame = (long) time + frameInterval;
+        }
+        buildEvent.end();
+        if(buildEvent.shouldCommit()){
+            buildEvent.index = "Playback track";
+            buildEvent.rowsRead = frames.size();
+            buildEvent.entries = track.size();
+            buildEvent.commit();
+        }
+        return track;
+    }
+
+    /**
+     * Starts a new frame. Frames must be added in time order
+     *
+     * @param time          Time of the frame in milliseconds
+     * @param footballID    ID of the football in play
+     * @param footballX     X position of the football
+     * @param footballY     Y position of the football
+     */
+    public void addFrame(int time, int footballID, int footballX, int footballY){
+        if(size > 0 && time <= times[size - 1]) return;
+        if(size == times.length){
+            times = Arrays.copyOf(times, size * 2);
+            footballIDs = Arrays.copyOf(footballIDs, size * 2);
+            positions = Arrays.copyOf(positions, size * 2 * stride);
+        }
+        times[size] = time;
+        footballIDs[size] = footballID;
+        positions[size * stride + stride - 2] = footballX;
+        positions[size * stride + stride - 1] = footballY;
+        size++;
+    }
+
+    /**
+     * Sets the position of a player in the last frame added
+     *
+     * @param player    Index of the player in the IDs given to the constructor
+     * @param x         X position of the player
+     * @param y         Y position of the player
+     */
+    public void setPlayerPosition(int player, int x, int y){
+        positions[(size - 1) * stride + player * 2] = x;
+        positions[(size - 1) * stride + player * 2 + 1] = y;
+    }
+
+    /**
+     * Finds the frame showing the match at a time
+     *
+     * @param time  Time in milliseconds
+     * @return      Index of the last frame at or before the time, or 0 if the time is before the first frame
+     */
+    public int getFrameAt(int time){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(times[middle] <= time) low = middle + 1;
+            else high = middle;
+        }
+        return Math.max(0, low - 1);
+    }
+
+    /**
+     * Copies the frames of a period of the track into a track of their own, so that the period can be played over
+     * and over from a small block of memory
+     *
+     * @param fromTime  Start of the period in milliseconds
+     * @param toTime    End of the period in milliseconds
+     * @return          Track holding the frame showing the start of the period and every frame up to its end
+     */
+    public PlaybackTrack getSegment(int fromTime, int toTime){
+        PlaybackTrack segment = new PlaybackTrack(playerIDs);
+        if(size == 0 || toTime < fromTime) return segment;
+        int first = getFrameAt(fromTime);
+        int length = getFrameAt(toTime) - first + 1;
+
+        segment.times = Arrays.copyOfRange(times, first, first + length);
+        segment.footballIDs = Arrays.copyOfRange(footballIDs, first, first + length);
+        segment.positions = Arrays.copyOfRange(positions, first * stride, (first + length) * stride);
+        segment.size = length;
+        return segment;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int getNumberOfPlayers(){
+        return playerIDs.length;
+    }
+
+    public int getPlayerID(int player){
+        return playerIDs[player];
+    }
+
+    public int getTime(int frame){
+        return times[frame];
+    }
+
+    public int getPlayerX(int frame, int player){
+        return positions[frame * stride + player * 2];
+    }
+
+    public int getPlayerY(int frame, int player){
+        return positions[frame * stride + player * 2 + 1];
+    }
+
+    public int getFootballID(int frame){
+        return footballIDs[frame];
+    }
+
+    public int getFootballX(int frame){
+        return positions[frame * stride + stride - 2];
+    }
+
+    public int getFootballY(int frame){
+        return positions[frame * stride + stride - 1];
+    }
+}
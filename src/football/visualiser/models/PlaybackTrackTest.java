@@ -0,0 +1,101 @@
+package football.visualiser.models;
+
+import football.visualiser.SystemData.Team;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for looking up frames of the playback track by time
+ */
+public class PlaybackTrackTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Tests that the frame shown at a time is the last frame at or before it, and that positions are kept per frame
+     */
+    @Test
+    public void frameAtTime(){
+        PlaybackTrack track = new PlaybackTrack(new int[]{ 10, 11 });
+        for(int frame = 0; frame < 10000; frame++){
+            track.addFrame(1000 + frame * 40, 4, frame, -frame);
+            track.setPlayerPosition(0, frame * 2, 0);
+            track.setPlayerPosition(1, 0, frame * 3);
+        }
+
+        assertEquals(10000, track.size());
+        assertEquals(0, track.getFrameAt(0));
+        assertEquals(0, track.getFrameAt(1039));
+        assertEquals(1, track.getFrameAt(1040));
+        assertEquals(9999, track.getFrameAt(Integer.MAX_VALUE));
+
+        int frame = track.getFrameAt(1000 + 5000 * 40 + 20);
+        assertEquals(5000, frame);
+        assertEquals(10000, track.getPlayerX(frame, 0));
+        assertEquals(15000, track.getPlayerY(frame, 1));
+        assertEquals(5000, track.getFootballX(frame));
+        assertEquals(-5000, track.getFootballY(frame));
+        assertEquals(4, track.getFootballID(frame));
+        assertEquals(11, track.getPlayerID(1));
+    }
+
+    /**
+     * Tests that a track built from frames in memory holds the players' fused positions rather than the position
+     * of whichever sensor reported last, along with the football in play
+     */
+    @Test
+    public void fromFramesFusesSensors() throws Exception {
+        int start = 10000000;
+        File matchFile = folder.newFile("match.csv");
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(matchFile))){
+            for(int time = start; time < start + 2000; time += 40){
+                // Time stamps are written in picoseconds, with y before x
+                writer.write("1," + time + "000000000,0,1000,0,0,0,0,0,0,0,0,0\n");
+                writer.write("2," + time + "000000000,100,1400,0,0,0,0,0,0,0,0,0\n");
+                writer.write("100," + time + "000000000,0,5000,0,0,0,0,0,0,0,0,0\n");
+            }
+        }
+        String[] matchTimeStamps = { start + "000000000", (start + 1000) + "000000000",
+                (start + 1000) + "000000000", (start + 2000) + "000000000" };
+
+        HashMap<Integer, List<Integer>> playerSensorIDs = new HashMap<>();
+        playerSensorIDs.put(1, Arrays.asList(1, 2));
+        HashMap<Integer, Team> teams = new HashMap<>();
+        teams.put(1, Team.RED);
+        HashMap<Integer, int[]> sensorPositions = new HashMap<>();
+        sensorPositions.put(1, new int[]{ 1000, 0 });
+        sensorPositions.put(2, new int[]{ 1400, 100 });
+        EntityAssignment assignment = new EntityAssignment(playerSensorIDs, teams, sensorPositions, -1, -1, 1.0);
+
+        MatchData matchData = new MatchData(matchFile.getPath(), matchTimeStamps);
+        FrameStore frames;
+        try{
+            frames = FrameStore.load(matchData, new int[]{ 100 }, 0);
+        }finally {
+            matchData.close();
+        }
+        PlaybackTrack track = PlaybackTrack.fromFrames(frames, assignment, new int[]{ 100 },
+                new Pitch(0, 52000, -33000, 33000), 40);
+
+        assertEquals(1, track.getNumberOfPlayers());
+        assertTrue(track.size() > 40);
+        // The first frames are recorded before both sensors have reported, after which each frame has a recent
+        // sample from both
+        for(int frame = 2; frame < track.size(); frame++){
+            assertEquals(1200, track.getPlayerX(frame, 0));
+            assertEquals(50, track.getPlayerY(frame, 0));
+            assertEquals(100, track.getFootballID(frame));
+            assertEquals(5000, track.getFootballX(frame));
+        }
+    }
+}
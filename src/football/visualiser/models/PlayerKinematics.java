@@ -0,0 +1,64 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Player Kinematics</h1>
+ * Summary of a single player's movement over the match as calculated by the {@link KinematicsTracker}.
+ * Speeds are in millimetres per second and distances in millimetres
+ */
+public class PlayerKinematics {
+    private int playerID;
+    private int maxSpeed;
+    private long distance;
+    private long highIntensityDistance;
+    private long sprintDistance;
+    private int accelerations;
+    private int decelerations;
+    private int[] speedPerSecond;
+
+    public PlayerKinematics(int playerID, int maxSpeed, long distance, long highIntensityDistance,
+                            long sprintDistance, int accelerations, int decelerations, int[] speedPerSecond){
+        this.playerID = playerID;
+        this.maxSpeed = maxSpeed;
+        this.distance = distance;
+        this.highIntensityDistance = highIntensityDistance;
+        this.sprintDistance = sprintDistance;
+        this.accelerations = accelerations;
+        this.decelerations = decelerations;
+        this.speedPerSecond = speedPerSecond;
+    }
+
+    public int getPlayerID(){
+        return playerID;
+    }
+
+    public int getMaxSpeed(){
+        return maxSpeed;
+    }
+
+    public long getDistance(){
+        return distance;
+    }
+
+    public long getHighIntensityDistance(){
+        return highIntensityDistance;
+    }
+
+    public long getSprintDistance(){
+        return sprintDistance;
+    }
+
+    public int getAccelerations(){
+        return accelerations;
+    }
+
+    public int getDecelerations(){
+        return decelerations;
+    }
+
+    /**
+     * @return  Fused speed of the player sampled once per second of playing time
+     */
+    public int[] getSpeedPerSecond(){
+        return speedPerSecond;
+    }
+}
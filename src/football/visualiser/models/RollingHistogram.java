@@ -0,0 +1,182 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Rolling Histogram</h1>
+ * Counts values recorded over the last few seconds in the same doubling buckets as {@link LatencyHistogram}, so
+ * that rates and percentiles follow what is happening now rather than averaging over a whole session.
+ *
+ * Time is split into a fixed ring of windows. Recording into a new window clears the oldest one, and windows
+ * older than the ring are left out when reading, so a histogram which stops being recorded into reads as empty
+ * once its windows have passed. All counters are allocated up front and nothing is allocated as values are
+ * recorded or read.
+ *
+ * Only one thread may record values, while others may read them. A read made while a window is being cleared
+ * may briefly leave that window out
+ */
+public class RollingHistogram {
+    private final long windowLength;
+    private final long[][] buckets;
+    private final long[] counts;
+    private final long[] totals;
+    private final long[] maximums;
+    private final long[] windowStarts;
+    private volatile int current = 0;
+    private volatile long firstRecordTime = Long.MIN_VALUE;
+
+    /**
+     * @param numberOfWindows   Number of windows kept
+     * @param windowLength      Length of each window in nanoseconds
+     */
+    public RollingHistogram(int numberOfWindows, long windowLength){
+        if(numberOfWindows < 1 || windowLength < 1){
+            throw new IllegalArgumentException("A rolling histogram needs at least one window of some length");
+        }
+        this.windowLength = windowLength;
+        buckets = new long[numberOfWindows][LatencyHistogram.NUMBER_OF_BUCKETS];
+        counts = new long[numberOfWindows];
+        totals = new long[numberOfWindows];
+        maximums = new long[numberOfWindows];
+        windowStarts = new long[numberOfWindows];
+        for(int window = 0; window < numberOfWindows; window++){
+            windowStarts[window] = Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * @param value     Value to count, such as a duration in nanoseconds, where bucket n holds values below 2^n.
+     *                  Negative values are counted as 0
+     * @param now       System time in nanoseconds
+     */
+    public void record(long value, long now){
+        if(value < 0) value = 0;
+        int window = roll(now);
+        buckets[window][LatencyHistogram.getBucket(value)]++;
+        counts[window]++;
+        totals[window] += value;
+        if(value > maximums[window]) maximums[window] = value;
+    }
+
+    /**
+     * Moves on to the window holding a time, clearing it of the values it held the last time round the ring
+     *
+     * @param now   System time in nanoseconds
+     * @return      Index of the window
+     */
+    private int roll(long now){
+        long start = getWindowStart(now);
+        if(firstRecordTime == Long.MIN_VALUE) firstRecordTime = now;
+        int window = current;
+        if(windowStarts[window] == start) return window;
+
+        window = (window + 1) % windowStarts.length;
+        windowStarts[window] = Long.MIN_VALUE;
+        for(int bucket = 0; bucket < LatencyHistogram.NUMBER_OF_BUCKETS; bucket++){
+            buckets[window][bucket] = 0;
+        }
+        counts[window] = 0;
+        totals[window] = 0;
+        maximums[window] = 0;
+        windowStarts[window] = start;
+        current = window;
+        return window;
+    }
+
+    private long getWindowStart(long now){
+        return now - Math.floorMod(now, windowLength);
+    }
+
+    /**
+     * @param window    Index of a window
+     * @param now       System time in nanoseconds
+     * @return          True if the window holds values from within the ring of windows ending at the time
+     */
+    private boolean isInRange(int window, long now){
+        long start = windowStarts[window];
+        long oldestStart = getWindowStart(now) - (windowStarts.length - 1) * windowLength;
+        return start != Long.MIN_VALUE && start >= oldestStart && start <= now;
+    }
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Number of values recorded in the windows in range
+     */
+    public long getCount(long now){
+        long count = 0;
+        for(int window = 0; window < windowStarts.length; window++){
+            if(isInRange(window, now)) count += counts[window];
+        }
+        return count;
+    }
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Sum of the values recorded in the windows in range
+     */
+    public long getTotal(long now){
+        long total = 0;
+        for(int window = 0; window < windowStarts.length; window++){
+            if(isInRange(window, now)) total += totals[window];
+        }
+        return total;
+    }
+
+    public long getMaximum(long now){
+        long maximum = 0;
+        for(int window = 0; window < windowStarts.length; window++){
+            if(isInRange(window, now)) maximum = Math.max(maximum, maximums[window]);
+        }
+        return maximum;
+    }
+
+    public double getMean(long now){
+        long count = getCount(now);
+        return count == 0 ? 0 : (double) getTotal(now) / count;
+    }
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Nanoseconds covered by the windows in range, which is shorter than the whole ring until values
+     *              have been recorded for that long
+     */
+    private long getSpan(long now){
+        long span = now - getWindowStart(now) + (windowStarts.length - 1) * windowLength;
+        long first = firstRecordTime;
+        if(first != Long.MIN_VALUE) span = Math.min(span, now - first);
+        return Math.max(1, span);
+    }
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Values recorded per second over the windows in range
+     */
+    public double getRate(long now){
+        return getCount(now) * 1e9 / getSpan(now);
+    }
+
+    /**
+     * @param now   System time in nanoseconds
+     * @return      Sum of the values recorded per second over the windows in range, such as rows per second
+     *              where each value is a number of rows
+     */
+    public double getTotalRate(long now){
+        return getTotal(now) * 1e9 / getSpan(now);
+    }
+
+    /**
+     * @param percentile    Percentile between 0 and 100
+     * @param now           System time in nanoseconds
+     * @return              Upper bound of the bucket holding the percentile, or 0 if nothing is in range
+     */
+    public long getPercentile(double percentile, long now){
+        long count = getCount(now);
+        long target = (long) Math.ceil(count * Math.max(0, Math.min(100, percentile)) / 100);
+        long seen = 0;
+        for(int bucket = 0; bucket < LatencyHistogram.NUMBER_OF_BUCKETS; bucket++){
+            for(int window = 0; window < windowStarts.length; window++){
+                if(isInRange(window, now)) seen += buckets[window][bucket];
+            }
+            if(seen >= target && seen > 0) return Math.min(getMaximum(now), (1L << bucket) - 1);
+        }
+        return 0;
+    }
+}
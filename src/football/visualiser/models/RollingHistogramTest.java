@@ -0,0 +1,54 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for counting values over a ring of windows of time
+ */
+public class RollingHistogramTest {
+    private static final long SECOND = 1000000000L;
+
+    /**
+     * Tests that rates are taken over the time values have been recorded for, and that values fall out once their
+     * window has passed
+     */
+    @Test
+    public void oldWindowsAreDropped(){
+        RollingHistogram histogram = new RollingHistogram(4, SECOND);
+        long start = 100 * SECOND;
+        // 25 values a second, each of 3, for two seconds
+        for(int i = 0; i < 50; i++){
+            histogram.record(3, start + i * SECOND / 25);
+        }
+        long now = start + 2 * SECOND;
+
+        assertEquals(50, histogram.getCount(now));
+        assertEquals(25, histogram.getRate(now), 0.001);
+        assertEquals(75, histogram.getTotalRate(now), 0.001);
+        assertEquals(3, histogram.getMaximum(now));
+
+        // Recording far later clears the window it lands in, and the earlier windows are out of range
+        histogram.record(1000, start + 10 * SECOND);
+        assertEquals(1, histogram.getCount(start + 10 * SECOND));
+        assertEquals(1000, histogram.getMaximum(start + 10 * SECOND));
+        assertEquals(0, histogram.getCount(start + 20 * SECOND));
+        assertEquals(0, histogram.getPercentile(50, start + 20 * SECOND));
+    }
+
+    @Test
+    public void percentilesAcrossWindows(){
+        RollingHistogram histogram = new RollingHistogram(3, SECOND);
+        for(int i = 1; i <= 100; i++){
+            histogram.record(i * 1000L, i * SECOND / 50);
+        }
+        long now = 2 * SECOND;
+
+        assertEquals(100, histogram.getCount(now));
+        assertEquals(100000, histogram.getPercentile(100, now));
+        long median = histogram.getPercentile(50, now);
+        assertTrue(median >= 50000 && median < 100000);
+        assertEquals(50500, histogram.getMean(now), 0.001);
+    }
+}
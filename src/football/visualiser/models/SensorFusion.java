@@ -0,0 +1,208 @@
+package football.visualiser.models;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Sensor Fusion</h1>
+ * Combines the sensors attached to a single player into one position.
+ *
+ * The latest sample of each sensor is kept along with the time it was received. When a position is published,
+ * sensors which have not reported recently are ignored, and the remaining sensors are compared against a
+ * reference position: the median of the sensors when there are at least three, otherwise the previously
+ * published position. Sensors too far from the reference are rejected as outliers and the fused position is
+ * the average of the sensors which are left. This stops a single glitching sensor from pulling the player
+ * across the pitch.
+ *
+ * Updating a sensor only stores the sample, so it is cheap enough to be called for every row of the data file,
+ * while publishing is intended to be done once per frame
+ */
+public class SensorFusion {
+    // Samples older than this are not used
+    public static final int DEFAULT_STALE_MILLISECONDS = 250;
+    // Sensors further than this from the reference position are rejected
+    public static final int DEFAULT_OUTLIER_DISTANCE = 3000;
+    // The previous position is only used as the reference if it was published recently, as the player may
+    // have moved a long way after a seek or half time
+    private static final int MAX_REFERENCE_AGE = 1000;
+
+    private int staleMilliseconds = DEFAULT_STALE_MILLISECONDS;
+    private long outlierDistanceSquared = (long) DEFAULT_OUTLIER_DISTANCE * DEFAULT_OUTLIER_DISTANCE;
+
+    private int[] sensorIDs = new int[0];
+    private int[] xs = new int[0];
+    private int[] ys = new int[0];
+    private int[] times = new int[0];
+    private boolean[] received = new boolean[0];
+    private boolean[] accepted = new boolean[0];
+
+    // Scratch space used to find the median without allocating
+    private int[] freshXs = new int[0];
+    private int[] freshYs = new int[0];
+    private int[] freshSensors = new int[0];
+
+    private int x;
+    private int y;
+    private int publishTime;
+    private boolean hasPosition = false;
+
+    public void addSensor(int sensorID){
+        if(indexOf(sensorID) >= 0) return;
+
+        int count = sensorIDs.length + 1;
+        sensorIDs = Arrays.copyOf(sensorIDs, count);
+        xs = Arrays.copyOf(xs, count);
+        ys = Arrays.copyOf(ys, count);
+        times = Arrays.copyOf(times, count);
+        received = Arrays.copyOf(received, count);
+        accepted = Arrays.copyOf(accepted, count);
+        freshXs = new int[count];
+        freshYs = new int[count];
+        freshSensors = new int[count];
+
+        sensorIDs[count - 1] = sensorID;
+        accepted[count - 1] = true;
+    }
+
+    public void setStaleMilliseconds(int staleMilliseconds){
+        this.staleMilliseconds = staleMilliseconds;
+    }
+
+    public void setOutlierDistance(int outlierDistance){
+        this.outlierDistanceSquared = (long) outlierDistance * outlierDistance;
+    }
+
+    /**
+     * Stores the latest sample of a sensor
+     *
+     * @param sensorID  ID of the sensor
+     * @param x         X position of the sensor
+     * @param y         Y position of the sensor
+     * @param time      Time of the sample in milliseconds
+     */
+    public void update(int sensorID, int x, int y, int time){
+        int sensor = indexOf(sensorID);
+        if(sensor < 0) return;
+
+        xs[sensor] = x;
+        ys[sensor] = y;
+        times[sensor] = time;
+        received[sensor] = true;
+    }
+
+    /**
+     * Fuses the sensors which have reported recently into a single position
+     *
+     * @param time  Current time in milliseconds
+     * @return      True if a new position was published, false if no sensor has reported recently, in which
+     *              case the previous position is kept
+     */
+    public boolean publish(int time){
+        // Find the sensors which have reported recently. The time may go backwards after seeking, in which case
+        // samples from later in the match are treated as stale
+        int fresh = 0;
+        for(int sensor = 0; sensor < sensorIDs.length; sensor++){
+            accepted[sensor] = false;
+            if(received[sensor] && Math.abs(time - times[sensor]) <= staleMilliseconds){
+                freshSensors[fresh] = sensor;
+                freshXs[fresh] = xs[sensor];
+                freshYs[fresh] = ys[sensor];
+                fresh++;
+            }
+        }
+        if(fresh == 0){
+            Arrays.fill(accepted, true);
+            return false;
+        }
+
+        int referenceX;
+        int referenceY;
+        boolean hasReference = true;
+        if(fresh >= 3){
+            referenceX = median(freshXs, fresh);
+            referenceY = median(freshYs, fresh);
+        }else if(hasPosition && Math.abs(time - publishTime) <= MAX_REFERENCE_AGE){
+            referenceX = x;
+            referenceY = y;
+        }else{
+            referenceX = 0;
+            referenceY = 0;
+            hasReference = false;
+        }
+
+        long sumX = 0;
+        long sumY = 0;
+        int count = 0;
+        for(int i = 0; i < fresh; i++){
+            int sensor = freshSensors[i];
+            if(hasReference){
+                long distanceX = xs[sensor] - referenceX;
+                long distanceY = ys[sensor] - referenceY;
+                if(distanceX * distanceX + distanceY * distanceY > outlierDistanceSquared) continue;
+            }
+            accepted[sensor] = true;
+            sumX += xs[sensor];
+            sumY += ys[sensor];
+            count++;
+        }
+
+        // If every sensor disagrees with the reference the player has most likely moved further than the
+        // outlier distance since the last position, so start again from the average of the fresh sensors
+        if(count == 0){
+            for(int i = 0; i < fresh; i++){
+                int sensor = freshSensors[i];
+                accepted[sensor] = true;
+                sumX += xs[sensor];
+                sumY += ys[sensor];
+            }
+            count = fresh;
+        }
+
+        x = (int) (sumX / count);
+        y = (int) (sumY / count);
+        publishTime = time;
+        hasPosition = true;
+        return true;
+    }
+
+    /**
+     * Finds the median of the first values of the array. The array is sorted in the process
+     */
+    private int median(int[] values, int length){
+        Arrays.sort(values, 0, length);
+        int middle = length / 2;
+        if(length % 2 == 1) return values[middle];
+        return (int) (((long) values[middle - 1] + values[middle]) / 2);
+    }
+
+    private int indexOf(int sensorID){
+        for(int i = 0; i < sensorIDs.length; i++){
+            if(sensorIDs[i] == sensorID) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @param sensorID  ID of the sensor
+     * @return          False if the sensor was rejected as stale or an outlier when the position was last
+     *                  published, otherwise true
+     */
+    public boolean isAccepted(int sensorID){
+        int sensor = indexOf(sensorID);
+        return sensor < 0 || !hasPosition || accepted[sensor];
+    }
+
+    /**
+     * @return  True once a position has been published
+     */
+    public boolean hasPosition(){
+        return hasPosition;
+    }
+
+    public int getX(){
+        return x;
+    }
+
+    public int getY(){
+        return y;
+    }
+}
@@ -0,0 +1,127 @@
+package football.visualiser.models;
+
+import football.visualiser.interfaces.IPlayerSensor;
+import football.visualiser.models.entities.Football;
+import football.visualiser.models.entities.Player;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for fusing a player's sensors into a single position
+ */
+public class SensorFusionTest {
+
+    /**
+     * Tests that a sensor far from the median of the others is ignored
+     */
+    @Test
+    public void outlierRejectedByMedian(){
+        SensorFusion sensorFusion = new SensorFusion();
+        sensorFusion.addSensor(1);
+        sensorFusion.addSensor(2);
+        sensorFusion.addSensor(3);
+
+        sensorFusion.update(1, 1000, 2000, 0);
+        sensorFusion.update(2, 1200, 2200, 0);
+        sensorFusion.update(3, 21000, 2000, 0);
+
+        assertTrue(sensorFusion.publish(0));
+        assertEquals(1100, sensorFusion.getX());
+        assertEquals(2100, sensorFusion.getY());
+        assertFalse(sensorFusion.isAccepted(3));
+    }
+
+    /**
+     * Tests that with two sensors a glitch is rejected using the previous position
+     */
+    @Test
+    public void glitchRejectedByPreviousPosition(){
+        SensorFusion sensorFusion = new SensorFusion();
+        sensorFusion.addSensor(1);
+        sensorFusion.addSensor(2);
+
+        sensorFusion.update(1, 1000, 1000, 0);
+        sensorFusion.update(2, 1100, 1000, 0);
+        sensorFusion.publish(0);
+        assertEquals(1050, sensorFusion.getX());
+
+        sensorFusion.update(1, 1100, 1000, 40);
+        sensorFusion.update(2, 21100, 1000, 40);
+        sensorFusion.publish(40);
+
+        assertEquals(1100, sensorFusion.getX());
+        assertTrue(sensorFusion.isAccepted(1));
+        assertFalse(sensorFusion.isAccepted(2));
+    }
+
+    /**
+     * Tests that sensors which have stopped reporting are not used
+     */
+    @Test
+    public void staleSensorIgnored(){
+        SensorFusion sensorFusion = new SensorFusion();
+        sensorFusion.addSensor(1);
+        sensorFusion.addSensor(2);
+
+        sensorFusion.update(1, 5000, 5000, 0);
+        sensorFusion.update(2, 6000, 5000, 1000);
+
+        sensorFusion.publish(1000);
+        assertEquals(6000, sensorFusion.getX());
+        assertFalse(sensorFusion.isAccepted(1));
+    }
+
+    /**
+     * Tests that the previous position is kept when no sensor has reported recently
+     */
+    @Test
+    public void positionHeldWithoutFreshSensors(){
+        SensorFusion sensorFusion = new SensorFusion();
+        sensorFusion.addSensor(1);
+        assertFalse(sensorFusion.hasPosition());
+
+        sensorFusion.update(1, 5000, 4000, 0);
+        sensorFusion.publish(0);
+
+        assertFalse(sensorFusion.publish(5000));
+        assertEquals(5000, sensorFusion.getX());
+        assertEquals(4000, sensorFusion.getY());
+    }
+
+    /**
+     * Tests that a sensor rejected by the fusion is never taken as closest to the ball, even when it is the only
+     * sensor near it
+     */
+    @Test
+    public void rejectedSensorNotClosestToBall(){
+        Player player = new Player(10);
+        PlayerSensor<Player> freshSensor = new PlayerSensor<>(1, player, true);
+        PlayerSensor<Player> staleSensor = new PlayerSensor<>(2, player, false);
+        player.addSensor(freshSensor);
+        player.addSensor(staleSensor);
+
+        freshSensor.setX(5000);
+        freshSensor.setY(5000);
+        staleSensor.setX(0);
+        staleSensor.setY(0);
+        player.updateSensorPosition(2, 0, 0, 0);
+        player.updateSensorPosition(1, 5000, 5000, 1000);
+        player.publishFusedPosition(1000);
+        assertFalse(player.isSensorAccepted(2));
+
+        Football football = new Football(100);
+        football.setX(0);
+        football.setY(0);
+        DataAnalyser dataAnalyser = new DataAnalyser(new int[]{ 100 });
+
+        HashMap<Integer, IPlayerSensor<Player>> playerSensors = new HashMap<>();
+        playerSensors.put(2, staleSensor);
+        assertNull(dataAnalyser.playerClosestToFootball(playerSensors, football));
+
+        playerSensors.put(1, freshSensor);
+        assertSame(freshSensor, dataAnalyser.playerClosestToFootball(playerSensors, football));
+    }
+}
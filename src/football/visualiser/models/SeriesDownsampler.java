@@ -0,0 +1,186 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Series Downsampler</h1>
+ * Reduces a large series of (x, y) points down to roughly the number of points that can actually be
+ * seen on screen, so that charts never have to lay out more nodes than there are pixels.
+ *
+ * Two strategies are provided:
+ * <ul>
+ *     <li>Largest-Triangle-Three-Buckets (LTTB), which keeps the overall shape of the line</li>
+ *     <li>Min/max per bucket, which guarantees every peak and trough is kept</li>
+ * </ul>
+ *
+ * Both methods expect the x values to be sorted in ascending order and write their results into
+ * arrays supplied by the caller so that repeated resampling does not allocate
+ */
+public class SeriesDownsampler {
+
+    private SeriesDownsampler(){}
+
+    /**
+     * Downsamples the points between from (inclusive) and to (exclusive) using the
+     * Largest-Triangle-Three-Buckets algorithm. The first and last points are always kept. For each bucket
+     * in between, the point which forms the largest triangle with the previously selected point and the
+     * average of the next bucket is selected
+     *
+     * @param x             X values, sorted in ascending order
+     * @param y             Y values
+     * @param from          Index of the first point to consider
+     * @param to            Index after the last point to consider
+     * @param threshold     Maximum number of points to output
+     * @param outX          Array the selected x values are written into; must hold at least threshold values
+     * @param outY          Array the selected y values are written into; must hold at least threshold values
+     * @return              Number of points written to outX and outY
+     */
+    public static int largestTriangleThreeBuckets(double[] x, double[] y, int from, int to, int threshold,
+                                                  double[] outX, double[] outY){
+        int length = to - from;
+        if(length <= 0) return 0;
+
+        // If there are fewer points than requested there is nothing to reduce
+        if(threshold >= length){
+            System.arraycopy(x, from, outX, 0, length);
+            System.arraycopy(y, from, outY, 0, length);
+            return length;
+        }
+
+        // Too few points requested to form any buckets, so only the end points can be kept
+        if(threshold < 3){
+            if(threshold <= 0) return 0;
+            outX[0] = x[from];
+            outY[0] = y[from];
+            if(threshold == 1) return 1;
+            outX[1] = x[to - 1];
+            outY[1] = y[to - 1];
+            return 2;
+        }
+
+        // Buckets exclude the first and last points which are always kept
+        double bucketSize = (double) (length - 2) / (threshold - 2);
+        int selected = from;
+        int outIndex = 0;
+
+        outX[outIndex] = x[from];
+        outY[outIndex++] = y[from];
+
+        for(int bucket = 0; bucket < threshold - 2; bucket++){
+            // Average point of the next bucket, used as the third corner of the triangle
+            int nextStart = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min(from + (int) Math.floor((bucket + 2) * bucketSize) + 1, to);
+            double averageX = 0;
+            double averageY = 0;
+            for(int i = nextStart; i < nextEnd; i++){
+                averageX += x[i];
+                averageY += y[i];
+            }
+            int nextLength = nextEnd - nextStart;
+            if(nextLength > 0){
+                averageX /= nextLength;
+                averageY /= nextLength;
+            }else{
+                averageX = x[to - 1];
+                averageY = y[to - 1];
+            }
+
+            // Current bucket
+            int start = from + (int) Math.floor(bucket * bucketSize) + 1;
+            int end = from + (int) Math.floor((bucket + 1) * bucketSize) + 1;
+
+            double pointX = x[selected];
+            double pointY = y[selected];
+            double maxArea = -1;
+            int maxAreaIndex = start;
+
+            for(int i = start; i < end; i++){
+                // Twice the area of the triangle; the constant factor does not affect the comparison
+                double area = Math.abs((pointX - averageX) * (y[i] - pointY)
+                        - (pointX - x[i]) * (averageY - pointY));
+                if(area > maxArea){
+                    maxArea = area;
+                    maxAreaIndex = i;
+                }
+            }
+
+            outX[outIndex] = x[maxAreaIndex];
+            outY[outIndex++] = y[maxAreaIndex];
+            selected = maxAreaIndex;
+        }
+
+        outX[outIndex] = x[to - 1];
+        outY[outIndex++] = y[to - 1];
+
+        return outIndex;
+    }
+
+    /**
+     * Downsamples the points between from (inclusive) and to (exclusive) by splitting them into buckets
+     * and keeping the minimum and maximum point of each bucket in the order they occurred
+     *
+     * @param x             X values, sorted in ascending order
+     * @param y             Y values
+     * @param from          Index of the first point to consider
+     * @param to            Index after the last point to consider
+     * @param buckets       Number of buckets; up to twice this many points are output
+     * @param outX          Array the selected x values are written into; must hold at least 2 * buckets values
+     * @param outY          Array the selected y values are written into; must hold at least 2 * buckets values
+     * @return              Number of points written to outX and outY
+     */
+    public static int minMax(double[] x, double[] y, int from, int to, int buckets, double[] outX, double[] outY){
+        int length = to - from;
+        if(length <= 0 || buckets <= 0) return 0;
+
+        if(length <= buckets * 2){
+            System.arraycopy(x, from, outX, 0, length);
+            System.arraycopy(y, from, outY, 0, length);
+            return length;
+        }
+
+        double bucketSize = (double) length / buckets;
+        int outIndex = 0;
+
+        for(int bucket = 0; bucket < buckets; bucket++){
+            int start = from + (int) (bucket * bucketSize);
+            int end = Math.min(from + (int) ((bucket + 1) * bucketSize), to);
+            if(start >= end) continue;
+
+            int minIndex = start;
+            int maxIndex = start;
+            for(int i = start + 1; i < end; i++){
+                if(y[i] < y[minIndex]) minIndex = i;
+                if(y[i] > y[maxIndex]) maxIndex = i;
+            }
+
+            // Keep the points in x order so that the line does not double back on itself
+            int first = Math.min(minIndex, maxIndex);
+            int second = Math.max(minIndex, maxIndex);
+            outX[outIndex] = x[first];
+            outY[outIndex++] = y[first];
+            if(second != first){
+                outX[outIndex] = x[second];
+                outY[outIndex++] = y[second];
+            }
+        }
+
+        return outIndex;
+    }
+
+    /**
+     * Finds the index of the first x value which is greater than or equal to the value given
+     *
+     * @param x         X values, sorted in ascending order
+     * @param length    Number of values in use
+     * @param value     Value to search for
+     * @return          Index of the first x value not less than value, or length if there is none
+     */
+    public static int lowerBound(double[] x, int length, double value){
+        int low = 0;
+        int high = length;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(x[middle] < value) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
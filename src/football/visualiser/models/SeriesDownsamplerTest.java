@@ -0,0 +1,87 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the LTTB and min/max series downsampling
+ */
+public class SeriesDownsamplerTest {
+
+    private double[] x = new double[1000];
+    private double[] y = new double[1000];
+
+    public SeriesDownsamplerTest(){
+        for(int i = 0; i < x.length; i++){
+            x[i] = i;
+            y[i] = Math.sin(i / 50.0);
+        }
+        // Single spike which should survive downsampling
+        y[517] = 10;
+    }
+
+    /**
+     * Tests that the first and last points are kept and the output does not exceed the threshold
+     */
+    @Test
+    public void lttbKeepsEndPoints(){
+        double[] outX = new double[100];
+        double[] outY = new double[100];
+
+        int count = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 0, x.length, 100, outX, outY);
+
+        assertEquals(100, count);
+        assertEquals(0, outX[0], 0);
+        assertEquals(999, outX[count - 1], 0);
+
+        for(int i = 1; i < count; i++){
+            assertTrue(outX[i] > outX[i - 1]);
+        }
+    }
+
+    /**
+     * Tests that a single extreme value is selected by both algorithms
+     */
+    @Test
+    public void spikeIsKept(){
+        double[] outX = new double[200];
+        double[] outY = new double[200];
+
+        int count = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 0, x.length, 50, outX, outY);
+        assertTrue(contains(outY, count, 10));
+
+        count = SeriesDownsampler.minMax(x, y, 0, x.length, 50, outX, outY);
+        assertTrue(count <= 100);
+        assertTrue(contains(outY, count, 10));
+    }
+
+    /**
+     * Tests that series shorter than the threshold are returned unchanged
+     */
+    @Test
+    public void shortSeriesUnchanged(){
+        double[] outX = new double[20];
+        double[] outY = new double[20];
+
+        int count = SeriesDownsampler.largestTriangleThreeBuckets(x, y, 100, 110, 20, outX, outY);
+
+        assertEquals(10, count);
+        assertEquals(100, outX[0], 0);
+        assertEquals(109, outX[9], 0);
+    }
+
+    @Test
+    public void lowerBound(){
+        assertEquals(0, SeriesDownsampler.lowerBound(x, x.length, -5));
+        assertEquals(250, SeriesDownsampler.lowerBound(x, x.length, 249.5));
+        assertEquals(1000, SeriesDownsampler.lowerBound(x, x.length, 5000));
+    }
+
+    private boolean contains(double[] values, int count, double value){
+        for(int i = 0; i < count; i++){
+            if(values[i] == value) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,263 @@
+package football.visualiser.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <h1>Spatio-Temporal Index</h1>
+ * Records where every player was throughout the match so that questions such as "which players entered the
+ * penalty area between 60' and 75'" or "how long did each player spend in the final third" can be answered
+ * without reading the match data file again.
+ *
+ * The pitch is divided into a grid of cells. For every slice of time each player's cell is stored, and for
+ * every longer bucket of time each cell has a bit set of the players who were in it. Region queries use the
+ * bit sets for the buckets which lie wholly inside the query and the slices only at its ends. A cell is part of
+ * a region if its centre lies within the region, so regions are resolved to the size of a cell.
+ *
+ * Times are in milliseconds
+ */
+public class SpatioTemporalIndex {
+    public static final int CELLS_X = 24;
+    public static final int CELLS_Y = 16;
+    public static final int SLICE_LENGTH = 200;
+    public static final int BUCKET_LENGTH = 5000;
+
+    private static final int NUMBER_OF_CELLS = CELLS_X * CELLS_Y;
+    private static final short NO_CELL = -1;
+
+    private final int pitchX;
+    private final int pitchY;
+    private final int pitchLength;
+    private final int pitchWidth;
+    private final int startTime;
+    private final int numberOfSlices;
+    private final int numberOfBuckets;
+    private final int words;
+
+    private final int[] playerIDs;
+    private final HashMap<Integer, Integer> playerIndexes = new HashMap<>();
+    // The cell of each player in each slice
+    private final short[][] playerCells;
+    // For each bucket, a bit set of players per cell
+    private final long[][] cellPlayers;
+
+    /**
+     * @param pitch         Pitch to divide into cells
+     * @param playerIDs     IDs of the players to index
+     * @param startTime     Start of the first half in milliseconds
+     * @param endTime       End of the second half in milliseconds
+     */
+    public SpatioTemporalIndex(Pitch pitch, int[] playerIDs, int startTime, int endTime){
+        this.pitchX = pitch.getX1();
+        this.pitchY = pitch.getY1();
+        this.pitchLength = Math.max(1, pitch.getX2() - pitch.getX1());
+        this.pitchWidth = Math.max(1, pitch.getY2() - pitch.getY1());
+        this.startTime = startTime;
+        this.numberOfSlices = Math.max(0, endTime - startTime) / SLICE_LENGTH + 1;
+        this.numberOfBuckets = Math.max(0, endTime - startTime) / BUCKET_LENGTH + 1;
+        this.words = (playerIDs.length + 63) / 64;
+        this.playerIDs = playerIDs.clone();
+
+        for(int i = 0; i < playerIDs.length; i++){
+            playerIndexes.put(playerIDs[i], i);
+        }
+
+        playerCells = new short[playerIDs.length][numberOfSlices];
+        for(short[] cells : playerCells){
+            Arrays.fill(cells, NO_CELL);
+        }
+        cellPlayers = new long[numberOfBuckets][];
+    }
+
+    /**
+     * Builds an index from a playback track, for tools which run without the match view. The track holds the
+     * players' fused positions once per frame, which are the positions recorded when the match is analysed
+     *
+     * @param track         Playback track of the match, such as from {@link PlaybackTrack#fromFrames}
+     * @param pitch         Pitch to divide into cells
+     * @param startTime     Start of the first half in milliseconds
+     * @param endTime       End of the second half in milliseconds
+     * @return              The index
+     */
+    public static SpatioTemporalIndex fromTrack(PlaybackTrack track, Pitch pitch, int startTime, int endTime){
+        FlightEvents.IndexBuild buildEvent = new FlightEvents.IndexBuild();
+        buildEvent.begin();
+        int[] playerIDs = new int[track.getNumberOfPlayers()];
+        for(int player = 0; player < playerIDs.length; player++){
+            playerIDs[player] = track.getPlayerID(player);
+        }
+
+        SpatioTemporalIndex index = new SpatioTemporalIndex(pitch, playerIDs, startTime, endTime);
+        for(int frame = 0; frame < track.size(); frame++){
+            for(int player = 0; player < playerIDs.length; player++){
+                index.record(playerIDs[player], track.getTime(frame), track.getPlayerX(frame, player),
+                        track.getPlayerY(frame, player));
+            }
+        }
+        buildEvent.end();
+        if(buildEvent.shouldCommit()){
+            buildEvent.index = "Spatio-temporal index";
+            buildEvent.rowsRead = track.size();
+            buildEvent.entries = playerIDs.length;
+            buildEvent.commit();
+        }
+        return index;
+    }
+
+    /**
+     * Records the position of a player. Positions outside the pitch or the match are ignored
+     *
+     * @param playerID  ID of the player
+     * @param time      Time of the position in milliseconds
+     * @param x         X position of the player
+     * @param y         Y position of the player
+     */
+    public void record(int playerID, int time, int x, int y){
+        Integer player = playerIndexes.get(playerID);
+        int cell = getCell(x, y);
+        if(player == null || cell == NO_CELL || time < startTime) return;
+
+        int slice = (time - startTime) / SLICE_LENGTH;
+        int bucket = (time - startTime) / BUCKET_LENGTH;
+        if(slice >= numberOfSlices) return;
+
+        playerCells[player][slice] = (short) cell;
+
+        if(cellPlayers[bucket] == null) cellPlayers[bucket] = new long[NUMBER_OF_CELLS * words];
+        cellPlayers[bucket][cell * words + (player >> 6)] |= 1L << (player & 63);
+    }
+
+    private int getCell(int x, int y){
+        if(x < pitchX || x > pitchX + pitchLength || y < pitchY || y > pitchY + pitchWidth) return NO_CELL;
+        int cellX = Math.min(CELLS_X - 1, (int) ((long) (x - pitchX) * CELLS_X / pitchLength));
+        int cellY = Math.min(CELLS_Y - 1, (int) ((long) (y - pitchY) * CELLS_Y / pitchWidth));
+        return cellY * CELLS_X + cellX;
+    }
+
+    /**
+     * @param region    Region of the pitch
+     * @return          Which cells have their centre within the region
+     */
+    private boolean[] getCells(PitchRegion region){
+        boolean[] cells = new boolean[NUMBER_OF_CELLS];
+        for(int cellY = 0; cellY < CELLS_Y; cellY++){
+            for(int cellX = 0; cellX < CELLS_X; cellX++){
+                double centreX = pitchX + (cellX + 0.5) * pitchLength / CELLS_X;
+                double centreY = pitchY + (cellY + 0.5) * pitchWidth / CELLS_Y;
+                cells[cellY * CELLS_X + cellX] = region.contains(centreX, centreY);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Finds the players who were in a region at any point during a period of the match
+     *
+     * @param region    Region of the pitch
+     * @param from      Start of the period in milliseconds
+     * @param to        End of the period in milliseconds
+     * @return          IDs of the players who were in the region
+     */
+    public List<Integer> getPlayersInRegion(PitchRegion region, int from, int to){
+        boolean[] cells = getCells(region);
+        long[] found = new long[words];
+
+        int firstBucket = Math.max(0, (from - startTime) / BUCKET_LENGTH);
+        int lastBucket = Math.min(numberOfBuckets - 1, (to - startTime) / BUCKET_LENGTH);
+        for(int bucket = firstBucket; bucket <= lastBucket; bucket++){
+            if(cellPlayers[bucket] == null) continue;
+
+            int bucketStart = startTime + bucket * BUCKET_LENGTH;
+            if(bucketStart >= from && bucketStart + BUCKET_LENGTH <= to){
+                // The whole bucket is inside the period so its bit sets can be used directly
+                for(int cell = 0; cell < NUMBER_OF_CELLS; cell++){
+                    if(!cells[cell]) continue;
+                    for(int word = 0; word < words; word++){
+                        found[word] |= cellPlayers[bucket][cell * words + word];
+                    }
+                }
+            }else{
+                // Only part of the bucket is inside the period so check the slices of each player
+                int firstSlice = (Math.max(from, bucketStart) - startTime) / SLICE_LENGTH;
+                int lastSlice = (Math.min(to, bucketStart + BUCKET_LENGTH - 1) - startTime) / SLICE_LENGTH;
+                for(int player = 0; player < playerIDs.length; player++){
+                    if((found[player >> 6] & (1L << (player & 63))) != 0) continue;
+                    for(int slice = firstSlice; slice <= lastSlice && slice < numberOfSlices; slice++){
+                        short cell = playerCells[player][slice];
+                        if(cell != NO_CELL && cells[cell]){
+                            found[player >> 6] |= 1L << (player & 63);
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Integer> players = new ArrayList<>();
+        for(int player = 0; player < playerIDs.length; player++){
+            if((found[player >> 6] & (1L << (player & 63))) != 0) players.add(playerIDs[player]);
+        }
+        return players;
+    }
+
+    /**
+     * Calculates how long each player spent in a region during a period of the match
+     *
+     * @param region    Region of the pitch
+     * @param from      Start of the period in milliseconds
+     * @param to        End of the period in milliseconds
+     * @return          Milliseconds spent in the region keyed by player ID, in the order the players were given
+     */
+    public Map<Integer, Integer> getTimeInRegion(PitchRegion region, int from, int to){
+        boolean[] cells = getCells(region);
+        Map<Integer, Integer> times = new LinkedHashMap<>();
+        for(int player = 0; player < playerIDs.length; player++){
+            times.put(playerIDs[player], countSlices(player, cells, from, to) * SLICE_LENGTH);
+        }
+        return times;
+    }
+
+    /**
+     * Calculates how long one player spent in a region during a period of the match
+     *
+     * @param playerID  ID of the player
+     * @param region    Region of the pitch
+     * @param from      Start of the period in milliseconds
+     * @param to        End of the period in milliseconds
+     * @return          Milliseconds spent in the region, or 0 if the player is not indexed
+     */
+    public int getTimeInRegion(int playerID, PitchRegion region, int from, int to){
+        Integer player = playerIndexes.get(playerID);
+        if(player == null) return 0;
+        return countSlices(player, getCells(region), from, to) * SLICE_LENGTH;
+    }
+
+    /**
+     * @param playerID  ID of the player
+     * @param from      Start of the period in milliseconds
+     * @param to        End of the period in milliseconds
+     * @return          Milliseconds the player was recorded anywhere on the pitch during the period
+     */
+    public int getTimeOnPitch(int playerID, int from, int to){
+        Integer player = playerIndexes.get(playerID);
+        if(player == null) return 0;
+        boolean[] cells = new boolean[NUMBER_OF_CELLS];
+        Arrays.fill(cells, true);
+        return countSlices(player, cells, from, to) * SLICE_LENGTH;
+    }
+
+    private int countSlices(int player, boolean[] cells, int from, int to){
+        int firstSlice = Math.max(0, (from - startTime) / SLICE_LENGTH);
+        int lastSlice = Math.min(numberOfSlices - 1, (to - startTime) / SLICE_LENGTH);
+        int count = 0;
+        for(int slice = firstSlice; slice <= lastSlice; slice++){
+            short cell = playerCells[player][slice];
+            if(cell != NO_CELL && cells[cell]) count++;
+        }
+        return count;
+    }
+}
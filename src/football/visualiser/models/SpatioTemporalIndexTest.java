@@ -0,0 +1,71 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for region and time window queries on the spatio-temporal index
+ */
+public class SpatioTemporalIndexTest {
+    private final Pitch pitch = new Pitch(0, 60000, 0, 40000);
+
+    /**
+     * Records player 1 in the left third for the first 20 seconds and in the right third for the next 20 seconds,
+     * and player 2 in the middle third throughout
+     */
+    private SpatioTemporalIndex createIndex(){
+        SpatioTemporalIndex index = new SpatioTemporalIndex(pitch, new int[]{ 1, 2 }, 0, 40000);
+        for(int time = 0; time < 40000; time += 40){
+            index.record(1, time, time < 20000 ? 5000 : 55000, 20000);
+            index.record(2, time, 30000, 20000);
+        }
+        return index;
+    }
+
+    /**
+     * Tests that the time spent in a region only counts the period asked for
+     */
+    @Test
+    public void timeInRegion(){
+        SpatioTemporalIndex index = createIndex();
+        PitchRegion leftThird = PitchRegion.third(pitch, 0);
+
+        Map<Integer, Integer> times = index.getTimeInRegion(leftThird, 0, 39999);
+        assertEquals(20000, (int) times.get(1));
+        assertEquals(0, (int) times.get(2));
+
+        assertEquals(10000, index.getTimeInRegion(1, leftThird, 10000, 29999));
+    }
+
+    /**
+     * Tests that players are found in a region both using whole buckets and part of a bucket
+     */
+    @Test
+    public void playersInRegion(){
+        SpatioTemporalIndex index = createIndex();
+        PitchRegion rightThird = PitchRegion.third(pitch, 2);
+
+        assertEquals(Collections.singletonList(1), index.getPlayersInRegion(rightThird, 20000, 39999));
+        assertEquals(Collections.emptyList(), index.getPlayersInRegion(rightThird, 0, 19999));
+        // Ends part way through the first bucket in which player 1 is on the right
+        assertEquals(Collections.singletonList(1), index.getPlayersInRegion(rightThird, 17000, 21000));
+        assertEquals(Arrays.asList(1, 2),
+                index.getPlayersInRegion(new PitchRegion("All", 0, 60000, 0, 40000), 0, 39999));
+    }
+
+    /**
+     * Tests that positions outside the pitch are not recorded
+     */
+    @Test
+    public void positionsOffThePitchIgnored(){
+        SpatioTemporalIndex index = new SpatioTemporalIndex(pitch, new int[]{ 1 }, 0, 10000);
+        index.record(1, 1000, -5000, 20000);
+
+        assertEquals(0, index.getTimeOnPitch(1, 0, 10000));
+    }
+}
@@ -0,0 +1,140 @@
+package football.visualiser.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <h1>Sprint Detector</h1>
+ * Segments each player's fused speed into runs above a speed threshold, such as sprints or high intensity
+ * runs, and stores them in a {@link SprintIndex} per player.
+ *
+ * Hysteresis is used to prevent noise around the threshold splitting a single run into several: a run starts
+ * when the speed reaches the start speed and only ends once it falls below the lower end speed. Runs shorter
+ * than the minimum duration are discarded.
+ *
+ * The detector is fed by the {@link KinematicsTracker} every time a player's fused speed is updated, and keeps
+ * all of its state in primitive arrays indexed by the tracker's player slots so that it does not allocate
+ * while the match is analysed
+ */
+public class SprintDetector {
+    public static final int SPRINT_START_SPEED = 7000;
+    public static final int SPRINT_END_SPEED = 6000;
+    public static final int HIGH_INTENSITY_START_SPEED = 5500;
+    public static final int HIGH_INTENSITY_END_SPEED = 4500;
+    public static final int DEFAULT_MINIMUM_DURATION = 1000;
+
+    // If a player's updates stop for longer than this, such as at half time, any run in progress is ended
+    private static final int MAX_UPDATE_GAP = 1000;
+
+    private final int startSpeed;
+    private final int endSpeed;
+    private final int minimumDuration;
+
+    private final int[] playerIDs;
+    private final SprintIndex[] indexes;
+
+    private final boolean[] running;
+    private final int[] runStartTimes;
+    private final int[] lastTimes;
+    private final long[] runDistances;
+    private final int[] runPeakSpeeds;
+
+    /**
+     * @param playerIDs         ID of the player in each slot, as used by the kinematics tracker
+     * @param startSpeed        Speed at which a run starts
+     * @param endSpeed          Speed below which a run ends; should be lower than the start speed
+     * @param minimumDuration   Shortest run, in milliseconds, which is stored
+     */
+    public SprintDetector(int[] playerIDs, int startSpeed, int endSpeed, int minimumDuration){
+        if(endSpeed > startSpeed) throw new IllegalArgumentException("End speed must not exceed start speed");
+
+        this.playerIDs = playerIDs;
+        this.startSpeed = startSpeed;
+        this.endSpeed = endSpeed;
+        this.minimumDuration = minimumDuration;
+
+        int numberOfPlayers = playerIDs.length;
+        indexes = new SprintIndex[numberOfPlayers];
+        for(int i = 0; i < numberOfPlayers; i++) indexes[i] = new SprintIndex();
+
+        running = new boolean[numberOfPlayers];
+        runStartTimes = new int[numberOfPlayers];
+        lastTimes = new int[numberOfPlayers];
+        runDistances = new long[numberOfPlayers];
+        runPeakSpeeds = new int[numberOfPlayers];
+    }
+
+    /**
+     * Updates the run state of a player
+     *
+     * @param player        Slot of the player
+     * @param time          Current time in milliseconds
+     * @param speed         Fused speed of the player in millimetres per second
+     * @param travelled     Distance travelled since the previous update in millimetres
+     */
+    public void update(int player, int time, int speed, long travelled){
+        if(running[player] && time - lastTimes[player] > MAX_UPDATE_GAP){
+            endRun(player, lastTimes[player]);
+        }
+
+        if(running[player]){
+            runDistances[player] += travelled;
+            if(speed > runPeakSpeeds[player]) runPeakSpeeds[player] = speed;
+            if(speed < endSpeed) endRun(player, time);
+        }else if(speed >= startSpeed){
+            running[player] = true;
+            runStartTimes[player] = time;
+            runDistances[player] = 0;
+            runPeakSpeeds[player] = speed;
+        }
+
+        lastTimes[player] = time;
+    }
+
+    private void endRun(int player, int endTime){
+        running[player] = false;
+        if(endTime - runStartTimes[player] >= minimumDuration){
+            indexes[player].add(runStartTimes[player], endTime, (int) runDistances[player], runPeakSpeeds[player]);
+        }
+    }
+
+    /**
+     * Ends any runs still in progress. Should be called once the whole match has been analysed
+     */
+    public void finish(){
+        for(int player = 0; player < running.length; player++){
+            if(running[player]) endRun(player, lastTimes[player]);
+        }
+    }
+
+    /**
+     * @param playerID  ID of the player
+     * @return          Index of the player's runs, or null if the player is not tracked
+     */
+    public SprintIndex getSprintIndex(int playerID){
+        for(int i = 0; i < playerIDs.length; i++){
+            if(playerIDs[i] == playerID) return indexes[i];
+        }
+        return null;
+    }
+
+    /**
+     * @return  Start times of every run by every player in ascending order
+     */
+    public List<Integer> getAllStartTimes(){
+        List<Integer> startTimes = new ArrayList<>();
+        for(SprintIndex index : indexes){
+            for(int i = 0; i < index.size(); i++){
+                startTimes.add(index.getStartTime(i));
+            }
+        }
+        Collections.sort(startTimes);
+        return startTimes;
+    }
+
+    public int[] getPlayerIDs(){
+        return Arrays.copyOf(playerIDs, playerIDs.length);
+    }
+}
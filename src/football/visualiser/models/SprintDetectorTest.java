@@ -0,0 +1,74 @@
+package football.visualiser.models;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for segmenting a player's speed into runs
+ */
+public class SprintDetectorTest {
+
+    /**
+     * Tests that a run starts at the start speed and carries on while the speed dips between the end and start
+     * speeds, only ending once it falls below the end speed
+     */
+    @Test
+    public void runEndsBelowEndSpeed(){
+        SprintDetector detector = new SprintDetector(new int[] { 7 }, 7000, 6000, 1000);
+        int[] speeds = { 5000, 7200, 8000, 6500, 7100, 6100, 5900, 5000 };
+        for(int i = 0; i < speeds.length; i++){
+            detector.update(0, i * 500, speeds[i], speeds[i] / 2);
+        }
+
+        SprintIndex index = detector.getSprintIndex(7);
+        assertEquals(1, index.size());
+        assertEquals(500, index.getStartTime(0));
+        assertEquals(3000, index.getEndTime(0));
+        assertEquals(8000, index.getPeakSpeed(0));
+        // Distance of each update after the start up to and including the one which ends the run
+        assertEquals((8000 + 6500 + 7100 + 6100 + 5900) / 2, index.getDistance(0));
+    }
+
+    /**
+     * Tests that runs shorter than the minimum duration are not stored
+     */
+    @Test
+    public void shortRunDiscarded(){
+        SprintDetector detector = new SprintDetector(new int[] { 7 }, 7000, 6000, 1000);
+        detector.update(0, 0, 7500, 0);
+        detector.update(0, 400, 7500, 0);
+        detector.update(0, 800, 5000, 0);
+
+        assertEquals(0, detector.getSprintIndex(7).size());
+        assertTrue(detector.getAllStartTimes().isEmpty());
+    }
+
+    /**
+     * Tests that a run is ended at the last update before a long gap, such as half time, and that a run still in
+     * progress at the end of the match is ended by finish
+     */
+    @Test
+    public void runEndedByGapAndFinish(){
+        SprintDetector detector = new SprintDetector(new int[] { 7, 9 }, 7000, 6000, 1000);
+        detector.update(0, 0, 7500, 0);
+        detector.update(0, 1000, 7500, 0);
+        detector.update(0, 10000, 5000, 0);
+
+        for(int time = 20000; time <= 22000; time += 500){
+            detector.update(1, time, 7500, 0);
+        }
+        detector.finish();
+
+        assertEquals(1, detector.getSprintIndex(7).size());
+        assertEquals(1000, detector.getSprintIndex(7).getEndTime(0));
+        assertEquals(22000, detector.getSprintIndex(9).getEndTime(0));
+        assertEquals(2, detector.getAllStartTimes().size());
+        assertNull(detector.getSprintIndex(8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void endSpeedAboveStartSpeedRejected(){
+        new SprintDetector(new int[] { 7 }, 6000, 7000, 1000);
+    }
+}
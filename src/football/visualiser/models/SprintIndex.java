@@ -0,0 +1,98 @@
+package football.visualiser.models;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Sprint Index</h1>
+ * Stores the sprints of a single player in parallel primitive arrays sorted by start time. Sprints are
+ * appended in time order as the match is analysed, so no sorting is ever required and a sprint can be found
+ * from a time with a binary search.
+ *
+ * Times are in milliseconds, distances in millimetres, and speeds in millimetres per second
+ */
+public class SprintIndex {
+    private static final int INITIAL_CAPACITY = 32;
+
+    private int[] startTimes = new int[INITIAL_CAPACITY];
+    private int[] endTimes = new int[INITIAL_CAPACITY];
+    private int[] distances = new int[INITIAL_CAPACITY];
+    private int[] peakSpeeds = new int[INITIAL_CAPACITY];
+    private int size = 0;
+
+    /**
+     * Adds a sprint to the end of the index. The sprint must not start before the last sprint added
+     *
+     * @param startTime     Time the sprint started
+     * @param endTime       Time the sprint ended
+     * @param distance      Distance covered during the sprint
+     * @param peakSpeed     Highest speed reached during the sprint
+     */
+    public void add(int startTime, int endTime, int distance, int peakSpeed){
+        if(size > 0 && startTime < startTimes[size - 1]){
+            throw new IllegalArgumentException("Sprints must be added in time order");
+        }
+
+        if(size == startTimes.length){
+            int capacity = size * 2;
+            startTimes = Arrays.copyOf(startTimes, capacity);
+            endTimes = Arrays.copyOf(endTimes, capacity);
+            distances = Arrays.copyOf(distances, capacity);
+            peakSpeeds = Arrays.copyOf(peakSpeeds, capacity);
+        }
+
+        startTimes[size] = startTime;
+        endTimes[size] = endTime;
+        distances[size] = distance;
+        peakSpeeds[size] = peakSpeed;
+        size++;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public int getStartTime(int index){
+        return startTimes[index];
+    }
+
+    public int getEndTime(int index){
+        return endTimes[index];
+    }
+
+    public int getDistance(int index){
+        return distances[index];
+    }
+
+    public int getPeakSpeed(int index){
+        return peakSpeeds[index];
+    }
+
+    /**
+     * Finds the first sprint which starts at or after the time given
+     *
+     * @param time  Time in milliseconds
+     * @return      Index of the sprint, or {@link #size()} if no sprint starts at or after the time
+     */
+    public int firstStartingAtOrAfter(int time){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(startTimes[middle] < time) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * Finds the sprint in progress at the time given
+     *
+     * @param time  Time in milliseconds
+     * @return      Index of the sprint, or -1 if the player was not sprinting
+     */
+    public int sprintAt(int time){
+        int index = firstStartingAtOrAfter(time + 1) - 1;
+        if(index >= 0 && endTimes[index] >= time) return index;
+        return -1;
+    }
+}
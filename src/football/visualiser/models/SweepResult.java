@@ -0,0 +1,56 @@
+package football.visualiser.models;
+
+/**
+ * <h1>Sweep Result</h1>
+ * The events detected by one configuration of a {@link ParameterSweep} and how long the detection took
+ */
+public class SweepResult {
+    private DetectorConfiguration configuration;
+    private int tackles;
+    private int goals;
+    private int passes;
+    private int oneTwoPasses;
+    private long elapsedTime;
+
+    /**
+     * @param configuration     Configuration the detectors were run with
+     * @param tackles           Number of tackles detected
+     * @param goals             Number of goals detected
+     * @param passes            Number of passes detected
+     * @param oneTwoPasses      Number of 1-2-1 passes detected
+     * @param elapsedTime       How long, in milliseconds, the detectors took
+     */
+    public SweepResult(DetectorConfiguration configuration, int tackles, int goals, int passes, int oneTwoPasses,
+                       long elapsedTime){
+        this.configuration = configuration;
+        this.tackles = tackles;
+        this.goals = goals;
+        this.passes = passes;
+        this.oneTwoPasses = oneTwoPasses;
+        this.elapsedTime = elapsedTime;
+    }
+
+    public DetectorConfiguration getConfiguration(){
+        return configuration;
+    }
+
+    public int getTackles(){
+        return tackles;
+    }
+
+    public int getGoals(){
+        return goals;
+    }
+
+    public int getPasses(){
+        return passes;
+    }
+
+    public int getOneTwoPasses(){
+        return oneTwoPasses;
+    }
+
+    public long getElapsedTime(){
+        return elapsedTime;
+    }
+}
@@ -0,0 +1,80 @@
+package football.visualiser.models;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Zone Report</h1>
+ * Prints how long each player spent in each third of the pitch, and which players entered each penalty area,
+ * for a period of a saved match, using a {@link SpatioTemporalIndex} built without the match view:
+ * <pre>java football.visualiser.models.ZoneReport matchName [fromMinute toMinute]</pre>
+ *
+ * Minutes are counted from the start of the first half, with the second half following on from the first
+ */
+public class ZoneReport {
+
+    public static void main(String[] args) throws Exception {
+        if(args.length < 1){
+            System.out.println("Usage: ZoneReport matchName [fromMinute toMinute]");
+            return;
+        }
+
+        DataProperty matchProperty = new DataProperty(args[0]);
+        String path = matchProperty.getProperty("path");
+        String[] matchTimeStamps = matchProperty.getMatchTimeStamps();
+        int[] coordinates = matchProperty.getPitchCoordinates();
+        int[] IDs = matchProperty.getFootballIDs();
+
+        MatchData matchData = new MatchData(path, matchTimeStamps);
+        try{
+            long startTime = System.currentTimeMillis();
+            EntityAssignment assignment = new DataAnalyser(IDs).assignEntities(path, matchTimeStamps);
+            FrameStore frames = FrameStore.load(matchData, IDs, AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+            Pitch pitch = new Pitch(coordinates[PITCH_START_X], coordinates[PITCH_END_X],
+                    coordinates[PITCH_START_Y], coordinates[PITCH_END_Y]);
+            int[] halves = matchData.getStartEndTimeStamps();
+            PlaybackTrack track = PlaybackTrack.fromFrames(frames, assignment, IDs, pitch,
+                    AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+            SpatioTemporalIndex index = SpatioTemporalIndex.fromTrack(track, pitch,
+                    halves[FIRST_HALF_START_TIME], halves[SECOND_HALF_END_TIME]);
+            System.out.println(String.format("Built index in %d ms", System.currentTimeMillis() - startTime));
+
+            int from = halves[FIRST_HALF_START_TIME];
+            int to = halves[SECOND_HALF_END_TIME];
+            if(args.length > 2){
+                from = MatchData.toTimeStamp(halves, Integer.parseInt(args[1]) * 60000);
+                to = MatchData.toTimeStamp(halves, Integer.parseInt(args[2]) * 60000);
+            }
+
+            startTime = System.nanoTime();
+            PitchRegion[] thirds = { PitchRegion.third(pitch, 0), PitchRegion.third(pitch, 1),
+                    PitchRegion.third(pitch, 2) };
+            StringBuilder report = new StringBuilder(String.format("%-8s", "Player"));
+            for(PitchRegion third : thirds) report.append(String.format("%15s", third.getName()));
+            report.append(String.format("%n"));
+
+            List<Map<Integer, Integer>> times = new ArrayList<>();
+            for(PitchRegion third : thirds) times.add(index.getTimeInRegion(third, from, to));
+            for(Integer playerID : times.get(0).keySet()){
+                report.append(String.format("%-8d", playerID));
+                for(Map<Integer, Integer> time : times){
+                    report.append(String.format("%13.1f s", time.get(playerID) / 1000.0));
+                }
+                report.append(String.format("%n"));
+            }
+
+            for(boolean left : new boolean[]{ true, false }){
+                PitchRegion penaltyArea = PitchRegion.penaltyArea(pitch, left);
+                report.append(String.format("%s entered by %s%n", penaltyArea.getName(),
+                        index.getPlayersInRegion(penaltyArea, from, to)));
+            }
+            System.out.print(report);
+            System.out.println(String.format("Queries took %.2f ms", (System.nanoTime() - startTime) / 1000000.0));
+        }finally {
+            matchData.close();
+        }
+    }
+}
@@ -4,6 +4,7 @@ import football.visualiser.SystemData.Team;
 import football.visualiser.interfaces.IPlayerSensor;
 import football.visualiser.models.HeatMap;
 import football.visualiser.models.PerformanceTracker;
+import football.visualiser.models.SensorFusion;
 
 import java.util.HashMap;
 import java.util.ArrayList;
@@ -23,6 +24,7 @@ public class Player extends Entity {
     private ArrayList<Short> avgSpeed;
     private ArrayList<Short> avgDistance;
     private HeatMap heatMap;
+    private SensorFusion sensorFusion = new SensorFusion();
 
     private double possessionTime;
     private int x;
@@ -65,6 +67,38 @@ public class Player extends Entity {
 
     public void addSensor(IPlayerSensor<Player> playerSensor){
         sensors.put(playerSensor.getID(), playerSensor);
+        sensorFusion.addSensor(playerSensor.getID());
+    }
+
+    /**
+     * Passes the latest sample of one of the player's sensors to the sensor fusion. The player's position does
+     * not change until {@link #publishFusedPosition(int)} is called
+     *
+     * @param sensorID  ID of the sensor
+     * @param x         X position of the sensor
+     * @param y         Y position of the sensor
+     * @param time      Time of the sample in milliseconds
+     */
+    public void updateSensorPosition(int sensorID, int x, int y, int time){
+        sensorFusion.update(sensorID, x, y, time);
+    }
+
+    /**
+     * Fuses the player's sensors into the position returned by {@link #getX()} and {@link #getY()}. Should be
+     * called once per frame
+     *
+     * @param time  Current time in milliseconds
+     */
+    public void publishFusedPosition(int time){
+        sensorFusion.publish(time);
+    }
+
+    /**
+     * @param sensorID  ID of one of the player's sensors
+     * @return          False if the sensor was rejected as stale or an outlier when the position was last fused
+     */
+    public boolean isSensorAccepted(int sensorID){
+        return sensorFusion.isAccepted(sensorID);
     }
 
     public void addToFootballPossessionTime(int time){
@@ -94,12 +128,13 @@ public class Player extends Entity {
     }
 
     /**
-     * This method is overridden as we want to compute the average position of the player based on all the sensors
-     * attached to them for the purpose of the graphic displayed to the user
-     * @return  Average position of all sensor's X positions
+     * This method is overridden as we want the position of the player to be based on all the sensors attached to
+     * them. Once the sensors have been fused the fused position is returned, otherwise the average of the sensors
+     * @return  Fused X position of the player's sensors
      */
     @Override
     public int getX(){
+        if(sensorFusion.hasPosition()) return sensorFusion.getX();
 
         x = 0;
         for(IPlayerSensor<Player> playerSensor : sensors.values()){
@@ -112,12 +147,14 @@ public class Player extends Entity {
     }
 
     /**
-     * This method is overridden as we want to compute the average position of the player based on all the sensors
-     * attached to them for the purpose of the graphic displayed to the user
-     * @return  Average position of all sensor's Y positions
+     * This method is overridden as we want the position of the player to be based on all the sensors attached to
+     * them. Once the sensors have been fused the fused position is returned, otherwise the average of the sensors
+     * @return  Fused Y position of the player's sensors
      */
     @Override
     public int getY(){
+        if(sensorFusion.hasPosition()) return sensorFusion.getY();
+
         y = 0;
         for(IPlayerSensor<Player> playerSensor : sensors.values()){
             y += playerSensor.getY();
@@ -0,0 +1,208 @@
+package football.visualiser.view;
+
+import football.visualiser.models.SeriesDownsampler;
+import javafx.beans.InvalidationListener;
+import javafx.concurrent.Task;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.ScrollEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <h1>Chart Data Pipeline</h1>
+ * Sits between a full resolution data series and a JavaFX line chart. Rather than adding one
+ * {@link XYChart.Data} node per point, which freezes the user interface for long series such as per second
+ * speed over a whole match, the series is downsampled to the width of the chart in pixels before it is
+ * handed to JavaFX.
+ *
+ * Downsampling runs on a background thread and is repeated whenever the chart is resized or the user zooms
+ * in or out with the scroll wheel. If the user zooms several times in quick succession, only the result of the
+ * latest request is applied to the chart. Double clicking the chart resets the zoom
+ */
+public class ChartDataPipeline {
+    public enum Strategy { LTTB, MIN_MAX }
+
+    private static final ExecutorService downsampleExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "chart-downsampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final double ZOOM_FACTOR = 1.25;
+
+    private final LineChart<Number, Number> lineChart;
+    private final XYChart.Series<Number, Number> series;
+    private final NumberAxis xAxis;
+    private final double[] x;
+    private final double[] y;
+    private final Strategy strategy;
+
+    // Incremented for every request so that results of superseded requests are discarded
+    private final AtomicLong generation = new AtomicLong();
+
+    private double lowerBound;
+    private double upperBound;
+    private boolean zoomed = false;
+
+    /**
+     * @param lineChart     Chart to display the series on
+     * @param series        Series which has been added to the chart; its data is replaced on each resample
+     * @param x             Full resolution x values, sorted in ascending order
+     * @param y             Full resolution y values
+     * @param strategy      Which downsampling algorithm to use
+     */
+    public ChartDataPipeline(LineChart<Number, Number> lineChart, XYChart.Series<Number, Number> series,
+                             double[] x, double[] y, Strategy strategy){
+        this.lineChart = lineChart;
+        this.series = series;
+        this.xAxis = (NumberAxis) lineChart.getXAxis();
+        this.x = x;
+        this.y = y;
+        this.strategy = strategy;
+
+        resetBounds();
+
+        // One node per point is far too heavy once thousands of points are shown
+        lineChart.setCreateSymbols(false);
+        lineChart.setAnimated(false);
+
+        InvalidationListener resizeListener = observable -> requestResample();
+        lineChart.widthProperty().addListener(resizeListener);
+
+        lineChart.addEventHandler(ScrollEvent.SCROLL, this::handleScroll);
+        lineChart.setOnMouseClicked(event -> {
+            if(event.getButton() == MouseButton.PRIMARY && event.getClickCount() == 2){
+                resetZoom();
+            }
+        });
+
+        requestResample();
+    }
+
+    /**
+     * Zooms the x axis in or out around the position of the mouse
+     *
+     * @param event     The scroll event fired
+     */
+    private void handleScroll(ScrollEvent event){
+        if(x.length < 2 || event.getDeltaY() == 0) return;
+
+        double mouseX = xAxis.sceneToLocal(event.getSceneX(), event.getSceneY()).getX();
+        double centre = xAxis.getValueForDisplay(mouseX).doubleValue();
+        double scale = event.getDeltaY() > 0 ? 1 / ZOOM_FACTOR : ZOOM_FACTOR;
+
+        double newLower = Math.max(x[0], centre - (centre - lowerBound) * scale);
+        double newUpper = Math.min(x[x.length - 1], centre + (upperBound - centre) * scale);
+        if(newUpper - newLower <= 0) return;
+
+        setXRange(newLower, newUpper);
+        event.consume();
+    }
+
+    /**
+     * Displays only the part of the series between the lower and upper x values
+     *
+     * @param lower     Smallest x value to display
+     * @param upper     Largest x value to display
+     */
+    public void setXRange(double lower, double upper){
+        lowerBound = lower;
+        upperBound = upper;
+        zoomed = true;
+
+        xAxis.setAutoRanging(false);
+        xAxis.setLowerBound(lower);
+        xAxis.setUpperBound(upper);
+        xAxis.setTickUnit(Math.max((upper - lower) / 10, Double.MIN_VALUE));
+
+        requestResample();
+    }
+
+    /**
+     * Shows the whole series again
+     */
+    public void resetZoom(){
+        if(!zoomed) return;
+        zoomed = false;
+        resetBounds();
+        xAxis.setAutoRanging(true);
+        requestResample();
+    }
+
+    private void resetBounds(){
+        lowerBound = x.length > 0 ? x[0] : 0;
+        upperBound = x.length > 0 ? x[x.length - 1] : 0;
+    }
+
+    /**
+     * Starts downsampling the currently visible part of the series on a background thread. Once complete,
+     * the chart's data is replaced on the FX thread unless a newer request has been made in the meantime
+     */
+    public void requestResample(){
+        final long requestGeneration = generation.incrementAndGet();
+        final int pixelWidth = Math.max(3, (int) Math.ceil(lineChart.getWidth()));
+        final double lower = lowerBound;
+        final double upper = upperBound;
+
+        Task<List<XYChart.Data<Number, Number>>> downsampleTask = new Task<List<XYChart.Data<Number, Number>>>() {
+            @Override
+            protected List<XYChart.Data<Number, Number>> call() throws Exception {
+                if(requestGeneration != generation.get()) return null;
+                return downsample(lower, upper, pixelWidth);
+            }
+        };
+
+        downsampleTask.setOnSucceeded(e -> {
+            List<XYChart.Data<Number, Number>> points = downsampleTask.getValue();
+            if(points != null && requestGeneration == generation.get()){
+                series.getData().setAll(points);
+            }
+        });
+
+        downsampleTask.setOnFailed(e -> downsampleTask.getException().printStackTrace());
+
+        downsampleExecutor.execute(downsampleTask);
+    }
+
+    /**
+     * Downsamples the points which fall within the lower and upper bounds. One point either side of the
+     * range is included so that the line continues to the edges of the chart
+     *
+     * @param lower         Smallest x value in view
+     * @param upper         Largest x value in view
+     * @param pixelWidth    Width of the chart in pixels
+     * @return              Points to display
+     */
+    private List<XYChart.Data<Number, Number>> downsample(double lower, double upper, int pixelWidth){
+        int from = Math.max(0, SeriesDownsampler.lowerBound(x, x.length, lower) - 1);
+        int to = Math.min(x.length, SeriesDownsampler.lowerBound(x, x.length, upper) + 1);
+
+        int capacity = strategy == Strategy.MIN_MAX ? pixelWidth * 2 : pixelWidth;
+        double[] outX = new double[Math.min(capacity, Math.max(to - from, 0))];
+        double[] outY = new double[outX.length];
+
+        int count;
+        if(strategy == Strategy.MIN_MAX){
+            count = SeriesDownsampler.minMax(x, y, from, to, pixelWidth, outX, outY);
+        }else{
+            count = SeriesDownsampler.largestTriangleThreeBuckets(x, y, from, to, pixelWidth, outX, outY);
+        }
+
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>(count);
+        for(int i = 0; i < count; i++){
+            points.add(new XYChart.Data<>(outX[i], outY[i]));
+        }
+        return points;
+    }
+
+    public boolean isZoomed(){
+        return zoomed;
+    }
+}
@@ -0,0 +1,306 @@
+package football.visualiser.view;
+
+import football.visualiser.SystemData.Team;
+import football.visualiser.interfaces.IViewable;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.beans.binding.Bindings;
+import javafx.beans.binding.BooleanBinding;
+import javafx.scene.control.Button;
+import javafx.scene.control.ButtonType;
+import javafx.scene.control.ComboBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
+import javafx.scene.control.Slider;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.TilePane;
+import javafx.scene.layout.VBox;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.stage.Screen;
+import javafx.stage.Stage;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * <h1>Comparison View</h1>
+ * Shows several matches side by side in one window, each on its own pitch, with a single set of playback controls
+ * and seek bar which move every match together.
+ *
+ * Every pitch is drawn in the same pulse of one animation timer, rather than each pitch canvas running its own
+ * timer, so the matches never drift a frame apart on screen. Each match has its own buttons to move it forwards or
+ * backwards against the others, so that an event can be lined up by eye, or the time of an event in each match can
+ * be typed in to line the matches up on it
+ */
+public class ComparisonView implements IViewable {
+    public static final String ALIGN_BY_MINUTE = "Align by minute";
+    public static final String ALIGN_BY_SECOND_HALF = "Align by second half";
+    public static final String ALIGN_BY_EVENT = "Align on event...";
+    // Time of an event in a match, in the format MM:SS where the minutes may go past 59
+    private static final String MATCH_TIME_PATTERN = "\\d{1,3}:[0-5]\\d";
+    private static final Color BACKGROUND_COLOR = Color.rgb(32, 33, 42);
+    private static final Color TEXT_COLOR = Color.rgb(202, 203, 212);
+    private static final Font TEXT_FONT = Font.font("Avenir", 14);
+    private static final double SCREEN_FRACTION = 0.45;
+
+    private final Stage stage;
+    private Scene scene;
+    private TilePane pitches;
+    private Slider slider;
+    private Button playButton;
+    private Button stepBackButton;
+    private Button stepForwardButton;
+    private Button slowerButton;
+    private Button fasterButton;
+    private Text speedText;
+    private Text timeText;
+    private ComboBox<String> alignmentBox;
+
+    private final ArrayList<PitchCanvas> pitchCanvases = new ArrayList<>();
+    private final ArrayList<String> matchNames = new ArrayList<>();
+    private final ArrayList<Text> matchTimeTexts = new ArrayList<>();
+    private final ArrayList<Button> nudgeBackButtons = new ArrayList<>();
+    private final ArrayList<Button> nudgeForwardButtons = new ArrayList<>();
+    private Runnable pulseListener;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            for(PitchCanvas pitchCanvas : pitchCanvases){
+                pitchCanvas.render(now);
+            }
+            if(pulseListener != null) pulseListener.run();
+        }
+    };
+
+    public ComparisonView(Stage stage){
+        this.stage = stage;
+        initialiseView();
+    }
+
+    /**
+     * Creates the playback controls. Pitches are added later, one for each match
+     */
+    @Override
+    public void initialiseView(){
+        BorderPane root = new BorderPane();
+        root.setStyle("-fx-background-color: rgb(32, 33, 42);");
+
+        pitches = new TilePane(10, 10);
+        pitches.setPadding(new Insets(10));
+        pitches.setAlignment(Pos.CENTER);
+        pitches.setPrefColumns(2);
+        root.setCenter(pitches);
+
+        playButton = new Button("Play");
+        stepBackButton = new Button("<");
+        stepForwardButton = new Button(">");
+        slowerButton = new Button("-");
+        fasterButton = new Button("+");
+        speedText = createText("1x");
+        timeText = createText("00:00");
+        alignmentBox = new ComboBox<>();
+        alignmentBox.getItems().addAll(ALIGN_BY_MINUTE, ALIGN_BY_SECOND_HALF, ALIGN_BY_EVENT);
+        alignmentBox.setValue(ALIGN_BY_MINUTE);
+
+        slider = new Slider(0, 1, 0);
+        HBox.setHgrow(slider, Priority.ALWAYS);
+
+        HBox controls = new HBox(8, playButton, stepBackButton, stepForwardButton, slider, timeText,
+                slowerButton, speedText, fasterButton, alignmentBox);
+        controls.setAlignment(Pos.CENTER_LEFT);
+        controls.setPadding(new Insets(8, 10, 8, 10));
+        root.setBottom(controls);
+
+        scene = new Scene(root);
+        scene.setFill(BACKGROUND_COLOR);
+    }
+
+    private Text createText(String text){
+        Text created = new Text(text);
+        created.setFont(TEXT_FONT);
+        created.setFill(TEXT_COLOR);
+        return created;
+    }
+
+    /**
+     * Adds a pitch for a match. Pitches are laid out two to a row and sized so that four fit on the screen
+     *
+     * @param name          Name of the match shown above its pitch
+     * @param x             X coordinate where the pitch starts in the match data
+     * @param y             Y coordinate where the pitch starts in the match data
+     * @param width         Width of the pitch in the match data
+     * @param height        Height of the pitch in the match data
+     * @return              Index of the match, which the other methods take
+     */
+    public int addMatch(String name, int x, int y, int width, int height){
+        double pitchWidth = Screen.getPrimary().getVisualBounds().getWidth() * SCREEN_FRACTION;
+        double pitchHeight = pitchWidth * height / Math.max(1, width);
+
+        PitchGraphic pitchGraphic = new PitchGraphic();
+        pitchGraphic.setPitchBounds(x, y, width, height);
+        pitchGraphic.setPrefSize(pitchWidth, pitchHeight);
+        PitchCanvas pitchCanvas = new PitchCanvas();
+        pitchCanvas.setPitchBounds(x, y, width, height);
+        pitchCanvas.setTrailGraphic(pitchGraphic);
+        pitchCanvas.setWidth(pitchWidth);
+        pitchCanvas.setHeight(pitchHeight);
+        Pane pitchWrapper = new Pane(pitchGraphic, pitchCanvas);
+
+        Label nameLabel = new Label(name);
+        nameLabel.setFont(TEXT_FONT);
+        nameLabel.setTextFill(TEXT_COLOR);
+        Text matchTimeText = createText("00:00");
+        Button nudgeBackButton = new Button("-1s");
+        Button nudgeForwardButton = new Button("+1s");
+        Pane spacer = new Pane();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        HBox header = new HBox(8, nameLabel, spacer, matchTimeText, nudgeBackButton, nudgeForwardButton);
+        header.setAlignment(Pos.CENTER_LEFT);
+
+        pitches.getChildren().add(new VBox(4, header, pitchWrapper));
+        pitchCanvases.add(pitchCanvas);
+        matchNames.add(name);
+        matchTimeTexts.add(matchTimeText);
+        nudgeBackButtons.add(nudgeBackButton);
+        nudgeForwardButtons.add(nudgeForwardButton);
+        return pitchCanvases.size() - 1;
+    }
+
+    public void addPlayer(int match, int ID, Team team, boolean isGoalKeeper){
+        pitchCanvases.get(match).addPlayer(ID, team, isGoalKeeper);
+    }
+
+    public void addFootball(int match, int ID){
+        pitchCanvases.get(match).addFootball(ID);
+    }
+
+    /**
+     * @param match     Index of the match
+     * @return          Canvas the match is drawn on, to which positions can be sent from any thread
+     */
+    public PitchCanvas getPitchCanvas(int match){
+        return pitchCanvases.get(match);
+    }
+
+    /**
+     * Starts drawing every pitch on each pulse, after which the listener is called on the same pulse
+     *
+     * @param pulseListener     Called on the JavaFX thread once per pulse
+     */
+    public void start(Runnable pulseListener){
+        this.pulseListener = pulseListener;
+        timer.start();
+    }
+
+    public void stop(){
+        timer.stop();
+    }
+
+    public void setPlayButtonText(boolean isPlaying){
+        playButton.setText(isPlaying ? "Pause" : "Play");
+    }
+
+    public void setSpeedText(double speed){
+        speedText.setText((speed == Math.floor(speed) ? String.valueOf((int) speed) : String.valueOf(speed)) + "x");
+    }
+
+    public void setTimeText(String text){
+        timeText.setText(text);
+    }
+
+    /**
+     * @param match     Index of the match
+     * @param text      Time in the match, and how far it is ahead of or behind the first match
+     */
+    public void setMatchTimeText(int match, String text){
+        matchTimeTexts.get(match).setText(text);
+    }
+
+    /**
+     * Asks for the time of an event, such as a goal, in each match. OK can only be pressed once every time is in the
+     * format MM:SS
+     *
+     * @param initialTimes  Time first shown for each match, in the format MM:SS
+     * @return              Time of the event in each match in milliseconds, or nothing if cancelled
+     */
+    public Optional<double[]> showEventTimeDialog(String[] initialTimes){
+        GridPane fields = new GridPane();
+        fields.setHgap(10);
+        fields.setVgap(8);
+        TextField[] timeFields = new TextField[pitchCanvases.size()];
+        BooleanBinding invalid = null;
+        for(int match = 0; match < timeFields.length; match++){
+            timeFields[match] = new TextField(initialTimes[match]);
+            timeFields[match].setPrefColumnCount(6);
+            fields.addRow(match, new Label(matchNames.get(match)), timeFields[match]);
+            TextField timeField = timeFields[match];
+            BooleanBinding fieldInvalid = Bindings.createBooleanBinding(
+                    () -> !timeField.getText().trim().matches(MATCH_TIME_PATTERN), timeField.textProperty());
+            invalid = invalid == null ? fieldInvalid : invalid.or(fieldInvalid);
+        }
+
+        Dialog<double[]> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.setTitle("Align on Event");
+        dialog.setHeaderText("Enter the time of the event in each match as MM:SS");
+        dialog.getDialogPane().setContent(fields);
+        dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
+        dialog.getDialogPane().getStylesheets().add(
+                StartView.class.getResource("DialogStyle.css").toExternalForm());
+        dialog.getDialogPane().lookupButton(ButtonType.OK).disableProperty().bind(invalid);
+        dialog.setResultConverter(buttonType -> {
+            if(buttonType != ButtonType.OK) return null;
+            double[] eventTimes = new double[timeFields.length];
+            for(int match = 0; match < timeFields.length; match++){
+                String[] minutesSeconds = timeFields[match].getText().trim().split(":");
+                eventTimes[match] = (Integer.parseInt(minutesSeconds[0]) * 60
+                        + Integer.parseInt(minutesSeconds[1])) * 1000.0;
+            }
+            return eventTimes;
+        });
+        return dialog.showAndWait();
+    }
+
+    public Slider getSeekSlider(){
+        return slider;
+    }
+
+    public Button getPlayButton(){
+        return playButton;
+    }
+
+    public Button getStepButton(boolean forwards){
+        return forwards ? stepForwardButton : stepBackButton;
+    }
+
+    public Button getSpeedButton(boolean faster){
+        return faster ? fasterButton : slowerButton;
+    }
+
+    public Button getNudgeButton(int match, boolean forwards){
+        return forwards ? nudgeForwardButtons.get(match) : nudgeBackButtons.get(match);
+    }
+
+    public ComboBox<String> getAlignmentBox(){
+        return alignmentBox;
+    }
+
+    public Stage getStage(){
+        return stage;
+    }
+
+    @Override
+    public Scene getScene(){
+        return scene;
+    }
+}
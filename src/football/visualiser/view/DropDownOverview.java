@@ -148,6 +148,44 @@ public class DropDownOverview extends AnchorPane {
         container.getChildren().add(gridPane);
     }
 
+    /**
+     * Shows how long the ball was in play in each half
+     *
+     * @param firstHalf     Effective playing time of the first half in milliseconds
+     * @param secondHalf    Effective playing time of the second half in milliseconds
+     */
+    public void setEffectivePlayingTime(int firstHalf, int secondHalf){
+        Text effectiveTime = new Text(String.format("Effective playing time: 1st half %s, 2nd half %s",
+                formatTime(firstHalf), formatTime(secondHalf)));
+        effectiveTime.setFill(Color.WHITE);
+
+        getChildren().add(effectiveTime);
+        setBottomAnchor(effectiveTime, 10.);
+        setLeftAnchor(effectiveTime, 20.);
+    }
+
+    /**
+     * Shows how confident the assignment of sensors to players and teams is, with a warning when it is low
+     *
+     * @param confidence    Confidence between 0.0 and 1.0
+     * @param low           True if the assignment is likely to be wrong
+     */
+    public void setAssignmentConfidence(double confidence, boolean low){
+        String message = String.format("Player assignment confidence: %.0f%%", confidence * 100);
+        if(low) message += " - players or teams may be wrong";
+        Text assignmentConfidence = new Text(message);
+        assignmentConfidence.setFill(low ? Color.ORANGE : Color.WHITE);
+
+        getChildren().add(assignmentConfidence);
+        setBottomAnchor(assignmentConfidence, 10.);
+        setRightAnchor(assignmentConfidence, 20.);
+    }
+
+    private String formatTime(int milliseconds){
+        int seconds = milliseconds / 1000;
+        return String.format("%02d:%02d", seconds / 60, seconds % 60);
+    }
+
     public void setIndividualGoals(Map<Integer, Integer> individualRedGoals, Map<Integer, Integer> individualBlueGoals){
         // update the visible text
         sortedBlueGoals = sortIndividualGoals(individualBlueGoals);
@@ -0,0 +1,405 @@
+package football.visualiser.view;
+
+import football.visualiser.SystemData.Team;
+import football.visualiser.models.*;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static football.visualiser.SystemData.*;
+
+/**
+ * <h1>Frame Exporter</h1>
+ * Draws the pitch, the players and the football for a period of a saved match into images off screen and writes
+ * them as a numbered sequence of PNG files, which can be made into a video at any frame rate. Nothing is shown on
+ * screen, so it runs without a display and much faster than the match could be recorded from the window:
+ * <pre>java football.visualiser.view.FrameExporter matchName fromMinute toMinute outputDirectory
+ *     [width] [framesPerSecond] [trailSeconds] [heat] [threads]</pre>
+ *
+ * Positions come from a {@link PlaybackTrack}, which finds the frame for any time with a binary search, so every
+ * image can be drawn without the images before it. The images are shared between threads in blocks, each thread
+ * drawing into its own buffer, and the throughput per core is reported once they are all written. Trails are
+ * read back from the track for each image, and the heat overlay is drawn once for the whole period
+ *
+ * Minutes are counted from the start of the first half, with the second half following on from the first
+ */
+public class FrameExporter {
+    private static final int BLOCK_SIZE = 16;
+    private static final Color GRASS_COLOR = new Color(0, 170, 50);
+    private static final Color LINE_COLOR = Color.WHITE;
+    private static final Color RED_TEAM_COLOR = new Color(128, 0, 0);
+    private static final Color BLUE_TEAM_COLOR = Color.BLUE;
+    private static final Color FOOTBALL_COLOR = Color.WHITE;
+    private static final Color OUTLINE_COLOR = Color.BLACK;
+    private static final float HEAT_OPACITY = 0.5f;
+    private static final int TRAIL_BANDS = 4;
+    // Compression quality of the PNG files. Lower compression writes much faster for slightly larger files
+    private static final float PNG_QUALITY = 0.75f;
+
+    private final PlaybackTrack playbackTrack;
+    private final Color[] playerColors;
+    private final int pitchX;
+    private final int pitchY;
+    private final int pitchWidth;
+    private final int pitchHeight;
+    private final int width;
+    private final int height;
+    private final double entityRadius;
+    private int trailLength = 0;
+    private BufferedImage heatOverlay;
+    // The grass, heat overlay and pitch lines, which are the same in every image
+    private int[] background;
+
+    /**
+     * @param playbackTrack     Positions of the players and the football throughout the match
+     * @param teams             Team of each player, keyed by player ID
+     * @param pitch             Pitch the match is played on
+     * @param width             Width of the images in pixels
+     */
+    public FrameExporter(PlaybackTrack playbackTrack, Map<Integer, Team> teams, Pitch pitch, int width){
+        if(width <= 0) throw new IllegalArgumentException("Width must be positive");
+        this.playbackTrack = playbackTrack;
+        this.pitchX = pitch.getX1();
+        this.pitchY = pitch.getY1();
+        this.pitchWidth = Math.max(1, pitch.getWidth());
+        this.pitchHeight = Math.max(1, pitch.getHeight());
+        this.width = width;
+        this.height = Math.max(1, (int) ((long) width * pitchHeight / pitchWidth));
+        this.entityRadius = Math.max(2, width / 120.0);
+
+        playerColors = new Color[playbackTrack.getNumberOfPlayers()];
+        for(int player = 0; player < playerColors.length; player++){
+            playerColors[player] = teams.get(playbackTrack.getPlayerID(player)) == Team.RED ?
+                    RED_TEAM_COLOR : BLUE_TEAM_COLOR;
+        }
+        drawBackground();
+    }
+
+    /**
+     * @param trailLength   How many milliseconds of movement to draw behind each player and the football, or 0 for
+     *                      no trails
+     */
+    public void setTrailLength(int trailLength){
+        this.trailLength = Math.max(0, trailLength);
+    }
+
+    /**
+     * Draws a heat map of where every player spent their time under the players in each image
+     *
+     * @param heatMap   Heat map to draw, or null for none
+     */
+    public void setHeatOverlay(HeatMap heatMap){
+        heatOverlay = null;
+        if(heatMap != null){
+            HeatMapRenderer renderer = new HeatMapRenderer(width, 1.0, true);
+            int[][] cells = heatMap.getHeatMap();
+            int[] pixels = renderer.draw(cells);
+            // Where no one went the grass is left showing
+            for(int i = 0; i < pixels.length; i++){
+                if(pixels[i] == renderer.getColor(0)) pixels[i] = 0;
+            }
+            int heatHeight = renderer.getHeight(cells);
+            heatOverlay = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            for(int y = 0; y < height; y++){
+                int heatY = Math.min(heatHeight - 1, (int) ((long) y * heatHeight / height));
+                heatOverlay.setRGB(0, y, width, 1, pixels, heatY * width, width);
+            }
+        }
+        drawBackground();
+    }
+
+    private void drawBackground(){
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        try{
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(GRASS_COLOR);
+            graphics.fillRect(0, 0, width, height);
+            if(heatOverlay != null){
+                graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, HEAT_OPACITY));
+                graphics.drawImage(heatOverlay, 0, 0, null);
+                graphics.setComposite(AlphaComposite.SrcOver);
+            }
+            drawLines(graphics);
+        }finally {
+            graphics.dispose();
+        }
+        background = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+    }
+
+    public int getWidth(){
+        return width;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    /**
+     * Draws the match at a time into an image
+     *
+     * @param image         Image to draw into, of the width and height of the exporter, in
+     *                      {@link BufferedImage#TYPE_INT_RGB}
+     * @param timeStamp     Time in the match in milliseconds
+     */
+    void draw(BufferedImage image, int timeStamp){
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        System.arraycopy(background, 0, pixels, 0, background.length);
+        if(playbackTrack.size() == 0) return;
+
+        Graphics2D graphics = image.createGraphics();
+        try{
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            int frame = playbackTrack.getFrameAt(timeStamp);
+            if(trailLength > 0) drawTrails(graphics, frame);
+
+            graphics.setStroke(new BasicStroke(1));
+            for(int player = 0; player < playerColors.length; player++){
+                drawEntity(graphics, playbackTrack.getPlayerX(frame, player), playbackTrack.getPlayerY(frame, player),
+                        entityRadius, playerColors[player]);
+            }
+            drawEntity(graphics, playbackTrack.getFootballX(frame), playbackTrack.getFootballY(frame),
+                    entityRadius * 0.6, FOOTBALL_COLOR);
+        }finally {
+            graphics.dispose();
+        }
+    }
+
+    private void drawLines(Graphics2D graphics){
+        float lineWidth = Math.max(1, width / 400f);
+        int inset = (int) Math.ceil(lineWidth / 2);
+        graphics.setColor(LINE_COLOR);
+        graphics.setStroke(new BasicStroke(lineWidth));
+        graphics.drawRect(inset, inset, width - 1 - inset * 2, height - 1 - inset * 2);
+        graphics.drawLine(width / 2, 0, width / 2, height);
+        int circle = height / 5;
+        graphics.drawOval(width / 2 - circle, height / 2 - circle, circle * 2, circle * 2);
+    }
+
+    /**
+     * Draws the path of every player and the football over the trail length before the frame, fading with age.
+     * Each band of the trail is drawn as one path in its own opacity
+     */
+    private void drawTrails(Graphics2D graphics, int frame){
+        int firstFrame = playbackTrack.getFrameAt(playbackTrack.getTime(frame) - trailLength);
+        if(frame - firstFrame < 1) return;
+        graphics.setStroke(new BasicStroke((float) Math.max(1, entityRadius / 3), BasicStroke.CAP_ROUND,
+                BasicStroke.JOIN_ROUND));
+        for(int entity = 0; entity <= playerColors.length; entity++){
+            boolean football = entity == playerColors.length;
+            graphics.setColor(football ? FOOTBALL_COLOR : playerColors[entity]);
+            for(int band = 0; band < TRAIL_BANDS; band++){
+                int bandStart = firstFrame + (frame - firstFrame) * band / TRAIL_BANDS;
+                int bandEnd = firstFrame + (frame - firstFrame) * (band + 1) / TRAIL_BANDS;
+                if(bandEnd <= bandStart) continue;
+
+                Path2D.Double path = new Path2D.Double();
+                for(int f = bandStart; f <= bandEnd; f++){
+                    double x = toImageX(football ? playbackTrack.getFootballX(f) : playbackTrack.getPlayerX(f, entity));
+                    double y = toImageY(football ? playbackTrack.getFootballY(f) : playbackTrack.getPlayerY(f, entity));
+                    if(f == bandStart) path.moveTo(x, y);
+                    else path.lineTo(x, y);
+                }
+                graphics.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER,
+                        (band + 1) / (float) (TRAIL_BANDS + 1)));
+                graphics.draw(path);
+            }
+        }
+        graphics.setComposite(AlphaComposite.SrcOver);
+    }
+
+    private void drawEntity(Graphics2D graphics, int x, int y, double radius, Color color){
+        Ellipse2D.Double circle = new Ellipse2D.Double(toImageX(x) - radius, toImageY(y) - radius,
+                radius * 2, radius * 2);
+        graphics.setColor(color);
+        graphics.fill(circle);
+        graphics.setColor(OUTLINE_COLOR);
+        graphics.draw(circle);
+    }
+
+    private double toImageX(int x){
+        return (double) (x - pitchX) * width / pitchWidth;
+    }
+
+    private double toImageY(int y){
+        return (double) (y - pitchY) * height / pitchHeight;
+    }
+
+    /**
+     * Draws an image for every time and writes them to a directory as frame000000.png, frame000001.png and so on.
+     * Times are shared between the threads in blocks, and each thread draws into its own image
+     *
+     * @param timeStamps    Time in the match of each image in milliseconds
+     * @param directory     Directory to write the images to, which is created if it does not exist
+     * @param threads       Number of threads to draw and write images on
+     * @return              Description of how long the export took and its throughput
+     * @throws IOException  If the directory cannot be created or an image cannot be written
+     * @throws InterruptedException If the thread is interrupted while waiting for the images
+     */
+    public String export(int[] timeStamps, File directory, int threads) throws IOException, InterruptedException {
+        if(!directory.isDirectory() && !directory.mkdirs()){
+            throw new IOException("Could not create " + directory);
+        }
+        threads = Math.max(1, Math.min(threads, (timeStamps.length + BLOCK_SIZE - 1) / BLOCK_SIZE));
+        AtomicLong drawNanos = new AtomicLong();
+        AtomicLong writeNanos = new AtomicLong();
+        ThreadLocal<BufferedImage> images = ThreadLocal.withInitial(
+                () -> new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+        ThreadLocal<ImageWriter> writers = ThreadLocal.withInitial(
+                () -> ImageIO.getImageWritersByFormatName("png").next());
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for(int blockStart = 0; blockStart < timeStamps.length; blockStart += BLOCK_SIZE){
+            int start = blockStart;
+            int end = Math.min(timeStamps.length, blockStart + BLOCK_SIZE);
+            tasks.add(() -> {
+                BufferedImage image = images.get();
+                ImageWriter writer = writers.get();
+                for(int i = start; i < end; i++){
+                    long drawStart = System.nanoTime();
+                    draw(image, timeStamps[i]);
+                    long writeStart = System.nanoTime();
+                    write(writer, image, new File(directory, String.format("frame%06d.png", i)));
+                    drawNanos.addAndGet(writeStart - drawStart);
+                    writeNanos.addAndGet(System.nanoTime() - writeStart);
+                }
+                return null;
+            });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "frame-exporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startTime = System.nanoTime();
+        try{
+            for(Future<Void> result : executor.invokeAll(tasks)){
+                result.get();
+            }
+        }catch (ExecutionException e){
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        }finally {
+            executor.shutdownNow();
+        }
+        double seconds = Math.max(1e-9, (System.nanoTime() - startTime) / 1e9);
+
+        double framesPerSecond = timeStamps.length / seconds;
+        int frames = Math.max(1, timeStamps.length);
+        return String.format("Exported %d frames of %dx%d in %.2f s on %d threads: %.1f frames/s, "
+                        + "%.1f frames/s per core (%.2f ms drawing and %.2f ms writing per frame)",
+                timeStamps.length, width, height, seconds, threads, framesPerSecond, framesPerSecond / threads,
+                drawNanos.get() / 1e6 / frames, writeNanos.get() / 1e6 / frames);
+    }
+
+    private static void write(ImageWriter writer, BufferedImage image, File file) throws IOException {
+        ImageWriteParam parameters = writer.getDefaultWriteParam();
+        if(parameters.canWriteCompressed()){
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(PNG_QUALITY);
+        }
+        if(file.exists() && !file.delete()) throw new IOException("Could not replace " + file);
+        try(ImageOutputStream output = ImageIO.createImageOutputStream(file)){
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        }finally {
+            writer.reset();
+        }
+    }
+
+    /**
+     * Builds a heat map of every player over a period of the track
+     *
+     * @param pitch     Pitch the match is played on
+     * @param from      Start of the period in milliseconds
+     * @param to        End of the period in milliseconds
+     * @return          The heat map
+     */
+    private HeatMap buildHeatMap(Pitch pitch, int from, int to){
+        HeatMap heatMap = new HeatMap(pitch);
+        for(int frame = playbackTrack.getFrameAt(from); frame < playbackTrack.size(); frame++){
+            int time = playbackTrack.getTime(frame);
+            if(time > to) break;
+            if(time < from) continue;
+            for(int player = 0; player < playerColors.length; player++){
+                heatMap.incrementHeatMap(playbackTrack.getPlayerX(frame, player),
+                        playbackTrack.getPlayerY(frame, player), false, time);
+            }
+        }
+        return heatMap;
+    }
+
+    /**
+     * Loads a saved match into memory, builds its playback track and exports a period of it
+     *
+     * @param args  Name of the saved match, the period in minutes, the output directory, and optionally the width
+     *              of the images, frames per second, trail length in seconds, "heat" to draw a heat overlay, and
+     *              the number of threads
+     */
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        if(args.length < 4){
+            System.out.println("Usage: FrameExporter matchName fromMinute toMinute outputDirectory "
+                    + "[width] [framesPerSecond] [trailSeconds] [heat] [threads]");
+            return;
+        }
+        int width = args.length > 4 ? Integer.parseInt(args[4]) : 1280;
+        int framesPerSecond = args.length > 5 ? Integer.parseInt(args[5]) : 25;
+        int trailSeconds = args.length > 6 ? Integer.parseInt(args[6]) : 0;
+        boolean heat = args.length > 7 && args[7].equals("heat");
+        int threads = args.length > 8 ? Integer.parseInt(args[8]) : Runtime.getRuntime().availableProcessors();
+
+        DataProperty matchProperty = new DataProperty(args[0]);
+        String path = matchProperty.getProperty("path");
+        String[] matchTimeStamps = matchProperty.getMatchTimeStamps();
+        int[] coordinates = matchProperty.getPitchCoordinates();
+        int[] IDs = matchProperty.getFootballIDs();
+
+        MatchData matchData = new MatchData(path, matchTimeStamps);
+        try{
+            long startTime = System.currentTimeMillis();
+            EntityAssignment assignment = new DataAnalyser(IDs).assignEntities(path, matchTimeStamps);
+            FrameStore frames = FrameStore.load(matchData, IDs, AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+            Pitch pitch = new Pitch(coordinates[PITCH_START_X], coordinates[PITCH_END_X],
+                    coordinates[PITCH_START_Y], coordinates[PITCH_END_Y]);
+            PlaybackTrack track = PlaybackTrack.fromFrames(frames, assignment, IDs, pitch,
+                    AnalysisSampler.DEFAULT_SAMPLE_INTERVAL);
+            System.out.println(String.format("Built playback track of %d frames in %d ms", track.size(),
+                    System.currentTimeMillis() - startTime));
+
+            int[] halves = matchData.getStartEndTimeStamps();
+            int fromTime = Integer.parseInt(args[1]) * 60000;
+            int toTime = Integer.parseInt(args[2]) * 60000;
+            int[] timeStamps = new int[Math.max(0, (int) ((long) (toTime - fromTime) * framesPerSecond / 1000))];
+            for(int i = 0; i < timeStamps.length; i++){
+                timeStamps[i] = MatchData.toTimeStamp(halves, fromTime + (int) ((long) i * 1000 / framesPerSecond));
+            }
+
+            FrameExporter exporter = new FrameExporter(track, assignment.getTeams(), pitch, width);
+            exporter.setTrailLength(trailSeconds * 1000);
+            if(heat){
+                exporter.setHeatOverlay(exporter.buildHeatMap(pitch, MatchData.toTimeStamp(halves, fromTime),
+                        MatchData.toTimeStamp(halves, toTime)));
+            }
+            System.out.println(exporter.export(timeStamps, new File(args[3]), threads));
+        }finally {
+            matchData.close();
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package football.visualiser.view;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h1>Heat Map Renderer</h1>
+ * Draws heat maps into images a pixel at a time, rather than building a node for every cell of the heat map. The
+ * cells can be smoothed with a Gaussian blur, and are scaled up to the width of the image either as blocks or
+ * blended between the centres of neighbouring cells.
+ *
+ * The most recently drawn images are kept against a key given by the caller, such as the player and the period
+ * of the match the heat map covers, so showing the same heat map again does not draw it again
+ */
+public class HeatMapRenderer {
+    private static final int CACHE_SIZE = 32;
+    private static final int LEVELS = 256;
+    // Hues run from yellow for the coldest cells down to red for the hottest
+    private static final int HUE_RANGE = 80;
+
+    private final int width;
+    private final double smoothing;
+    private final boolean blend;
+    private final int[] colors = new int[LEVELS];
+
+    private final LinkedHashMap<String, Image> cache = new LinkedHashMap<String, Image>(CACHE_SIZE, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Image> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * @param width         Width of the images in pixels
+     * @param smoothing     Standard deviation of the Gaussian blur in cells, or 0 for no smoothing
+     * @param blend         True to blend between cells when scaling up, false to draw each cell as a block
+     */
+    public HeatMapRenderer(int width, double smoothing, boolean blend){
+        if(width <= 0) throw new IllegalArgumentException("Width must be positive");
+        if(smoothing < 0) throw new IllegalArgumentException("Smoothing must not be negative");
+        this.width = width;
+        this.smoothing = smoothing;
+        this.blend = blend;
+
+        for(int level = 0; level < LEVELS; level++){
+            Color color = Color.hsb(HUE_RANGE - HUE_RANGE * level / (double) (LEVELS - 1), 0.8, 0.9);
+            colors[level] = 0xFF000000
+                    | (int) Math.round(color.getRed() * 255) << 16
+                    | (int) Math.round(color.getGreen() * 255) << 8
+                    | (int) Math.round(color.getBlue() * 255);
+        }
+    }
+
+    /**
+     * @param key       Identifies the heat map and the period it covers
+     * @param heatMap   Heat map to draw, indexed by column then row
+     * @return          Image of the heat map, drawn only if there is not one for the key already
+     */
+    public Image getImage(String key, int[][] heatMap){
+        Image image = cache.get(key);
+        if(image == null){
+            image = render(heatMap);
+            cache.put(key, image);
+        }
+        return image;
+    }
+
+    /**
+     * @param heatMap   Heat map to draw, indexed by column then row
+     * @return          Image of the heat map
+     */
+    public Image render(int[][] heatMap){
+        int height = getHeight(heatMap);
+        WritableImage image = new WritableImage(width, height);
+        image.getPixelWriter().setPixels(0, 0, width, height, PixelFormat.getIntArgbInstance(),
+                draw(heatMap), 0, width);
+        return image;
+    }
+
+    /**
+     * @param heatMap   Heat map to draw
+     * @return          Height of the image, keeping the cells square
+     */
+    public int getHeight(int[][] heatMap){
+        int columns = heatMap.length;
+        int rows = columns == 0 ? 0 : heatMap[0].length;
+        return Math.max(1, (int) Math.round((double) width * rows / Math.max(1, columns)));
+    }
+
+    /**
+     * Draws a heat map into an array of pixels
+     *
+     * @param heatMap   Heat map to draw, indexed by column then row
+     * @return          The pixels, in ARGB, a row at a time
+     */
+    int[] draw(int[][] heatMap){
+        int columns = heatMap.length;
+        int rows = columns == 0 ? 0 : heatMap[0].length;
+        int height = getHeight(heatMap);
+        int[] pixels = new int[width * height];
+        if(columns == 0 || rows == 0){
+            Arrays.fill(pixels, colors[0]);
+            return pixels;
+        }
+
+        // Values are held a row at a time so that both passes of the blur read memory in order
+        double[] values = new double[columns * rows];
+        for(int column = 0; column < columns; column++){
+            for(int row = 0; row < rows; row++){
+                values[row * columns + column] = heatMap[column][row];
+            }
+        }
+        if(smoothing > 0) values = blur(values, columns, rows);
+
+        double max = 0;
+        for(double value : values){
+            if(value > max) max = value;
+        }
+        double scale = max > 0 ? (LEVELS - 1) / max : 0;
+
+        double cellsPerPixelX = (double) columns / width;
+        double cellsPerPixelY = (double) rows / height;
+        for(int pixelY = 0; pixelY < height; pixelY++){
+            double cellY = (pixelY + 0.5) * cellsPerPixelY;
+            for(int pixelX = 0; pixelX < width; pixelX++){
+                double cellX = (pixelX + 0.5) * cellsPerPixelX;
+                double value;
+                if(blend){
+                    value = sample(values, columns, rows, cellX - 0.5, cellY - 0.5);
+                }else{
+                    int column = Math.min(columns - 1, (int) cellX);
+                    int row = Math.min(rows - 1, (int) cellY);
+                    value = values[row * columns + column];
+                }
+                int level = (int) (value * scale + 0.5);
+                pixels[pixelY * width + pixelX] = colors[Math.max(0, Math.min(LEVELS - 1, level))];
+            }
+        }
+        return pixels;
+    }
+
+    /**
+     * Blurs the values with a Gaussian kernel, first along the rows and then down the columns. Cells beyond the
+     * edge take the value of the nearest edge cell
+     */
+    private double[] blur(double[] values, int columns, int rows){
+        int radius = (int) Math.ceil(smoothing * 3);
+        double[] kernel = new double[radius * 2 + 1];
+        double total = 0;
+        for(int i = -radius; i <= radius; i++){
+            kernel[i + radius] = Math.exp(-(i * i) / (2 * smoothing * smoothing));
+            total += kernel[i + radius];
+        }
+        for(int i = 0; i < kernel.length; i++){
+            kernel[i] /= total;
+        }
+
+        double[] across = new double[values.length];
+        for(int row = 0; row < rows; row++){
+            for(int column = 0; column < columns; column++){
+                double sum = 0;
+                for(int i = -radius; i <= radius; i++){
+                    int c = Math.max(0, Math.min(columns - 1, column + i));
+                    sum += values[row * columns + c] * kernel[i + radius];
+                }
+                across[row * columns + column] = sum;
+            }
+        }
+
+        double[] blurred = new double[values.length];
+        for(int row = 0; row < rows; row++){
+            for(int column = 0; column < columns; column++){
+                double sum = 0;
+                for(int i = -radius; i <= radius; i++){
+                    int r = Math.max(0, Math.min(rows - 1, row + i));
+                    sum += across[r * columns + column] * kernel[i + radius];
+                }
+                blurred[row * columns + column] = sum;
+            }
+        }
+        return blurred;
+    }
+
+    /**
+     * @return  Value at a point between cell centres, blended from the four nearest cells
+     */
+    private static double sample(double[] values, int columns, int rows, double x, double y){
+        x = Math.max(0, Math.min(columns - 1, x));
+        y = Math.max(0, Math.min(rows - 1, y));
+        int x0 = (int) x;
+        int y0 = (int) y;
+        int x1 = Math.min(columns - 1, x0 + 1);
+        int y1 = Math.min(rows - 1, y0 + 1);
+        double fractionX = x - x0;
+        double fractionY = y - y0;
+
+        double top = values[y0 * columns + x0] * (1 - fractionX) + values[y0 * columns + x1] * fractionX;
+        double bottom = values[y1 * columns + x0] * (1 - fractionX) + values[y1 * columns + x1] * fractionX;
+        return top * (1 - fractionY) + bottom * fractionY;
+    }
+
+    /**
+     * @param level     Level from 0 for the coldest to 255 for the hottest
+     * @return          Colour of the level in ARGB
+     */
+    int getColor(int level){
+        return colors[level];
+    }
+}
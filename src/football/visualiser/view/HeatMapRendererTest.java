@@ -0,0 +1,54 @@
+package football.visualiser.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for drawing heat maps into arrays of pixels
+ */
+public class HeatMapRendererTest {
+
+    /**
+     * Tests that without smoothing or blending each cell is drawn as a block, scaled up to the width of the image,
+     * with every row and column of the heat map drawn
+     */
+    @Test
+    public void cellsDrawnAsBlocks(){
+        HeatMapRenderer renderer = new HeatMapRenderer(40, 0, false);
+        int[][] heatMap = new int[4][2];
+        heatMap[3][1] = 10;
+        heatMap[0][0] = 5;
+
+        int[] pixels = renderer.draw(heatMap);
+        assertEquals(20, renderer.getHeight(heatMap));
+        assertEquals(40 * 20, pixels.length);
+
+        // Bottom right cell is the hottest, the top left half as hot and the rest the coldest
+        assertEquals(renderer.getColor(255), pixels[19 * 40 + 39]);
+        assertEquals(renderer.getColor(255), pixels[10 * 40 + 30]);
+        assertEquals(renderer.getColor(128), pixels[0]);
+        assertEquals(renderer.getColor(128), pixels[9 * 40 + 9]);
+        assertEquals(renderer.getColor(0), pixels[9 * 40 + 10]);
+        assertEquals(renderer.getColor(0), pixels[19 * 40]);
+    }
+
+    /**
+     * Tests that smoothing spreads a single hot cell to its neighbours, keeping the hottest point where the cell is.
+     * The image is drawn at a pixel per cell so that each pixel lies on the centre of a cell
+     */
+    @Test
+    public void smoothingSpreadsHeat(){
+        HeatMapRenderer renderer = new HeatMapRenderer(9, 1.0, true);
+        int[][] heatMap = new int[9][9];
+        heatMap[4][4] = 100;
+
+        int[] pixels = renderer.draw(heatMap);
+        assertEquals(renderer.getColor(255), pixels[4 * 9 + 4]);
+        // The next cell along is warmer than the coldest but not as hot as the centre
+        int neighbour = pixels[4 * 9 + 5];
+        assertNotEquals(renderer.getColor(0), neighbour);
+        assertNotEquals(renderer.getColor(255), neighbour);
+        assertEquals(renderer.getColor(0), pixels[0]);
+    }
+}
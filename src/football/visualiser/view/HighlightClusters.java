@@ -0,0 +1,211 @@
+package football.visualiser.view;
+
+import football.visualiser.view.Highlight.HighlightType;
+
+import java.util.Arrays;
+
+/**
+ * <h1>Highlight Clusters</h1>
+ * Groups the highlights of a match into buckets a few pixels wide along the seek bar, so that however many
+ * highlights there are only one marker is drawn per bucket. Each bucket counts its highlights of every type,
+ * which gives both the marker to draw and the density of highlights along the match.
+ *
+ * Highlights are kept sorted by their position in the match, so when the seek bar is zoomed or resized only the
+ * highlights within view are put into buckets again. A highlight added while the layout stays the same only
+ * updates the bucket it falls in.
+ *
+ * Positions are ratios of the whole match between 0.0 and 1.0
+ */
+public class HighlightClusters {
+    private static final HighlightType[] TYPES = HighlightType.values();
+    // Order in which types are chosen for the marker of a bucket holding several types
+    private static final HighlightType[] PRIORITY = { HighlightType.RED_GOAL, HighlightType.BLUE_GOAL,
+            HighlightType.CORNER_SHOT, HighlightType.RED_121_PASS, HighlightType.BLUE_121_PASS,
+            HighlightType.TACKLE, HighlightType.SPRINT };
+
+    private double[] ratios = new double[64];
+    private int[] types = new int[64];
+    private int size = 0;
+
+    private double viewStart = 0;
+    private double viewEnd = 1;
+    private double width = 0;
+    private double bucketWidth = 1;
+    private int numberOfBuckets = 0;
+    private int[] counts = new int[0];
+    private int[] totals = new int[0];
+    private double[] firstRatios = new double[0];
+    private int maxTotal = 0;
+
+    /**
+     * Adds a highlight, updating only the bucket it falls in
+     *
+     * @param highlightType     Type of the highlight
+     * @param ratio             Position of the highlight in the match
+     */
+    public void add(HighlightType highlightType, double ratio){
+        if(size == ratios.length){
+            ratios = Arrays.copyOf(ratios, size * 2);
+            types = Arrays.copyOf(types, size * 2);
+        }
+        int index = upperBound(ratio);
+        System.arraycopy(ratios, index, ratios, index + 1, size - index);
+        System.arraycopy(types, index, types, index + 1, size - index);
+        ratios[index] = ratio;
+        types[index] = highlightType.ordinal();
+        size++;
+
+        if(ratio >= viewStart && ratio <= viewEnd && numberOfBuckets > 0){
+            addToBucket(highlightType.ordinal(), ratio);
+        }
+    }
+
+    public int size(){
+        return size;
+    }
+
+    /**
+     * Sets the part of the match in view and the width it is drawn across. Only the highlights in view are put
+     * into buckets, and nothing is done if the layout has not changed
+     *
+     * @param width         Width of the seek bar in pixels
+     * @param bucketWidth   Width of each bucket in pixels
+     * @param viewStart     Position of the match at the start of the seek bar
+     * @param viewEnd       Position of the match at the end of the seek bar
+     * @return              True if the buckets were changed
+     */
+    public boolean setLayout(double width, double bucketWidth, double viewStart, double viewEnd){
+        if(viewEnd <= viewStart || bucketWidth <= 0){
+            throw new IllegalArgumentException("The view and buckets must have a positive width");
+        }
+        if(width == this.width && bucketWidth == this.bucketWidth
+                && viewStart == this.viewStart && viewEnd == this.viewEnd){
+            return false;
+        }
+        this.width = Math.max(0, width);
+        this.bucketWidth = bucketWidth;
+        this.viewStart = viewStart;
+        this.viewEnd = viewEnd;
+
+        int buckets = (int) Math.ceil(this.width / bucketWidth);
+        if(buckets != numberOfBuckets){
+            numberOfBuckets = buckets;
+            counts = new int[buckets * TYPES.length];
+            totals = new int[buckets];
+            firstRatios = new double[buckets];
+        }else{
+            Arrays.fill(counts, 0);
+            Arrays.fill(totals, 0);
+        }
+        maxTotal = 0;
+        if(buckets == 0) return true;
+
+        for(int i = lowerBound(viewStart); i < size && ratios[i] <= viewEnd; i++){
+            addToBucket(types[i], ratios[i]);
+        }
+        return true;
+    }
+
+    private void addToBucket(int type, double ratio){
+        int bucket = getBucket(ratio);
+        if(totals[bucket] == 0 || ratio < firstRatios[bucket]) firstRatios[bucket] = ratio;
+        counts[bucket * TYPES.length + type]++;
+        totals[bucket]++;
+        if(totals[bucket] > maxTotal) maxTotal = totals[bucket];
+    }
+
+    /**
+     * @param ratio     Position in the match
+     * @return          Bucket the position falls in, or the nearest bucket if it is out of view
+     */
+    public int getBucket(double ratio){
+        int bucket = (int) ((ratio - viewStart) / (viewEnd - viewStart) * width / bucketWidth);
+        return Math.max(0, Math.min(numberOfBuckets - 1, bucket));
+    }
+
+    public int getNumberOfBuckets(){
+        return numberOfBuckets;
+    }
+
+    /**
+     * @param bucket    Index of the bucket
+     * @return          Number of highlights in the bucket
+     */
+    public int getTotal(int bucket){
+        return totals[bucket];
+    }
+
+    public int getCount(int bucket, HighlightType highlightType){
+        return counts[bucket * TYPES.length + highlightType.ordinal()];
+    }
+
+    /**
+     * @return  Largest number of highlights in any bucket
+     */
+    public int getMaxTotal(){
+        return maxTotal;
+    }
+
+    /**
+     * @param bucket    Index of the bucket, which must hold at least one highlight
+     * @return          Position of the earliest highlight in the bucket
+     */
+    public double getFirstRatio(int bucket){
+        return firstRatios[bucket];
+    }
+
+    /**
+     * @param bucket    Index of the bucket
+     * @return          Most important type of highlight in the bucket, or null if it is empty
+     */
+    public HighlightType getMarkerType(int bucket){
+        for(HighlightType highlightType : PRIORITY){
+            if(getCount(bucket, highlightType) > 0) return highlightType;
+        }
+        return null;
+    }
+
+    /**
+     * @param bucket    Index of the bucket
+     * @return          Text listing the highlights in the bucket, such as "Red goal, Tackle x3"
+     */
+    public String describe(int bucket){
+        StringBuilder text = new StringBuilder();
+        for(HighlightType highlightType : PRIORITY){
+            int count = getCount(bucket, highlightType);
+            if(count == 0) continue;
+            if(text.length() > 0) text.append(", ");
+            text.append(Highlight.getHighlightTypeText(highlightType));
+            if(count > 1) text.append(" x").append(count);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return  Index of the first highlight at or after the position
+     */
+    private int lowerBound(double ratio){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(ratios[middle] < ratio) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+
+    /**
+     * @return  Index of the first highlight after the position
+     */
+    private int upperBound(double ratio){
+        int low = 0;
+        int high = size;
+        while(low < high){
+            int middle = (low + high) >>> 1;
+            if(ratios[middle] <= ratio) low = middle + 1;
+            else high = middle;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,63 @@
+package football.visualiser.view;
+
+import football.visualiser.view.Highlight.HighlightType;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for grouping highlights into buckets along the seek bar
+ */
+public class HighlightClustersTest {
+
+    /**
+     * Tests that highlights close together share a bucket, that the marker shows the most important of them, and
+     * that highlights added afterwards update only their own bucket
+     */
+    @Test
+    public void highlightsGroupedByBucket(){
+        HighlightClusters clusters = new HighlightClusters();
+        clusters.add(HighlightType.TACKLE, 0.52);
+        clusters.add(HighlightType.TACKLE, 0.51);
+        clusters.add(HighlightType.RED_GOAL, 0.515);
+        clusters.add(HighlightType.SPRINT, 0.9);
+
+        // 100 pixels in buckets of 10, so each bucket is a tenth of the match
+        assertTrue(clusters.setLayout(100, 10, 0, 1));
+        assertFalse(clusters.setLayout(100, 10, 0, 1));
+        assertEquals(10, clusters.getNumberOfBuckets());
+        assertEquals(3, clusters.getTotal(5));
+        assertEquals(1, clusters.getTotal(9));
+        assertEquals(3, clusters.getMaxTotal());
+        assertEquals(HighlightType.RED_GOAL, clusters.getMarkerType(5));
+        assertEquals(0.51, clusters.getFirstRatio(5), 1e-9);
+        assertEquals("Red goal, Tackle x2", clusters.describe(5));
+        assertNull(clusters.getMarkerType(0));
+
+        clusters.add(HighlightType.TACKLE, 0.05);
+        assertEquals(1, clusters.getTotal(0));
+        assertEquals(3, clusters.getTotal(5));
+    }
+
+    /**
+     * Tests that zooming in puts only the highlights in view into buckets, spread across the whole width
+     */
+    @Test
+    public void zoomingSpreadsHighlights(){
+        HighlightClusters clusters = new HighlightClusters();
+        clusters.add(HighlightType.TACKLE, 0.51);
+        clusters.add(HighlightType.TACKLE, 0.52);
+        clusters.add(HighlightType.TACKLE, 0.8);
+
+        assertTrue(clusters.setLayout(100, 10, 0.5, 0.6));
+        assertEquals(1, clusters.getTotal(1));
+        assertEquals(1, clusters.getTotal(2));
+        assertEquals(1, clusters.getMaxTotal());
+        int total = 0;
+        for(int bucket = 0; bucket < clusters.getNumberOfBuckets(); bucket++){
+            total += clusters.getTotal(bucket);
+        }
+        assertEquals(2, total);
+        assertEquals(3, clusters.size());
+    }
+}
@@ -0,0 +1,248 @@
+package football.visualiser.view;
+
+import football.visualiser.interfaces.ISeekbarListener;
+import football.visualiser.view.Highlight.HighlightType;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.control.Slider;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+
+/**
+ * <h1>Highlight Timeline</h1>
+ * Draws the highlights of the match along the bottom of the seek bar on a single canvas. Highlights close
+ * together are grouped by {@link HighlightClusters} into one marker per bucket, coloured by the most important
+ * highlight within it, and above the markers a histogram shows how many highlights fall in each bucket.
+ *
+ * Scrolling over the seek bar zooms in on the part of the match under the mouse, and the slider is zoomed with
+ * it so that the thumb stays in line with the markers. The canvas itself ignores the mouse, so the slider still
+ * receives every event, and only presses and hovers on a marker are taken over by the timeline
+ */
+public class HighlightTimeline extends Canvas {
+    private static final double BUCKET_WIDTH = 6;
+    private static final double MARKER_WIDTH = 4;
+    private static final double MARKER_HEIGHT = 10;
+    private static final double HISTOGRAM_HEIGHT = 6;
+    private static final double HEIGHT = MARKER_HEIGHT + HISTOGRAM_HEIGHT;
+    private static final double ZOOM_FACTOR = 2;
+    // Smallest part of the match the seek bar can be zoomed in on
+    private static final double MIN_VIEW_SPAN = 1.0 / 256;
+    private static final Color STROKE_COLOR = Color.rgb(70, 70, 70);
+    private static final Color DENSITY_COLOR = Color.rgb(255, 255, 255, 0.35);
+    private static final Color LOOP_COLOR = Color.rgb(255, 220, 0, 0.3);
+    private static final Color LOOP_MARK_COLOR = Color.rgb(255, 220, 0);
+
+    private final HighlightClusters clusters = new HighlightClusters();
+    private final Slider slider;
+    private ISeekbarListener seekbarListener;
+    private double viewStart = 0;
+    private double viewEnd = 1;
+    // Position of the thumb in the whole match, which the slider loses when it is zoomed past it
+    private double playhead = 0;
+    private boolean pressedOnMarker = false;
+    private double loopStart = -1;
+    private double loopEnd = -1;
+    private double pressedRatio;
+
+    /**
+     * @param slider    Seek bar the timeline is drawn along
+     */
+    public HighlightTimeline(Slider slider){
+        super(0, HEIGHT);
+        this.slider = slider;
+        setMouseTransparent(true);
+        widthProperty().bind(slider.prefWidthProperty());
+        translateXProperty().bind(slider.layoutXProperty());
+        translateYProperty().bind(slider.minHeightProperty().subtract(HEIGHT));
+        widthProperty().addListener((observable, oldWidth, newWidth) -> redraw());
+    }
+
+    public void setSeekbarListener(ISeekbarListener seekbarListener){
+        this.seekbarListener = seekbarListener;
+    }
+
+    /**
+     * @param highlightType     Type of the highlight
+     * @param seekbarRatio      Position of the highlight in the match between 0.0 and 1.0
+     */
+    public void addHighlight(HighlightType highlightType, double seekbarRatio){
+        clusters.add(highlightType, seekbarRatio);
+    }
+
+    /**
+     * @param playhead  Position of the thumb in the match between 0.0 and 1.0
+     */
+    public void setPlayhead(double playhead){
+        this.playhead = playhead;
+    }
+
+    /**
+     * Zooms the seek bar in on a part of the match
+     *
+     * @param start     Position of the match at the start of the seek bar
+     * @param end       Position of the match at the end of the seek bar
+     */
+    public void setViewRange(double start, double end){
+        double span = Math.max(MIN_VIEW_SPAN, Math.min(1, end - start));
+        start = Math.max(0, Math.min(1 - span, start));
+        viewStart = start;
+        viewEnd = start + span;
+
+        // The slider clamps its value to its range, so the thumb is put back where it was in the whole match
+        double value = slider.getValue();
+        if(value > slider.getMin() && value < slider.getMax()) playhead = value;
+        slider.setMin(0);
+        slider.setMax(1);
+        slider.setValue(playhead);
+        slider.setMax(viewEnd);
+        slider.setMin(viewStart);
+        redraw();
+    }
+
+    /**
+     * @param start     Position of the start of the loop between 0.0 and 1.0, or -1 for no loop
+     * @param end       Position of the end of the loop, or -1 if only the start has been marked
+     */
+    public void setLoopMarks(double start, double end){
+        loopStart = start;
+        loopEnd = end;
+        redraw();
+    }
+
+    public double getViewStart(){
+        return viewStart;
+    }
+
+    public double getViewEnd(){
+        return viewEnd;
+    }
+
+    /**
+     * @param x     X coordinate along the seek bar
+     * @return      Position in the match between 0.0 and 1.0
+     */
+    public double getRatioAt(double x){
+        double fraction = getWidth() > 0 ? Math.max(0, Math.min(1, x / getWidth())) : 0;
+        return viewStart + fraction * (viewEnd - viewStart);
+    }
+
+    /**
+     * Puts the highlights in view into buckets if the layout has changed and draws them
+     */
+    public void redraw(){
+        clusters.setLayout(getWidth(), BUCKET_WIDTH, viewStart, viewEnd);
+
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        drawLoop(gc);
+
+        int maxTotal = clusters.getMaxTotal();
+        gc.setStroke(STROKE_COLOR);
+        for(int bucket = 0; bucket < clusters.getNumberOfBuckets(); bucket++){
+            int total = clusters.getTotal(bucket);
+            if(total == 0) continue;
+            double x = bucket * BUCKET_WIDTH;
+
+            double barHeight = HISTOGRAM_HEIGHT * total / maxTotal;
+            gc.setFill(DENSITY_COLOR);
+            gc.fillRect(x, HISTOGRAM_HEIGHT - barHeight, BUCKET_WIDTH - 1, barHeight);
+
+            gc.setFill(Highlight.getHighlightColor(clusters.getMarkerType(bucket)));
+            gc.fillRect(x, HISTOGRAM_HEIGHT, MARKER_WIDTH, MARKER_HEIGHT);
+            gc.strokeRect(x, HISTOGRAM_HEIGHT, MARKER_WIDTH, MARKER_HEIGHT);
+        }
+    }
+
+    /**
+     * Shades the part of the seek bar being looped, behind the markers, with a line at each end
+     */
+    private void drawLoop(GraphicsContext gc){
+        if(loopStart < 0) return;
+        double startX = toX(loopStart);
+        if(loopEnd >= 0){
+            double endX = toX(loopEnd);
+            gc.setFill(LOOP_COLOR);
+            gc.fillRect(startX, 0, endX - startX, HEIGHT);
+            gc.setFill(LOOP_MARK_COLOR);
+            gc.fillRect(endX - 1, 0, 2, HEIGHT);
+        }
+        gc.setFill(LOOP_MARK_COLOR);
+        gc.fillRect(startX - 1, 0, 2, HEIGHT);
+    }
+
+    /**
+     * @return  X coordinate of a position in the match, which may be outside the canvas when zoomed in
+     */
+    private double toX(double ratio){
+        return (ratio - viewStart) / (viewEnd - viewStart) * getWidth();
+    }
+
+    /**
+     * @return  Bucket holding the marker under the mouse, or -1 if there is no marker there
+     */
+    private int getMarkerAt(MouseEvent event){
+        Point2D point = sceneToLocal(event.getSceneX(), event.getSceneY());
+        if(point == null || point.getY() < HISTOGRAM_HEIGHT || point.getY() > HEIGHT
+                || point.getX() < 0 || point.getX() >= getWidth()) return -1;
+        int bucket = (int) (point.getX() / BUCKET_WIDTH);
+        if(bucket >= clusters.getNumberOfBuckets() || clusters.getTotal(bucket) == 0) return -1;
+        if(point.getX() - bucket * BUCKET_WIDTH > MARKER_WIDTH) return -1;
+        return bucket;
+    }
+
+    /**
+     * Event filter for mouse movement over the seek bar, describing the highlights under the mouse
+     *
+     * @param event     The mouse event fired
+     */
+    public void handleMouseMoved(MouseEvent event){
+        int bucket = getMarkerAt(event);
+        if(bucket < 0 || seekbarListener == null) return;
+        seekbarListener.handleMouseHover(clusters.describe(bucket), event);
+        event.consume();
+    }
+
+    /**
+     * Event filter for presses on the seek bar, which jump to the earliest highlight of a marker
+     *
+     * @param event     The mouse event fired
+     */
+    public void handleMousePressed(MouseEvent event){
+        int bucket = getMarkerAt(event);
+        if(bucket < 0 || seekbarListener == null) return;
+        pressedOnMarker = true;
+        pressedRatio = clusters.getFirstRatio(bucket);
+        seekbarListener.handleMousePressed(pressedRatio);
+        event.consume();
+    }
+
+    public void handleMouseDragged(MouseEvent event){
+        if(pressedOnMarker) event.consume();
+    }
+
+    public void handleMouseReleased(MouseEvent event){
+        if(!pressedOnMarker) return;
+        pressedOnMarker = false;
+        seekbarListener.handleMouseReleased(pressedRatio);
+        event.consume();
+    }
+
+    /**
+     * Event filter for scrolling over the seek bar, zooming in or out around the part of the match under the mouse
+     *
+     * @param event     The scroll event fired
+     */
+    public void handleScroll(ScrollEvent event){
+        if(event.getDeltaY() == 0) return;
+        Point2D point = sceneToLocal(event.getSceneX(), event.getSceneY());
+        if(point == null) return;
+        double centre = getRatioAt(point.getX());
+        double fraction = (centre - viewStart) / (viewEnd - viewStart);
+        double span = (viewEnd - viewStart) * (event.getDeltaY() > 0 ? 1 / ZOOM_FACTOR : ZOOM_FACTOR);
+        span = Math.max(MIN_VIEW_SPAN, Math.min(1, span));
+        setViewRange(centre - fraction * span, centre - fraction * span + span);
+        event.consume();
+    }
+}
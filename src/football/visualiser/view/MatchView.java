@@ -3,7 +3,9 @@ package football.visualiser.view;
 import football.visualiser.SystemData.Team;
 import football.visualiser.controllers.PitchController;
 import football.visualiser.interfaces.IMatchView;
+import football.visualiser.interfaces.IPlayerClickListener;
 import football.visualiser.interfaces.ISeekbarListener;
+import football.visualiser.models.PlaybackMetrics;
 import football.visualiser.models.entities.Player;
 import football.visualiser.view.Highlight.HighlightType;
 import javafx.animation.Transition;
@@ -21,6 +23,7 @@ import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.*;
@@ -33,9 +36,6 @@ import javafx.util.Duration;
 
 import java.awt.*;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
 
 /**
  * <h1>Match View</h1>
@@ -66,6 +66,8 @@ public class MatchView implements IMatchView {
     private double pitchRatio;
     private FXMLLoader fxmlLoader;
     private Button playButton;
+    private HBox playbackControls;
+    private Text speedText;
     private boolean menuExpanded = false;
     private boolean menuExpanding = false;
     private int res = Toolkit.getDefaultToolkit().getScreenResolution();
@@ -82,15 +84,18 @@ public class MatchView implements IMatchView {
     private ImageView playButtonImageView = new ImageView();
 
     //Pitch
-    private Pane pitchPane;
+    private PitchGraphic pitchPane;
     private Pane pitchWrapperPane;
-    private HashMap<Integer, MovableGraphic> entityGraphics = new HashMap<>();
-    private FootballGraphic footballGraphic = new FootballGraphic();
+    private PitchCanvas pitchCanvas = new PitchCanvas();
+    private static final int[] TRAIL_LENGTHS = { 0, 5, 10, 30 };
+    private int trailLengthOption = 0;
+    private Button trailsButton;
+    private Button loopButton;
 
     //Slider
     private SeekBubble seekBubble = new SeekBubble();
     private AnchorPane timeline;
-    private List<Highlight> highlights = new ArrayList<>();
+    private HighlightTimeline highlightTimeline;
 
 
     public void setPitchRatio(double pitchRatio){
@@ -136,6 +141,7 @@ public class MatchView implements IMatchView {
         triangle = (ImageView) scene.lookup("#triangle");
         slider = (Slider) scene.lookup("#slider");
         timeline = (AnchorPane) scene.lookup("#timeline");
+        highlightTimeline = new HighlightTimeline(slider);
         mainWindow = (VBox) scene.lookup("#mainWindow");
         playButton = (Button) scene.lookup("#playButton");
         HBox gradCont = (HBox) scene.lookup("#gradContainer");
@@ -145,6 +151,10 @@ public class MatchView implements IMatchView {
         mainContainer = (AnchorPane) scene.lookup("#mainContainer");
         pitchSeekbarWrapper = (BorderPane) scene.lookup("#pitchSeekbarWrapper");
         pitchStack = (StackPane) scene.lookup("#pitchStack");
+        playbackControls = (HBox) scene.lookup("#playbackControls");
+        speedText = (Text) scene.lookup("#speedText");
+        trailsButton = (Button) scene.lookup("#trailsButton");
+        loopButton = (Button) scene.lookup("#loopButton");
 
         //Load Resources
         triangleDown = new Image(
@@ -184,9 +194,8 @@ public class MatchView implements IMatchView {
         playButton.setMaxWidth(buttonDimension);
 
 
-        pitchWrapperPane.getChildren().add(pitchPane);
-
-        pitchPane.getChildren().add(footballGraphic);
+        pitchWrapperPane.getChildren().addAll(pitchPane, pitchCanvas);
+        pitchCanvas.setTrailGraphic(pitchPane);
 
         pitchPane.setPrefWidth(Screen.getPrimary().getBounds().getWidth() * 0.5);
         pitchPane.setPrefHeight(pitchPane.getPrefWidth() * 0.7);
@@ -226,17 +235,22 @@ public class MatchView implements IMatchView {
     }
 
     /**
-     * Creates a highlight graphic and adds it to the highlights list
+     * Adds a highlight to those drawn along the seek bar
      *
      * Author: Oscar Mason
      *
      * @param highlightType             Type of the highlight
      * @param seekbarRatio              Position in the seek bar to place the high light graphic
-     * @param highlightMouseListener    Mouse listener for when the user hovers or clicks on a highlight
      */
-    public void addHighlight(HighlightType highlightType, double seekbarRatio,
-                             ISeekbarListener highlightMouseListener){
-        highlights.add(new Highlight(highlightType, seekbarRatio, slider, highlightMouseListener));
+    public void addHighlight(HighlightType highlightType, double seekbarRatio){
+        highlightTimeline.addHighlight(highlightType, seekbarRatio);
+    }
+
+    /**
+     * @param seekbarListener   Mouse listener for when the user hovers or clicks on a highlight
+     */
+    public void setSeekbarListener(ISeekbarListener seekbarListener){
+        highlightTimeline.setSeekbarListener(seekbarListener);
     }
 
     public DropDownOverview getOverviewPane(){
@@ -244,14 +258,25 @@ public class MatchView implements IMatchView {
     }
 
     /**
-     * Adds all the higlight graphics to the seekbar
+     * Adds the highlight timeline to the seekbar. Mouse events over the seek bar pass through the timeline first,
+     * so that it can take over those on a highlight, and scrolling zooms the seek bar
      *
      * Author: Oscar Mason
      */
     public void showAllHighlights(){
-        for(Highlight highlight : highlights){
-            timeline.getChildren().add(highlight);
+        if(!timeline.getChildren().contains(highlightTimeline)){
+            timeline.getChildren().add(highlightTimeline);
+            timeline.addEventFilter(MouseEvent.MOUSE_MOVED, highlightTimeline::handleMouseMoved);
+            timeline.addEventFilter(MouseEvent.MOUSE_PRESSED, highlightTimeline::handleMousePressed);
+            timeline.addEventFilter(MouseEvent.MOUSE_DRAGGED, highlightTimeline::handleMouseDragged);
+            timeline.addEventFilter(MouseEvent.MOUSE_RELEASED, highlightTimeline::handleMouseReleased);
+            timeline.addEventFilter(ScrollEvent.SCROLL, highlightTimeline::handleScroll);
         }
+        highlightTimeline.redraw();
+    }
+
+    public HighlightTimeline getHighlightTimeline(){
+        return highlightTimeline;
     }
 
     /**
@@ -268,6 +293,13 @@ public class MatchView implements IMatchView {
         playButton.setGraphic(playButtonImageView);
     }
 
+    /**
+     * @param speed     Speed of playback, where 1.0 is real time
+     */
+    public void setSpeedText(double speed){
+        speedText.setText((speed < 1 ? Double.toString(speed) : Integer.toString((int) speed)) + "x");
+    }
+
     public void setSeekTimePosition(MouseEvent event){
         Bounds bounds = slider.localToScene(slider.getBoundsInLocal());
         seekBubble.setTranslateX(event.getSceneX() - seekBubble.getPrefWidth() / 2);
@@ -293,6 +325,13 @@ public class MatchView implements IMatchView {
         seekBubble.setText(text);
     }
 
+    /**
+     * @param thumbnail     Preview of the pitch to show in the seek bubble, or null for none
+     */
+    public void setSeekThumbnail(Image thumbnail){
+        seekBubble.setThumbnail(thumbnail);
+    }
+
     public void removeSeekTime(){
         rootPane.getChildren().remove(seekBubble);
     }
@@ -349,16 +388,124 @@ public class MatchView implements IMatchView {
         pitchPane.prefWidthProperty().bind(pitchWrapperPane.prefWidthProperty());
         pitchPane.prefHeightProperty().bind(pitchPane.prefWidthProperty().multiply(pitchRatio));
         pitchWrapperPane.prefHeightProperty().bind(pitchPane.prefHeightProperty());
-        timeline.minWidthProperty().bind(stage.widthProperty().subtract(playButton.widthProperty()));
+        timeline.minWidthProperty().bind(stage.widthProperty().subtract(playButton.widthProperty())
+                .subtract(playbackControls.widthProperty()));
         slider.prefWidthProperty().bind(timeline.minWidthProperty());
         overviewPane.prefWidthProperty().bind(scene.widthProperty());
+        pitchCanvas.widthProperty().bind(pitchPane.prefWidthProperty());
+        pitchCanvas.heightProperty().bind(pitchPane.prefHeightProperty());
+        pitchCanvas.start();
+    }
 
+    /**
+     * Sets the coordinates of the pitch in the match data, which positions passed to
+     * {@link #updatePosition(int, int, int)} are relative to
+     *
+     * @param x         X coordinate where the pitch starts
+     * @param y         Y coordinate where the pitch starts
+     * @param width     Width of the pitch
+     * @param height    Height of the pitch
+     */
+    public void setPitchBounds(int x, int y, int width, int height){
+        pitchCanvas.setPitchBounds(x, y, width, height);
+        pitchPane.setPitchBounds(x, y, width, height);
+    }
+
+    /**
+     * Changes the length of the movement trails drawn behind each entity to the next of the available lengths
+     *
+     * @return  The new length of the trails in seconds, where 0 means no trails are drawn
+     */
+    public int changeTrailLength(){
+        trailLengthOption = (trailLengthOption + 1) % TRAIL_LENGTHS.length;
+        int trailLength = TRAIL_LENGTHS[trailLengthOption];
+        pitchCanvas.setTrailLength(trailLength * 1000);
+        trailsButton.setText(trailLength == 0 ? "Trails: off" : "Trails: " + trailLength + "s");
+        return trailLength;
     }
 
+    /**
+     * Shows the marks of a loop on the seek bar
+     *
+     * @param start     Position of the first mark on the seek bar between 0.0 and 1.0, or -1 for no marks
+     * @param end       Position of the second mark, or -1 if only the first mark has been made
+     */
+    public void setLoopMarks(double start, double end){
+        highlightTimeline.setLoopMarks(start, end);
+        loopButton.setText(start < 0 ? "A-B loop" : end < 0 ? "Set B" : "End loop");
+    }
+
+    /**
+     * Updates the position of an entity in the next frame to be drawn. Can be called from any thread
+     *
+     * @param ID    ID of the entity
+     * @param x     X position in match data coordinates
+     * @param y     Y position in match data coordinates
+     */
     public void updatePosition(int ID, int x, int y) {
-        if(entityGraphics.containsKey(ID)){
-            entityGraphics.get(ID).updateGraphicPosition(x, y);
-        }
+        pitchCanvas.updatePosition(ID, x, y);
+    }
+
+    /**
+     * Updates the position of an entity in the frame after the next frame to be drawn. Can be called from any
+     * thread
+     *
+     * @param ID    ID of the entity
+     * @param x     X position in match data coordinates
+     * @param y     Y position in match data coordinates
+     */
+    public void updateNextPosition(int ID, int x, int y) {
+        pitchCanvas.updateNextPosition(ID, x, y);
+    }
+
+    /**
+     * Makes the positions updated since the last call the ones drawn on the pitch
+     *
+     * @param matchTime         Time in the match the positions are from, in milliseconds
+     * @param nextMatchTime     Time in the match of the next positions
+     * @param clockTime         Time on the playback clock in milliseconds
+     * @param clockNanos        System time in nanoseconds at which the clock read that time
+     * @param clockRate         Milliseconds of the match played per millisecond
+     */
+    public void publishPositions(int matchTime, int nextMatchTime, double clockTime, long clockNanos,
+                                 double clockRate){
+        pitchCanvas.publish(matchTime, nextMatchTime, clockTime, clockNanos, clockRate);
+    }
+
+    /**
+     * @return  Buffer through which positions are handed to the JavaFX thread, with its dropped frame and
+     *          latency counters
+     */
+    public PositionBuffer getPositionBuffer(){
+        return pitchCanvas.getPositionBuffer();
+    }
+
+    /**
+     * @param playbackMetrics   Metrics of the match being played, recorded as the pitch is drawn
+     */
+    public void setPlaybackMetrics(PlaybackMetrics playbackMetrics){
+        pitchCanvas.setPlaybackMetrics(playbackMetrics);
+    }
+
+    /**
+     * Shows or hides the model update rate, frame rate, delays and dropped frames of playback over the pitch
+     */
+    public void toggleMetricsOverlay(){
+        pitchCanvas.toggleMetricsOverlay();
+    }
+
+    /**
+     * Calls the listener when the user clicks on a player drawn on the pitch
+     *
+     * @param playerClickListener   Listener to call with the ID of the player clicked on
+     */
+    public void setPlayerClickListener(IPlayerClickListener playerClickListener){
+        pitchCanvas.setOnMouseClicked(event -> {
+            int playerID = pitchCanvas.findPlayerAt(event.getX(), event.getY());
+            if(playerID != -1){
+                playerClickListener.handlePlayerClick(playerID, event.getSceneX(), event.getSceneY());
+            }
+        });
     }
 
     public Region getPitchPane(){
@@ -366,18 +513,13 @@ public class MatchView implements IMatchView {
     }
 
     @Override
-    public void addPlayer(Team team, int ID, boolean isGoalKeeper, EventHandler<MouseEvent> mouseEventHandler) {
-        PlayerGraphic playerGraphic = new PlayerGraphic(team, ID, isGoalKeeper);
-        entityGraphics.put(ID, playerGraphic);
-        playerGraphic.setSize(10);
-        pitchWrapperPane.getChildren().add(playerGraphic);
-        playerGraphic.setOnMouseClicked(mouseEventHandler);
+    public void addPlayer(Team team, int ID, boolean isGoalKeeper) {
+        pitchCanvas.addPlayer(ID, team, isGoalKeeper);
     }
 
     @Override
     public void addFootball(int ID){
-        entityGraphics.put(ID, footballGraphic);
-        footballGraphic.setSize(10);
+        pitchCanvas.addFootball(ID);
     }
 
     @Override
@@ -389,7 +531,10 @@ public class MatchView implements IMatchView {
     }
 
     public void moveSeekBarThumb(double position){
-        Platform.runLater(() -> slider.setValue(position));
+        Platform.runLater(() -> {
+            highlightTimeline.setPlayhead(position);
+            slider.setValue(position);
+        });
     }
 
     @Override
@@ -408,15 +553,16 @@ public class MatchView implements IMatchView {
         playerCard.setTranslate(x, y);
         playerCard.setPlayerIDText(player.getID());
         playerCard.setPlayerTeamColor(player.getTeam());
-        System.out.println("CARD");
+        pitchCanvas.setSelectedPlayer(player.getID());
 
-        playerCard.drawHeapMap(player.getHeatMap().getHeatMap());
+        playerCard.drawPlayerHeatMap(player.getHeatMap());
     }
 
     public void removePlayerCard() {
         if(rootPane.getChildren().contains(playerCard.getPlayerCardNode())){
             rootPane.getChildren().remove(playerCard.getPlayerCardNode());
         }
+        pitchCanvas.setSelectedPlayer(-1);
     }
 
     private class ToolbarResizeAnimation extends Transition{
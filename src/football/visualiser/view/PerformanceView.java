@@ -1,6 +1,7 @@
 package football.visualiser.view;
 
 import football.visualiser.SystemData;
+import football.visualiser.models.PlayerKinematics;
 import javafx.geometry.Pos;
 import javafx.scene.layout.AnchorPane;
 import javafx.fxml.FXMLLoader;
@@ -12,6 +13,7 @@ import javafx.scene.Scene;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.ListView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.paint.CycleMethod;
@@ -25,6 +27,7 @@ import javafx.stage.Stage;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 /**<h1>Performance View</h1>
@@ -49,6 +52,9 @@ public class PerformanceView{
     private Text tackle;
     private Text penalties;
     private Text passes;
+    private Text sprintDistance;
+    private Text highIntensityDistance;
+    private Text accelerations;
     private Map<Integer, Integer> individualRedGoals;
     private Map<Integer, Integer> individualBlueGoals;
     private Map<Integer, Integer> individualSuccPasses;
@@ -57,13 +63,15 @@ public class PerformanceView{
     private Map<Integer, Double> individualBluePossessionTimes;
     private Map<Integer, Double> individualRedPossessionTimes;
     private ArrayList<Integer> individualDistance;
+    private PlayerKinematics kinematics;
 
     public PerformanceView(int playerID, SystemData.Team team,
                            Map<Integer, Integer> individualBlueGoals, Map<Integer, Integer> individualRedGoals,
                            Map<Integer, Integer> individualSuccPasses,
                            Map<Integer, Integer> individualBlueTackles, Map<Integer, Integer> individualRedTackles,
                            Map<Integer, Double> individualBluePossessionTimes, Map<Integer, Double> individualRedPossessionTimes,
-                           ArrayList<Integer> individualDistance
+                           ArrayList<Integer> individualDistance, PlayerKinematics kinematics,
+                           List<String> sprints, List<String> highIntensityRuns, List<String> zones
     ) throws IOException {
         this.playerID = playerID;
         this.team = team;
@@ -73,6 +81,7 @@ public class PerformanceView{
         this.individualBluePossessionTimes = individualBluePossessionTimes;
         this.individualRedPossessionTimes = individualRedPossessionTimes;
         this.individualDistance = individualDistance;
+        this.kinematics = kinematics;
 
         //Initialise View
         stage = new Stage();
@@ -101,6 +110,9 @@ public class PerformanceView{
         tackle = (Text) scene.lookup("#tackle");
         penalties = (Text) scene.lookup("#penalties");
         passes = (Text) scene.lookup("#passes");
+        sprintDistance = (Text) scene.lookup("#sprintDistance");
+        highIntensityDistance = (Text) scene.lookup("#highIntensityDistance");
+        accelerations = (Text) scene.lookup("#accelerations");
 
         //Initialise Objects
         Rectangle gradRec = new Rectangle(0, 0, playerPane.getWidth(), playerPane.getHeight());
@@ -150,6 +162,14 @@ public class PerformanceView{
         //Update successful passes for each player
         passes.setText(Integer.toString(getSuccPasses(individualSuccPasses)));
 
+        //Update speed, distance, and acceleration statistics
+        if(kinematics != null){
+            speed.setText(String.format("%.1f", kinematics.getMaxSpeed() / 1000.0));
+            sprintDistance.setText(Long.toString(kinematics.getSprintDistance() / 1000));
+            highIntensityDistance.setText(Long.toString(kinematics.getHighIntensityDistance() / 1000));
+            accelerations.setText(kinematics.getAccelerations() + " / " + kinematics.getDecelerations());
+        }
+
         //Populating the Player Statistics Container
         for(int i = 0; i < 4; i++) {
             for(int j = 0; j < 4; j++) {
@@ -175,15 +195,63 @@ public class PerformanceView{
         chartContainer.setAlignment(Pos.CENTER);
         chartContainer.getChildren().addAll(lineChartForDistance);
 
+        if(kinematics != null && kinematics.getSpeedPerSecond().length > 0){
+            chartContainer.getChildren().add(createSpeedChart(kinematics.getSpeedPerSecond()));
+        }
+
+        if(!sprints.isEmpty()){
+            chartContainer.getChildren().add(createList("Sprints (" + sprints.size() + ")", sprints));
+        }
+
+        if(!highIntensityRuns.isEmpty()){
+            chartContainer.getChildren().add(createList("High intensity runs (" + highIntensityRuns.size() + ")",
+                    highIntensityRuns));
+        }
+
+        if(!zones.isEmpty()){
+            chartContainer.getChildren().add(createList("Time in each zone", zones));
+        }
+
     }
 
+    /**
+     * Creates a line chart for a series of values, one per minute. The values are passed through a
+     * {@link ChartDataPipeline} so that only as many points as the chart has pixels are ever added to it
+     *
+     * @param title     Title of the chart
+     * @param yLabel    Label of the y axis
+     * @param data      Values to plot
+     * @return          The line chart
+     */
     public LineChart<Number, Number> createLineChart(String title, String yLabel, Integer[] data){
+        double[] time = new double[data.length];
+        double[] values = new double[data.length];
+        for(int i = 0; i < data.length; i++){
+            time[i] = i;
+            values[i] = data[i] == null ? 0 : data[i];
+        }
+        return createLineChart(title, "Time (Minute)", yLabel, time, values);
+    }
+
+    /**
+     * Creates a line chart for a series of any length. The series is downsampled on a background thread
+     * to the width of the chart and resampled whenever the chart is resized or zoomed
+     *
+     * @param title     Title of the chart
+     * @param xLabel    Label of the x axis
+     * @param yLabel    Label of the y axis
+     * @param x         X values, sorted in ascending order
+     * @param y         Y values
+     * @return          The line chart
+     */
+    public LineChart<Number, Number> createLineChart(String title, String xLabel, String yLabel,
+                                                     double[] x, double[] y){
 
         //defining the axes
         final NumberAxis xAxis = new NumberAxis();
         final NumberAxis yAxis = new NumberAxis();
 
-        xAxis.setLabel("Time (Minute)");
+        xAxis.setLabel(xLabel);
         yAxis.setLabel(yLabel);
 
         //creating the chart
@@ -192,28 +260,56 @@ public class PerformanceView{
         lineChart.setTitle(title);
 
         //defining series
-        XYChart.Series series = new XYChart.Series();
+        XYChart.Series<Number, Number> series = new XYChart.Series<>();
 
         lineChart.setLegendVisible(false);
 
-        //populating the series with data
-
-        int[] time = new int[data.length];
-        for(Short i = 0; i < data.length; i++){
-            time[i] = i;
-        }
-
-        for(int i = 0; i < time.length; i++){
-            series.getData().add(new XYChart.Data(time[i], data[i]));
-        }
-
         lineChart.getData().add(series);
         lineChart.setPadding(new Insets(40, 40, 0, 0));
         lineChart.setCenterShape(true);
 
+        //populating the series with downsampled data
+        new ChartDataPipeline(lineChart, series, x, y, ChartDataPipeline.Strategy.LTTB);
+
         return lineChart;
     }
 
+    /**
+     * Creates a chart of the player's speed for every second of the match
+     *
+     * @param speedPerSecond    Speed in millimetres per second, one value per second
+     * @return                  The line chart
+     */
+    private LineChart<Number, Number> createSpeedChart(int[] speedPerSecond){
+        double[] time = new double[speedPerSecond.length];
+        double[] values = new double[speedPerSecond.length];
+        for(int i = 0; i < speedPerSecond.length; i++){
+            time[i] = i / 60.0;
+            values[i] = speedPerSecond[i] / 1000.0;
+        }
+        return createLineChart("Speed over time", "Time (Minute)", "Speed (m/s)", time, values);
+    }
+
+    /**
+     * Creates a titled list, such as the player's sprints
+     *
+     * @param heading   Title shown above the list
+     * @param items     Text of each item
+     * @return          The list
+     */
+    private VBox createList(String heading, List<String> items){
+        Text title = new Text(heading);
+        title.setFill(Color.WHITE);
+
+        ListView<String> list = new ListView<>();
+        list.getItems().setAll(items);
+        list.setPrefSize(300, 300);
+
+        VBox container = new VBox(10, title, list);
+        container.setPadding(new Insets(40, 40, 0, 0));
+        return container;
+    }
+
     public int getGoals(Map<Integer, Integer> individualGoals){
 
         int goals = 0;
@@ -0,0 +1,457 @@
+package football.visualiser.view;
+
+import football.visualiser.SystemData.Team;
+import football.visualiser.models.FlightEvents;
+import football.visualiser.models.PlaybackMetrics;
+import javafx.animation.AnimationTimer;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.TextAlignment;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * <h1>Pitch Canvas</h1>
+ * Draws every player, the football and any overlays onto a single canvas once per pulse of an animation timer,
+ * rather than moving a node per entity with its own runnable.
+ *
+ * The playback thread writes positions, in match data coordinates, with {@link #updatePosition(int, int, int)}
+ * and makes a complete frame visible with {@link #publish(int)}. Frames are handed over through a
+ * {@link PositionBuffer}, so each pulse draws only the newest frame. Clicks are hit-tested against the positions
+ * last drawn.
+ *
+ * Frames of the match are further apart than the pulses of the display, so each published frame holds the two
+ * frames of the match either side of the time on the playback clock, along with the clock's time, system time
+ * and rate when it was published. On every pulse the time on the clock is worked out again and each entity is
+ * drawn that far between its positions in the two frames. Movement therefore stays smooth at the refresh rate
+ * of the display at any speed, in either direction, and without lagging behind the clock. Frames far apart in
+ * the match, such as either side of half time, are not moved between. At high speeds the second frame is the
+ * one the clock will have reached by the time the next frame is published, so the entities keep moving until
+ * then.
+ *
+ * Each pulse in which entities are drawn is recorded in the {@link PlaybackMetrics} of the match, if it has been
+ * set, and the metrics can be shown over the pitch. The overlay is written out a few times a second rather than
+ * on every pulse.
+ */
+public class PitchCanvas extends Canvas {
+    private static final double ENTITY_RADIUS = 10;
+    private static final Color RED_TEAM_COLOR = Color.MAROON;
+    private static final Color BLUE_TEAM_COLOR = Color.BLUE;
+    private static final Color SELECTION_COLOR = Color.YELLOW;
+    private static final Font PLAYER_FONT = new Font("Arial", 10);
+    // Trails are started again when the playback clock jumps further than this from where it was heading
+    private static final int MAX_TRAIL_GAP = 1000;
+    private static final long OVERLAY_UPDATE_INTERVAL = 250000000L;
+    private static final Font OVERLAY_FONT = new Font("Monospaced", 11);
+    private static final Color OVERLAY_BACKGROUND_COLOR = Color.rgb(0, 0, 0, 0.6);
+    private static final double OVERLAY_WIDTH = 330;
+    private static final double OVERLAY_HEIGHT = 96;
+
+    private final HashMap<Integer, Integer> entityIndexes = new HashMap<>();
+    private int[] entityIDs = new int[0];
+    private Team[] teams = new Team[0];
+    private boolean[] goalKeepers = new boolean[0];
+    private boolean[] footballs = new boolean[0];
+
+    private volatile PositionBuffer positionBuffer = new PositionBuffer(0);
+
+    // Only used by the JavaFX thread. Positions are in match data coordinates
+    private double[] drawnX = new double[0];
+    private double[] drawnY = new double[0];
+    private boolean[] drawnVisible = new boolean[0];
+    private int frameMatchTime = 0;
+    private boolean interpolating = false;
+
+    private int pitchX;
+    private int pitchY;
+    private int pitchWidth = 1;
+    private int pitchHeight = 1;
+    private int selectedPlayerID = -1;
+    private boolean redrawRequired = true;
+
+    private TrailHistory trails = new TrailHistory(0);
+    private PitchGraphic trailGraphic;
+    private int trailLength = 0;
+
+    private PlaybackMetrics playbackMetrics;
+    private boolean showMetrics = false;
+    private String metricsText = "";
+    private long metricsUpdateTime = 0;
+
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            render(now);
+        }
+    };
+
+    public PitchCanvas(){
+        widthProperty().addListener(e -> redrawRequired = true);
+        heightProperty().addListener(e -> redrawRequired = true);
+    }
+
+    /**
+     * Sets the coordinates of the pitch in the match data so positions can be scaled to the canvas
+     *
+     * @param x         X coordinate where the pitch starts
+     * @param y         Y coordinate where the pitch starts
+     * @param width     Width of the pitch
+     * @param height    Height of the pitch
+     */
+    public void setPitchBounds(int x, int y, int width, int height){
+        pitchX = x;
+        pitchY = y;
+        pitchWidth = Math.max(1, width);
+        pitchHeight = Math.max(1, height);
+        redrawRequired = true;
+    }
+
+    /**
+     * Adds a player to be drawn. Players are drawn in the order they are added, with the football on top.
+     * Entities must be added before playback starts
+     *
+     * @param ID            ID of the player
+     * @param team          Team of the player
+     * @param isGoalKeeper  Whether the player is a goal keeper
+     */
+    public void addPlayer(int ID, Team team, boolean isGoalKeeper){
+        addEntity(ID, team, isGoalKeeper, false);
+    }
+
+    public void addFootball(int ID){
+        addEntity(ID, null, false, true);
+    }
+
+    private void addEntity(int ID, Team team, boolean isGoalKeeper, boolean isFootball){
+        if(entityIndexes.containsKey(ID)) return;
+        int index = entityIDs.length;
+        int size = index + 1;
+        entityIndexes.put(ID, index);
+
+        entityIDs = Arrays.copyOf(entityIDs, size);
+        teams = Arrays.copyOf(teams, size);
+        goalKeepers = Arrays.copyOf(goalKeepers, size);
+        footballs = Arrays.copyOf(footballs, size);
+        positionBuffer = new PositionBuffer(size);
+        drawnX = new double[size];
+        drawnY = new double[size];
+        drawnVisible = new boolean[size];
+
+        entityIDs[index] = ID;
+        teams[index] = team;
+        goalKeepers[index] = isGoalKeeper;
+        footballs[index] = isFootball;
+    }
+
+    /**
+     * Creates the trail history once for all the entities added, rather than for every entity as it is added
+     */
+    private void createTrails(){
+        trails = new TrailHistory(entityIDs.length);
+        for(int i = 0; i < entityIDs.length; i++){
+            trails.setColor(i, footballs[i] ? Color.WHITE : teams[i] == Team.RED ? RED_TEAM_COLOR : BLUE_TEAM_COLOR);
+        }
+    }
+
+    /**
+     * Sets the position of an entity in the frame being built. Called from the playback thread
+     *
+     * @param ID    ID of the entity
+     * @param x     X position in match data coordinates
+     * @param y     Y position in match data coordinates
+     */
+    public void updatePosition(int ID, int x, int y){
+        Integer index = entityIndexes.get(ID);
+        if(index == null) return;
+        positionBuffer.write(index, x, y);
+    }
+
+    /**
+     * Sets the position of an entity in the frame of the match after the one being built. Called from the
+     * playback thread
+     *
+     * @param ID    ID of the entity
+     * @param x     X position in match data coordinates
+     * @param y     Y position in match data coordinates
+     */
+    public void updateNextPosition(int ID, int x, int y){
+        Integer index = entityIndexes.get(ID);
+        if(index == null) return;
+        positionBuffer.writeNext(index, x, y);
+    }
+
+    /**
+     * Makes the frame built by {@link #updatePosition(int, int, int)} the one drawn on the next pulse, without
+     * moving towards another frame. Entities not updated in the frame, such as footballs no longer in play, are
+     * not drawn
+     *
+     * @param matchTime     Time in the match the positions are from, in milliseconds
+     */
+    public void publish(int matchTime){
+        positionBuffer.publish(matchTime);
+    }
+
+    /**
+     * Makes the frame built by {@link #updatePosition(int, int, int)} and
+     * {@link #updateNextPosition(int, int, int)} the one drawn from the next pulse, moving between the two frames
+     * of the match as the playback clock does
+     *
+     * @param matchTime         Time in the match of the positions, in milliseconds
+     * @param nextMatchTime     Time in the match of the next positions
+     * @param clockTime         Time on the playback clock, in the same time stamps as the frames
+     * @param clockNanos        System time in nanoseconds at which the clock read that time
+     * @param clockRate         Milliseconds of the match played per millisecond, negative when playing
+     *                          backwards and 0 while paused
+     */
+    public void publish(int matchTime, int nextMatchTime, double clockTime, long clockNanos, double clockRate){
+        positionBuffer.publish(matchTime, nextMatchTime, clockTime, clockNanos, clockRate);
+    }
+
+    /**
+     * @return  Buffer through which frames are handed to the JavaFX thread, with its dropped frame and
+     *          latency counters
+     */
+    public PositionBuffer getPositionBuffer(){
+        return positionBuffer;
+    }
+
+    public void start(){
+        timer.start();
+    }
+
+    public void stop(){
+        timer.stop();
+    }
+
+    /**
+     * Draws the trails of each entity's recent movement on the pitch, which is below this canvas
+     *
+     * @param trailGraphic  The pitch to draw the trails on
+     */
+    public void setTrailGraphic(PitchGraphic trailGraphic){
+        this.trailGraphic = trailGraphic;
+    }
+
+    /**
+     * @param trailLength   How many milliseconds of movement to show behind each entity, up to
+     *                      {@link TrailHistory#MAX_TRAIL_SECONDS} seconds, or 0 for no trails
+     */
+    public void setTrailLength(int trailLength){
+        this.trailLength = Math.max(0, Math.min(TrailHistory.MAX_TRAIL_SECONDS * 1000, trailLength));
+        redrawRequired = true;
+    }
+
+    /**
+     * Records the positions in a new frame in the trail history. Trails are started again when the match time
+     * jumps
+     *
+     * @param frame     The new frame
+     * @param jumped    True if the match time jumped to the new frame
+     */
+    private void recordTrails(PositionBuffer.Frame frame, boolean jumped){
+        if(trails.getNumberOfEntities() != entityIDs.length) createTrails();
+        if(jumped) trails.clear();
+        for(int i = 0; i < entityIDs.length; i++){
+            if(frame.isVisible(i)){
+                trails.add(i, frame.getMatchTime(), frame.getX(i), frame.getY(i));
+            }else{
+                trails.clear(i);
+            }
+        }
+    }
+
+    /**
+     * @param playbackMetrics   Metrics of the match being played, which each pulse that draws entities is
+     *                          recorded in
+     */
+    public void setPlaybackMetrics(PlaybackMetrics playbackMetrics){
+        this.playbackMetrics = playbackMetrics;
+    }
+
+    /**
+     * Shows or hides the playback metrics over the top left of the pitch
+     *
+     * @return  True if the metrics are now shown
+     */
+    public boolean toggleMetricsOverlay(){
+        showMetrics = !showMetrics && playbackMetrics != null;
+        metricsUpdateTime = 0;
+        redrawRequired = true;
+        return showMetrics;
+    }
+
+    /**
+     * Highlights a player with a ring, for example while their player card is shown
+     *
+     * @param playerID  ID of the player, or -1 to remove the highlight
+     */
+    public void setSelectedPlayer(int playerID){
+        selectedPlayerID = playerID;
+        redrawRequired = true;
+    }
+
+    private double toCanvasX(double x){
+        return (x - pitchX) * getWidth() / pitchWidth;
+    }
+
+    private double toCanvasY(double y){
+        return (y - pitchY) * getHeight() / pitchHeight;
+    }
+
+    /**
+     * Calculates where each entity should be drawn at the time of a pulse, from how far the playback clock has
+     * moved between the two frames of the match
+     *
+     * @param frame     Frame holding the two frames of the match
+     * @param now       Time of the pulse in nanoseconds
+     */
+    private void interpolate(PositionBuffer.Frame frame, long now){
+        double fraction = frame.getFraction(now);
+        for(int i = 0; i < entityIDs.length; i++){
+            drawnVisible[i] = frame.isVisible(i);
+            if(!drawnVisible[i]) continue;
+            drawnX[i] = frame.getX(i, fraction);
+            drawnY[i] = frame.getY(i, fraction);
+        }
+        interpolating = frame.isMoving(now);
+    }
+
+    /**
+     * Draws the entities at their interpolated positions. Nothing is drawn if the entities are not moving and
+     * the canvas has not changed. Views drawing several canvases call this from their own animation timer rather
+     * than starting the timer of each canvas, so that every canvas is drawn in the same pulse
+     *
+     * @param now   Time of the pulse in nanoseconds
+     */
+    public void render(long now){
+        double expectedClockTime = positionBuffer.getFront().getClockTime(now);
+        PositionBuffer.Frame frame = positionBuffer.take();
+        if(playbackMetrics != null && (frame != null || interpolating)){
+            playbackMetrics.recordRender(now, frame != null ? positionBuffer.getLastLatency() : -1,
+                    positionBuffer.getDroppedFrameCount());
+        }
+        boolean metricsDue = showMetrics && now - metricsUpdateTime >= OVERLAY_UPDATE_INTERVAL;
+        if(frame != null){
+            recordTrails(frame, Math.abs(frame.getClockTime(now) - expectedClockTime) > MAX_TRAIL_GAP);
+            frameMatchTime = frame.getMatchTime();
+        }else if(!interpolating && !redrawRequired && !metricsDue){
+            return;
+        }
+        FlightEvents.FxRender renderEvent = new FlightEvents.FxRender();
+        renderEvent.begin();
+        if(trailGraphic != null && (frame != null || redrawRequired)){
+            trailGraphic.drawTrails(trails, frameMatchTime, trailLength);
+        }
+        redrawRequired = false;
+        interpolate(positionBuffer.getFront(), now);
+
+        GraphicsContext graphics = getGraphicsContext2D();
+        graphics.clearRect(0, 0, getWidth(), getHeight());
+        graphics.setFont(PLAYER_FONT);
+        graphics.setTextAlign(TextAlignment.CENTER);
+        graphics.setTextBaseline(VPos.CENTER);
+
+        int entitiesDrawn = 0;
+        for(int i = 0; i < entityIDs.length; i++){
+            if(!footballs[i] && drawnVisible[i]){
+                drawPlayer(graphics, i);
+                entitiesDrawn++;
+            }
+        }
+        for(int i = 0; i < entityIDs.length; i++){
+            if(footballs[i] && drawnVisible[i]){
+                drawFootball(graphics, i);
+                entitiesDrawn++;
+            }
+        }
+        if(showMetrics) drawMetrics(graphics, now, metricsDue);
+
+        renderEvent.end();
+        if(renderEvent.shouldCommit()){
+            renderEvent.entitiesDrawn = entitiesDrawn;
+            renderEvent.newFrame = frame != null;
+            renderEvent.matchTime = frameMatchTime;
+            renderEvent.commit();
+        }
+    }
+
+    /**
+     * Draws the playback metrics in a box over the top left of the pitch
+     *
+     * @param now       Time of the pulse in nanoseconds
+     * @param update    True to read the metrics again, false to draw the text last read
+     */
+    private void drawMetrics(GraphicsContext graphics, long now, boolean update){
+        if(update){
+            metricsText = playbackMetrics.getOverlayText(now);
+            metricsUpdateTime = now;
+        }
+        graphics.setFill(OVERLAY_BACKGROUND_COLOR);
+        graphics.fillRect(4, 4, OVERLAY_WIDTH, OVERLAY_HEIGHT);
+        graphics.setFill(Color.WHITE);
+        graphics.setFont(OVERLAY_FONT);
+        graphics.setTextAlign(TextAlignment.LEFT);
+        graphics.setTextBaseline(VPos.TOP);
+        graphics.fillText(metricsText, 10, 8);
+    }
+
+    private void drawPlayer(GraphicsContext graphics, int index){
+        double x = toCanvasX(drawnX[index]);
+        double y = toCanvasY(drawnY[index]);
+        double strokeWidth = goalKeepers[index] ? 2 : 1;
+
+        if(entityIDs[index] == selectedPlayerID){
+            graphics.setStroke(SELECTION_COLOR);
+            graphics.setLineWidth(3);
+            graphics.strokeOval(x - ENTITY_RADIUS - 3, y - ENTITY_RADIUS - 3,
+                    (ENTITY_RADIUS + 3) * 2, (ENTITY_RADIUS + 3) * 2);
+        }
+
+        graphics.setFill(teams[index] == Team.RED ? RED_TEAM_COLOR : BLUE_TEAM_COLOR);
+        graphics.fillOval(x - ENTITY_RADIUS, y - ENTITY_RADIUS, ENTITY_RADIUS * 2, ENTITY_RADIUS * 2);
+
+        // The stroke is drawn inside the circle
+        graphics.setStroke(Color.WHITE);
+        graphics.setLineWidth(strokeWidth);
+        double inset = strokeWidth / 2;
+        graphics.strokeOval(x - ENTITY_RADIUS + inset, y - ENTITY_RADIUS + inset,
+                (ENTITY_RADIUS - inset) * 2, (ENTITY_RADIUS - inset) * 2);
+
+        graphics.setFill(Color.WHITE);
+        graphics.fillText(Integer.toString(entityIDs[index]), x, y);
+    }
+
+    private void drawFootball(GraphicsContext graphics, int index){
+        double x = toCanvasX(drawnX[index]);
+        double y = toCanvasY(drawnY[index]);
+
+        graphics.setFill(Color.WHITE);
+        graphics.fillOval(x - ENTITY_RADIUS, y - ENTITY_RADIUS, ENTITY_RADIUS * 2, ENTITY_RADIUS * 2);
+        graphics.setStroke(Color.BLACK);
+        graphics.setLineWidth(1);
+        graphics.strokeOval(x - ENTITY_RADIUS, y - ENTITY_RADIUS, ENTITY_RADIUS * 2, ENTITY_RADIUS * 2);
+    }
+
+    /**
+     * Finds the player drawn at a point on the canvas. Where players overlap, the one drawn on top is chosen
+     *
+     * @param x     X coordinate on the canvas
+     * @param y     Y coordinate on the canvas
+     * @return      ID of the player, or -1 if there is no player at the point
+     */
+    public int findPlayerAt(double x, double y){
+        for(int i = entityIDs.length - 1; i >= 0; i--){
+            if(footballs[i] || !drawnVisible[i]) continue;
+            double distanceX = toCanvasX(drawnX[i]) - x;
+            double distanceY = toCanvasY(drawnY[i]) - y;
+            if(distanceX * distanceX + distanceY * distanceY <= ENTITY_RADIUS * ENTITY_RADIUS){
+                return entityIDs[i];
+            }
+        }
+        return -1;
+    }
+}
@@ -3,6 +3,8 @@ package football.visualiser.view;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.*;
@@ -10,7 +12,8 @@ import javafx.scene.shape.*;
 /**
  * <h1>Pitch Graphic</h1>
  *
- * Pitch graphic is used to represent the pitch when in playback mode
+ * Pitch graphic is used to represent the pitch when in playback mode. It also draws the trails of recent
+ * movement behind each entity, which fade out with age
  *
  * @author Oscar Mason
  *
@@ -30,6 +33,19 @@ public class PitchGraphic extends Pane {
     private Arc bottomLeftCorner;
     private Arc bottomRightCorner;
     private final int EDGE_DISTANCE = 10;
+    // Trails are drawn in bands which are more transparent the older they are
+    private final int TRAIL_FADE_BANDS = 4;
+    private final double TRAIL_OPACITY = 0.8;
+    private final double TRAIL_WIDTH = 2;
+
+    private Canvas trailCanvas = new Canvas();
+    // Reused for every trail so that drawing does not allocate
+    private double[] trailX = new double[TrailHistory.CAPACITY];
+    private double[] trailY = new double[TrailHistory.CAPACITY];
+    private int pitchX;
+    private int pitchY;
+    private int pitchWidth = 1;
+    private int pitchHeight = 1;
 
     public PitchGraphic(){
         StackPane pitchContainer = new StackPane();
@@ -108,6 +124,89 @@ public class PitchGraphic extends Pane {
         centreSpot.setStrokeWidth(6);
 
         bindMarkings();
+
+        trailCanvas.widthProperty().bind(widthProperty());
+        trailCanvas.heightProperty().bind(heightProperty());
+        trailCanvas.setMouseTransparent(true);
+        getChildren().add(trailCanvas);
+    }
+
+    /**
+     * Sets the coordinates of the pitch in the match data so trails can be scaled to the pitch
+     *
+     * @param x         X coordinate where the pitch starts
+     * @param y         Y coordinate where the pitch starts
+     * @param width     Width of the pitch
+     * @param height    Height of the pitch
+     */
+    public void setPitchBounds(int x, int y, int width, int height){
+        pitchX = x;
+        pitchY = y;
+        pitchWidth = Math.max(1, width);
+        pitchHeight = Math.max(1, height);
+    }
+
+    /**
+     * Draws each entity's movement over a period leading up to a time in the match as a polyline, replacing the
+     * trails drawn before
+     *
+     * @param trails        Recent positions of the entities
+     * @param matchTime     Time in the match the trails lead up to, in milliseconds
+     * @param trailLength   Length of the trails in milliseconds, or 0 to draw no trails
+     */
+    public void drawTrails(TrailHistory trails, int matchTime, int trailLength){
+        GraphicsContext graphics = trailCanvas.getGraphicsContext2D();
+        graphics.clearRect(0, 0, trailCanvas.getWidth(), trailCanvas.getHeight());
+        if(trailLength <= 0) return;
+
+        double scaleX = trailCanvas.getWidth() / pitchWidth;
+        double scaleY = trailCanvas.getHeight() / pitchHeight;
+        graphics.setLineWidth(TRAIL_WIDTH);
+
+        for(int entity = 0; entity < trails.getNumberOfEntities(); entity++){
+            int size = trails.size(entity);
+            if(size < 2 || trails.getColor(entity) == null) continue;
+
+            // Find the oldest position within the length of the trail
+            int first = size - 1;
+            while(first > 0 && matchTime - trails.getTime(entity, first - 1) <= trailLength){
+                first--;
+            }
+            int count = size - first;
+            if(count < 2) continue;
+
+            for(int position = 0; position < count; position++){
+                trailX[position] = (trails.getX(entity, first + position) - pitchX) * scaleX;
+                trailY[position] = (trails.getY(entity, first + position) - pitchY) * scaleY;
+            }
+
+            graphics.setStroke(trails.getColor(entity));
+            for(int band = 0; band < TRAIL_FADE_BANDS; band++){
+                int bandStart = count * band / TRAIL_FADE_BANDS;
+                // Bands share their end points so the trail has no gaps
+                int bandEnd = Math.min(count, count * (band + 1) / TRAIL_FADE_BANDS + 1);
+                if(bandEnd - bandStart < 2) continue;
+                graphics.setGlobalAlpha(TRAIL_OPACITY * (band + 1) / TRAIL_FADE_BANDS);
+                strokeTrail(graphics, bandStart, bandEnd - bandStart);
+            }
+        }
+        graphics.setGlobalAlpha(1);
+    }
+
+    /**
+     * Strokes part of the trail in the reusable arrays as one polyline
+     *
+     * @param graphics  Graphics context of the trail canvas
+     * @param offset    Index of the first point
+     * @param count     Number of points
+     */
+    private void strokeTrail(GraphicsContext graphics, int offset, int count){
+        graphics.beginPath();
+        graphics.moveTo(trailX[offset], trailY[offset]);
+        for(int point = offset + 1; point < offset + count; point++){
+            graphics.lineTo(trailX[point], trailY[point]);
+        }
+        graphics.stroke();
     }
 
     public void drawCorner(Arc corner, StackPane pitchContainer, Pos pos, double x, double y){
@@ -1,15 +1,16 @@
 package football.visualiser.view;
 
 import football.visualiser.SystemData;
+import football.visualiser.models.HeatMap;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.*;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
-import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Text;
 
 import java.io.IOException;
@@ -25,11 +26,15 @@ public class PlayerCard {
     private Text playerIDText;
     private Circle circle;
     private Button perfButton;
+    private Button teamHeatMapButton;
     private Pane heatMapPane;
+    private ImageView heatMapView = new ImageView();
     private int playerID;
     private double width;
     private double height;
-    private double heatMapWidth = 400;
+    private int heatMapWidth = 400;
+    private HeatMapRenderer heatMapRenderer = new HeatMapRenderer(heatMapWidth, 1.0, true);
+    private boolean showingTeamHeatMap = false;
     private SystemData.Team team;
 
     public PlayerCard() throws IOException{
@@ -42,9 +47,11 @@ public class PlayerCard {
         playerIDText = (Text) playerCardNode.lookup("#playerID");
         circle = (Circle) playerCardNode.lookup("#circle");
         perfButton = (Button) playerCardNode.lookup("#perfButton");
+        teamHeatMapButton = (Button) playerCardNode.lookup("#teamHeatMapButton");
         heatMapPane = (Pane) playerCardNode.lookup("#heatMap");
         heatMapPane.setBackground(new Background(
                 new BackgroundFill(Color.hsb(25, 0.9, 0.9), CornerRadii.EMPTY, Insets.EMPTY)));
+        heatMapPane.getChildren().add(heatMapView);
         width = 418;
         height = 480;
     }
@@ -57,6 +64,14 @@ public class PlayerCard {
         return perfButton;
     }
 
+    public Button getTeamHeatMapButton() {
+        return teamHeatMapButton;
+    }
+
+    public boolean isShowingTeamHeatMap() {
+        return showingTeamHeatMap;
+    }
+
     public Node getPlayerCardNode(){
         return playerCardNode;
     }
@@ -92,46 +107,39 @@ public class PlayerCard {
     }
 
     /**
-     * Draws the graphic for the heat map on the player card
+     * Shows the heat map of the player on the card
+     *
+     * @param heatMap   Heat map of the player
+     */
+    public void drawPlayerHeatMap(HeatMap heatMap){
+        showingTeamHeatMap = false;
+        teamHeatMapButton.setText("Team");
+        drawHeatMap("player " + playerID, heatMap);
+    }
+
+    /**
+     * Shows the heat map of the player's team on the card
+     *
+     * @param heatMap   Heat map combining every player in the team
+     */
+    public void drawTeamHeatMap(HeatMap heatMap){
+        showingTeamHeatMap = true;
+        teamHeatMapButton.setText("Player");
+        drawHeatMap("team " + team, heatMap);
+    }
+
+    /**
+     * Draws the graphic for the heat map on the player card. The image is drawn a pixel at a time and kept for the
+     * period the heat map covers, so clicking the same player again shows it straight away
      *
      * Author: Oscar Mason
      *
+     * @param name      Name of whose heat map it is
      * @param heatMap   Heat map to draw
      */
-    public void drawHeapMap(int[][] heatMap){
-        double sideLength = (heatMapWidth) / heatMap.length;
-        int hueRange = 80;
-        int minHue = 25;
-        int hue;
-        double transparency = 1.0;
-        Color color;
-        int min = 1;
-        int max = 0;
-
-        // Finds the largest value in the heat map to prevent the min and max hue from overflowing
-        for(int c = 0; c < heatMap.length; c++) {
-            for (int r = 0; r < heatMap[c].length; r++) {
-                if(heatMap[c][r] > max) max = heatMap[c][r];
-            }
-        }
-
-        for(int r = 0; r < heatMap.length; r++) {
-            for (int c = 0; c < heatMap[c].length; c++) {
-                Rectangle rectangle = new Rectangle(sideLength + 1, sideLength + 1);
-                rectangle.setTranslateX(sideLength * r);
-                rectangle.setTranslateY(sideLength * c);
-
-                // Calculates the hue based on the value in the heat map array
-                hue = (hueRange + minHue) - (int) ((((double) heatMap[r][c] - min)
-                        /(double) (max-min)) * hueRange + minHue);
-
-                color = Color.hsb(hue, 0.8, 0.9, transparency);
-
-                rectangle.setFill(color);
-
-                heatMapPane.getChildren().add(rectangle);
-            }
-        }
+    private void drawHeatMap(String name, HeatMap heatMap){
+        String key = name + " " + heatMap.getStartTime() + "-" + heatMap.getEndTime();
+        heatMapView.setImage(heatMapRenderer.getImage(key, heatMap.getHeatMap()));
     }
 
     public SystemData.Team getPlayerTeam() {
@@ -0,0 +1,270 @@
+package football.visualiser.view;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * <h1>Position Buffer</h1>
+ * Hands frames of entity positions from the playback thread to the JavaFX thread without locking, using three
+ * frames. The playback thread fills its back frame and publishes it with a single atomic swap, and the JavaFX
+ * thread swaps out the newest published frame once per pulse. If the JavaFX thread falls behind, frames it has
+ * not picked up are replaced by newer ones and counted as dropped rather than queued.
+ *
+ * Each frame holds the positions of a frame of the match at or before the time on the playback clock and of a
+ * later frame the clock is heading towards, along with where the clock was when the frame was published and how fast it was running. The
+ * JavaFX thread can then work out the time on the clock at each pulse and draw the entities between the two
+ * frames, however long ago the frame was published and however fast the match is played.
+ *
+ * Entities are identified by their index, so the number of entities must be set before playback starts
+ */
+public class PositionBuffer {
+
+    /**
+     * A frame of positions. A frame is only ever used by one thread at a time
+     */
+    public static class Frame {
+        private final int[] x;
+        private final int[] y;
+        private final boolean[] visible;
+        private final int[] nextX;
+        private final int[] nextY;
+        private final boolean[] nextVisible;
+        private int matchTime;
+        private int nextMatchTime;
+        private double clockTime;
+        private long clockNanos;
+        private double clockRate;
+        private long publishTime;
+        private boolean fresh;
+
+        private Frame(int numberOfEntities){
+            x = new int[numberOfEntities];
+            y = new int[numberOfEntities];
+            visible = new boolean[numberOfEntities];
+            nextX = new int[numberOfEntities];
+            nextY = new int[numberOfEntities];
+            nextVisible = new boolean[numberOfEntities];
+        }
+
+        public int getX(int index){
+            return x[index];
+        }
+
+        public int getY(int index){
+            return y[index];
+        }
+
+        public boolean isVisible(int index){
+            return visible[index];
+        }
+
+        /**
+         * @return  Time in the match the positions are from, in milliseconds
+         */
+        public int getMatchTime(){
+            return matchTime;
+        }
+
+        /**
+         * @return  Time in the match of the next positions, or the time of this frame if they are not moved to
+         */
+        public int getNextMatchTime(){
+            return nextMatchTime;
+        }
+
+        /**
+         * @param now   System time in nanoseconds
+         * @return      Time on the playback clock in milliseconds, in the same time stamps as the frames
+         */
+        public double getClockTime(long now){
+            return clockTime + (now - clockNanos) / 1000000.0 * clockRate;
+        }
+
+        /**
+         * @param now   System time in nanoseconds
+         * @return      How far the playback clock is from this frame to the next, from 0 at this frame up to 1
+         *              at the next
+         */
+        public double getFraction(long now){
+            int gap = nextMatchTime - matchTime;
+            if(gap <= 0) return 0;
+            return Math.max(0, Math.min(1, (getClockTime(now) - matchTime) / gap));
+        }
+
+        /**
+         * @param now   System time in nanoseconds
+         * @return      True if the entities are still moving between the two frames as the clock runs
+         */
+        public boolean isMoving(long now){
+            if(nextMatchTime <= matchTime) return false;
+            double fraction = getFraction(now);
+            return clockRate > 0 ? fraction < 1 : clockRate < 0 && fraction > 0;
+        }
+
+        /**
+         * @param index     Index of the entity
+         * @param fraction  How far the clock is from this frame to the next, from {@link #getFraction(long)}
+         * @return          X position of the entity at that point, or its position in this frame if it is not in
+         *                  the next
+         */
+        public double getX(int index, double fraction){
+            return nextVisible[index] ? x[index] + (nextX[index] - x[index]) * fraction : x[index];
+        }
+
+        public double getY(int index, double fraction){
+            return nextVisible[index] ? y[index] + (nextY[index] - y[index]) * fraction : y[index];
+        }
+    }
+
+    private final AtomicReference<Frame> ready;
+    // Only used by the playback thread
+    private Frame back;
+    // Only used by the JavaFX thread
+    private Frame front;
+
+    private volatile long publishedFrames = 0;
+    private volatile long droppedFrames = 0;
+    private volatile long drawnFrames = 0;
+    private volatile long lastLatency = 0;
+    private volatile long maximumLatency = 0;
+    private volatile long totalLatency = 0;
+
+    /**
+     * @param numberOfEntities  Number of entities in each frame
+     */
+    public PositionBuffer(int numberOfEntities){
+        back = new Frame(numberOfEntities);
+        front = new Frame(numberOfEntities);
+        ready = new AtomicReference<>(new Frame(numberOfEntities));
+    }
+
+    /**
+     * Sets the position of an entity in the frame being written. Called from the playback thread
+     *
+     * @param index     Index of the entity
+     * @param x         X position of the entity
+     * @param y         Y position of the entity
+     */
+    public void write(int index, int x, int y){
+        back.x[index] = x;
+        back.y[index] = y;
+        back.visible[index] = true;
+    }
+
+    /**
+     * Sets the position of an entity in the frame after the one being written. Called from the playback thread
+     *
+     * @param index     Index of the entity
+     * @param x         X position of the entity
+     * @param y         Y position of the entity
+     */
+    public void writeNext(int index, int x, int y){
+        back.nextX[index] = x;
+        back.nextY[index] = y;
+        back.nextVisible[index] = true;
+    }
+
+    /**
+     * Publishes the frame being written, to be drawn where it is without moving towards another frame. Called
+     * from the playback thread
+     *
+     * @param matchTime     Time in the match the positions are from, in milliseconds
+     */
+    public void publish(int matchTime){
+        publish(matchTime, matchTime, matchTime, System.nanoTime(), 0);
+    }
+
+    /**
+     * Publishes the frame being written and starts a new one in which no entity is visible until it is written.
+     * Called from the playback thread
+     *
+     * @param matchTime         Time in the match the positions are from, in milliseconds
+     * @param nextMatchTime     Time in the match of the positions written with {@link #writeNext(int, int, int)}
+     * @param clockTime         Time on the playback clock when the frame was published, in milliseconds
+     * @param clockNanos        System time in nanoseconds at which the clock read that time
+     * @param clockRate         Milliseconds of the match played per millisecond, negative when playing
+     *                          backwards and 0 while paused
+     */
+    public void publish(int matchTime, int nextMatchTime, double clockTime, long clockNanos, double clockRate){
+        back.matchTime = matchTime;
+        back.nextMatchTime = nextMatchTime;
+        back.clockTime = clockTime;
+        back.clockNanos = clockNanos;
+        back.clockRate = clockRate;
+        back.publishTime = System.nanoTime();
+        back.fresh = true;
+        Frame previous = ready.getAndSet(back);
+        if(previous.fresh){
+            // The JavaFX thread never picked up the previous frame
+            droppedFrames++;
+        }
+        publishedFrames++;
+
+        back = previous;
+        back.fresh = false;
+        for(int i = 0; i < back.visible.length; i++){
+            back.visible[i] = false;
+            back.nextVisible[i] = false;
+        }
+    }
+
+    /**
+     * Takes the newest published frame, if one has been published since the last call. Called from the
+     * JavaFX thread
+     *
+     * @return  The newest frame, or null if there is no new frame
+     */
+    public Frame take(){
+        if(!ready.get().fresh) return null;
+
+        front = ready.getAndSet(front);
+        front.fresh = false;
+
+        long latency = System.nanoTime() - front.publishTime;
+        lastLatency = latency;
+        totalLatency += latency;
+        if(latency > maximumLatency) maximumLatency = latency;
+        drawnFrames++;
+        return front;
+    }
+
+    /**
+     * @return  The frame last returned by {@link #take()}. Called from the JavaFX thread
+     */
+    public Frame getFront(){
+        return front;
+    }
+
+    public long getPublishedFrameCount(){
+        return publishedFrames;
+    }
+
+    /**
+     * @return  Number of frames replaced by a newer frame before the JavaFX thread picked them up
+     */
+    public long getDroppedFrameCount(){
+        return droppedFrames;
+    }
+
+    public long getDrawnFrameCount(){
+        return drawnFrames;
+    }
+
+    /**
+     * @return  Nanoseconds between the last drawn frame being published and being picked up
+     */
+    public long getLastLatency(){
+        return lastLatency;
+    }
+
+    public long getMaximumLatency(){
+        return maximumLatency;
+    }
+
+    /**
+     * @return  Average nanoseconds between a frame being published and being picked up
+     */
+    public long getAverageLatency(){
+        long drawn = drawnFrames;
+        return drawn == 0 ? 0 : totalLatency / drawn;
+    }
+}
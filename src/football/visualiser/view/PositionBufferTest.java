@@ -0,0 +1,91 @@
+package football.visualiser.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for handing frames of positions from the playback thread to the JavaFX thread
+ */
+public class PositionBufferTest {
+
+    /**
+     * Tests that only the newest frame is taken and older frames which were not taken are counted as dropped
+     */
+    @Test
+    public void newestFrameTaken(){
+        PositionBuffer buffer = new PositionBuffer(2);
+        for(int frame = 1; frame <= 3; frame++){
+            buffer.write(0, frame, frame * 10);
+            buffer.publish(frame * 40);
+        }
+
+        PositionBuffer.Frame frame = buffer.take();
+        assertNotNull(frame);
+        assertEquals(3, frame.getX(0));
+        assertEquals(30, frame.getY(0));
+        assertEquals(120, frame.getMatchTime());
+        assertEquals(2, buffer.getDroppedFrameCount());
+        assertEquals(3, buffer.getPublishedFrameCount());
+        assertNull(buffer.take());
+    }
+
+    /**
+     * Tests that entities not written in a frame are not visible in it
+     */
+    @Test
+    public void unwrittenEntitiesHidden(){
+        PositionBuffer buffer = new PositionBuffer(2);
+        buffer.write(0, 1, 1);
+        buffer.write(1, 2, 2);
+        buffer.publish(0);
+        assertTrue(buffer.take().isVisible(1));
+
+        buffer.write(0, 1, 1);
+        buffer.publish(40);
+        PositionBuffer.Frame frame = buffer.take();
+        assertTrue(frame.isVisible(0));
+        assertFalse(frame.isVisible(1));
+        assertEquals(0, buffer.getDroppedFrameCount());
+        assertEquals(2, buffer.getDrawnFrameCount());
+    }
+
+    /**
+     * Tests that entities are moved between the two frames by how far the playback clock has run between them,
+     * forwards and backwards, and stop at the frame the clock is heading towards
+     */
+    @Test
+    public void interpolatedByClockTime(){
+        PositionBuffer buffer = new PositionBuffer(2);
+        buffer.write(0, 0, 100);
+        buffer.writeNext(0, 400, 200);
+        buffer.write(1, 50, 50);
+        buffer.publish(1000, 1040, 1010, 0, 0.5);
+        PositionBuffer.Frame frame = buffer.take();
+
+        // 20 ms after publishing at half speed the clock reads 1020, half way between the frames
+        double fraction = frame.getFraction(20000000L);
+        assertEquals(0.5, fraction, 0.0001);
+        assertEquals(200, frame.getX(0, fraction), 0.0001);
+        assertEquals(150, frame.getY(0, fraction), 0.0001);
+        assertEquals(50, frame.getX(1, fraction), 0.0001);
+        assertTrue(frame.isMoving(20000000L));
+        assertEquals(1, frame.getFraction(100000000L), 0.0001);
+        assertFalse(frame.isMoving(100000000L));
+
+        buffer.write(0, 0, 100);
+        buffer.writeNext(0, 400, 200);
+        buffer.publish(1000, 1040, 1030, 0, -1);
+        frame = buffer.take();
+        assertEquals(0.25, frame.getFraction(20000000L), 0.0001);
+        assertTrue(frame.isMoving(20000000L));
+        assertEquals(0, frame.getFraction(40000000L), 0.0001);
+        assertFalse(frame.isMoving(40000000L));
+
+        buffer.write(0, 0, 100);
+        buffer.publish(1000);
+        frame = buffer.take();
+        assertEquals(0, frame.getFraction(System.nanoTime()), 0.0001);
+        assertFalse(frame.isMoving(System.nanoTime()));
+    }
+}
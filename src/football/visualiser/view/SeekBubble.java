@@ -1,10 +1,14 @@
 package football.visualiser.view;
 
 import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
 import javafx.scene.layout.Background;
 import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
@@ -12,7 +16,7 @@ import javafx.scene.text.Text;
 /**
  * <h1>Seek Time</h1>
  * SeekBubble is a graphical object used for displaying the time/highlight the user has move the slider to
- * in the seek bar
+ * in the seek bar, along with a preview of the pitch at that time when one is available
  *
  * @author Oscar Mason
  */
@@ -22,6 +26,7 @@ public class SeekBubble extends StackPane {
     private int fontSize = 14;
     private Text timeText;
     private Color backgroundColor = Color.rgb(40, 40, 40, 0.7);
+    private ImageView thumbnailView = new ImageView();
 
     public SeekBubble(){
         setPrefHeight(30);
@@ -34,7 +39,28 @@ public class SeekBubble extends StackPane {
         timeText.setFill(fontColor);
         timeText.setFont(new Font(fontFamily, fontSize));
         setPadding(new Insets(0, 5, 0, 5));
-        getChildren().add(timeText);
+        VBox content = new VBox(2, thumbnailView, timeText);
+        content.setAlignment(Pos.CENTER);
+        getChildren().add(content);
+        setThumbnail(null);
+    }
+
+    /**
+     * Shows a preview of the pitch above the time, resizing the bubble to fit
+     *
+     * @param thumbnail     Preview of the pitch, or null to show only the time
+     */
+    public void setThumbnail(Image thumbnail){
+        thumbnailView.setImage(thumbnail);
+        thumbnailView.setVisible(thumbnail != null);
+        thumbnailView.setManaged(thumbnail != null);
+        if(thumbnail == null){
+            setPrefHeight(30);
+            setPrefWidth(50);
+        }else{
+            setPrefHeight(thumbnail.getHeight() + 30);
+            setPrefWidth(thumbnail.getWidth() + 10);
+        }
     }
 
     /**
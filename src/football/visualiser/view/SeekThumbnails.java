@@ -0,0 +1,142 @@
+package football.visualiser.view;
+
+import football.visualiser.SystemData.Team;
+import football.visualiser.models.PlaybackTrack;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <h1>Seek Thumbnails</h1>
+ * Draws small previews of the pitch showing where the players and the football were at a time in the match, for
+ * when the user hovers over the seek bar. Positions come from the playback track held in memory, so no thumbnail
+ * reads the match data file.
+ *
+ * Thumbnails are drawn straight into an array of pixels rather than through the scene graph, which takes well
+ * under a millisecond, and the most recently used thumbnails are kept so that moving back and forth over the seek
+ * bar does not draw them again. Thumbnails are shared between nearby times, one per period
+ */
+public class SeekThumbnails {
+    public static final int WIDTH = 160;
+    // Times within the same period share a thumbnail
+    private static final int PERIOD = 500;
+    private static final int CACHE_SIZE = 16;
+    private static final int PLAYER_RADIUS = 3;
+    private static final int FOOTBALL_RADIUS = 2;
+
+    private static final int GRASS_COLOR = 0xFF00AA32;
+    private static final int LINE_COLOR = 0xFFFFFFFF;
+    private static final int RED_TEAM_COLOR = 0xFF800000;
+    private static final int BLUE_TEAM_COLOR = 0xFF0000FF;
+    private static final int FOOTBALL_COLOR = 0xFFFFFFFF;
+
+    private final PlaybackTrack playbackTrack;
+    private final int[] playerColors;
+    private final int pitchX;
+    private final int pitchY;
+    private final int pitchWidth;
+    private final int pitchHeight;
+    private final int height;
+    private final int[] pixels;
+
+    private final LinkedHashMap<Integer, Image> cache = new LinkedHashMap<Integer, Image>(CACHE_SIZE, 0.75f, true){
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Image> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    /**
+     * @param playbackTrack     Positions of the players and the football throughout the match
+     * @param teams             Team of each player, keyed by player ID
+     * @param pitchX            X coordinate where the pitch starts
+     * @param pitchY            Y coordinate where the pitch starts
+     * @param pitchWidth        Width of the pitch
+     * @param pitchHeight       Height of the pitch
+     */
+    public SeekThumbnails(PlaybackTrack playbackTrack, Map<Integer, Team> teams,
+                          int pitchX, int pitchY, int pitchWidth, int pitchHeight){
+        this.playbackTrack = playbackTrack;
+        this.pitchX = pitchX;
+        this.pitchY = pitchY;
+        this.pitchWidth = Math.max(1, pitchWidth);
+        this.pitchHeight = Math.max(1, pitchHeight);
+        this.height = Math.max(1, (int) ((long) WIDTH * this.pitchHeight / this.pitchWidth));
+        this.pixels = new int[WIDTH * height];
+
+        playerColors = new int[playbackTrack.getNumberOfPlayers()];
+        for(int player = 0; player < playerColors.length; player++){
+            playerColors[player] = teams.get(playbackTrack.getPlayerID(player)) == Team.RED ?
+                    RED_TEAM_COLOR : BLUE_TEAM_COLOR;
+        }
+    }
+
+    /**
+     * @param timeStamp     Time in the match in milliseconds
+     * @return              Preview of the pitch at the time, or null if there are no positions
+     */
+    public Image getThumbnail(int timeStamp){
+        if(playbackTrack.size() == 0) return null;
+        int period = Math.floorDiv(timeStamp, PERIOD);
+        Image thumbnail = cache.get(period);
+        if(thumbnail == null){
+            draw(playbackTrack.getFrameAt(period * PERIOD));
+            WritableImage image = new WritableImage(WIDTH, height);
+            image.getPixelWriter().setPixels(0, 0, WIDTH, height, PixelFormat.getIntArgbInstance(), pixels, 0, WIDTH);
+            thumbnail = image;
+            cache.put(period, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    public int getHeight(){
+        return height;
+    }
+
+    /**
+     * Draws a frame of the playback track into the pixel array
+     *
+     * @param frame     Index of the frame in the playback track
+     * @return          The pixels, in ARGB, a row at a time
+     */
+    int[] draw(int frame){
+        Arrays.fill(pixels, GRASS_COLOR);
+
+        // Touch lines, goal lines and the halfway line
+        for(int x = 0; x < WIDTH; x++){
+            pixels[x] = LINE_COLOR;
+            pixels[(height - 1) * WIDTH + x] = LINE_COLOR;
+        }
+        for(int y = 0; y < height; y++){
+            pixels[y * WIDTH] = LINE_COLOR;
+            pixels[y * WIDTH + WIDTH - 1] = LINE_COLOR;
+            pixels[y * WIDTH + WIDTH / 2] = LINE_COLOR;
+        }
+
+        for(int player = 0; player < playerColors.length; player++){
+            drawDot(playbackTrack.getPlayerX(frame, player), playbackTrack.getPlayerY(frame, player),
+                    PLAYER_RADIUS, playerColors[player]);
+        }
+        drawDot(playbackTrack.getFootballX(frame), playbackTrack.getFootballY(frame), FOOTBALL_RADIUS,
+                FOOTBALL_COLOR);
+        return pixels;
+    }
+
+    private void drawDot(int x, int y, int radius, int color){
+        int centreX = (int) ((long) (x - pitchX) * WIDTH / pitchWidth);
+        int centreY = (int) ((long) (y - pitchY) * height / pitchHeight);
+        for(int dotY = Math.max(0, centreY - radius); dotY <= Math.min(height - 1, centreY + radius); dotY++){
+            for(int dotX = Math.max(0, centreX - radius); dotX <= Math.min(WIDTH - 1, centreX + radius); dotX++){
+                int distanceX = dotX - centreX;
+                int distanceY = dotY - centreY;
+                if(distanceX * distanceX + distanceY * distanceY <= radius * radius){
+                    pixels[dotY * WIDTH + dotX] = color;
+                }
+            }
+        }
+    }
+}
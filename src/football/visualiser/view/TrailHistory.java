@@ -0,0 +1,125 @@
+package football.visualiser.view;
+
+import javafx.scene.paint.Color;
+
+/**
+ * <h1>Trail History</h1>
+ * Keeps the recent positions of every entity so that the path each has taken can be drawn behind it. Each entity
+ * has a fixed size ring buffer of positions and times in the match, held in flat primitive arrays, so recording a
+ * position never allocates. Positions are recorded from the frames handed over by the playback thread and are
+ * used only on the JavaFX thread.
+ *
+ * Positions are in match data coordinates and times in milliseconds
+ */
+public class TrailHistory {
+    public static final int MAX_TRAIL_SECONDS = 30;
+    public static final int FRAMES_PER_SECOND = 25;
+    public static final int CAPACITY = MAX_TRAIL_SECONDS * FRAMES_PER_SECOND;
+
+    private final int[] x;
+    private final int[] y;
+    private final int[] times;
+    // Index of the oldest position of each entity and how many positions it has
+    private final int[] start;
+    private final int[] size;
+    private final Color[] colors;
+
+    /**
+     * @param numberOfEntities  Number of entities to keep positions for
+     */
+    public TrailHistory(int numberOfEntities){
+        x = new int[numberOfEntities * CAPACITY];
+        y = new int[numberOfEntities * CAPACITY];
+        times = new int[numberOfEntities * CAPACITY];
+        start = new int[numberOfEntities];
+        size = new int[numberOfEntities];
+        colors = new Color[numberOfEntities];
+    }
+
+    public int getNumberOfEntities(){
+        return start.length;
+    }
+
+    /**
+     * @param entity    Index of the entity
+     * @param color     Colour to draw the entity's trail in
+     */
+    public void setColor(int entity, Color color){
+        colors[entity] = color;
+    }
+
+    public Color getColor(int entity){
+        return colors[entity];
+    }
+
+    /**
+     * Records the position of an entity. Positions at the same time as the last are ignored, and a position
+     * earlier than the last, such as after the match is played backwards, starts a new trail. Once the buffer is
+     * full the oldest position is replaced
+     *
+     * @param entity    Index of the entity
+     * @param time      Time in the match in milliseconds
+     * @param positionX X position of the entity
+     * @param positionY Y position of the entity
+     */
+    public void add(int entity, int time, int positionX, int positionY){
+        int base = entity * CAPACITY;
+        if(size[entity] > 0){
+            int lastTime = times[base + (start[entity] + size[entity] - 1) % CAPACITY];
+            if(time == lastTime) return;
+            if(time < lastTime) size[entity] = 0;
+        }
+
+        int index;
+        if(size[entity] < CAPACITY){
+            index = (start[entity] + size[entity]) % CAPACITY;
+            size[entity]++;
+        }else{
+            index = start[entity];
+            start[entity] = (start[entity] + 1) % CAPACITY;
+        }
+        x[base + index] = positionX;
+        y[base + index] = positionY;
+        times[base + index] = time;
+    }
+
+    /**
+     * Removes the positions of an entity, such as when the football goes out of play
+     *
+     * @param entity    Index of the entity
+     */
+    public void clear(int entity){
+        size[entity] = 0;
+    }
+
+    public void clear(){
+        for(int entity = 0; entity < size.length; entity++){
+            size[entity] = 0;
+        }
+    }
+
+    /**
+     * @param entity    Index of the entity
+     * @return          Number of positions kept for the entity
+     */
+    public int size(int entity){
+        return size[entity];
+    }
+
+    /**
+     * @param entity    Index of the entity
+     * @param position  Index of the position, from 0 for the oldest to size - 1 for the newest
+     * @return          X position
+     */
+    public int getX(int entity, int position){
+        return x[entity * CAPACITY + (start[entity] + position) % CAPACITY];
+    }
+
+    public int getY(int entity, int position){
+        return y[entity * CAPACITY + (start[entity] + position) % CAPACITY];
+    }
+
+    public int getTime(int entity, int position){
+        return times[entity * CAPACITY + (start[entity] + position) % CAPACITY];
+    }
+}
@@ -0,0 +1,46 @@
+package football.visualiser.view;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for keeping the recent positions of entities in ring buffers
+ */
+public class TrailHistoryTest {
+
+    /**
+     * Tests that once the buffer is full the oldest positions are replaced, keeping them in order
+     */
+    @Test
+    public void oldestPositionsReplaced(){
+        TrailHistory trails = new TrailHistory(2);
+        int positions = TrailHistory.CAPACITY + 10;
+        for(int i = 0; i < positions; i++){
+            trails.add(1, i * 40, i, -i);
+        }
+
+        assertEquals(TrailHistory.CAPACITY, trails.size(1));
+        assertEquals(0, trails.size(0));
+        assertEquals(10, trails.getX(1, 0));
+        assertEquals(400, trails.getTime(1, 0));
+        assertEquals(positions - 1, trails.getX(1, TrailHistory.CAPACITY - 1));
+        assertEquals(-(positions - 1), trails.getY(1, TrailHistory.CAPACITY - 1));
+    }
+
+    /**
+     * Tests that repeated times are ignored and going back in time starts a new trail
+     */
+    @Test
+    public void trailRestartsWhenTimeGoesBack(){
+        TrailHistory trails = new TrailHistory(1);
+        trails.add(0, 1000, 1, 1);
+        trails.add(0, 1000, 2, 2);
+        trails.add(0, 1040, 3, 3);
+        assertEquals(2, trails.size(0));
+
+        trails.add(0, 500, 4, 4);
+        assertEquals(1, trails.size(0));
+        assertEquals(4, trails.getX(0, 0));
+    }
+}